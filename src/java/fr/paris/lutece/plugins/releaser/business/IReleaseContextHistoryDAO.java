@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import java.util.List;
+
+/**
+ * IReleaseContextHistoryDAO Interface
+ */
+public interface IReleaseContextHistoryDAO
+{
+    /**
+     * Insert a new record in the table.
+     * 
+     * @param history
+     *            instance of the ReleaseContextHistory object to insert
+     * @param log
+     *            the compressed log of the release
+     * @param plugin
+     *            the Plugin
+     */
+    void insert( ReleaseContextHistory history, byte [ ] log, Plugin plugin );
+
+    /**
+     * Delete a record from the table
+     * 
+     * @param nIdContext
+     *            The identifier of the release context
+     * @param plugin
+     *            the Plugin
+     */
+    void delete( int nIdContext, Plugin plugin );
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Finders
+
+    /**
+     * Load the summary of a release context
+     * 
+     * @param nIdContext
+     *            The identifier of the release context
+     * @param plugin
+     *            the Plugin
+     * @return The summary of the release context
+     */
+    ReleaseContextHistory load( int nIdContext, Plugin plugin );
+
+    /**
+     * Load the compressed log of a release context
+     * 
+     * @param nIdContext
+     *            The identifier of the release context
+     * @param plugin
+     *            the Plugin
+     * @return The compressed log or null if the release context does not exist
+     */
+    byte [ ] loadLog( int nIdContext, Plugin plugin );
+
+    /**
+     * Count the releases of an artifact
+     * 
+     * @param strArtifactId
+     *            The artifact id
+     * @param plugin
+     *            the Plugin
+     * @return The number of releases of the artifact
+     */
+    int countByArtifactId( String strArtifactId, Plugin plugin );
+
+    /**
+     * Load a page of the releases of an artifact, the most recent first
+     * 
+     * @param strArtifactId
+     *            The artifact id
+     * @param nIndex
+     *            The index of the first release to load
+     * @param nMaxItems
+     *            The maximum number of releases to load
+     * @param plugin
+     *            the Plugin
+     * @return The releases of the page
+     */
+    List<ReleaseContextHistory> selectByArtifactId( String strArtifactId, int nIndex, int nMaxItems, Plugin plugin );
+}
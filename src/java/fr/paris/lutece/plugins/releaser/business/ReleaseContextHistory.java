@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.business;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * This is the business class for the object ReleaseContextHistory : the summary of a finished release context. The log of the release is stored apart and
+ * loaded on demand.
+ */
+public class ReleaseContextHistory implements Serializable
+{
+    private static final long serialVersionUID = -3079342657316580942L;
+
+    private int _nIdContext;
+    private String _strArtifactId;
+    private boolean _bSite;
+    private String _strVersion;
+    private String _strTargetVersion;
+    private int _nStatus;
+    private int _nErrorType;
+    private Date _dateBegin;
+    private Date _dateEnd;
+    private String _strError;
+
+    /**
+     * Returns the IdContext
+     * 
+     * @return The IdContext
+     */
+    public int getIdContext( )
+    {
+        return _nIdContext;
+    }
+
+    /**
+     * Sets the IdContext
+     * 
+     * @param nIdContext
+     *            The IdContext
+     */
+    public void setIdContext( int nIdContext )
+    {
+        _nIdContext = nIdContext;
+    }
+
+    /**
+     * Returns the ArtifactId of the released component or site
+     * 
+     * @return The ArtifactId
+     */
+    public String getArtifactId( )
+    {
+        return _strArtifactId;
+    }
+
+    /**
+     * Sets the ArtifactId of the released component or site
+     * 
+     * @param strArtifactId
+     *            The ArtifactId
+     */
+    public void setArtifactId( String strArtifactId )
+    {
+        _strArtifactId = strArtifactId;
+    }
+
+    /**
+     * Returns true if the release is the release of a site
+     * 
+     * @return true if the release is the release of a site
+     */
+    public boolean isSite( )
+    {
+        return _bSite;
+    }
+
+    /**
+     * Sets the Site flag
+     * 
+     * @param bSite
+     *            true if the release is the release of a site
+     */
+    public void setSite( boolean bSite )
+    {
+        _bSite = bSite;
+    }
+
+    /**
+     * Returns the version before the release
+     * 
+     * @return The Version
+     */
+    public String getVersion( )
+    {
+        return _strVersion;
+    }
+
+    /**
+     * Sets the version before the release
+     * 
+     * @param strVersion
+     *            The Version
+     */
+    public void setVersion( String strVersion )
+    {
+        _strVersion = strVersion;
+    }
+
+    /**
+     * Returns the released version
+     * 
+     * @return The TargetVersion
+     */
+    public String getTargetVersion( )
+    {
+        return _strTargetVersion;
+    }
+
+    /**
+     * Sets the released version
+     * 
+     * @param strTargetVersion
+     *            The TargetVersion
+     */
+    public void setTargetVersion( String strTargetVersion )
+    {
+        _strTargetVersion = strTargetVersion;
+    }
+
+    /**
+     * Returns the Status
+     * 
+     * @return The Status
+     */
+    public int getStatus( )
+    {
+        return _nStatus;
+    }
+
+    /**
+     * Sets the Status
+     * 
+     * @param nStatus
+     *            The Status
+     */
+    public void setStatus( int nStatus )
+    {
+        _nStatus = nStatus;
+    }
+
+    /**
+     * Returns the ErrorType
+     * 
+     * @return The ErrorType
+     */
+    public int getErrorType( )
+    {
+        return _nErrorType;
+    }
+
+    /**
+     * Sets the ErrorType
+     * 
+     * @param nErrorType
+     *            The ErrorType
+     */
+    public void setErrorType( int nErrorType )
+    {
+        _nErrorType = nErrorType;
+    }
+
+    /**
+     * Returns the DateBegin
+     * 
+     * @return The DateBegin
+     */
+    public Date getDateBegin( )
+    {
+        return _dateBegin;
+    }
+
+    /**
+     * Sets the DateBegin
+     * 
+     * @param dateBegin
+     *            The DateBegin
+     */
+    public void setDateBegin( Date dateBegin )
+    {
+        _dateBegin = dateBegin;
+    }
+
+    /**
+     * Returns the DateEnd
+     * 
+     * @return The DateEnd
+     */
+    public Date getDateEnd( )
+    {
+        return _dateEnd;
+    }
+
+    /**
+     * Sets the DateEnd
+     * 
+     * @param dateEnd
+     *            The DateEnd
+     */
+    public void setDateEnd( Date dateEnd )
+    {
+        _dateEnd = dateEnd;
+    }
+
+    /**
+     * Returns the Error
+     * 
+     * @return The Error
+     */
+    public String getError( )
+    {
+        return _strError;
+    }
+
+    /**
+     * Sets the Error
+     * 
+     * @param strError
+     *            The Error
+     */
+    public void setError( String strError )
+    {
+        _strError = strError;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This class provides Data Access methods for ReleaseContextHistory objects
+ */
+public final class ReleaseContextHistoryDAO implements IReleaseContextHistoryDAO
+{
+    // Constants
+    private static final String SQL_QUERY_INSERT = "INSERT INTO releaser_release_history ( id_context, artifact_id, is_site, version, target_version, status, error_type, date_begin, date_end, error, log_content ) VALUES ( ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? ) ";
+    private static final String SQL_QUERY_DELETE = "DELETE FROM releaser_release_history WHERE id_context = ? ";
+    private static final String SQL_QUERY_SELECT = "SELECT id_context, artifact_id, is_site, version, target_version, status, error_type, date_begin, date_end, error FROM releaser_release_history";
+    private static final String SQL_QUERY_SELECT_BY_ID = SQL_QUERY_SELECT + " WHERE id_context = ?";
+    private static final String SQL_QUERY_SELECT_BY_ARTIFACT = SQL_QUERY_SELECT + " WHERE artifact_id = ? ORDER BY date_begin DESC, id_context DESC LIMIT ? OFFSET ?";
+    private static final String SQL_QUERY_SELECT_LOG = "SELECT log_content FROM releaser_release_history WHERE id_context = ?";
+    private static final String SQL_QUERY_COUNT_BY_ARTIFACT = "SELECT COUNT(*) FROM releaser_release_history WHERE artifact_id = ?";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( ReleaseContextHistory history, byte [ ] log, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin );
+        int nIndex = 1;
+
+        daoUtil.setInt( nIndex++, history.getIdContext( ) );
+        daoUtil.setString( nIndex++, history.getArtifactId( ) );
+        daoUtil.setBoolean( nIndex++, history.isSite( ) );
+        daoUtil.setString( nIndex++, history.getVersion( ) );
+        daoUtil.setString( nIndex++, history.getTargetVersion( ) );
+        daoUtil.setInt( nIndex++, history.getStatus( ) );
+        daoUtil.setInt( nIndex++, history.getErrorType( ) );
+        daoUtil.setTimestamp( nIndex++, toTimestamp( history.getDateBegin( ) ) );
+        daoUtil.setTimestamp( nIndex++, toTimestamp( history.getDateEnd( ) ) );
+        daoUtil.setString( nIndex++, history.getError( ) );
+        daoUtil.setBytes( nIndex++, log );
+
+        daoUtil.executeUpdate( );
+        daoUtil.free( );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void delete( int nIdContext, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE, plugin );
+        daoUtil.setInt( 1, nIdContext );
+        daoUtil.executeUpdate( );
+        daoUtil.free( );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public ReleaseContextHistory load( int nIdContext, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_ID, plugin );
+        daoUtil.setInt( 1, nIdContext );
+
+        List<ReleaseContextHistory> listHistory = selectReleaseContextHistory( daoUtil );
+
+        return listHistory.isEmpty( ) ? null : listHistory.get( 0 );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public byte [ ] loadLog( int nIdContext, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_LOG, plugin );
+        daoUtil.setInt( 1, nIdContext );
+        daoUtil.executeQuery( );
+
+        byte [ ] log = null;
+
+        if ( daoUtil.next( ) )
+        {
+            log = daoUtil.getBytes( 1 );
+        }
+
+        daoUtil.free( );
+        return log;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int countByArtifactId( String strArtifactId, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_COUNT_BY_ARTIFACT, plugin );
+        daoUtil.setString( 1, strArtifactId );
+        daoUtil.executeQuery( );
+
+        int nCount = 0;
+
+        if ( daoUtil.next( ) )
+        {
+            nCount = daoUtil.getInt( 1 );
+        }
+
+        daoUtil.free( );
+        return nCount;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<ReleaseContextHistory> selectByArtifactId( String strArtifactId, int nIndex, int nMaxItems, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_ARTIFACT, plugin );
+        daoUtil.setString( 1, strArtifactId );
+        daoUtil.setInt( 2, nMaxItems );
+        daoUtil.setInt( 3, nIndex );
+
+        return selectReleaseContextHistory( daoUtil );
+    }
+
+    /**
+     * Execute a select query and build the release context summaries
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @return the release context summaries
+     */
+    private List<ReleaseContextHistory> selectReleaseContextHistory( DAOUtil daoUtil )
+    {
+        List<ReleaseContextHistory> listHistory = new ArrayList<ReleaseContextHistory>( );
+        daoUtil.executeQuery( );
+
+        while ( daoUtil.next( ) )
+        {
+            ReleaseContextHistory history = new ReleaseContextHistory( );
+            int nIndex = 1;
+
+            history.setIdContext( daoUtil.getInt( nIndex++ ) );
+            history.setArtifactId( daoUtil.getString( nIndex++ ) );
+            history.setSite( daoUtil.getBoolean( nIndex++ ) );
+            history.setVersion( daoUtil.getString( nIndex++ ) );
+            history.setTargetVersion( daoUtil.getString( nIndex++ ) );
+            history.setStatus( daoUtil.getInt( nIndex++ ) );
+            history.setErrorType( daoUtil.getInt( nIndex++ ) );
+            history.setDateBegin( daoUtil.getTimestamp( nIndex++ ) );
+            history.setDateEnd( daoUtil.getTimestamp( nIndex++ ) );
+            history.setError( daoUtil.getString( nIndex++ ) );
+
+            listHistory.add( history );
+        }
+
+        daoUtil.free( );
+        return listHistory;
+    }
+
+    /**
+     * Convert a date to a SQL timestamp
+     * 
+     * @param date
+     *            the date, may be null
+     * @return the timestamp or null
+     */
+    private static Timestamp toTimestamp( Date date )
+    {
+        return date != null ? new Timestamp( date.getTime( ) ) : null;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.business;
+
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.util.sql.TransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class provides instances management methods (create, find, ...) for ReleaseContextHistory objects. The logs are stored gzip compressed.
+ */
+public final class ReleaseContextHistoryHome
+{
+    // Static variable pointed at the DAO instance
+    private static IReleaseContextHistoryDAO _dao = SpringContextService.getBean( "releaser.releaseContextHistoryDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "releaser" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private ReleaseContextHistoryHome( )
+    {
+    }
+
+    /**
+     * Store the history of a release context, replacing the previous one if the context was already stored
+     * 
+     * @param history
+     *            The summary of the release context
+     * @param strLog
+     *            The log of the release
+     */
+    public static void create( ReleaseContextHistory history, String strLog )
+    {
+        replace( history, compress( strLog ) );
+    }
+
+    /**
+     * Store the history of a release context with its whole log, including the beginning moved to the spill file of
+     * the log
+     * 
+     * @param history
+     *            The summary of the release context
+     * @param log
+     *            The log of the release, may be null
+     */
+    public static void create( ReleaseContextHistory history, ReleaseLog log )
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( );
+
+        try ( Writer writer = new OutputStreamWriter( new GZIPOutputStream( out ), StandardCharsets.UTF_8 ) )
+        {
+            if ( log != null )
+            {
+                log.writeTo( writer );
+            }
+        }
+        catch( IOException e )
+        {
+            throw new AppException( "Unable to compress the release log", e );
+        }
+
+        replace( history, out.toByteArray( ) );
+    }
+
+    /**
+     * Replace the stored history of a release context, in a transaction so that a failed insert keeps the previous
+     * history
+     * 
+     * @param history
+     *            The summary of the release context
+     * @param log
+     *            The compressed log
+     */
+    private static void replace( ReleaseContextHistory history, byte [ ] log )
+    {
+        TransactionManager.beginTransaction( _plugin );
+        try
+        {
+            _dao.delete( history.getIdContext( ), _plugin );
+            _dao.insert( history, log, _plugin );
+            TransactionManager.commitTransaction( _plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw new AppException( "Error storing the history of the release context " + history.getIdContext( ), e );
+        }
+    }
+
+    /**
+     * Remove the history of a release context
+     * 
+     * @param nIdContext
+     *            The release context Id
+     */
+    public static void remove( int nIdContext )
+    {
+        _dao.delete( nIdContext, _plugin );
+    }
+
+    /**
+     * Returns the summary of a release context
+     * 
+     * @param nIdContext
+     *            The release context Id
+     * @return the summary or null if the release context is not stored
+     */
+    public static ReleaseContextHistory findByPrimaryKey( int nIdContext )
+    {
+        return _dao.load( nIdContext, _plugin );
+    }
+
+    /**
+     * Returns the log of a release context
+     * 
+     * @param nIdContext
+     *            The release context Id
+     * @return the log or null if the release context is not stored
+     */
+    public static String findLog( int nIdContext )
+    {
+        return decompress( _dao.loadLog( nIdContext, _plugin ) );
+    }
+
+    /**
+     * Returns the number of releases of an artifact
+     * 
+     * @param strArtifactId
+     *            The artifact id
+     * @return the number of releases
+     */
+    public static int countByArtifactId( String strArtifactId )
+    {
+        return _dao.countByArtifactId( strArtifactId, _plugin );
+    }
+
+    /**
+     * Returns a page of the releases of an artifact, the most recent first
+     * 
+     * @param strArtifactId
+     *            The artifact id
+     * @param nIndex
+     *            The index of the first release of the page
+     * @param nMaxItems
+     *            The size of the page
+     * @return the releases of the page
+     */
+    public static List<ReleaseContextHistory> findByArtifactId( String strArtifactId, int nIndex, int nMaxItems )
+    {
+        return _dao.selectByArtifactId( strArtifactId, nIndex, nMaxItems, _plugin );
+    }
+
+    /**
+     * Gzip a log
+     * 
+     * @param strLog
+     *            the log
+     * @return the compressed log
+     */
+    private static byte [ ] compress( String strLog )
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( );
+
+        try ( Writer writer = new OutputStreamWriter( new GZIPOutputStream( out ), StandardCharsets.UTF_8 ) )
+        {
+            if ( strLog != null )
+            {
+                writer.write( strLog );
+            }
+        }
+        catch( IOException e )
+        {
+            throw new AppException( "Unable to compress the release log", e );
+        }
+
+        return out.toByteArray( );
+    }
+
+    /**
+     * Gunzip a log
+     * 
+     * @param log
+     *            the compressed log
+     * @return the log or null if there is no log
+     */
+    private static String decompress( byte [ ] log )
+    {
+        if ( log == null )
+        {
+            return null;
+        }
+
+        StringBuilder sbLog = new StringBuilder( );
+        char [ ] buffer = new char [ 8192];
+
+        try ( Reader reader = new InputStreamReader( new GZIPInputStream( new ByteArrayInputStream( log ) ), StandardCharsets.UTF_8 ) )
+        {
+            int nRead;
+            while ( ( nRead = reader.read( buffer ) ) != -1 )
+            {
+                sbLog.append( buffer, 0, nRead );
+            }
+        }
+        catch( IOException e )
+        {
+            throw new AppException( "Unable to uncompress the release log", e );
+        }
+
+        return sbLog.toString( );
+    }
+}
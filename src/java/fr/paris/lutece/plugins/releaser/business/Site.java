@@ -37,7 +37,10 @@ import javax.validation.constraints.*;
 import org.hibernate.validator.constraints.*;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is the business class for the object Site
@@ -76,6 +79,7 @@ public class Site implements Serializable
 
     private List<Dependency> _listCurrentDependencies = new ArrayList<>( );
     private List<Component> _listComponents = new ArrayList<>( );
+    private transient Map<String, List<Component>> _mapComponents;
     
     private String _strCurrentVersion;
     private String _strLastReleaseVersion;
@@ -244,14 +248,93 @@ public class Site implements Serializable
         return _listCurrentDependencies;
     }
 
-    public void addComponent( Component component )
+    public synchronized void addComponent( Component component )
     {
         _listComponents.add( component );
+        if ( _mapComponents != null )
+        {
+            indexComponent( component );
+        }
     }
 
-    public List<Component> getComponents( )
+    /**
+     * Returns the first component of the site having the given artifact id
+     * 
+     * @param strArtifactId
+     *            The artifact id
+     * @return The component or null if the site has no component with this artifact id
+     */
+    public Component getComponent( String strArtifactId )
+    {
+        List<Component> listComponents = getComponents( strArtifactId );
+        return listComponents.isEmpty( ) ? null : listComponents.get( 0 );
+    }
+
+    /**
+     * Returns the components of the site having the given artifact id, in the order of the components list. The lookup
+     * uses an index by artifact id built at the first lookup and kept up to date by addComponent and setComponents.
+     * The site is shared between the release threads and the admin session, so the list and its index are only
+     * accessed while holding the lock of the site.
+     * 
+     * @param strArtifactId
+     *            The artifact id
+     * @return The components, empty if the site has no component with this artifact id
+     */
+    public synchronized List<Component> getComponents( String strArtifactId )
+    {
+        if ( _mapComponents == null )
+        {
+            _mapComponents = new HashMap<>( _listComponents.size( ) * 2 );
+            for ( Component component : _listComponents )
+            {
+                indexComponent( component );
+            }
+        }
+        List<Component> listComponents = _mapComponents.get( strArtifactId );
+        return ( listComponents != null ) ? Collections.unmodifiableList( new ArrayList<>( listComponents ) ) : Collections.<Component> emptyList( );
+    }
+
+    /**
+     * Add a component to the index
+     * 
+     * @param component
+     *            The component
+     */
+    private void indexComponent( Component component )
+    {
+        if ( component.getArtifactId( ) != null )
+        {
+            List<Component> listComponents = _mapComponents.get( component.getArtifactId( ) );
+            if ( listComponents == null )
+            {
+                listComponents = new ArrayList<>( 1 );
+                _mapComponents.put( component.getArtifactId( ), listComponents );
+            }
+            listComponents.add( component );
+        }
+    }
+
+    /**
+     * Returns a copy of the components of the site. The list can not be modified : use addComponent or setComponents
+     * so that the index by artifact id stays up to date.
+     * 
+     * @return The components
+     */
+    public synchronized List<Component> getComponents( )
+    {
+        return Collections.unmodifiableList( new ArrayList<>( _listComponents ) );
+    }
+
+    /**
+     * Sets the components of the site
+     * 
+     * @param listComponents
+     *            The components
+     */
+    public synchronized void setComponents( List<Component> listComponents )
     {
-        return _listComponents;
+        _listComponents = new ArrayList<>( listComponents );
+        _mapComponents = null;
     }
 
     /**
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class provides Data Access methods for SiteDependency objects
+ */
+public final class SiteDependencyDAO implements ISiteDependencyDAO
+{
+    // Constants
+    private static final String SQL_QUERY_INSERT = "INSERT INTO releaser_site_dependency ( id_site, artifact_id, group_id, version, type ) VALUES ( ?, ?, ?, ?, ? ) ";
+    private static final String SQL_QUERY_DELETE_BY_SITE = "DELETE FROM releaser_site_dependency WHERE id_site = ? ";
+    private static final String SQL_QUERY_SELECTALL = "SELECT id_site, artifact_id, group_id, version, type FROM releaser_site_dependency";
+    private static final String SQL_QUERY_SELECT_BY_SITE = SQL_QUERY_SELECTALL + " WHERE id_site = ?";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( SiteDependency siteDependency, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin );
+        int nIndex = 1;
+
+        daoUtil.setInt( nIndex++, siteDependency.getIdSite( ) );
+        daoUtil.setString( nIndex++, siteDependency.getArtifactId( ) );
+        daoUtil.setString( nIndex++, siteDependency.getGroupId( ) );
+        daoUtil.setString( nIndex++, siteDependency.getVersion( ) );
+        daoUtil.setString( nIndex++, siteDependency.getType( ) );
+
+        daoUtil.executeUpdate( );
+        daoUtil.free( );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteBySite( int nIdSite, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_BY_SITE, plugin );
+        daoUtil.setInt( 1, nIdSite );
+        daoUtil.executeUpdate( );
+        daoUtil.free( );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<SiteDependency> selectBySite( int nIdSite, Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_SITE, plugin );
+        daoUtil.setInt( 1, nIdSite );
+
+        return selectSiteDependencies( daoUtil );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<SiteDependency> selectSiteDependenciesList( Plugin plugin )
+    {
+        DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL, plugin );
+
+        return selectSiteDependencies( daoUtil );
+    }
+
+    /**
+     * Execute a select query and build the site dependencies
+     * 
+     * @param daoUtil
+     *            the DAOUtil of the query
+     * @return the site dependencies
+     */
+    private List<SiteDependency> selectSiteDependencies( DAOUtil daoUtil )
+    {
+        List<SiteDependency> listSiteDependencies = new ArrayList<SiteDependency>( );
+        daoUtil.executeQuery( );
+
+        while ( daoUtil.next( ) )
+        {
+            SiteDependency siteDependency = new SiteDependency( );
+            int nIndex = 1;
+
+            siteDependency.setIdSite( daoUtil.getInt( nIndex++ ) );
+            siteDependency.setArtifactId( daoUtil.getString( nIndex++ ) );
+            siteDependency.setGroupId( daoUtil.getString( nIndex++ ) );
+            siteDependency.setVersion( daoUtil.getString( nIndex++ ) );
+            siteDependency.setType( daoUtil.getString( nIndex++ ) );
+
+            listSiteDependencies.add( siteDependency );
+        }
+
+        daoUtil.free( );
+        return listSiteDependencies;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.util.sql.TransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class provides instances management methods (create, find, ...) for SiteDependency objects
+ */
+public final class SiteDependencyHome
+{
+    // Static variable pointed at the DAO instance
+    private static ISiteDependencyDAO _dao = SpringContextService.getBean( "releaser.siteDependencyDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "releaser" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private SiteDependencyHome( )
+    {
+    }
+
+    /**
+     * Replace the dependencies stored for a site, in a transaction so that the site never loses its dependencies
+     * 
+     * @param nIdSite
+     *            The site Id
+     * @param listSiteDependencies
+     *            The new dependencies of the site
+     */
+    public static void replaceBySite( int nIdSite, Collection<SiteDependency> listSiteDependencies )
+    {
+        TransactionManager.beginTransaction( _plugin );
+        try
+        {
+            _dao.deleteBySite( nIdSite, _plugin );
+            for ( SiteDependency siteDependency : listSiteDependencies )
+            {
+                _dao.insert( siteDependency, _plugin );
+            }
+            TransactionManager.commitTransaction( _plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw new AppException( "Error replacing the dependencies of the site " + nIdSite, e );
+        }
+    }
+
+    /**
+     * Remove the dependencies of a site
+     * 
+     * @param nIdSite
+     *            The site Id
+     */
+    public static void removeBySite( int nIdSite )
+    {
+        _dao.deleteBySite( nIdSite, _plugin );
+    }
+
+    /**
+     * Returns the dependencies of a site
+     * 
+     * @param nIdSite
+     *            The site Id
+     * @return the list of the dependencies of the site
+     */
+    public static List<SiteDependency> findBySite( int nIdSite )
+    {
+        return _dao.selectBySite( nIdSite, _plugin );
+    }
+
+    /**
+     * Load the dependencies of all the sites
+     * 
+     * @return the list which contains the dependencies of all the sites
+     */
+    public static List<SiteDependency> getSiteDependenciesList( )
+    {
+        return _dao.selectSiteDependenciesList( _plugin );
+    }
+}
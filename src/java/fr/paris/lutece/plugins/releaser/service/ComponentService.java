@@ -37,22 +37,27 @@ package fr.paris.lutece.plugins.releaser.service;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.text.MessageFormat;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import fr.paris.lutece.plugins.releaser.business.Component;
+import fr.paris.lutece.plugins.releaser.business.Dependency;
 import fr.paris.lutece.plugins.releaser.business.ReleaserUser;
 import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
 import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
@@ -61,6 +66,8 @@ import fr.paris.lutece.plugins.releaser.util.github.GitUtils;
 import fr.paris.lutece.plugins.releaser.util.github.GithubSearchRepoItem;
 import fr.paris.lutece.plugins.releaser.util.github.GithubSearchResult;
 import fr.paris.lutece.plugins.releaser.util.pom.PomParser;
+import fr.paris.lutece.plugins.releaser.util.pom.PomStreamReader;
+import fr.paris.lutece.plugins.releaser.util.svn.SvnUtils;
 import fr.paris.lutece.plugins.releaser.util.version.Version;
 import fr.paris.lutece.plugins.releaser.util.version.VersionParsingException;
 import fr.paris.lutece.portal.business.user.AdminUser;
@@ -72,26 +79,21 @@ import fr.paris.lutece.portal.web.util.LocalizedPaginator;
 import fr.paris.lutece.util.html.Paginator;
 import fr.paris.lutece.util.httpaccess.HttpAccess;
 import fr.paris.lutece.util.httpaccess.HttpAccessException;
+import fr.paris.lutece.util.signrequest.BasicAuthorizationAuthenticator;
 
 /**
  * ComponentService
  */
 public class ComponentService implements IComponentService
 {
-    private ExecutorService _executor;
-    private ObjectMapper _mapper;
+    private RemoteInformationsExecutor _remoteInformationsExecutor;
+    private RemoteInformationsCache _remoteInformationsCache;
+    private RemoteInformationsClient _remoteInformationsClient;
+    private int _nRemoteInformationsBatchSize;
     private static final String PROPERTY_COMPONENT_WEBSERVICE = "releaser.component.webservice.url";
     private static final String URL_COMPONENT_WEBSERVICE = AppPropertiesService.getProperty( PROPERTY_COMPONENT_WEBSERVICE );
-    private static final String FIELD_COMPONENT = "component";
-    private static final String FIELD_VERSION = "version";
-    private static final String FIELD_SNAPSHOT_VERSION = "snapshot_version";
-
-    private static final String FIELD_JIRA_CODE = "jira_code";
-    private static final String FIELD_ROADMAP_URL = "jira_roadmap_url";
-    private static final String FIELD_CLOSED_ISSUES = "jira_current_version_closed_issues";
-    private static final String FIELD_OPENED_ISSUES = "jira_current_version_opened_issues";
-    private static final String FIELD_SCM_DEVELOPER_CONNECTION = "scm_developer_connection";
-    private static final String RELEASE_NOT_FOUND="Release not found";
+    private static final String GITHUB_HOST = "github.com";
+    private static final String URL_GITHUB_RAW_CONTENT = "https://raw.githubusercontent.com/";
     
     private static IComponentService _instance;
 
@@ -107,47 +109,282 @@ public class ComponentService implements IComponentService
 
     }
 
-    public void setRemoteInformations( Component component, boolean bCache ) throws HttpAccessException, IOException
+    public void setRemoteInformations( Component component, boolean bCache )
     {
-        try
+        RemoteInformations remoteInformations = getCachedRemoteInformations( component.getArtifactId( ), component.getType( ), bCache );
+        if ( remoteInformations == null )
+        {
+            remoteInformations = loadRemoteInformations( component.getArtifactId( ), component.getType( ), bCache );
+            _remoteInformationsCache.put( component.getArtifactId( ), component.getType( ), remoteInformations );
+        }
+        if ( remoteInformations != null )
         {
-            HttpAccess httpAccess = new HttpAccess( );
-            String strInfosJSON;
-            String strUrl = MessageFormat.format( URL_COMPONENT_WEBSERVICE, component.getArtifactId( ), bCache, component.getType( ) );
-            if ( component.getType( ) == null )
+            remoteInformations.applyTo( component );
+        }
+    }
+
+    @Override
+    public void setRemoteInformations( List<Component> listComponents )
+    {
+        List<Component> listProjectComponents = new ArrayList<>( );
+        List<Component> listOtherComponents = new ArrayList<>( );
+        for ( Component component : listComponents )
+        {
+            RemoteInformations remoteInformations = getCachedRemoteInformations( component.getArtifactId( ), component.getType( ),
+                    !component.isProject( ) );
+            if ( remoteInformations != null )
             {
-                strUrl = strUrl.replace( "&type=null", "" );
+                remoteInformations.applyTo( component );
             }
-            strInfosJSON = httpAccess.doGet( strUrl );
-            JsonNode nodeRoot = _mapper.readTree( strInfosJSON );
-            if(nodeRoot!=null)
+            else
+                if ( component.isProject( ) )
+                {
+                    listProjectComponents.add( component );
+                }
+                else
+                {
+                    listOtherComponents.add( component );
+                }
+        }
+
+        // Project components are always asked without the web service cache
+        List<Component> listUnresolved = new ArrayList<>( );
+        listUnresolved.addAll( loadBatchRemoteInformations( listProjectComponents, false ) );
+        listUnresolved.addAll( loadBatchRemoteInformations( listOtherComponents, true ) );
+
+        // Fallback to single requests sent in parallel on kept alive connections
+        List<Future<?>> listFutures = new ArrayList<Future<?>>( listUnresolved.size( ) );
+        for ( Component component : listUnresolved )
+        {
+            listFutures.add( _remoteInformationsExecutor.submit(
+                    _remoteInformationsClient.getUrl( component.getArtifactId( ), component.getType( ), !component.isProject( ) ),
+                    new GetRemoteInformationsTask( component ) ) );
+        }
+        waitForRemoteInformations( listFutures );
+    }
+
+    @Override
+    public Future<?> submitRemoteInformations( Component component )
+    {
+        GetRemoteInformationsTask task = new GetRemoteInformationsTask( component );
+        boolean bCache = !component.isProject( );
+
+        if ( getCachedRemoteInformations( component.getArtifactId( ), component.getType( ), bCache ) != null )
+        {
+            // No remote call needed, the task is run in the current thread
+            FutureTask<Void> futureTask = new FutureTask<Void>( task, null );
+            futureTask.run( );
+            return futureTask;
+        }
+
+        return _remoteInformationsExecutor.submit( _remoteInformationsClient.getUrl( component.getArtifactId( ), component.getType( ), bCache ), task );
+    }
+
+    @Override
+    public RemoteInformationsExecutor getRemoteInformationsExecutor( )
+    {
+        return _remoteInformationsExecutor;
+    }
+
+    @Override
+    public RemoteInformationsClient getRemoteInformationsClient( )
+    {
+        return _remoteInformationsClient;
+    }
+
+    @Override
+    public RemoteInformationsCache getRemoteInformationsCache( )
+    {
+        return _remoteInformationsCache;
+    }
+
+    @Override
+    public void invalidateRemoteInformations( String strArtifactId )
+    {
+        _remoteInformationsCache.invalidate( strArtifactId );
+    }
+
+    /**
+     * Get the remote informations of a component from the cache and start a background refresh if the entry will
+     * expire soon
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @param bCache
+     *            true if the web service can use its cache, false to bypass the cache and always load fresh informations
+     * @return the remote informations or null if not in the cache
+     */
+    private RemoteInformations getCachedRemoteInformations( final String strArtifactId, final String strType, final boolean bCache )
+    {
+        RemoteInformations remoteInformations = _remoteInformationsCache.get( strArtifactId, strType, bCache );
+
+        if ( remoteInformations != null && _remoteInformationsCache.startRefresh( strArtifactId, strType ) )
+        {
+            // the refresh is dropped when the executor is busy, the entry is refreshed by a later read
+            Future<?> refresh = _remoteInformationsExecutor.submitBackground( _remoteInformationsClient.getUrl( strArtifactId, strType, bCache ), new Runnable( )
             {
-                JsonNode nodeComponent = nodeRoot.path( FIELD_COMPONENT );
-                if(nodeComponent!=null)
+                @Override
+                public void run( )
                 {
-                    String strVersion= nodeComponent.get( FIELD_VERSION ).asText( );
-                    if(!RELEASE_NOT_FOUND.equals( strVersion ))
+                    RemoteInformations refreshedInformations = loadRemoteInformations( strArtifactId, strType, bCache );
+                    if ( refreshedInformations != null )
                     {
-                        component.setLastAvailableVersion( nodeComponent.get( FIELD_VERSION ).asText( ) );
+                        _remoteInformationsCache.put( strArtifactId, strType, refreshedInformations );
                     }
-                    component.setLastAvailableSnapshotVersion( nodeComponent.get( FIELD_SNAPSHOT_VERSION ).asText( ) );
-                    component.setJiraCode( nodeComponent.get( FIELD_JIRA_CODE ).asText( ) );
-                    component.setJiraRoadmapUrl( nodeComponent.get( FIELD_ROADMAP_URL ).asText( ) );
-                    component.setJiraCurrentVersionOpenedIssues( nodeComponent.get( FIELD_OPENED_ISSUES ).asInt( ) );
-                    component.setJiraCurrentVersionClosedIssues( nodeComponent.get( FIELD_CLOSED_ISSUES ).asInt( ) );
-                    String strScmDeveloperConnection = nodeComponent.get( FIELD_SCM_DEVELOPER_CONNECTION ).asText( );
-                    if ( !StringUtils.isEmpty( strScmDeveloperConnection ) && !strScmDeveloperConnection.equals( "null" ) )
+                    else
                     {
-                        component.setScmDeveloperConnection( strScmDeveloperConnection );
+                        _remoteInformationsCache.cancelRefresh( strArtifactId, strType );
                     }
                 }
+            } );
+            if ( refresh.isCancelled( ) )
+            {
+                _remoteInformationsCache.cancelRefresh( strArtifactId, strType );
             }
         }
-        catch( HttpAccessException | IOException ex )
+
+        return remoteInformations;
+    }
+
+    /**
+     * Call the web service giving the remote informations of a component
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @param bCache
+     *            true if the web service can use its cache
+     * @return the remote informations or null if an error occurs
+     */
+    private RemoteInformations loadRemoteInformations( String strArtifactId, String strType, boolean bCache )
+    {
+        try
+        {
+            return _remoteInformationsClient.getRemoteInformations( strArtifactId, strType, bCache );
+        }
+        catch( IOException ex )
         {
             AppLogService.error( "Error getting Remote informations : " + ex.getMessage( ), ex );
         }
+        return null;
+    }
+
+    /**
+     * Load the remote informations of components with multi-artifact requests, one request per type and per batch
+     * since the informations of an artifact depend on its type
+     * 
+     * @param listComponents
+     *            the components
+     * @param bCache
+     *            true if the web service can use its cache
+     * @return the components not resolved by the requests, to be loaded one by one
+     */
+    private List<Component> loadBatchRemoteInformations( List<Component> listComponents, boolean bCache )
+    {
+        Map<String, List<Component>> mapComponentsByType = new LinkedHashMap<>( );
+        for ( Component component : listComponents )
+        {
+            List<Component> listTypeComponents = mapComponentsByType.get( component.getType( ) );
+            if ( listTypeComponents == null )
+            {
+                listTypeComponents = new ArrayList<>( );
+                mapComponentsByType.put( component.getType( ), listTypeComponents );
+            }
+            listTypeComponents.add( component );
+        }
 
+        List<Component> listUnresolved = new ArrayList<>( );
+        for ( Map.Entry<String, List<Component>> entry : mapComponentsByType.entrySet( ) )
+        {
+            List<Component> listTypeComponents = entry.getValue( );
+            for ( int i = 0; i < listTypeComponents.size( ); i += _nRemoteInformationsBatchSize )
+            {
+                listUnresolved.addAll( loadBatchRemoteInformations(
+                        listTypeComponents.subList( i, Math.min( i + _nRemoteInformationsBatchSize, listTypeComponents.size( ) ) ), entry.getKey( ),
+                        bCache ) );
+            }
+        }
+        return listUnresolved;
+    }
+
+    /**
+     * Load the remote informations of components of the same type with a single multi-artifact request
+     * 
+     * @param listComponents
+     *            the components
+     * @param strType
+     *            the type of the components
+     * @param bCache
+     *            true if the web service can use its cache
+     * @return the components not resolved by the request
+     */
+    private List<Component> loadBatchRemoteInformations( List<Component> listComponents, String strType, boolean bCache )
+    {
+        List<String> listArtifactIds = new ArrayList<>( listComponents.size( ) );
+        for ( Component component : listComponents )
+        {
+            listArtifactIds.add( component.getArtifactId( ) );
+        }
+
+        Map<String, RemoteInformations> mapRemoteInformations = null;
+        try
+        {
+            mapRemoteInformations = _remoteInformationsClient.getRemoteInformations( listArtifactIds, strType, bCache );
+        }
+        catch( IOException ex )
+        {
+            AppLogService.error( "Error getting Remote informations : " + ex.getMessage( ), ex );
+        }
+        if ( mapRemoteInformations == null )
+        {
+            return listComponents;
+        }
+
+        List<Component> listUnresolved = new ArrayList<>( );
+        for ( Component component : listComponents )
+        {
+            RemoteInformations remoteInformations = mapRemoteInformations.get( component.getArtifactId( ) );
+            if ( remoteInformations != null )
+            {
+                _remoteInformationsCache.put( component.getArtifactId( ), component.getType( ), remoteInformations );
+                remoteInformations.applyTo( component );
+            }
+            else
+            {
+                listUnresolved.add( component );
+            }
+        }
+        return listUnresolved;
+    }
+
+    /**
+     * Wait for the end of remote informations tasks
+     * 
+     * @param listFutures
+     *            the futures of the tasks
+     */
+    private static void waitForRemoteInformations( List<Future<?>> listFutures )
+    {
+        for ( Future<?> future : listFutures )
+        {
+            try
+            {
+                future.get( );
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+                AppLogService.error( e );
+                break;
+            }
+            catch( ExecutionException | CancellationException e )
+            {
+                AppLogService.error( e );
+            }
+        }
     }
 
     /**
@@ -171,6 +408,7 @@ public class ComponentService implements IComponentService
     {
 
         DatastoreService.setDataValue( ReleaserUtils.getLastReleaseVersionDataKey( strArtifactId ), strVersion );
+        invalidateRemoteInformations( strArtifactId );
 
     }
     
@@ -203,25 +441,35 @@ public class ComponentService implements IComponentService
     @Override
     public int release( Component component, Locale locale, AdminUser user, HttpServletRequest request, boolean forceRelease )
     {
-        
+        WorkflowReleaseContext context = addReleaseContext( component, locale, request, forceRelease );
+        if ( context == null )
+        {
+            return -1;
+        }
+
+        int nIdWorkflow = WorkflowReleaseContextService.getService( ).getIdWorkflow( context );
+
+        // Compare Latest vesion of component before rekease
+        WorkflowReleaseContextService.getService( ).startWorkflowReleaseContext( context, nIdWorkflow, locale, request, user );
 
+        return context.getId( );
+    }
+
+    @Override
+    public WorkflowReleaseContext addReleaseContext( Component component, Locale locale, HttpServletRequest request, boolean forceRelease )
+    {
         // Test if version in progression before release
         if (  WorkflowReleaseContextService.getService( ).isReleaseInProgress( component.getArtifactId( ) ) || (!forceRelease &&( !component.isProject( ) || !component.shouldBeReleased( ))) )
         {
-            return -1;
+            return null;
         }
 
         WorkflowReleaseContext context = new WorkflowReleaseContext( );
         context.setComponent( component );
         context.setReleaserUser( ReleaserUtils.getReleaserUser( request, locale ) );
-
-        int nIdWorkflow = WorkflowReleaseContextService.getService( ).getIdWorkflow( context );
         WorkflowReleaseContextService.getService( ).addWorkflowReleaseContext( context );
 
-        // Compare Latest vesion of component before rekease
-        WorkflowReleaseContextService.getService( ).startWorkflowReleaseContext( context, nIdWorkflow, locale, request, user );
-
-        return context.getId( );
+        return context;
     }
 
     public int release( Component component, Locale locale, AdminUser user, HttpServletRequest request )
@@ -235,14 +483,129 @@ public class ComponentService implements IComponentService
                 && component.getScmDeveloperConnection( ).trim( ).startsWith( ConstanteUtils.CONSTANTE_SUFFIX_GIT );
     }
 
+    @Override
+    public Map<String, List<String>> getComponentsDependencies( List<Component> listComponents, final ReleaserUser user )
+    {
+        final ConcurrentMap<String, List<String>> mapFetched = new ConcurrentHashMap<>( );
+        List<Future<?>> listFutures = new ArrayList<Future<?>>( listComponents.size( ) );
+        for ( final Component component : listComponents )
+        {
+            listFutures.add( _remoteInformationsExecutor.submit( getComponentPomUrl( component ), new Runnable( )
+            {
+                @Override
+                public void run( )
+                {
+                    mapFetched.put( component.getArtifactId( ), getComponentDependencies( component, user ) );
+                }
+            } ) );
+        }
+        waitForRemoteInformations( listFutures );
+
+        Map<String, List<String>> mapDependencies = new LinkedHashMap<>( );
+        for ( Component component : listComponents )
+        {
+            List<String> listDependencies = mapFetched.get( component.getArtifactId( ) );
+            mapDependencies.put( component.getArtifactId( ), ( listDependencies != null ) ? listDependencies : new ArrayList<String>( ) );
+        }
+        return mapDependencies;
+    }
+
+    /**
+     * Returns the url of the POM of a component in its repository, used to apply the per host limit
+     * 
+     * @param component
+     *            the component
+     * @return the url, null if the component has no repository
+     */
+    private String getComponentPomUrl( Component component )
+    {
+        if ( StringUtils.isEmpty( component.getScmDeveloperConnection( ) ) )
+        {
+            return null;
+        }
+        if ( isGitComponent( component ) )
+        {
+            return URL_GITHUB_RAW_CONTENT;
+        }
+        return SvnUtils.getRepoUrl( component.getScmDeveloperConnection( ).trim( ) ) + "/" + ConstanteUtils.CONSTANTE_POM_XML;
+    }
+
+    @Override
+    public List<String> getComponentDependencies( Component component, ReleaserUser user )
+    {
+        List<String> listDependencies = new ArrayList<>( );
+        String strPom = null;
+
+        if ( isGitComponent( component ) )
+        {
+            String strConnection = component.getScmDeveloperConnection( ).trim( );
+            int nPos = strConnection.indexOf( GITHUB_HOST );
+            if ( nPos >= 0 )
+            {
+                String strFullName = strConnection.substring( nPos + GITHUB_HOST.length( ) + 1 ).replace( ".git", "" );
+                strPom = GitUtils.getFileContent( strFullName, ConstanteUtils.CONSTANTE_POM_XML, GitUtils.DEVELOP_BRANCH,
+                        user.getGithubComponentAccountLogin( ), user.getGithubComponentAccountPassword( ) );
+            }
+        }
+        else
+            if ( !StringUtils.isEmpty( component.getScmDeveloperConnection( ) ) )
+            {
+                try
+                {
+                    HttpAccess httpAccess = new HttpAccess( );
+                    strPom = httpAccess.doGet( getComponentPomUrl( component ),
+                            new BasicAuthorizationAuthenticator( user.getSvnComponentAccountLogin( ), user.getSvnComponentAccountPassword( ) ), null );
+                }
+                catch( HttpAccessException e )
+                {
+                    AppLogService.error( "Error fetching the POM of the component " + component.getArtifactId( ) + " : " + e.getMessage( ), e );
+                }
+            }
+
+        if ( !StringUtils.isEmpty( strPom ) )
+        {
+            try
+            {
+                for ( Dependency dependency : PomStreamReader.read( new StringReader( strPom ) ).getDependencies( ) )
+                {
+                    listDependencies.add( dependency.getArtifactId( ) );
+                }
+            }
+            catch( XMLStreamException e )
+            {
+                AppLogService.error( "Error parsing the POM of the component " + component.getArtifactId( ) + " : " + e.getMessage( ), e );
+            }
+        }
+
+        return listDependencies;
+    }
+
     public void init( )
     {
 
-        _mapper = new ObjectMapper( );
-        _executor = Executors.newFixedThreadPool( AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_THREAD_RELEASE_POOL_MAX_SIZE, 10 ) );
+        _remoteInformationsClient = new RemoteInformationsClient( URL_COMPONENT_WEBSERVICE,
+                AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_COMPONENT_WEBSERVICE_BATCH_URL ) );
+        _nRemoteInformationsBatchSize = Math.max( 1, AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_REMOTE_INFORMATIONS_BATCH_SIZE, 50 ) );
+        _remoteInformationsExecutor = new RemoteInformationsExecutor( AppPropertiesService.getPropertyInt(
+                ConstanteUtils.PROPERTY_REMOTE_INFORMATIONS_POOL_SIZE, 10 ), AppPropertiesService.getPropertyInt(
+                ConstanteUtils.PROPERTY_REMOTE_INFORMATIONS_QUEUE_SIZE, 200 ), AppPropertiesService.getPropertyInt(
+                ConstanteUtils.PROPERTY_REMOTE_INFORMATIONS_MAX_REQUESTS_PER_HOST, 10 ) );
+        _remoteInformationsCache = new RemoteInformationsCache( AppPropertiesService.getPropertyInt(
+                ConstanteUtils.PROPERTY_REMOTE_INFORMATIONS_CACHE_MAX_SIZE, 1000 ), AppPropertiesService.getPropertyLong(
+                ConstanteUtils.PROPERTY_REMOTE_INFORMATIONS_CACHE_TTL, 600 ) * 1000L, AppPropertiesService.getPropertyLong(
+                ConstanteUtils.PROPERTY_REMOTE_INFORMATIONS_CACHE_REFRESH_AHEAD, 120 ) * 1000L );
 
     }
 
+    @Override
+    public void shutdown( )
+    {
+        if ( _remoteInformationsExecutor != null )
+        {
+            _remoteInformationsExecutor.shutdown( );
+        }
+    }
+
     @Override
     public void updateRemoteInformations( Component component )
     {
@@ -351,15 +714,7 @@ public class ComponentService implements IComponentService
         PomParser parser = new PomParser( );
         parser.parse( component, strPom );
 
-        try
-        {
-            ComponentService.getService( ).setRemoteInformations( component, false );
-
-        }
-        catch( HttpAccessException | IOException e )
-        {
-            AppLogService.error( e );
-        }
+        ComponentService.getService( ).setRemoteInformations( component, false );
         ComponentService.getService( ).updateRemoteInformations( component );
         component.setTargetVersions( Version.getNextReleaseVersions( component.getCurrentVersion( ) ) );
         component.setTargetVersion( Version.getReleaseVersion( component.getCurrentVersion( ) ) );
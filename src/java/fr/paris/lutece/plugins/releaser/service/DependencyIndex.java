@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.plugins.releaser.business.Dependency;
+import fr.paris.lutece.plugins.releaser.business.SiteDependency;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DependencyIndex : in memory graph of the site &rarr; component &rarr; version edges of all the sites.<br>
+ * Edges are indexed in both directions so that the dependencies of a site and the sites depending on a component are
+ * found with a single lookup. A site is re-indexed only when its dependencies have changed.
+ */
+public class DependencyIndex
+{
+    private static final String SUFFIX_SNAPSHOT = "-SNAPSHOT";
+
+    private final Map<Integer, SiteEntry> _mapSites = new HashMap<>( );
+    private final Map<String, Map<Integer, String>> _mapDependentSites = new HashMap<>( );
+    private final Map<String, Set<Integer>> _mapSnapshotDependentSites = new HashMap<>( );
+
+    /**
+     * Index the dependencies of a site, replacing the previous ones
+     * 
+     * @param nIdSite
+     *            the site id
+     * @param collDependencies
+     *            the dependencies of the site
+     * @return true if the dependencies of the site have changed
+     */
+    public synchronized boolean putSite( int nIdSite, Collection<? extends Dependency> collDependencies )
+    {
+        SiteEntry entry = new SiteEntry( nIdSite, collDependencies );
+        SiteEntry previous = _mapSites.get( nIdSite );
+        if ( previous != null )
+        {
+            if ( previous._mapSignatures.equals( entry._mapSignatures ) )
+            {
+                return false;
+            }
+            unlink( nIdSite, previous );
+        }
+        _mapSites.put( nIdSite, entry );
+        link( nIdSite, entry );
+
+        return true;
+    }
+
+    /**
+     * Remove a site from the index
+     * 
+     * @param nIdSite
+     *            the site id
+     * @return true if the site was indexed
+     */
+    public synchronized boolean removeSite( int nIdSite )
+    {
+        SiteEntry previous = _mapSites.remove( nIdSite );
+        if ( previous == null )
+        {
+            return false;
+        }
+        unlink( nIdSite, previous );
+
+        return true;
+    }
+
+    /**
+     * Check if a site is indexed
+     * 
+     * @param nIdSite
+     *            the site id
+     * @return true if the site is indexed
+     */
+    public synchronized boolean containsSite( int nIdSite )
+    {
+        return _mapSites.containsKey( nIdSite );
+    }
+
+    /**
+     * Returns the number of indexed sites
+     * 
+     * @return the number of sites
+     */
+    public synchronized int getSiteCount( )
+    {
+        return _mapSites.size( );
+    }
+
+    /**
+     * Returns the dependencies of a site
+     * 
+     * @param nIdSite
+     *            the site id
+     * @return the dependencies, empty if the site is not indexed
+     */
+    public synchronized List<SiteDependency> getDependencies( int nIdSite )
+    {
+        SiteEntry entry = _mapSites.get( nIdSite );
+
+        return ( entry != null ) ? entry._listDependencies : Collections.<SiteDependency> emptyList( );
+    }
+
+    /**
+     * Returns the SNAPSHOT dependencies of a site, ie the components to release before the site
+     * 
+     * @param nIdSite
+     *            the site id
+     * @return the SNAPSHOT dependencies, empty if the site is not indexed
+     */
+    public synchronized List<SiteDependency> getSnapshotDependencies( int nIdSite )
+    {
+        SiteEntry entry = _mapSites.get( nIdSite );
+
+        return ( entry != null ) ? entry._listSnapshotDependencies : Collections.<SiteDependency> emptyList( );
+    }
+
+    /**
+     * Returns the sites depending on a component
+     * 
+     * @param strArtifactId
+     *            the component artifact id
+     * @return a map of the versions of the component keyed by site id
+     */
+    public synchronized Map<Integer, String> getDependentSites( String strArtifactId )
+    {
+        Map<Integer, String> mapSites = _mapDependentSites.get( strArtifactId );
+
+        return ( mapSites != null ) ? new HashMap<>( mapSites ) : Collections.<Integer, String> emptyMap( );
+    }
+
+    /**
+     * Returns the sites depending on a SNAPSHOT version of a component
+     * 
+     * @param strArtifactId
+     *            the component artifact id
+     * @return the site ids
+     */
+    public synchronized Set<Integer> getSnapshotDependentSites( String strArtifactId )
+    {
+        Set<Integer> setSites = _mapSnapshotDependentSites.get( strArtifactId );
+
+        return ( setSites != null ) ? new HashSet<>( setSites ) : Collections.<Integer> emptySet( );
+    }
+
+    /**
+     * Remove all the sites from the index
+     */
+    public synchronized void clear( )
+    {
+        _mapSites.clear( );
+        _mapDependentSites.clear( );
+        _mapSnapshotDependentSites.clear( );
+    }
+
+    /**
+     * Add the reverse edges of a site
+     * 
+     * @param nIdSite
+     *            the site id
+     * @param entry
+     *            the site entry
+     */
+    private void link( int nIdSite, SiteEntry entry )
+    {
+        for ( SiteDependency dependency : entry._listDependencies )
+        {
+            Map<Integer, String> mapSites = _mapDependentSites.get( dependency.getArtifactId( ) );
+            if ( mapSites == null )
+            {
+                mapSites = new HashMap<>( );
+                _mapDependentSites.put( dependency.getArtifactId( ), mapSites );
+            }
+            mapSites.put( nIdSite, dependency.getVersion( ) );
+        }
+        for ( SiteDependency dependency : entry._listSnapshotDependencies )
+        {
+            Set<Integer> setSites = _mapSnapshotDependentSites.get( dependency.getArtifactId( ) );
+            if ( setSites == null )
+            {
+                setSites = new HashSet<>( );
+                _mapSnapshotDependentSites.put( dependency.getArtifactId( ), setSites );
+            }
+            setSites.add( nIdSite );
+        }
+    }
+
+    /**
+     * Remove the reverse edges of a site
+     * 
+     * @param nIdSite
+     *            the site id
+     * @param entry
+     *            the site entry
+     */
+    private void unlink( int nIdSite, SiteEntry entry )
+    {
+        for ( SiteDependency dependency : entry._listDependencies )
+        {
+            Map<Integer, String> mapSites = _mapDependentSites.get( dependency.getArtifactId( ) );
+            if ( mapSites != null )
+            {
+                mapSites.remove( nIdSite );
+                if ( mapSites.isEmpty( ) )
+                {
+                    _mapDependentSites.remove( dependency.getArtifactId( ) );
+                }
+            }
+        }
+        for ( SiteDependency dependency : entry._listSnapshotDependencies )
+        {
+            Set<Integer> setSites = _mapSnapshotDependentSites.get( dependency.getArtifactId( ) );
+            if ( setSites != null )
+            {
+                setSites.remove( nIdSite );
+                if ( setSites.isEmpty( ) )
+                {
+                    _mapSnapshotDependentSites.remove( dependency.getArtifactId( ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * The indexed dependencies of a site. Dependencies are copied so that later changes of the site do not alter the
+     * index.
+     */
+    private static final class SiteEntry
+    {
+        private final Map<String, String> _mapSignatures = new LinkedHashMap<>( );
+        private final List<SiteDependency> _listDependencies;
+        private final List<SiteDependency> _listSnapshotDependencies;
+
+        /**
+         * Constructor
+         * 
+         * @param nIdSite
+         *            the site id
+         * @param collDependencies
+         *            the dependencies of the site
+         */
+        SiteEntry( int nIdSite, Collection<? extends Dependency> collDependencies )
+        {
+            List<SiteDependency> listDependencies = new ArrayList<>( collDependencies.size( ) );
+            List<SiteDependency> listSnapshotDependencies = new ArrayList<>( );
+            for ( Dependency dependency : collDependencies )
+            {
+                // a site declares each artifact once, keep the first declaration otherwise
+                if ( dependency.getArtifactId( ) == null || _mapSignatures.containsKey( dependency.getArtifactId( ) ) )
+                {
+                    continue;
+                }
+                _mapSignatures.put( dependency.getArtifactId( ), dependency.getGroupId( ) + ':' + dependency.getType( ) + ':' + dependency.getVersion( ) );
+
+                SiteDependency siteDependency = new SiteDependency( );
+                siteDependency.setIdSite( nIdSite );
+                siteDependency.setArtifactId( dependency.getArtifactId( ) );
+                siteDependency.setGroupId( dependency.getGroupId( ) );
+                siteDependency.setType( dependency.getType( ) );
+                siteDependency.setVersion( dependency.getVersion( ) );
+                listDependencies.add( siteDependency );
+                if ( dependency.getVersion( ) != null && dependency.getVersion( ).endsWith( SUFFIX_SNAPSHOT ) )
+                {
+                    listSnapshotDependencies.add( siteDependency );
+                }
+            }
+            _listDependencies = Collections.unmodifiableList( listDependencies );
+            _listSnapshotDependencies = Collections.unmodifiableList( listSnapshotDependencies );
+        }
+    }
+}
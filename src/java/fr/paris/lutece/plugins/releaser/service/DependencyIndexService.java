@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.plugins.releaser.business.Site;
+import fr.paris.lutece.plugins.releaser.business.SiteDependency;
+import fr.paris.lutece.plugins.releaser.business.SiteDependencyHome;
+import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DependencyIndexService : keeps the dependency index of the sites in memory and in the database. The index is loaded
+ * once from the database and refreshed site by site each time a site POM is parsed, so a site is indexed once it has
+ * been opened.
+ */
+public class DependencyIndexService implements IDependencyIndexService
+{
+    private static IDependencyIndexService _instance;
+    private final DependencyIndex _index = new DependencyIndex( );
+
+    /**
+     * Returns the unique instance of the service
+     * 
+     * @return the service
+     */
+    public static IDependencyIndexService getService( )
+    {
+        if ( _instance == null )
+        {
+            _instance = SpringContextService.getBean( ConstanteUtils.BEAN_DEPENDENCY_INDEX_SERVICE );
+            _instance.init( );
+        }
+
+        return _instance;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void init( )
+    {
+        Map<Integer, List<SiteDependency>> mapSiteDependencies = new HashMap<>( );
+        for ( SiteDependency siteDependency : SiteDependencyHome.getSiteDependenciesList( ) )
+        {
+            List<SiteDependency> listDependencies = mapSiteDependencies.get( siteDependency.getIdSite( ) );
+            if ( listDependencies == null )
+            {
+                listDependencies = new ArrayList<>( );
+                mapSiteDependencies.put( siteDependency.getIdSite( ), listDependencies );
+            }
+            listDependencies.add( siteDependency );
+        }
+
+        _index.clear( );
+        for ( Map.Entry<Integer, List<SiteDependency>> entry : mapSiteDependencies.entrySet( ) )
+        {
+            _index.putSite( entry.getKey( ), entry.getValue( ) );
+        }
+        AppLogService.info( "Releaser : dependency index loaded for " + _index.getSiteCount( ) + " sites" );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void updateSite( Site site )
+    {
+        if ( site.getCurrentDependencies( ) == null )
+        {
+            return;
+        }
+        synchronized( _index )
+        {
+            if ( _index.putSite( site.getId( ), site.getCurrentDependencies( ) ) )
+            {
+                SiteDependencyHome.replaceBySite( site.getId( ), _index.getDependencies( site.getId( ) ) );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void removeSite( int nIdSite )
+    {
+        synchronized( _index )
+        {
+            _index.removeSite( nIdSite );
+            SiteDependencyHome.removeBySite( nIdSite );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, String> getDependentSites( String strArtifactId )
+    {
+        return _index.getDependentSites( strArtifactId );
+    }
+}
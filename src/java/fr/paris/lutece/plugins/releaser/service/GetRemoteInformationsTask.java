@@ -1,10 +1,7 @@
 package fr.paris.lutece.plugins.releaser.service;
 
-import java.io.IOException;
 
 import fr.paris.lutece.plugins.releaser.business.Component;
-import fr.paris.lutece.portal.service.util.AppLogService;
-import fr.paris.lutece.util.httpaccess.HttpAccessException;
 
 public class GetRemoteInformationsTask implements Runnable
 {
@@ -23,14 +20,7 @@ public class GetRemoteInformationsTask implements Runnable
     @Override
     public void run( )
     {
-        try
-        {
-            ComponentService.getService( ).setRemoteInformations( _component, _component.isProject( )?false:true  );
-        }
-        catch( HttpAccessException | IOException e )
-        {
-          AppLogService.error( e );
-        }
+        ComponentService.getService( ).setRemoteInformations( _component, _component.isProject( )?false:true  );
         
     }
 
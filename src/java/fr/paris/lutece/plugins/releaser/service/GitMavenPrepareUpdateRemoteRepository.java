@@ -1,17 +1,18 @@
 package fr.paris.lutece.plugins.releaser.service;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.jgit.api.AddCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.ResetCommand.ResetType;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.InvalidRemoteException;
 import org.eclipse.jgit.api.errors.TransportException;
-import org.eclipse.jgit.internal.storage.file.FileRepository;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.transport.RefSpec;
@@ -28,11 +29,10 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
 
   
     @Override
-    public void updateDevelopBranch(String strLocalBasePath,WorkflowReleaseContext context, Locale locale, String strMessage )
+    public void updateDevelopBranch(String strLocalBasePath, List<String> listFiles, WorkflowReleaseContext context, Locale locale, String strMessage )
     {
         
         
-        FileRepository fLocalRepo = null;
         Git git = null;
         CommandResult commandResult = context.getCommandResult( );
         Component component = context.getComponent( );
@@ -43,11 +43,15 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         try
         {
      
-            fLocalRepo = new FileRepository( strLocalComponentPath + "/.git" );
-    
-            git = new Git( fLocalRepo );
+            git = GitUtils.getRepositorySession( ).getGit( context.getId( ), strLocalComponentPath );
             git.checkout( ).setName( GitUtils.DEVELOP_BRANCH ).call( );
-            git.add( ).addFilepattern( "." ).setUpdate( true ).call( );
+            // stage all the modified files, they are committed and pushed at once
+            AddCommand addCommand = git.add( ).setUpdate( true );
+            for ( String strFile : listFiles )
+            {
+                addCommand.addFilepattern( getFilePattern( strLocalComponentPath, strFile ) );
+            }
+            addCommand.call( );
             git.commit( ).setCommitter(context.getReleaserUser( ).getGithubComponentAccountLogin( ), context.getReleaserUser( ).getGithubComponentAccountLogin( )).setMessage( strMessage).call( );
             git.push( )
                     .setCredentialsProvider( new UsernamePasswordCredentialsProvider( context.getReleaserUser( ).getGithubComponentAccountLogin( ), context.getReleaserUser( ).getGithubComponentAccountPassword( ) ) )
@@ -72,32 +76,29 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         {
             ReleaserUtils.addTechnicalError( commandResult, e.getMessage( ), e );
         }
+        
 
-        finally
-        {
-
-            if ( fLocalRepo != null )
-            {
-
-                fLocalRepo.close( );
-
-            }
-            if ( git != null )
-            {
-
-                git.close( );
-
-            }
+    }
 
-        }
-        
+    /**
+     * Returns the path of a file relative to the working copy, as expected by the add command
+     * 
+     * @param strLocalComponentPath
+     *            the path of the working copy
+     * @param strFile
+     *            the path of the file
+     * @return the relative path of the file
+     */
+    private static String getFilePattern( String strLocalComponentPath, String strFile )
+    {
+        String strPattern = new File( strLocalComponentPath ).getAbsoluteFile( ).toURI( ).relativize( new File( strFile ).getAbsoluteFile( ).toURI( ) ).getPath( );
 
+        return StringUtils.isEmpty( strPattern ) ? "." : StringUtils.removeEnd( strPattern, "/" );
     }
 
     @Override
     public void updateReleaseBranch(String strLocalBasePath, WorkflowReleaseContext context, Locale locale)
     {
-        FileRepository fLocalRepo = null;
         Git git = null;
         CommandResult commandResult = context.getCommandResult( );
         Component component = context.getComponent( );
@@ -108,9 +109,7 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         try
         {
      
-            fLocalRepo = new FileRepository( strLocalComponentPath + "/.git" );
-    
-            git = new Git( fLocalRepo );
+            git = GitUtils.getRepositorySession( ).getGit( context.getId( ), strLocalComponentPath );
             git.checkout( ).setName( GitUtils.DEVELOP_BRANCH ).call( );
             GitUtils.mergeBack( git, context.getReleaserUser( ).getGithubComponentAccountLogin( ), context.getReleaserUser( ).getGithubComponentAccountPassword( ), commandResult );
             
@@ -136,24 +135,6 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         {
             ReleaserUtils.addTechnicalError( commandResult, e.getMessage( ), e );
         }
-
-        finally
-        {
-
-            if ( fLocalRepo != null )
-            {
-
-                fLocalRepo.close( );
-
-            }
-            if ( git != null )
-            {
-
-                git.close( );
-
-            }
-
-        }
         
 
     }
@@ -164,7 +145,6 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
     {
         
         ReleaserUtils.logStartAction( context, " Rollback Release prepare" );
-        FileRepository fLocalRepo = null;
         Git git = null;
         CommandResult commandResult = context.getCommandResult( );
         Component component = context.getComponent( );
@@ -174,9 +154,7 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         try
         {
      
-            fLocalRepo = new FileRepository( strLocalComponentPath + "/.git" );
-    
-            git = new Git( fLocalRepo );
+            git = GitUtils.getRepositorySession( ).getGit( context.getId( ), strLocalComponentPath );
             
             
             
@@ -258,24 +236,6 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         {
             ReleaserUtils.addTechnicalError( commandResult, e.getMessage( ), e );
         }
-
-        finally
-        {
-
-            if ( fLocalRepo != null )
-            {
-
-                fLocalRepo.close( );
-
-            }
-            if ( git != null )
-            {
-
-                git.close( );
-
-            }
-
-        }
         ReleaserUtils.logEndAction( context, " Rollback Release prepare" );
         
     }
@@ -283,7 +243,6 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
     @Override
     public void checkoutDevelopBranchBeforePrepare( WorkflowReleaseContext context, Locale locale)
     {
-        FileRepository fLocalRepo = null;
         Git git = null;
         CommandResult commandResult = context.getCommandResult( );
         Component component = context.getComponent( );
@@ -294,9 +253,7 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         try
         {
      
-            fLocalRepo = new FileRepository( strLocalComponentPath + "/.git" );
-    
-            git = new Git( fLocalRepo );
+            git = GitUtils.getRepositorySession( ).getGit( context.getId( ), strLocalComponentPath );
             git.checkout( ).setName( GitUtils.DEVELOP_BRANCH ).call( );
         
         
@@ -320,24 +277,6 @@ public class GitMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         {
             ReleaserUtils.addTechnicalError( commandResult, e.getMessage( ), e );
         }
-
-        finally
-        {
-
-            if ( fLocalRepo != null )
-            {
-
-                fLocalRepo.close( );
-
-            }
-            if ( git != null )
-            {
-
-                git.close( );
-
-            }
-
-        }
         
         
     }
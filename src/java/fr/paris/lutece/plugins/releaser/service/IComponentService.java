@@ -1,23 +1,72 @@
 package fr.paris.lutece.plugins.releaser.service;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletRequest;
 
 
 
 import fr.paris.lutece.plugins.releaser.business.Component;
+import fr.paris.lutece.plugins.releaser.business.ReleaserUser;
+import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
 import fr.paris.lutece.portal.business.user.AdminUser;
 import fr.paris.lutece.portal.web.util.LocalizedPaginator;
 import fr.paris.lutece.util.ReferenceList;
-import fr.paris.lutece.util.httpaccess.HttpAccessException;
 
 public interface IComponentService
 {
 
-   void setRemoteInformations( Component component,boolean bCache) throws HttpAccessException, IOException;
+   void setRemoteInformations( Component component,boolean bCache);
+
+   /**
+    * Load the remote informations of many components. Components are resolved by chunks with the multi-artifact web
+    * service when it is available, the others are loaded with single requests sent in parallel
+    * 
+    * @param listComponents
+    *            the components
+    */
+   void setRemoteInformations( List<Component> listComponents );
+
+   /**
+    * Submit the loading of the component remote informations to the shared remote informations executor
+    * 
+    * @param component
+    *            the component
+    * @return the future of the task
+    */
+   Future<?> submitRemoteInformations( Component component );
+
+   /**
+    * Returns the executor used to load the components remote informations
+    * 
+    * @return the executor
+    */
+   RemoteInformationsExecutor getRemoteInformationsExecutor( );
+
+   /**
+    * Returns the client of the component web service
+    * 
+    * @return the client
+    */
+   RemoteInformationsClient getRemoteInformationsClient( );
+
+   /**
+    * Returns the cache of the components remote informations
+    * 
+    * @return the cache
+    */
+   RemoteInformationsCache getRemoteInformationsCache( );
+
+   /**
+    * Remove the cached remote informations of a component
+    * 
+    * @param strArtifactId
+    *            the component artifact id
+    */
+   void invalidateRemoteInformations( String strArtifactId );
    
    void updateRemoteInformations( Component component );
    
@@ -26,7 +75,45 @@ public interface IComponentService
 
    int release( Component component, Locale locale, AdminUser user, HttpServletRequest request );
 
+   /**
+    * Checks that a component can be released and adds its release context, without starting it
+    * 
+    * @param component
+    *            the component
+    * @param locale
+    *            the locale
+    * @param request
+    *            the request
+    * @param forceRelease
+    *            true to release a component that is not a project component or has no snapshot to release
+    * @return the release context, null if the component is already being released or must not be released
+    */
+   WorkflowReleaseContext addReleaseContext( Component component, Locale locale, HttpServletRequest request, boolean forceRelease );
+
     boolean isGitComponent( Component component );
+
+    /**
+     * Returns the artifact ids of the dependencies declared by the POM of a component in its repository
+     * 
+     * @param component
+     *            the component
+     * @param user
+     *            the releaser user whose accounts are used to read the repository
+     * @return the artifact ids, empty if the POM can not be read
+     */
+    List<String> getComponentDependencies( Component component, ReleaserUser user );
+
+    /**
+     * Returns the artifact ids of the dependencies of several components. The POMs are read in parallel by the remote
+     * informations executor.
+     * 
+     * @param listComponents
+     *            the components
+     * @param user
+     *            the releaser user whose accounts are used to read the repositories
+     * @return the artifact ids of the dependencies keyed by the artifact id of the component, in the order of the list
+     */
+    Map<String, List<String>> getComponentsDependencies( List<Component> listComponents, ReleaserUser user );
     
     /**
      * Returns the LastAvailableVersion
@@ -68,4 +155,9 @@ public interface IComponentService
 
      void init( );
 
+    /**
+     * Stop the remote informations executor, called when the plugin is stopped
+     */
+     void shutdown( );
+
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.plugins.releaser.business.Site;
+import java.util.Map;
+
+/**
+ * IDependencyIndexService : persistent index of the dependencies of all the sites.<br>
+ * The index is fed by the site views. The site release page uses it to show, for each component, the other sites
+ * depending on it and the version they use.
+ */
+public interface IDependencyIndexService
+{
+    /**
+     * Load the index from the database
+     */
+    void init( );
+
+    /**
+     * Index the dependencies of a site whose POM has been parsed. The database is updated only if the dependencies
+     * have changed since the last indexation.
+     * 
+     * @param site
+     *            the site
+     */
+    void updateSite( Site site );
+
+    /**
+     * Remove a site from the index
+     * 
+     * @param nIdSite
+     *            the site id
+     */
+    void removeSite( int nIdSite );
+
+    /**
+     * Returns the sites depending on a component
+     * 
+     * @param strArtifactId
+     *            the component artifact id
+     * @return the versions of the component keyed by site id
+     */
+    Map<Integer, String> getDependentSites( String strArtifactId );
+}
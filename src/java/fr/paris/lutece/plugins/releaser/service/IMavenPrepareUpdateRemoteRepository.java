@@ -1,5 +1,6 @@
 package fr.paris.lutece.plugins.releaser.service;
 
+import java.util.List;
 import java.util.Locale;
 
 import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
@@ -9,7 +10,21 @@ public interface IMavenPrepareUpdateRemoteRepository
 
     
     
-   void updateDevelopBranch(String strLocalBasePath,WorkflowReleaseContext context, Locale locale,String strMessage);
+   /**
+    * Commit the modified files on the develop branch in one commit and push it
+    * 
+    * @param strLocalBasePath
+    *            the path of the working copy
+    * @param listFiles
+    *            the paths of the modified files
+    * @param context
+    *            the release context
+    * @param locale
+    *            the locale
+    * @param strMessage
+    *            the commit message
+    */
+   void updateDevelopBranch(String strLocalBasePath, List<String> listFiles, WorkflowReleaseContext context, Locale locale,String strMessage);
    
    void checkoutDevelopBranchBeforePrepare(WorkflowReleaseContext context, Locale locale);
     
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * IReleaseProgressService : pushes the progress of the release contexts to their subscribers
+ */
+public interface IReleaseProgressService
+{
+    /**
+     * Start the publication of the progress
+     */
+    void init( );
+
+    /**
+     * Subscribe to the progress of a release context
+     * 
+     * @param nIdContext
+     *            the release context id
+     * @param lOffset
+     *            the log offset already read by the subscriber, negative to only get the new log
+     * @return the subscription, null if the release context does not exist
+     */
+    ReleaseProgressPublisher.Subscription subscribe( int nIdContext, long lOffset );
+
+    /**
+     * Subscribe to the progress of a release context, the signal is released for each new event. The progress of
+     * several release contexts can be streamed over a single connection by sharing the signal between their
+     * subscriptions.
+     * 
+     * @param nIdContext
+     *            the release context id
+     * @param lOffset
+     *            the log offset already read by the subscriber, negative to only get the new log
+     * @param signal
+     *            the signal of the new events, may be null
+     * @return the subscription, null if the release context does not exist
+     */
+    ReleaseProgressPublisher.Subscription subscribe( int nIdContext, long lOffset, Semaphore signal );
+
+    /**
+     * Returns the interval between two heartbeats sent to an idle subscriber
+     * 
+     * @return the heartbeat interval in milliseconds
+     */
+    long getHeartbeatInterval( );
+
+    /**
+     * Returns the maximum duration of a progress stream, the client reconnects after it
+     * 
+     * @return the maximum stream duration in milliseconds
+     */
+    long getMaxStreamDuration( );
+}
@@ -5,6 +5,7 @@ import java.util.Locale;
 
 import javax.servlet.http.HttpServletRequest;
 
+import fr.paris.lutece.plugins.releaser.business.ReleaseContextHistory;
 import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
 import fr.paris.lutece.portal.business.user.AdminUser;
 
@@ -14,6 +15,55 @@ public interface IWorkflowReleaseContextService
     
     void startWorkflowReleaseContext(WorkflowReleaseContext context,int nIdWorkflow, Locale locale,HttpServletRequest request,AdminUser user );
 
+    /**
+     * Start the workflow of a release context and notify a listener at its end
+     * 
+     * @param context
+     *            the release context
+     * @param nIdWorkflow
+     *            the workflow id
+     * @param locale
+     *            the locale
+     * @param request
+     *            the request
+     * @param user
+     *            the user
+     * @param listener
+     *            the listener notified at the end of the workflow
+     */
+    void startWorkflowReleaseContext( WorkflowReleaseContext context, int nIdWorkflow, Locale locale, HttpServletRequest request, AdminUser user,
+            IReleaseCompletionListener listener );
+
+    /**
+     * Processes the workflow actions of a release context and runs the stages they request as a chain, each stage in
+     * the pool of the stage. The calling thread does not wait for the stages.
+     * 
+     * @param context
+     *            the release context
+     * @param actions
+     *            the processing of the workflow actions, the stages it requests are added to the chain
+     * @param listener
+     *            the listener of the end of the stages
+     */
+    void runWorkflowReleaseStages( WorkflowReleaseContext context, Runnable actions, ReleaseStageExecutor.StageChainListener listener );
+
+    /**
+     * Returns the pool usage and latency of each release stage
+     * 
+     * @return the metrics of the release stages
+     */
+    List<ReleaseStageExecutor.StageMetrics> getReleaseStageMetrics( );
+
+    /**
+     * Signal the end of the workflow of a release context, notify its listeners and drop its completion signal
+     * 
+     * @param context
+     *            the release context
+     * @param bSuccess
+     *            true if the release succeeded
+     */
+    void completeWorkflowReleaseContext( WorkflowReleaseContext context, boolean bSuccess );
+
     int addWorkflowReleaseContext( WorkflowReleaseContext context );
     
     void saveWorkflowReleaseContext( WorkflowReleaseContext context );
@@ -22,7 +72,36 @@ public interface IWorkflowReleaseContextService
     
     WorkflowReleaseContext getWorkflowReleaseContextHistory( int nIdContext, String strArtifactId );
     
-    List<WorkflowReleaseContext> getListWorkflowReleaseContextHistory( String strArtifactId );
+    /**
+     * Count the stored releases of an artifact
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @return the number of releases
+     */
+    int getReleaseContextHistoryCount( String strArtifactId );
+
+    /**
+     * Load a page of the stored releases of an artifact, the most recent first. The logs are not loaded.
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param nIndex
+     *            the index of the first release of the page
+     * @param nMaxItems
+     *            the size of the page
+     * @return the summaries of the releases
+     */
+    List<ReleaseContextHistory> getReleaseContextHistoryList( String strArtifactId, int nIndex, int nMaxItems );
+
+    /**
+     * Load the log of a stored release
+     * 
+     * @param nIdContext
+     *            the release context id
+     * @return the log or null if the release is not stored
+     */
+    String getReleaseContextHistoryLog( int nIdContext );
     
     int getIdWorkflow(WorkflowReleaseContext context);
     
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+/**
+ * MavenDaemonLauncher : runs the Maven goals through the Maven daemon client (mvnd).<br>
+ * The daemon keeps warm build JVMs with their plugins already loaded and starts a new one when all are busy, so the
+ * short component releases no longer pay the JVM and plugin startup of a forked Maven.<br>
+ * The daemon JVMs do not read the MAVEN_OPTS of the client : the Maven options of the request, such as the proxy and
+ * the encoding, are given to the daemon as JVM arguments. The daemons started with other options are not reused.
+ */
+public class MavenDaemonLauncher
+{
+    private static final String ENV_MAVEN_OPTS = "MAVEN_OPTS";
+    private static final String ARG_POM_FILE = "-f";
+    private static final String ARG_SHOW_ERRORS = "-e";
+    private static final String ARG_LOCAL_REPOSITORY = "-Dmaven.repo.local=";
+    private static final String ARG_PROPERTY = "-D";
+    private static final String ARG_DAEMON_JVM_ARGS = "-Dmvnd.jvmArgs=";
+
+    private final File _fileExecutable;
+
+    /**
+     * Constructor
+     * 
+     * @param fileExecutable
+     *            the mvnd executable
+     */
+    public MavenDaemonLauncher( File fileExecutable )
+    {
+        _fileExecutable = fileExecutable;
+    }
+
+    /**
+     * Check that the daemon client can be launched
+     * 
+     * @return true if the executable exists
+     */
+    public boolean isAvailable( )
+    {
+        return _fileExecutable != null && _fileExecutable.isFile( ) && _fileExecutable.canExecute( );
+    }
+
+    /**
+     * Run the goals of an invocation request with the daemon
+     * 
+     * @param request
+     *            the invocation request
+     * @param fileLocalRepository
+     *            the local repository, null for the default one
+     * @param outputHandler
+     *            the handler of the output lines
+     * @return the exit code of the build
+     * @throws CommandLineException
+     *             if the daemon client can not be launched
+     */
+    public int execute( InvocationRequest request, File fileLocalRepository, final InvocationOutputHandler outputHandler ) throws CommandLineException
+    {
+        Commandline commandline = new Commandline( );
+        commandline.setExecutable( _fileExecutable.getAbsolutePath( ) );
+
+        File filePom = request.getPomFile( );
+        if ( filePom != null )
+        {
+            commandline.setWorkingDirectory( filePom.getAbsoluteFile( ).getParentFile( ) );
+            commandline.createArg( ).setValue( ARG_POM_FILE );
+            commandline.createArg( ).setValue( filePom.getAbsolutePath( ) );
+        }
+        if ( request.isShowErrors( ) )
+        {
+            commandline.createArg( ).setValue( ARG_SHOW_ERRORS );
+        }
+        if ( fileLocalRepository != null )
+        {
+            commandline.createArg( ).setValue( ARG_LOCAL_REPOSITORY + fileLocalRepository.getAbsolutePath( ) );
+        }
+        if ( !StringUtils.isBlank( request.getMavenOpts( ) ) )
+        {
+            commandline.createArg( ).setValue( ARG_DAEMON_JVM_ARGS + request.getMavenOpts( ).trim( ).replaceAll( "\\s+", " " ) );
+        }
+        Properties properties = request.getProperties( );
+        if ( properties != null )
+        {
+            for ( Map.Entry<Object, Object> entry : properties.entrySet( ) )
+            {
+                commandline.createArg( ).setValue( ARG_PROPERTY + entry.getKey( ) + "=" + entry.getValue( ) );
+            }
+        }
+        // a goal may hold several arguments, split like the invoker does
+        for ( Object goal : request.getGoals( ) )
+        {
+            commandline.createArg( ).setLine( (String) goal );
+        }
+
+        if ( request.isShellEnvironmentInherited( ) )
+        {
+            try
+            {
+                commandline.addSystemEnvironment( );
+            }
+            catch( Exception e )
+            {
+                throw new CommandLineException( "Unable to read the system environment", e );
+            }
+        }
+        // read by the daemon client JVM
+        if ( !StringUtils.isEmpty( request.getMavenOpts( ) ) )
+        {
+            commandline.addEnvironment( ENV_MAVEN_OPTS, request.getMavenOpts( ) );
+        }
+
+        StreamConsumer consumer = new StreamConsumer( )
+        {
+            @Override
+            public void consumeLine( String strLine )
+            {
+                outputHandler.consumeLine( strLine );
+            }
+        };
+
+        return CommandLineUtils.executeCommandLine( commandline, consumer, consumer );
+    }
+}
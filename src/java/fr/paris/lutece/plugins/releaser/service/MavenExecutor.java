@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.shared.invoker.DefaultInvoker;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.apache.maven.shared.invoker.Invoker;
+import org.apache.maven.shared.invoker.MavenInvocationException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * MavenExecutor : runs Maven invocations concurrently, up to a maximum number of executions.<br>
+ * Each invocation gets its own invoker and output handler, so the output of a release never goes to the log of
+ * another one. The local repository is shared by all the executions : the resolver named lock factory given at
+ * construction makes the concurrent builds lock the artifacts they write in it. The lock properties are also added to
+ * the -Darguments of the release goals, since the release plugin forks the inner build that deploys the artifacts.<br>
+ * When a Maven daemon launcher is set, the goals are run by the warm daemon and the invoker fork is only used if the
+ * daemon client can not be launched.
+ */
+public class MavenExecutor
+{
+    private static final String PROPERTY_SYNC_CONTEXT_FACTORY = "aether.syncContext.named.factory";
+    private static final String PROPERTY_SYNC_CONTEXT_NAME_MAPPER = "aether.syncContext.named.nameMapper";
+    private static final String SYNC_CONTEXT_NAME_MAPPER = "file-gav";
+    private static final String OPTION_FORKED_ARGUMENTS = "-Darguments=\"";
+
+    private final File _fileMavenHome;
+    private final File _fileLocalRepository;
+    private final String _strSyncContextFactory;
+    private final Semaphore _semaphore;
+    private final AtomicInteger _nRunningCount = new AtomicInteger( );
+    private MavenDaemonLauncher _daemonLauncher;
+
+    /**
+     * Constructor
+     * 
+     * @param fileMavenHome
+     *            the maven home
+     * @param fileLocalRepository
+     *            the local repository, null for the default one
+     * @param nMaxConcurrentExecutions
+     *            the maximum number of executions running at the same time
+     * @param strSyncContextFactory
+     *            the resolver named lock factory (ex: file-lock), empty to keep the Maven default
+     */
+    public MavenExecutor( File fileMavenHome, File fileLocalRepository, int nMaxConcurrentExecutions, String strSyncContextFactory )
+    {
+        _fileMavenHome = fileMavenHome;
+        _fileLocalRepository = fileLocalRepository;
+        _strSyncContextFactory = strSyncContextFactory;
+        _semaphore = new Semaphore( Math.max( 1, nMaxConcurrentExecutions ), true );
+    }
+
+    /**
+     * Set the Maven daemon launcher used before the invoker fork
+     * 
+     * @param daemonLauncher
+     *            the daemon launcher, null to always fork
+     */
+    public void setDaemonLauncher( MavenDaemonLauncher daemonLauncher )
+    {
+        _daemonLauncher = daemonLauncher;
+    }
+
+    /**
+     * Run a Maven invocation, waiting for a free execution slot if the maximum is reached
+     * 
+     * @param request
+     *            the invocation request
+     * @param outputHandler
+     *            the handler of the output and error lines of this invocation
+     * @return the invocation result
+     * @throws MavenInvocationException
+     *             if Maven can not be launched
+     * @throws InterruptedException
+     *             if interrupted while waiting for a slot
+     */
+    public InvocationResult execute( InvocationRequest request, InvocationOutputHandler outputHandler ) throws MavenInvocationException,
+            InterruptedException
+    {
+        request.setOutputHandler( outputHandler );
+        request.setErrorHandler( outputHandler );
+
+        if ( !StringUtils.isEmpty( _strSyncContextFactory ) )
+        {
+            Properties properties = ( request.getProperties( ) != null ) ? request.getProperties( ) : new Properties( );
+            properties.setProperty( PROPERTY_SYNC_CONTEXT_FACTORY, _strSyncContextFactory );
+            properties.setProperty( PROPERTY_SYNC_CONTEXT_NAME_MAPPER, SYNC_CONTEXT_NAME_MAPPER );
+            request.setProperties( properties );
+            request.setGoals( addForkedArguments( request.getGoals( ), "-D" + PROPERTY_SYNC_CONTEXT_FACTORY + "=" + _strSyncContextFactory + " -D"
+                    + PROPERTY_SYNC_CONTEXT_NAME_MAPPER + "=" + SYNC_CONTEXT_NAME_MAPPER ) );
+        }
+
+        _semaphore.acquire( );
+        _nRunningCount.incrementAndGet( );
+        long lStart = System.currentTimeMillis( );
+        boolean bDaemon = false;
+        try
+        {
+            if ( _daemonLauncher != null && _daemonLauncher.isAvailable( ) )
+            {
+                try
+                {
+                    InvocationResult result = new DaemonInvocationResult( _daemonLauncher.execute( request, _fileLocalRepository, outputHandler ) );
+                    bDaemon = true;
+                    return result;
+                }
+                catch( CommandLineException e )
+                {
+                    AppLogService.error( "Unable to run the Maven daemon, falling back to a forked Maven : " + e.getMessage( ), e );
+                }
+            }
+
+            Invoker invoker = new DefaultInvoker( );
+            invoker.setMavenHome( _fileMavenHome );
+            if ( _fileLocalRepository != null )
+            {
+                invoker.setLocalRepositoryDirectory( _fileLocalRepository );
+            }
+            return invoker.execute( request );
+        }
+        finally
+        {
+            _nRunningCount.decrementAndGet( );
+            _semaphore.release( );
+            // the goals are not logged, they hold the scm password
+            String strTiming = "Maven build of " + request.getPomFile( ) + " run by " + ( bDaemon ? "daemon" : "fork" ) + " in "
+                    + ( System.currentTimeMillis( ) - lStart ) + " ms";
+            AppLogService.info( strTiming );
+            outputHandler.consumeLine( strTiming );
+        }
+    }
+
+    /**
+     * Add arguments to the -Darguments option of the goals, passed by the release plugin to the Maven it forks
+     * 
+     * @param listGoals
+     *            the goals
+     * @param strArguments
+     *            the arguments to add
+     * @return the goals with the added arguments, the goals without -Darguments are unchanged
+     */
+    static List<String> addForkedArguments( List<String> listGoals, String strArguments )
+    {
+        List<String> listForkedGoals = new ArrayList<>( listGoals.size( ) );
+        for ( String strGoal : listGoals )
+        {
+            int nStart = strGoal.indexOf( OPTION_FORKED_ARGUMENTS );
+            int nEnd = ( nStart >= 0 ) ? strGoal.indexOf( '"', nStart + OPTION_FORKED_ARGUMENTS.length( ) ) : -1;
+            if ( nEnd >= 0 )
+            {
+                listForkedGoals.add( strGoal.substring( 0, nEnd ) + " " + strArguments + strGoal.substring( nEnd ) );
+            }
+            else
+            {
+                listForkedGoals.add( strGoal );
+            }
+        }
+        return listForkedGoals;
+    }
+
+    /**
+     * Returns the number of running executions
+     * 
+     * @return the running count
+     */
+    public int getRunningCount( )
+    {
+        return _nRunningCount.get( );
+    }
+
+    /**
+     * Returns the number of executions waiting for a slot
+     * 
+     * @return the waiting count
+     */
+    public int getWaitingCount( )
+    {
+        return _semaphore.getQueueLength( );
+    }
+
+    /**
+     * Result of a build run by the Maven daemon
+     */
+    private static final class DaemonInvocationResult implements InvocationResult
+    {
+        private final int _nExitCode;
+
+        /**
+         * Constructor
+         * 
+         * @param nExitCode
+         *            the exit code of the build
+         */
+        DaemonInvocationResult( int nExitCode )
+        {
+            _nExitCode = nExitCode;
+        }
+
+        @Override
+        public CommandLineException getExecutionException( )
+        {
+            return null;
+        }
+
+        @Override
+        public int getExitCode( )
+        {
+            return _nExitCode;
+        }
+    }
+}
@@ -36,19 +36,20 @@ package fr.paris.lutece.plugins.releaser.service;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.shared.invoker.DefaultInvocationRequest;
-import org.apache.maven.shared.invoker.DefaultInvoker;
-import org.apache.maven.shared.invoker.InvocationOutputHandler;
 import org.apache.maven.shared.invoker.InvocationRequest;
 import org.apache.maven.shared.invoker.InvocationResult;
-import org.apache.maven.shared.invoker.Invoker;
 
 import fr.paris.lutece.plugins.releaser.util.CommandResult;
 import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
 import fr.paris.lutece.plugins.releaser.util.maven.MavenGoals;
+import fr.paris.lutece.plugins.releaser.util.maven.MavenOutputSink;
 import fr.paris.lutece.plugins.releaser.util.maven.MavenUtils;
 import fr.paris.lutece.plugins.releaser.util.svn.SvnUser;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
@@ -62,7 +63,12 @@ import fr.paris.lutece.portal.service.util.AppPropertiesService;
 public class MavenService implements IMavenService
 {
     // private static IMavenService _singleton;
-    private Invoker _invoker;
+    private MavenExecutor _mavenExecutor;
+    private Pattern _patternOutputFilter;
+    private int _nOutputBatchSize;
+    private boolean _bRawOutput;
+    private int _nRawOutputMaxCount;
+    private int _nRawOutputMaxAge;
     private static IMavenService _instance;
     
 
@@ -85,10 +91,24 @@ public class MavenService implements IMavenService
 
     public void init( )
     {
-        _invoker = new DefaultInvoker( );
-        _invoker.setMavenHome( new File( AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_MAVEN_HOME_PATH ) ) );
-        _invoker.setLocalRepositoryDirectory( new File( AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_MAVEN_LOCAL_REPOSITORY ) ) );
-        
+        String strLocalRepository = AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_MAVEN_LOCAL_REPOSITORY );
+        _mavenExecutor = new MavenExecutor( new File( AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_MAVEN_HOME_PATH ) ),
+                StringUtils.isEmpty( strLocalRepository ) ? null : new File( strLocalRepository ),
+                AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_MAVEN_MAX_CONCURRENT_EXECUTIONS, 2 ),
+                AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_MAVEN_SYNC_CONTEXT_FACTORY ) );
+
+        String strDaemonPath = AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_MAVEN_DAEMON_PATH );
+        if ( AppPropertiesService.getPropertyBoolean( ConstanteUtils.PROPERTY_MAVEN_DAEMON_ENABLED, false ) && !StringUtils.isEmpty( strDaemonPath ) )
+        {
+            _mavenExecutor.setDaemonLauncher( new MavenDaemonLauncher( new File( strDaemonPath ) ) );
+        }
+
+        String strOutputFilter = AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_MAVEN_OUTPUT_FILTER );
+        _patternOutputFilter = StringUtils.isEmpty( strOutputFilter ) ? null : Pattern.compile( strOutputFilter );
+        _nOutputBatchSize = AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_MAVEN_OUTPUT_BATCH_SIZE, 4096 );
+        _bRawOutput = AppPropertiesService.getPropertyBoolean( ConstanteUtils.PROPERTY_MAVEN_OUTPUT_RAW, true );
+        _nRawOutputMaxCount = AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_MAVEN_OUTPUT_RAW_MAX_COUNT, 200 );
+        _nRawOutputMaxAge = AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_MAVEN_OUTPUT_RAW_MAX_AGE, 30 );
     }
 
     /*
@@ -141,7 +161,7 @@ public class MavenService implements IMavenService
      *            svn bin path (ex: /home/svn/apps/subversion/bin)
      */
    
-    private synchronized InvocationResult mvnExecute( String strPathPom, List<String> goals, CommandResult commandResult )
+    private InvocationResult mvnExecute( String strPathPom, List<String> goals, CommandResult commandResult )
     {
         InvocationRequest request = new DefaultInvocationRequest( );
         request.setPomFile( new File( strPathPom ) );
@@ -157,28 +177,40 @@ public class MavenService implements IMavenService
             request.setMavenOpts( "-Dhttps.proxyHost="+strProxyHost+"  -Dhttps.proxyPort="+strProxyPort+" -Dhttp.proxyHost="+strProxyHost+"  -Dhttp.proxyPort="+strProxyPort +" -Dfile.encoding=UTF-8");
         }
         InvocationResult invocationResult = null;
+        // logger of this invocation only
+        File fileRawOutput = null;
+        if ( _bRawOutput )
+        {
+            fileRawOutput = MavenOutputSink.getRawOutputFile( ReleaseLog.getLogDirectory( ), request.getPomFile( ).getAbsoluteFile( ).getParentFile( ).getName( ) );
+        }
+        MavenOutputSink outputSink = new MavenOutputSink( commandResult.getLog( ), _patternOutputFilter, fileRawOutput, _nOutputBatchSize );
+        Exception exception = null;
         try
         {
-            final StringBuffer sbLog = commandResult.getLog( );
-            
-            // logger
-            _invoker.setOutputHandler( new InvocationOutputHandler( )
-            {
-                public void consumeLine( String strLine )
-                {
-                    sbLog.append( strLine + "\n" );
-                }
-            } );
-
-            invocationResult = _invoker.execute( request );
-
-            return invocationResult;
-
+            invocationResult = _mavenExecutor.execute( request, outputSink );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            exception = e;
         }
         catch( Exception e )
         {
+            exception = e;
+        }
+        finally
+        {
+            // the buffered output is flushed to the log before the error is reported
+            outputSink.close( );
+            if ( fileRawOutput != null )
+            {
+                MavenOutputSink.purgeRawOutputFiles( ReleaseLog.getLogDirectory( ), _nRawOutputMaxCount, TimeUnit.DAYS.toMillis( _nRawOutputMaxAge ) );
+            }
+        }
 
-            ReleaserUtils.addTechnicalError( commandResult, commandResult.getLog( ).toString( ), e );
+        if ( exception != null )
+        {
+            ReleaserUtils.addTechnicalError( commandResult, commandResult.getLog( ).toString( ), exception );
         }
 
         return invocationResult;
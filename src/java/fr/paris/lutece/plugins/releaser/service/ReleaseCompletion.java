@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReleaseCompletion : completion signal of the workflow of a release context.<br>
+ * Listeners registered before the end are notified by the thread finishing the workflow, listeners registered after
+ * are notified at once, so continuations never need a thread waiting for the release.
+ */
+public class ReleaseCompletion
+{
+    private final List<IReleaseCompletionListener> _listListeners = new ArrayList<>( );
+    private WorkflowReleaseContext _context;
+    private boolean _bSuccess;
+    private boolean _bDone;
+
+    /**
+     * Register a listener notified at the end of the release
+     * 
+     * @param listener
+     *            the listener
+     */
+    public void addListener( IReleaseCompletionListener listener )
+    {
+        synchronized( this )
+        {
+            if ( !_bDone )
+            {
+                _listListeners.add( listener );
+                return;
+            }
+        }
+        notifyListener( listener );
+    }
+
+    /**
+     * Signal the end of the release and notify the listeners. Only the first call is taken into account.
+     * 
+     * @param context
+     *            the release context
+     * @param bSuccess
+     *            true if the release succeeded
+     */
+    public void complete( WorkflowReleaseContext context, boolean bSuccess )
+    {
+        List<IReleaseCompletionListener> listListeners;
+        synchronized( this )
+        {
+            if ( _bDone )
+            {
+                return;
+            }
+            _context = context;
+            _bSuccess = bSuccess;
+            _bDone = true;
+            listListeners = new ArrayList<>( _listListeners );
+            _listListeners.clear( );
+        }
+        for ( IReleaseCompletionListener listener : listListeners )
+        {
+            notifyListener( listener );
+        }
+    }
+
+    /**
+     * Check if the release is finished
+     * 
+     * @return true if the release is finished
+     */
+    public synchronized boolean isDone( )
+    {
+        return _bDone;
+    }
+
+    /**
+     * Check if the release succeeded
+     * 
+     * @return true if the release is finished and succeeded
+     */
+    public synchronized boolean isSuccess( )
+    {
+        return _bDone && _bSuccess;
+    }
+
+    /**
+     * Notify a listener, an error of a listener must not prevent the others to be notified
+     * 
+     * @param listener
+     *            the listener
+     */
+    private void notifyListener( IReleaseCompletionListener listener )
+    {
+        WorkflowReleaseContext context;
+        boolean bSuccess;
+        synchronized( this )
+        {
+            context = _context;
+            bSuccess = _bSuccess;
+        }
+        try
+        {
+            listener.releaseCompleted( context, bSuccess );
+        }
+        catch( RuntimeException e )
+        {
+            AppLogService.error( "Error notifying the end of the release context " + ( ( context != null ) ? context.getId( ) : "" ), e );
+        }
+    }
+}
@@ -27,7 +27,6 @@ import fr.paris.lutece.portal.service.workflow.WorkflowService;
  */
 public class ReleaseComponentTask implements Runnable {
 
-    private static final long WAIT_TIME=1000;
 	private int _nIdWorkflow;
 	private WorkflowReleaseContext _wfContext;
 	private HttpServletRequest _request;
@@ -59,96 +58,106 @@ public class ReleaseComponentTask implements Runnable {
                         WorkflowReleaseContext.WORKFLOW_RESOURCE_TYPE, _nIdWorkflow,
                         ConstanteUtils.CONSTANTE_ID_NULL );
         ReleaserUtils.startCommandResult( _wfContext );
-      
-        
+        boolean bStarted = false;
+        RuntimeException error = null;
         
         try
         {
             
-            //Wait all component released  before releasing site
+            //The site is started by the SiteReleaseScheduler once all its components are finished
             if(_wfContext.getSite( ) !=null)
             {
-                while(!testAllComponentReleased( _wfContext.getSite( ) ))
-                {
-                   
-                    try
-                    {
-                       Thread.sleep( WAIT_TIME );
-                    }
-                    catch( InterruptedException e )
-                    {
-                        AppLogService.error( e );
-                    }
-                }
-                
                 if(hasErrorDuringReleaseComponent( _wfContext.getSite( ) ))
                 {
                     ReleaserUtils.addTechnicalError( _wfContext.getCommandResult( ), "The site can not be retrieved because one  of component of the site is in error" );
                  }
             }
           
-
-           Collection<Action> listActions= WorkflowService.getInstance(  ).getActions( _wfContext.getId( ), WorkflowReleaseContext.WORKFLOW_RESOURCE_TYPE,_nIdWorkflow,_user);
-            
-            for(Action action:listActions)
+            //The workflow tasks only add their stages to the chain, the release thread is given back before the stages run
+            WorkflowReleaseContextService.getService( ).runWorkflowReleaseStages( _wfContext, new Runnable( )
             {
-                WorkflowService.getInstance(  ).doProcessAction( _wfContext.getId( ), WorkflowReleaseContext.WORKFLOW_RESOURCE_TYPE, action.getId( ), -1, _request, _locale, true ); 
-                if(_wfContext.getComponent( )!=null)
+                @Override
+                public void run( )
                 {
+                    Collection<Action> listActions= WorkflowService.getInstance(  ).getActions( _wfContext.getId( ), WorkflowReleaseContext.WORKFLOW_RESOURCE_TYPE,_nIdWorkflow,_user);
                     
-                   //Save in database the release and the next snapshot version
-                    ComponentService.getService( ).setLastReleaseVersion(_wfContext.getComponent( ).getArtifactId( ) ,_wfContext.getComponent( ).getTargetVersion( ));
-                    _wfContext.getComponent( ).setLastAvailableVersion( _wfContext.getComponent( ).getTargetVersion( ) );
-                    ComponentService.getService( ).setLastReleaseNextSnapshotVersion(_wfContext.getComponent( ).getArtifactId( ) ,_wfContext.getComponent( ).getNextSnapshotVersion( ));
-                    _wfContext.getComponent( ).setLastAvailableSnapshotVersion( _wfContext.getComponent( ).getNextSnapshotVersion( ) );
-                    
-                    
-                
+                    for(Action action:listActions)
+                    {
+                        WorkflowService.getInstance(  ).doProcessAction( _wfContext.getId( ), WorkflowReleaseContext.WORKFLOW_RESOURCE_TYPE, action.getId( ), -1, _request, _locale, true ); 
+                        break;
+                    }
+                }
+            }, new ReleaseStageExecutor.StageChainListener( )
+            {
+                @Override
+                public void chainEnded( RuntimeException stageError )
+                {
+                    endRelease( stageError );
                 }
+            } );
+            bStarted = true;
+            
+        }
+        catch( RuntimeException e )
+        {
+            error = e;
+        }
+        finally
+        {
+            if ( !bStarted )
+            {
+                endRelease( ( error != null ) ? error : new AppException( "The release of the context " + _wfContext.getId( ) + " is stopped" ) );
+            }
+        }
+	}
+
+    /**
+     * Saves the released versions after the last stage, then stores and completes the release context
+     * 
+     * @param error
+     *            the error that stopped the release, null if the release succeeded
+     */
+    private void endRelease( RuntimeException error )
+    {
+        boolean bSuccess = false;
+
+        try
+        {
+            if ( error != null )
+            {
+                throw error;
+            }
+            if(_wfContext.getComponent( )!=null)
+            {
+                
+               //Save in database the release and the next snapshot version
+                ComponentService.getService( ).setLastReleaseVersion(_wfContext.getComponent( ).getArtifactId( ) ,_wfContext.getComponent( ).getTargetVersion( ));
+                _wfContext.getComponent( ).setLastAvailableVersion( _wfContext.getComponent( ).getTargetVersion( ) );
+                ComponentService.getService( ).setLastReleaseNextSnapshotVersion(_wfContext.getComponent( ).getArtifactId( ) ,_wfContext.getComponent( ).getNextSnapshotVersion( ));
+                _wfContext.getComponent( ).setLastAvailableSnapshotVersion( _wfContext.getComponent( ).getNextSnapshotVersion( ) );
                 
-                break;
             }
-            
-            
+            bSuccess = true;
         }
-        catch( AppException appe )
+        catch( RuntimeException e )
         {
            if( _wfContext.getComponent( )!=null)
            {
                
                _wfContext.getComponent( ).setErrorLastRelease( true );
            }
-            AppLogService.error( appe );
+            AppLogService.error( e );
         }
         finally
         {
             ReleaserUtils.stopCommandResult( _wfContext );
             WorkflowReleaseContextService.getService( ).saveWorkflowReleaseContext( _wfContext );
+            WorkflowReleaseContextService.getService( ).completeWorkflowReleaseContext( _wfContext, bSuccess );
         }
-	}
+    }
 
 
 
-    private boolean testAllComponentReleased(Site site)
-    {
-        if(!CollectionUtils.isEmpty(site.getComponents( )))
-        {
-     
-           for(Component component:site.getComponents( ))
-           {
-               //Test if the release is finished
-               if(!component.isErrorLastRelease( ) && component.shouldBeReleased( ) )
-               {
-                   return false;
-                   
-               }
-           }
-        }
-        
-       return true;
-        
-    }
-    
     private boolean hasErrorDuringReleaseComponent(Site site)
     {
         if(!CollectionUtils.isEmpty(site.getComponents( )))
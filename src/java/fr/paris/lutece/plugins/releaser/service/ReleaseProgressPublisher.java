@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
+import fr.paris.lutece.plugins.releaser.util.CommandResult;
+import fr.paris.lutece.plugins.releaser.util.ReleaseProgress;
+
+/**
+ * ReleaseProgressPublisher : single reader of the progress of a release context, shared by all its subscribers.<br>
+ * Each publication reads the log appended since the previous one once, whatever the number of subscribers, and hands
+ * the same event to all of them.
+ */
+public class ReleaseProgressPublisher
+{
+    private static final int SUBSCRIPTION_QUEUE_SIZE = 64;
+
+    private final WorkflowReleaseContext _context;
+    private final List<Subscription> _listSubscriptions = new CopyOnWriteArrayList<>( );
+    private CommandResult _commandResult;
+    private ReleaseProgress _lastProgress;
+    private long _lCursor;
+    private boolean _bClosed;
+
+    /**
+     * Constructor
+     * 
+     * @param context
+     *            the release context
+     */
+    public ReleaseProgressPublisher( WorkflowReleaseContext context )
+    {
+        _context = context;
+    }
+
+    /**
+     * Subscribe to the progress of the release. The first event of the subscription holds the log appended since the
+     * offset of the subscriber.
+     * 
+     * @param lOffset
+     *            the log offset already read by the subscriber, negative to only get the new log
+     * @return the subscription, null if the publisher is closed
+     */
+    public Subscription subscribe( long lOffset )
+    {
+        return subscribe( lOffset, null );
+    }
+
+    /**
+     * Subscribe to the progress of the release, the signal is released for each event queued for the subscriber. A
+     * single signal shared by several subscriptions lets a subscriber wait for the events of several releases.
+     * 
+     * @param lOffset
+     *            the log offset already read by the subscriber, negative to only get the new log
+     * @param signal
+     *            the signal of the new events, may be null
+     * @return the subscription, null if the publisher is closed
+     */
+    public synchronized Subscription subscribe( long lOffset, Semaphore signal )
+    {
+        if ( _bClosed )
+        {
+            return null;
+        }
+
+        Subscription subscription = new Subscription( signal );
+        CommandResult commandResult = _context.getCommandResult( );
+        if ( commandResult != null )
+        {
+            ReleaseProgress progress = of( commandResult, lOffset );
+            if ( _commandResult == null )
+            {
+                // the publications start from the current end of the log
+                _commandResult = commandResult;
+                _lCursor = progress.getNextOffset( );
+                _lastProgress = progress;
+            }
+            subscription.offer( progress );
+        }
+        _listSubscriptions.add( subscription );
+
+        return subscription;
+    }
+
+    /**
+     * Publish the log appended since the previous publication and the state of the release, if any of them changed
+     * 
+     * @return true if the publisher still has subscribers, false if it has been closed
+     */
+    public synchronized boolean publish( )
+    {
+        CommandResult commandResult = _context.getCommandResult( );
+        if ( commandResult != null )
+        {
+            if ( commandResult != _commandResult )
+            {
+                // a new command result restarts the log
+                _commandResult = commandResult;
+                _lCursor = 0;
+                _lastProgress = null;
+            }
+
+            ReleaseProgress progress = of( commandResult, _lCursor );
+            if ( !progress.getLog( ).isEmpty( ) || progress.isStateChanged( _lastProgress ) )
+            {
+                _lCursor = progress.getNextOffset( );
+                _lastProgress = progress;
+                for ( Subscription subscription : _listSubscriptions )
+                {
+                    subscription.offer( progress );
+                }
+            }
+        }
+
+        if ( _listSubscriptions.isEmpty( ) )
+        {
+            _bClosed = true;
+        }
+        return !_bClosed;
+    }
+
+    /**
+     * Build the progress of the release
+     * 
+     * @param commandResult
+     *            the command result of the release
+     * @param lOffset
+     *            the log offset
+     * @return the progress, holding the id of the release context
+     */
+    private ReleaseProgress of( CommandResult commandResult, long lOffset )
+    {
+        ReleaseProgress progress = ReleaseProgress.of( commandResult, lOffset );
+        progress.setIdContext( _context.getId( ) );
+        return progress;
+    }
+
+    /**
+     * Returns the number of subscriptions
+     * 
+     * @return the subscription count
+     */
+    public int getSubscriptionCount( )
+    {
+        return _listSubscriptions.size( );
+    }
+
+    /**
+     * Subscription : events of the release waiting to be sent to a subscriber
+     */
+    public final class Subscription
+    {
+        private final BlockingQueue<ReleaseProgress> _queue = new LinkedBlockingQueue<>( SUBSCRIPTION_QUEUE_SIZE );
+        private final Semaphore _signal;
+        private volatile boolean _bResync;
+        private long _lCursor = -1;
+
+        /**
+         * Constructor
+         * 
+         * @param signal
+         *            the signal of the new events, may be null
+         */
+        private Subscription( Semaphore signal )
+        {
+            _signal = signal;
+        }
+
+        /**
+         * Queue an event. If the subscriber is too slow the queue is dropped and the next poll reads the log again
+         * from the subscriber offset.
+         * 
+         * @param progress
+         *            the event
+         */
+        private void offer( ReleaseProgress progress )
+        {
+            if ( !_queue.offer( progress ) )
+            {
+                _queue.clear( );
+                _bResync = true;
+            }
+            if ( _signal != null )
+            {
+                _signal.release( );
+            }
+        }
+
+        /**
+         * Wait for the next event
+         * 
+         * @param lTimeout
+         *            the maximum time to wait in milliseconds
+         * @return the event holding only the log not yet received by this subscriber, null if the timeout elapsed
+         * @throws InterruptedException
+         *             if interrupted while waiting
+         */
+        public ReleaseProgress poll( long lTimeout ) throws InterruptedException
+        {
+            if ( _bResync )
+            {
+                _bResync = false;
+                CommandResult commandResult = _context.getCommandResult( );
+                if ( commandResult != null )
+                {
+                    return received( of( commandResult, Math.max( 0, _lCursor ) ) );
+                }
+            }
+
+            ReleaseProgress progress = _queue.poll( lTimeout, TimeUnit.MILLISECONDS );
+            if ( progress != null && progress.getNextOffset( ) < _lCursor )
+            {
+                // a new command result restarted the log
+                _lCursor = 0;
+            }
+            return ( progress != null ) ? received( progress.since( _lCursor ) ) : null;
+        }
+
+        /**
+         * Stop the subscription
+         */
+        public void close( )
+        {
+            _listSubscriptions.remove( this );
+        }
+
+        /**
+         * Move the cursor of the subscriber after an event
+         * 
+         * @param progress
+         *            the event
+         * @return the event
+         */
+        private ReleaseProgress received( ReleaseProgress progress )
+        {
+            _lCursor = Math.max( _lCursor, progress.getNextOffset( ) );
+            return progress;
+        }
+    }
+}
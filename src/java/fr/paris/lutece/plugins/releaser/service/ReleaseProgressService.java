@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
+import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * ReleaseProgressService : one publisher per release context with subscribers, all of them published by a single
+ * thread at a fixed interval. The log lines appended between two publications are sent in a single event.
+ */
+public class ReleaseProgressService implements IReleaseProgressService
+{
+    private static final long DEFAULT_BATCH_INTERVAL = 500L;
+    private static final long DEFAULT_HEARTBEAT_INTERVAL = 15000L;
+    private static final long DEFAULT_MAX_STREAM_DURATION = 300000L;
+    private static final String THREAD_NAME = "releaser-progress-publisher";
+
+    private static IReleaseProgressService _instance;
+    private final Map<Integer, ReleaseProgressPublisher> _mapPublishers = new ConcurrentHashMap<>( );
+    private ScheduledExecutorService _scheduler;
+    private long _lHeartbeatInterval;
+    private long _lMaxStreamDuration;
+
+    /**
+     * Returns the unique instance of the service
+     * 
+     * @return the service
+     */
+    public static IReleaseProgressService getService( )
+    {
+        if ( _instance == null )
+        {
+            _instance = SpringContextService.getBean( ConstanteUtils.BEAN_RELEASE_PROGRESS_SERVICE );
+            _instance.init( );
+        }
+
+        return _instance;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void init( )
+    {
+        _lHeartbeatInterval = AppPropertiesService.getPropertyLong( ConstanteUtils.PROPERTY_RELEASE_PROGRESS_HEARTBEAT_INTERVAL, DEFAULT_HEARTBEAT_INTERVAL );
+        _lMaxStreamDuration = AppPropertiesService.getPropertyLong( ConstanteUtils.PROPERTY_RELEASE_PROGRESS_MAX_STREAM_DURATION, DEFAULT_MAX_STREAM_DURATION );
+        long lBatchInterval = AppPropertiesService.getPropertyLong( ConstanteUtils.PROPERTY_RELEASE_PROGRESS_BATCH_INTERVAL, DEFAULT_BATCH_INTERVAL );
+
+        _scheduler = Executors.newSingleThreadScheduledExecutor( new ThreadFactory( )
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, THREAD_NAME );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        _scheduler.scheduleWithFixedDelay( new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                publishAll( );
+            }
+        }, lBatchInterval, lBatchInterval, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public ReleaseProgressPublisher.Subscription subscribe( int nIdContext, long lOffset )
+    {
+        return subscribe( nIdContext, lOffset, null );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public ReleaseProgressPublisher.Subscription subscribe( int nIdContext, long lOffset, Semaphore signal )
+    {
+        WorkflowReleaseContext context = WorkflowReleaseContextService.getService( ).getWorkflowReleaseContext( nIdContext );
+        if ( context == null )
+        {
+            return null;
+        }
+
+        ReleaseProgressPublisher.Subscription subscription = null;
+        while ( subscription == null )
+        {
+            ReleaseProgressPublisher publisher = _mapPublishers.get( nIdContext );
+            if ( publisher == null )
+            {
+                ReleaseProgressPublisher newPublisher = new ReleaseProgressPublisher( context );
+                publisher = _mapPublishers.putIfAbsent( nIdContext, newPublisher );
+                if ( publisher == null )
+                {
+                    publisher = newPublisher;
+                }
+            }
+            subscription = publisher.subscribe( lOffset, signal );
+            if ( subscription == null )
+            {
+                // the publisher has just been closed
+                _mapPublishers.remove( nIdContext, publisher );
+            }
+        }
+
+        return subscription;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getHeartbeatInterval( )
+    {
+        return _lHeartbeatInterval;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long getMaxStreamDuration( )
+    {
+        return _lMaxStreamDuration;
+    }
+
+    /**
+     * Publish the progress of all the release contexts with subscribers and drop the publishers without subscribers
+     */
+    private void publishAll( )
+    {
+        for ( Map.Entry<Integer, ReleaseProgressPublisher> entry : _mapPublishers.entrySet( ) )
+        {
+            try
+            {
+                if ( !entry.getValue( ).publish( ) )
+                {
+                    _mapPublishers.remove( entry.getKey( ), entry.getValue( ) );
+                }
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "Unable to publish the progress of the release context " + entry.getKey( ) + " : " + e.getMessage( ), e );
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+/**
+ * ReleaseStage : the stages of the release pipeline, each one run by its own pool
+ */
+public enum ReleaseStage
+{
+    /** SCM checkout, clone and merge */
+    CHECKOUT( "releaser.stage.checkout.poolSize", 4 ),
+    /** Maven release prepare and site tag */
+    PREPARE( "releaser.stage.prepare.poolSize", 2 ),
+    /** Maven release perform */
+    PERFORM( "releaser.stage.perform.poolSize", 2 ),
+    /** Post release notifications : Jira, Twitter */
+    NOTIFY( "releaser.stage.notify.poolSize", 2 );
+
+    private final String _strPoolSizeProperty;
+    private final int _nDefaultPoolSize;
+
+    /**
+     * Constructor
+     * 
+     * @param strPoolSizeProperty
+     *            the property defining the pool size of the stage
+     * @param nDefaultPoolSize
+     *            the default pool size
+     */
+    ReleaseStage( String strPoolSizeProperty, int nDefaultPoolSize )
+    {
+        _strPoolSizeProperty = strPoolSizeProperty;
+        _nDefaultPoolSize = nDefaultPoolSize;
+    }
+
+    /**
+     * Returns the property defining the pool size of the stage
+     * 
+     * @return the property key
+     */
+    public String getPoolSizeProperty( )
+    {
+        return _strPoolSizeProperty;
+    }
+
+    /**
+     * Returns the default pool size of the stage
+     * 
+     * @return the default pool size
+     */
+    public int getDefaultPoolSize( )
+    {
+        return _nDefaultPoolSize;
+    }
+}
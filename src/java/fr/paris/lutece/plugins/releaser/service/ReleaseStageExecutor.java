@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.portal.service.util.AppException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReleaseStageExecutor : one bounded pool per release stage.<br>
+ * The stages of a release context are run as a chain : each stage is handed over to the pool of the stage and the
+ * next stage is submitted to its own pool when the previous one ends. No thread waits for a stage, so a long Maven
+ * release perform only uses a perform worker and does not delay the clones or the notifications of the other
+ * releases. The pools bound the number of stages running at the same time, the stages waiting for a worker are queued.
+ */
+public class ReleaseStageExecutor
+{
+    private static final String THREAD_NAME_PREFIX = "releaser-stage-";
+
+    private final Map<ReleaseStage, ThreadPoolExecutor> _mapExecutors = new EnumMap<>( ReleaseStage.class );
+    private final Map<ReleaseStage, StageCounters> _mapCounters = new EnumMap<>( ReleaseStage.class );
+
+    /**
+     * Constructor
+     * 
+     * @param mapPoolSizes
+     *            the number of workers of each stage, the stages not in the map get their default size
+     */
+    public ReleaseStageExecutor( Map<ReleaseStage, Integer> mapPoolSizes )
+    {
+        for ( ReleaseStage stage : ReleaseStage.values( ) )
+        {
+            Integer nPoolSize = mapPoolSizes.get( stage );
+            int nSize = Math.max( 1, ( nPoolSize != null ) ? nPoolSize : stage.getDefaultPoolSize( ) );
+            ThreadPoolExecutor executor = new ThreadPoolExecutor( nSize, nSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>( ),
+                    new StageThreadFactory( stage ) );
+            executor.allowCoreThreadTimeOut( true );
+            _mapExecutors.put( stage, executor );
+            _mapCounters.put( stage, new StageCounters( ) );
+        }
+    }
+
+    /**
+     * Creates an empty chain of stages
+     * 
+     * @return the chain
+     */
+    public StageChain newChain( )
+    {
+        return new StageChain( );
+    }
+
+    /**
+     * Returns the metrics of all the stages
+     * 
+     * @return the metrics
+     */
+    public List<StageMetrics> getMetrics( )
+    {
+        List<StageMetrics> listMetrics = new ArrayList<>( );
+        for ( ReleaseStage stage : ReleaseStage.values( ) )
+        {
+            listMetrics.add( getMetrics( stage ) );
+        }
+        return listMetrics;
+    }
+
+    /**
+     * Returns the metrics of a stage
+     * 
+     * @param stage
+     *            the stage
+     * @return the metrics
+     */
+    public StageMetrics getMetrics( ReleaseStage stage )
+    {
+        ThreadPoolExecutor executor = _mapExecutors.get( stage );
+        StageCounters counters = _mapCounters.get( stage );
+        long lCount = counters._lExecutedCount.get( );
+
+        StageMetrics metrics = new StageMetrics( );
+        metrics._strStage = stage.name( );
+        metrics._nPoolSize = executor.getMaximumPoolSize( );
+        metrics._nActiveCount = executor.getActiveCount( );
+        metrics._nQueueLength = executor.getQueue( ).size( );
+        metrics._lExecutedCount = lCount;
+        metrics._lFailedCount = counters._lFailedCount.get( );
+        if ( lCount > 0 )
+        {
+            metrics._lAverageWaitTime = TimeUnit.NANOSECONDS.toMillis( counters._lWaitTime.get( ) / lCount );
+            metrics._lAverageExecutionTime = TimeUnit.NANOSECONDS.toMillis( counters._lExecutionTime.get( ) / lCount );
+        }
+        metrics._lMaxExecutionTime = TimeUnit.NANOSECONDS.toMillis( counters._lMaxExecutionTime.get( ) );
+
+        return metrics;
+    }
+
+    /**
+     * Stop the pools
+     */
+    public void shutdown( )
+    {
+        for ( ThreadPoolExecutor executor : _mapExecutors.values( ) )
+        {
+            executor.shutdown( );
+        }
+    }
+
+    /**
+     * Listener of the end of a chain of stages
+     */
+    public interface StageChainListener
+    {
+        /**
+         * Called once, by the worker of the last run stage, when the chain ends
+         * 
+         * @param error
+         *            the error that stopped the chain, null if all the stages succeeded
+         */
+        void chainEnded( RuntimeException error );
+    }
+
+    /**
+     * Stages of a release run one after the other, each in the pool of its stage. The chain stops at the first stage
+     * error.
+     */
+    public final class StageChain
+    {
+        private final List<ReleaseStage> _listStages = new ArrayList<>( );
+        private final List<Runnable> _listTasks = new ArrayList<>( );
+        private StageChainListener _listener;
+
+        /**
+         * Constructor
+         */
+        private StageChain( )
+        {
+        }
+
+        /**
+         * Adds a stage at the end of the chain
+         * 
+         * @param stage
+         *            the stage
+         * @param task
+         *            the work of the stage
+         * @return the chain
+         */
+        public synchronized StageChain add( ReleaseStage stage, Runnable task )
+        {
+            if ( _listener != null )
+            {
+                throw new IllegalStateException( "The chain of stages is already started" );
+            }
+            _listStages.add( stage );
+            _listTasks.add( task );
+            return this;
+        }
+
+        /**
+         * Submits the first stage of the chain. The listener is called by the calling thread when the chain is empty.
+         * 
+         * @param listener
+         *            the listener of the end of the chain
+         */
+        public synchronized void start( StageChainListener listener )
+        {
+            if ( _listener != null )
+            {
+                throw new IllegalStateException( "The chain of stages is already started" );
+            }
+            _listener = listener;
+            submit( 0 );
+        }
+
+        /**
+         * Submits a stage of the chain to its pool, or ends the chain after the last stage
+         * 
+         * @param nIndex
+         *            the index of the stage
+         */
+        private void submit( final int nIndex )
+        {
+            if ( nIndex >= _listStages.size( ) )
+            {
+                _listener.chainEnded( null );
+                return;
+            }
+
+            final ReleaseStage stage = _listStages.get( nIndex );
+            final Runnable task = _listTasks.get( nIndex );
+            final StageCounters counters = _mapCounters.get( stage );
+            final long lSubmitTime = System.nanoTime( );
+
+            try
+            {
+                _mapExecutors.get( stage ).execute( new Runnable( )
+                {
+                    @Override
+                    public void run( )
+                    {
+                        long lStartTime = System.nanoTime( );
+                        counters._lWaitTime.addAndGet( lStartTime - lSubmitTime );
+                        RuntimeException error = null;
+                        try
+                        {
+                            task.run( );
+                        }
+                        catch( RuntimeException e )
+                        {
+                            error = e;
+                        }
+                        catch( Error e )
+                        {
+                            error = new AppException( "Error during the release stage " + stage, e );
+                        }
+                        finally
+                        {
+                            counters.executed( System.nanoTime( ) - lStartTime, error == null );
+                        }
+
+                        if ( error == null )
+                        {
+                            submit( nIndex + 1 );
+                        }
+                        else
+                        {
+                            _listener.chainEnded( error );
+                        }
+                    }
+                } );
+            }
+            catch( RejectedExecutionException e )
+            {
+                _listener.chainEnded( new AppException( "The pool of the release stage " + stage + " is stopped", e ) );
+            }
+        }
+    }
+
+    /**
+     * Metrics of a stage : pool usage and latency in milliseconds
+     */
+    public static class StageMetrics
+    {
+        private String _strStage;
+        private int _nPoolSize;
+        private int _nActiveCount;
+        private int _nQueueLength;
+        private long _lExecutedCount;
+        private long _lFailedCount;
+        private long _lAverageWaitTime;
+        private long _lAverageExecutionTime;
+        private long _lMaxExecutionTime;
+
+        /**
+         * Returns the stage name
+         * 
+         * @return the stage name
+         */
+        public String getStage( )
+        {
+            return _strStage;
+        }
+
+        /**
+         * Returns the number of workers of the stage
+         * 
+         * @return the pool size
+         */
+        public int getPoolSize( )
+        {
+            return _nPoolSize;
+        }
+
+        /**
+         * Returns the number of workers running a stage
+         * 
+         * @return the active count
+         */
+        public int getActiveCount( )
+        {
+            return _nActiveCount;
+        }
+
+        /**
+         * Returns the number of stages waiting for a worker
+         * 
+         * @return the queue length
+         */
+        public int getQueueLength( )
+        {
+            return _nQueueLength;
+        }
+
+        /**
+         * Returns the number of executed stages
+         * 
+         * @return the executed count
+         */
+        public long getExecutedCount( )
+        {
+            return _lExecutedCount;
+        }
+
+        /**
+         * Returns the number of stages ended by an error
+         * 
+         * @return the failed count
+         */
+        public long getFailedCount( )
+        {
+            return _lFailedCount;
+        }
+
+        /**
+         * Returns the average time spent waiting for a worker
+         * 
+         * @return the time in milliseconds
+         */
+        public long getAverageWaitTime( )
+        {
+            return _lAverageWaitTime;
+        }
+
+        /**
+         * Returns the average execution time
+         * 
+         * @return the time in milliseconds
+         */
+        public long getAverageExecutionTime( )
+        {
+            return _lAverageExecutionTime;
+        }
+
+        /**
+         * Returns the longest execution time
+         * 
+         * @return the time in milliseconds
+         */
+        public long getMaxExecutionTime( )
+        {
+            return _lMaxExecutionTime;
+        }
+    }
+
+    /**
+     * Cumulated counters of a stage
+     */
+    private static final class StageCounters
+    {
+        private final AtomicLong _lExecutedCount = new AtomicLong( );
+        private final AtomicLong _lFailedCount = new AtomicLong( );
+        private final AtomicLong _lWaitTime = new AtomicLong( );
+        private final AtomicLong _lExecutionTime = new AtomicLong( );
+        private final AtomicLong _lMaxExecutionTime = new AtomicLong( );
+
+        /**
+         * Record an execution
+         * 
+         * @param lExecutionTime
+         *            the execution time in nanoseconds
+         * @param bSuccess
+         *            true if the stage succeeded
+         */
+        void executed( long lExecutionTime, boolean bSuccess )
+        {
+            _lExecutedCount.incrementAndGet( );
+            if ( !bSuccess )
+            {
+                _lFailedCount.incrementAndGet( );
+            }
+            _lExecutionTime.addAndGet( lExecutionTime );
+            long lMax = _lMaxExecutionTime.get( );
+            while ( lExecutionTime > lMax && !_lMaxExecutionTime.compareAndSet( lMax, lExecutionTime ) )
+            {
+                lMax = _lMaxExecutionTime.get( );
+            }
+        }
+    }
+
+    /**
+     * Creates the daemon threads of a stage
+     */
+    private static final class StageThreadFactory implements ThreadFactory
+    {
+        private final String _strPrefix;
+        private final AtomicInteger _nThreadNumber = new AtomicInteger( 1 );
+
+        /**
+         * Constructor
+         * 
+         * @param stage
+         *            the stage
+         */
+        StageThreadFactory( ReleaseStage stage )
+        {
+            _strPrefix = THREAD_NAME_PREFIX + stage.name( ).toLowerCase( ) + "-";
+        }
+
+        @Override
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, _strPrefix + _nThreadNumber.getAndIncrement( ) );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
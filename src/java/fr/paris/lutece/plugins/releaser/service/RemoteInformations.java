@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.plugins.releaser.business.Component;
+
+/**
+ * Remote informations of a component as returned by the component web service
+ */
+public class RemoteInformations
+{
+    private String _strLastAvailableVersion;
+    private String _strLastAvailableSnapshotVersion;
+    private String _strJiraCode;
+    private String _strJiraRoadmapUrl;
+    private int _nJiraCurrentVersionClosedIssues;
+    private int _nJiraCurrentVersionOpenedIssues;
+    private String _strScmDeveloperConnection;
+
+    /**
+     * Returns the LastAvailableVersion
+     * 
+     * @return The LastAvailableVersion, null if no release was found
+     */
+    public String getLastAvailableVersion( )
+    {
+        return _strLastAvailableVersion;
+    }
+
+    /**
+     * Sets the LastAvailableVersion
+     * 
+     * @param strLastAvailableVersion
+     *            The LastAvailableVersion
+     */
+    public void setLastAvailableVersion( String strLastAvailableVersion )
+    {
+        _strLastAvailableVersion = strLastAvailableVersion;
+    }
+
+    /**
+     * Returns the LastAvailableSnapshotVersion
+     * 
+     * @return The LastAvailableSnapshotVersion
+     */
+    public String getLastAvailableSnapshotVersion( )
+    {
+        return _strLastAvailableSnapshotVersion;
+    }
+
+    /**
+     * Sets the LastAvailableSnapshotVersion
+     * 
+     * @param strLastAvailableSnapshotVersion
+     *            The LastAvailableSnapshotVersion
+     */
+    public void setLastAvailableSnapshotVersion( String strLastAvailableSnapshotVersion )
+    {
+        _strLastAvailableSnapshotVersion = strLastAvailableSnapshotVersion;
+    }
+
+    /**
+     * Returns the JiraCode
+     * 
+     * @return The JiraCode
+     */
+    public String getJiraCode( )
+    {
+        return _strJiraCode;
+    }
+
+    /**
+     * Sets the JiraCode
+     * 
+     * @param strJiraCode
+     *            The JiraCode
+     */
+    public void setJiraCode( String strJiraCode )
+    {
+        _strJiraCode = strJiraCode;
+    }
+
+    /**
+     * Returns the JiraRoadmapUrl
+     * 
+     * @return The JiraRoadmapUrl
+     */
+    public String getJiraRoadmapUrl( )
+    {
+        return _strJiraRoadmapUrl;
+    }
+
+    /**
+     * Sets the JiraRoadmapUrl
+     * 
+     * @param strJiraRoadmapUrl
+     *            The JiraRoadmapUrl
+     */
+    public void setJiraRoadmapUrl( String strJiraRoadmapUrl )
+    {
+        _strJiraRoadmapUrl = strJiraRoadmapUrl;
+    }
+
+    /**
+     * Returns the JiraCurrentVersionClosedIssues
+     * 
+     * @return The JiraCurrentVersionClosedIssues
+     */
+    public int getJiraCurrentVersionClosedIssues( )
+    {
+        return _nJiraCurrentVersionClosedIssues;
+    }
+
+    /**
+     * Sets the JiraCurrentVersionClosedIssues
+     * 
+     * @param nJiraCurrentVersionClosedIssues
+     *            The JiraCurrentVersionClosedIssues
+     */
+    public void setJiraCurrentVersionClosedIssues( int nJiraCurrentVersionClosedIssues )
+    {
+        _nJiraCurrentVersionClosedIssues = nJiraCurrentVersionClosedIssues;
+    }
+
+    /**
+     * Returns the JiraCurrentVersionOpenedIssues
+     * 
+     * @return The JiraCurrentVersionOpenedIssues
+     */
+    public int getJiraCurrentVersionOpenedIssues( )
+    {
+        return _nJiraCurrentVersionOpenedIssues;
+    }
+
+    /**
+     * Sets the JiraCurrentVersionOpenedIssues
+     * 
+     * @param nJiraCurrentVersionOpenedIssues
+     *            The JiraCurrentVersionOpenedIssues
+     */
+    public void setJiraCurrentVersionOpenedIssues( int nJiraCurrentVersionOpenedIssues )
+    {
+        _nJiraCurrentVersionOpenedIssues = nJiraCurrentVersionOpenedIssues;
+    }
+
+    /**
+     * Returns the ScmDeveloperConnection
+     * 
+     * @return The ScmDeveloperConnection, null if not provided
+     */
+    public String getScmDeveloperConnection( )
+    {
+        return _strScmDeveloperConnection;
+    }
+
+    /**
+     * Sets the ScmDeveloperConnection
+     * 
+     * @param strScmDeveloperConnection
+     *            The ScmDeveloperConnection
+     */
+    public void setScmDeveloperConnection( String strScmDeveloperConnection )
+    {
+        _strScmDeveloperConnection = strScmDeveloperConnection;
+    }
+
+    /**
+     * Copy the remote informations into a component
+     * 
+     * @param component
+     *            the component
+     */
+    public void applyTo( Component component )
+    {
+        if ( _strLastAvailableVersion != null )
+        {
+            component.setLastAvailableVersion( _strLastAvailableVersion );
+        }
+        component.setLastAvailableSnapshotVersion( _strLastAvailableSnapshotVersion );
+        component.setJiraCode( _strJiraCode );
+        component.setJiraRoadmapUrl( _strJiraRoadmapUrl );
+        component.setJiraCurrentVersionOpenedIssues( _nJiraCurrentVersionOpenedIssues );
+        component.setJiraCurrentVersionClosedIssues( _nJiraCurrentVersionClosedIssues );
+        if ( _strScmDeveloperConnection != null )
+        {
+            component.setScmDeveloperConnection( _strScmDeveloperConnection );
+        }
+    }
+}
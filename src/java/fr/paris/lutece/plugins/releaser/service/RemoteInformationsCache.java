@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RemoteInformationsCache : in memory LRU cache of the components remote informations.<br>
+ * Entries are keyed by artifactId and type and expire after a time to live. An entry read during the refresh-ahead
+ * window preceding its expiration is still served, and {@link #startRefresh(String, String)} tells the caller to
+ * reload it in background.
+ */
+public class RemoteInformationsCache
+{
+    private static final char KEY_SEPARATOR = '|';
+
+    private final int _nMaxSize;
+    private final long _lTimeToLive;
+    private final long _lRefreshAhead;
+    private final Map<String, Entry> _mapEntries;
+    private final AtomicLong _lHitCount = new AtomicLong( );
+    private final AtomicLong _lMissCount = new AtomicLong( );
+    private final AtomicLong _lEvictionCount = new AtomicLong( );
+    private final AtomicLong _lRefreshCount = new AtomicLong( );
+
+    /**
+     * Constructor
+     * 
+     * @param nMaxSize
+     *            the maximum number of entries, 0 to disable the cache
+     * @param lTimeToLive
+     *            the time to live of an entry in milliseconds
+     * @param lRefreshAhead
+     *            the delay before expiration from which an entry should be refreshed, in milliseconds
+     */
+    public RemoteInformationsCache( int nMaxSize, long lTimeToLive, long lRefreshAhead )
+    {
+        _nMaxSize = Math.max( 0, nMaxSize );
+        _lTimeToLive = lTimeToLive;
+        _lRefreshAhead = Math.min( Math.max( 0, lRefreshAhead ), lTimeToLive );
+        _mapEntries = new LinkedHashMap<String, Entry>( 16, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, Entry> eldest )
+            {
+                if ( size( ) > _nMaxSize )
+                {
+                    _lEvictionCount.incrementAndGet( );
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns true if the cache is enabled
+     * 
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled( )
+    {
+        return _nMaxSize > 0 && _lTimeToLive > 0;
+    }
+
+    /**
+     * Get the remote informations of a component
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @return the remote informations or null if not found or expired
+     */
+    public synchronized RemoteInformations get( String strArtifactId, String strType )
+    {
+        if ( !isEnabled( ) )
+        {
+            return null;
+        }
+        String strKey = getKey( strArtifactId, strType );
+        Entry entry = _mapEntries.get( strKey );
+        if ( entry == null )
+        {
+            _lMissCount.incrementAndGet( );
+            return null;
+        }
+        if ( entry.getAge( ) >= _lTimeToLive )
+        {
+            _mapEntries.remove( strKey );
+            _lEvictionCount.incrementAndGet( );
+            _lMissCount.incrementAndGet( );
+            return null;
+        }
+        _lHitCount.incrementAndGet( );
+        return entry._remoteInformations;
+    }
+
+    /**
+     * Get the remote informations of a component for a caller that may not accept cached data. The project components
+     * are asked without the cache of the web service, they always get fresh informations and never a cached entry.
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @param bCache
+     *            false if the caller needs fresh informations
+     * @return the remote informations or null if not found, expired or if the cache must be bypassed
+     */
+    public RemoteInformations get( String strArtifactId, String strType, boolean bCache )
+    {
+        if ( !bCache )
+        {
+            _lMissCount.incrementAndGet( );
+            return null;
+        }
+        return get( strArtifactId, strType );
+    }
+
+    /**
+     * Store the remote informations of a component
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @param remoteInformations
+     *            the remote informations
+     */
+    public synchronized void put( String strArtifactId, String strType, RemoteInformations remoteInformations )
+    {
+        if ( isEnabled( ) && remoteInformations != null )
+        {
+            _mapEntries.put( getKey( strArtifactId, strType ), new Entry( remoteInformations ) );
+        }
+    }
+
+    /**
+     * Mark an entry as being refreshed if it is in its refresh-ahead window
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @return true if the caller must reload the entry, false if no refresh is needed or a refresh is already running
+     */
+    public synchronized boolean startRefresh( String strArtifactId, String strType )
+    {
+        Entry entry = _mapEntries.get( getKey( strArtifactId, strType ) );
+        if ( entry == null || entry._bRefreshing || entry.getAge( ) < _lTimeToLive - _lRefreshAhead )
+        {
+            return false;
+        }
+        entry._bRefreshing = true;
+        _lRefreshCount.incrementAndGet( );
+        return true;
+    }
+
+    /**
+     * Release the refresh mark of an entry whose reload failed
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     */
+    public synchronized void cancelRefresh( String strArtifactId, String strType )
+    {
+        Entry entry = _mapEntries.get( getKey( strArtifactId, strType ) );
+        if ( entry != null )
+        {
+            entry._bRefreshing = false;
+        }
+    }
+
+    /**
+     * Remove all the entries of an artifact
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     */
+    public synchronized void invalidate( String strArtifactId )
+    {
+        String strPrefix = strArtifactId + KEY_SEPARATOR;
+        Iterator<String> iterator = _mapEntries.keySet( ).iterator( );
+        while ( iterator.hasNext( ) )
+        {
+            if ( iterator.next( ).startsWith( strPrefix ) )
+            {
+                iterator.remove( );
+            }
+        }
+    }
+
+    /**
+     * Remove all the entries
+     */
+    public synchronized void clear( )
+    {
+        _mapEntries.clear( );
+    }
+
+    /**
+     * Returns the number of entries
+     * 
+     * @return the size
+     */
+    public synchronized int getSize( )
+    {
+        return _mapEntries.size( );
+    }
+
+    /**
+     * Returns the hit count
+     * 
+     * @return the hit count
+     */
+    public long getHitCount( )
+    {
+        return _lHitCount.get( );
+    }
+
+    /**
+     * Returns the miss count
+     * 
+     * @return the miss count
+     */
+    public long getMissCount( )
+    {
+        return _lMissCount.get( );
+    }
+
+    /**
+     * Returns the number of entries removed because the cache was full or the entry was expired
+     * 
+     * @return the eviction count
+     */
+    public long getEvictionCount( )
+    {
+        return _lEvictionCount.get( );
+    }
+
+    /**
+     * Returns the number of refresh-ahead started
+     * 
+     * @return the refresh count
+     */
+    public long getRefreshCount( )
+    {
+        return _lRefreshCount.get( );
+    }
+
+    private static String getKey( String strArtifactId, String strType )
+    {
+        return strArtifactId + KEY_SEPARATOR + strType;
+    }
+
+    /**
+     * Cache entry
+     */
+    private static class Entry
+    {
+        private final RemoteInformations _remoteInformations;
+        private final long _lCreationTime = System.currentTimeMillis( );
+        private boolean _bRefreshing;
+
+        Entry( RemoteInformations remoteInformations )
+        {
+            _remoteInformations = remoteInformations;
+        }
+
+        long getAge( )
+        {
+            return System.currentTimeMillis( ) - _lCreationTime;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.util.httpaccess.HttpAccess;
+import fr.paris.lutece.util.httpaccess.HttpAccessException;
+import fr.paris.lutece.util.httpaccess.InvalidResponseStatus;
+
+/**
+ * RemoteInformationsClient : client of the component web service.<br>
+ * The calls go through HttpAccess, so the proxy, the timeouts and the connection pool of the httpAccess configuration
+ * apply. When a multi-artifact url is configured, the informations of many components are fetched with a single
+ * request.
+ */
+public class RemoteInformationsClient
+{
+    private static final String FIELD_COMPONENT = "component";
+    private static final String FIELD_COMPONENTS = "components";
+    private static final String FIELD_ARTIFACT_ID = "artifact_id";
+    private static final String FIELD_VERSION = "version";
+    private static final String FIELD_SNAPSHOT_VERSION = "snapshot_version";
+    private static final String FIELD_JIRA_CODE = "jira_code";
+    private static final String FIELD_ROADMAP_URL = "jira_roadmap_url";
+    private static final String FIELD_CLOSED_ISSUES = "jira_current_version_closed_issues";
+    private static final String FIELD_OPENED_ISSUES = "jira_current_version_opened_issues";
+    private static final String FIELD_SCM_DEVELOPER_CONNECTION = "scm_developer_connection";
+    private static final String RELEASE_NOT_FOUND = "Release not found";
+    private static final String TYPE_NULL = "&type=null";
+    private static final String ARTIFACT_ID_SEPARATOR = ",";
+
+    private final String _strUrl;
+    private final String _strBatchUrl;
+    private final ObjectMapper _mapper = new ObjectMapper( );
+    private volatile boolean _bBatchSupported;
+    private final AtomicLong _lRequestCount = new AtomicLong( );
+
+    /**
+     * Constructor
+     * 
+     * @param strUrl
+     *            the url pattern of the single component web service ({0} artifact id, {1} cache, {2} type)
+     * @param strBatchUrl
+     *            the url pattern of the multi-artifact web service ({0} comma separated artifact ids, {1} cache, {2}
+     *            type), may be empty if the web service does not provide one
+     */
+    public RemoteInformationsClient( String strUrl, String strBatchUrl )
+    {
+        _strUrl = strUrl;
+        _strBatchUrl = strBatchUrl;
+        _bBatchSupported = !StringUtils.isEmpty( strBatchUrl );
+    }
+
+    /**
+     * Returns true while the multi-artifact web service is available
+     * 
+     * @return true if batch requests can be sent
+     */
+    public boolean isBatchSupported( )
+    {
+        return _bBatchSupported;
+    }
+
+    /**
+     * Returns the number of requests sent to the web service
+     * 
+     * @return the request count
+     */
+    public long getRequestCount( )
+    {
+        return _lRequestCount.get( );
+    }
+
+    /**
+     * Build the url of the single component web service
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @param bCache
+     *            true if the web service can use its cache
+     * @return the url
+     */
+    public String getUrl( String strArtifactId, String strType, boolean bCache )
+    {
+        String strUrl = MessageFormat.format( _strUrl, strArtifactId, bCache, strType );
+        if ( strType == null )
+        {
+            strUrl = strUrl.replace( TYPE_NULL, "" );
+        }
+        return strUrl;
+    }
+
+    /**
+     * Get the remote informations of a component
+     * 
+     * @param strArtifactId
+     *            the artifact id
+     * @param strType
+     *            the type
+     * @param bCache
+     *            true if the web service can use its cache
+     * @return the remote informations or null if the response does not contain a component
+     * @throws IOException
+     *             if the call fails
+     */
+    public RemoteInformations getRemoteInformations( String strArtifactId, String strType, boolean bCache ) throws IOException
+    {
+        JsonNode nodeRoot = _mapper.readTree( doGet( getUrl( strArtifactId, strType, bCache ) ) );
+        if ( nodeRoot == null || !nodeRoot.has( FIELD_COMPONENT ) )
+        {
+            return null;
+        }
+        return parse( nodeRoot.get( FIELD_COMPONENT ) );
+    }
+
+    /**
+     * Get the remote informations of many components of the same type with a single request. The multi-artifact web
+     * service is expected to answer a "components" array of the component objects returned by the single component
+     * web service, each one carrying its "artifact_id".
+     * 
+     * @param listArtifactIds
+     *            the artifact ids
+     * @param strType
+     *            the type of all the components
+     * @param bCache
+     *            true if the web service can use its cache
+     * @return the remote informations by artifact id, or null if the multi-artifact web service is not available. Unknown
+     *         artifacts are missing from the map.
+     * @throws IOException
+     *             if the call fails
+     */
+    public Map<String, RemoteInformations> getRemoteInformations( List<String> listArtifactIds, String strType, boolean bCache ) throws IOException
+    {
+        if ( !_bBatchSupported )
+        {
+            return null;
+        }
+
+        String strUrl = MessageFormat.format( _strBatchUrl,
+                URLEncoder.encode( StringUtils.join( listArtifactIds, ARTIFACT_ID_SEPARATOR ), StandardCharsets.UTF_8.name( ) ), bCache, strType );
+        if ( strType == null )
+        {
+            strUrl = strUrl.replace( TYPE_NULL, "" );
+        }
+        String strJson;
+        try
+        {
+            strJson = doGet( strUrl );
+        }
+        catch( UnsupportedEndpointException e )
+        {
+            AppLogService.info( "The multi-artifact component web service is not available, falling back to single requests : " + e.getMessage( ) );
+            _bBatchSupported = false;
+            return null;
+        }
+
+        Map<String, RemoteInformations> mapRemoteInformations = new HashMap<>( );
+        JsonNode nodeComponents = _mapper.readTree( strJson ).path( FIELD_COMPONENTS );
+        for ( JsonNode nodeComponent : nodeComponents )
+        {
+            JsonNode nodeArtifactId = nodeComponent.get( FIELD_ARTIFACT_ID );
+            if ( nodeArtifactId != null )
+            {
+                mapRemoteInformations.put( nodeArtifactId.asText( ), parse( nodeComponent ) );
+            }
+        }
+        return mapRemoteInformations;
+    }
+
+    /**
+     * Parse the json node of a component
+     * 
+     * @param nodeComponent
+     *            the component node
+     * @return the remote informations
+     */
+    private static RemoteInformations parse( JsonNode nodeComponent )
+    {
+        RemoteInformations remoteInformations = new RemoteInformations( );
+        String strVersion = nodeComponent.path( FIELD_VERSION ).asText( );
+        if ( !RELEASE_NOT_FOUND.equals( strVersion ) )
+        {
+            remoteInformations.setLastAvailableVersion( strVersion );
+        }
+        remoteInformations.setLastAvailableSnapshotVersion( nodeComponent.path( FIELD_SNAPSHOT_VERSION ).asText( ) );
+        remoteInformations.setJiraCode( nodeComponent.path( FIELD_JIRA_CODE ).asText( ) );
+        remoteInformations.setJiraRoadmapUrl( nodeComponent.path( FIELD_ROADMAP_URL ).asText( ) );
+        remoteInformations.setJiraCurrentVersionOpenedIssues( nodeComponent.path( FIELD_OPENED_ISSUES ).asInt( ) );
+        remoteInformations.setJiraCurrentVersionClosedIssues( nodeComponent.path( FIELD_CLOSED_ISSUES ).asInt( ) );
+        String strScmDeveloperConnection = nodeComponent.path( FIELD_SCM_DEVELOPER_CONNECTION ).asText( );
+        if ( !StringUtils.isEmpty( strScmDeveloperConnection ) && !strScmDeveloperConnection.equals( "null" ) )
+        {
+            remoteInformations.setScmDeveloperConnection( strScmDeveloperConnection );
+        }
+        return remoteInformations;
+    }
+
+    /**
+     * Send a GET request
+     * 
+     * @param strUrl
+     *            the url
+     * @return the response body
+     * @throws IOException
+     *             if the call fails
+     */
+    private String doGet( String strUrl ) throws IOException
+    {
+        _lRequestCount.incrementAndGet( );
+        try
+        {
+            return new HttpAccess( ).doGet( strUrl );
+        }
+        catch( InvalidResponseStatus e )
+        {
+            int nResponseStatus = e.getResponseStatus( );
+            if ( nResponseStatus == HttpURLConnection.HTTP_NOT_FOUND || nResponseStatus == HttpURLConnection.HTTP_BAD_METHOD
+                    || nResponseStatus == HttpURLConnection.HTTP_NOT_IMPLEMENTED )
+            {
+                throw new UnsupportedEndpointException( e.getMessage( ) );
+            }
+            throw new IOException( e.getMessage( ), e );
+        }
+        catch( HttpAccessException e )
+        {
+            throw new IOException( e.getMessage( ), e );
+        }
+    }
+
+    /**
+     * Thrown when the web service does not provide the requested endpoint
+     */
+    private static class UnsupportedEndpointException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedEndpointException( String strMessage )
+        {
+            super( strMessage );
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * RemoteInformationsExecutor : long-lived bounded executor used to fetch the components remote informations.<br>
+ * The number of concurrent requests sent to a same host is limited : the tasks of a host beyond the limit wait in the
+ * queue of the host and are handed over to the pool when a task of the same host ends, so the workers never wait for a
+ * slow host. When the queue of the pool is full, a task is run by the submitting thread so callers are slowed down
+ * instead of flooding the web service. Background tasks are discarded instead, they never run in the submitting thread.
+ */
+public class RemoteInformationsExecutor
+{
+    private static final String THREAD_NAME_PREFIX = "releaser-remote-informations-";
+    private static final String HOST_UNKNOWN = "unknown";
+
+    private final ThreadPoolExecutor _executor;
+    private final int _nMaxRequestsPerHost;
+    private final ConcurrentMap<String, HostQueue> _mapHostQueues = new ConcurrentHashMap<>( );
+    private final AtomicLong _lSaturatedCount = new AtomicLong( );
+    private final AtomicLong _lDiscardedCount = new AtomicLong( );
+
+    /**
+     * Constructor
+     * 
+     * @param nPoolSize
+     *            the number of worker threads
+     * @param nQueueSize
+     *            the maximum number of tasks waiting for a worker
+     * @param nMaxRequestsPerHost
+     *            the maximum number of concurrent requests sent to a same host
+     */
+    public RemoteInformationsExecutor( int nPoolSize, int nQueueSize, int nMaxRequestsPerHost )
+    {
+        _nMaxRequestsPerHost = Math.max( 1, nMaxRequestsPerHost );
+        _executor = new ThreadPoolExecutor( Math.max( 1, nPoolSize ), Math.max( 1, nPoolSize ), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>( Math.max( 1, nQueueSize ) ), new DaemonThreadFactory( ), new SaturationPolicy( ) );
+        _executor.allowCoreThreadTimeOut( true );
+    }
+
+    /**
+     * Submit a task calling the given url
+     * 
+     * @param strUrl
+     *            the url called by the task, used to apply the per host limit
+     * @param task
+     *            the task
+     * @return the future of the task
+     */
+    public Future<?> submit( String strUrl, Runnable task )
+    {
+        return submit( strUrl, task, false );
+    }
+
+    /**
+     * Submit a background task calling the given url. The task is discarded when its host already has the maximum
+     * number of running requests or when the pool is saturated.
+     * 
+     * @param strUrl
+     *            the url called by the task, used to apply the per host limit
+     * @param task
+     *            the task
+     * @return the future of the task, cancelled if the task is discarded
+     */
+    public Future<?> submitBackground( String strUrl, Runnable task )
+    {
+        return submit( strUrl, task, true );
+    }
+
+    /**
+     * Submit a task to the queue of its host
+     * 
+     * @param strUrl
+     *            the url called by the task
+     * @param task
+     *            the task
+     * @param bBackground
+     *            true if the task must be discarded rather than waiting or being run by the caller
+     * @return the future of the task
+     */
+    private Future<?> submit( String strUrl, Runnable task, boolean bBackground )
+    {
+        FutureTask<Void> future = new FutureTask<Void>( task, null );
+        HostQueue hostQueue = getHostQueue( getHost( strUrl ) );
+
+        if ( hostQueue.offer( future, bBackground ) )
+        {
+            _executor.execute( new HostTask( hostQueue, future, bBackground ) );
+        }
+        return future;
+    }
+
+    /**
+     * Returns the number of tasks waiting for a worker
+     * 
+     * @return the queue depth
+     */
+    public int getQueueDepth( )
+    {
+        return _executor.getQueue( ).size( );
+    }
+
+    /**
+     * Returns the number of workers currently running a task
+     * 
+     * @return the active count
+     */
+    public int getActiveCount( )
+    {
+        return _executor.getActiveCount( );
+    }
+
+    /**
+     * Returns the number of tasks run by the submitting thread because the executor was saturated
+     * 
+     * @return the saturated count
+     */
+    public long getSaturatedCount( )
+    {
+        return _lSaturatedCount.get( );
+    }
+
+    /**
+     * Returns the number of background tasks discarded because their host or the executor was saturated
+     * 
+     * @return the discarded count
+     */
+    public long getDiscardedCount( )
+    {
+        return _lDiscardedCount.get( );
+    }
+
+    /**
+     * Stop the executor
+     */
+    public void shutdown( )
+    {
+        _executor.shutdown( );
+    }
+
+    private HostQueue getHostQueue( String strHost )
+    {
+        HostQueue hostQueue = _mapHostQueues.get( strHost );
+        if ( hostQueue == null )
+        {
+            HostQueue newQueue = new HostQueue( );
+            hostQueue = _mapHostQueues.putIfAbsent( strHost, newQueue );
+            if ( hostQueue == null )
+            {
+                hostQueue = newQueue;
+            }
+        }
+        return hostQueue;
+    }
+
+    private static String getHost( String strUrl )
+    {
+        try
+        {
+            return new URL( strUrl ).getHost( );
+        }
+        catch( MalformedURLException | NullPointerException e )
+        {
+            return HOST_UNKNOWN;
+        }
+    }
+
+    /**
+     * Tasks of a host : the running count and the tasks waiting for a free slot of the host
+     */
+    private final class HostQueue
+    {
+        private final Deque<FutureTask<Void>> _queueWaiting = new ArrayDeque<>( );
+        private int _nRunning;
+
+        /**
+         * Takes a slot of the host for a new task, or queues the task when all the slots are taken. A background task
+         * is cancelled instead of being queued.
+         * 
+         * @param future
+         *            the task
+         * @param bBackground
+         *            true for a background task
+         * @return true if the task got a slot and must be handed over to the pool
+         */
+        synchronized boolean offer( FutureTask<Void> future, boolean bBackground )
+        {
+            if ( _nRunning < _nMaxRequestsPerHost )
+            {
+                _nRunning++;
+                return true;
+            }
+            if ( bBackground )
+            {
+                _lDiscardedCount.incrementAndGet( );
+                future.cancel( false );
+            }
+            else
+            {
+                _queueWaiting.add( future );
+            }
+            return false;
+        }
+
+        /**
+         * Gives the slot of an ended task to the next waiting task, or frees it
+         * 
+         * @return the next task, which keeps the slot, or null
+         */
+        synchronized FutureTask<Void> next( )
+        {
+            FutureTask<Void> future = _queueWaiting.poll( );
+            if ( future == null )
+            {
+                _nRunning--;
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Runs a task holding a slot of its host, then hands the slot over to the next task of the host
+     */
+    private final class HostTask implements Runnable
+    {
+        private final HostQueue _hostQueue;
+        private final FutureTask<Void> _future;
+        private final boolean _bBackground;
+
+        HostTask( HostQueue hostQueue, FutureTask<Void> future, boolean bBackground )
+        {
+            _hostQueue = hostQueue;
+            _future = future;
+            _bBackground = bBackground;
+        }
+
+        @Override
+        public void run( )
+        {
+            try
+            {
+                _future.run( );
+            }
+            finally
+            {
+                releaseSlot( );
+            }
+        }
+
+        /**
+         * Cancels the task and releases its slot
+         */
+        void cancel( )
+        {
+            _future.cancel( false );
+            releaseSlot( );
+        }
+
+        private void releaseSlot( )
+        {
+            FutureTask<Void> next = _hostQueue.next( );
+            if ( next != null )
+            {
+                _executor.execute( new HostTask( _hostQueue, next, false ) );
+            }
+        }
+    }
+
+    /**
+     * Runs the task in the caller thread when the queue is full, discards the background tasks
+     */
+    private class SaturationPolicy implements RejectedExecutionHandler
+    {
+        @Override
+        public void rejectedExecution( Runnable runnable, ThreadPoolExecutor executor )
+        {
+            HostTask task = (HostTask) runnable;
+            if ( executor.isShutdown( ) )
+            {
+                AppLogService.error( "Remote informations executor is shut down, task cancelled" );
+                task.cancel( );
+                return;
+            }
+            if ( task._bBackground )
+            {
+                _lDiscardedCount.incrementAndGet( );
+                AppLogService.debug( "Remote informations executor saturated (queue depth : " + executor.getQueue( ).size( ) + "), background task discarded" );
+                task.cancel( );
+                return;
+            }
+            _lSaturatedCount.incrementAndGet( );
+            AppLogService.debug( "Remote informations executor saturated (queue depth : " + executor.getQueue( ).size( ) + "), running task in caller thread" );
+            task.run( );
+        }
+    }
+
+    /**
+     * Creates named daemon threads so the pool never prevents the webapp shutdown
+     */
+    private static class DaemonThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger _nThreadCount = new AtomicInteger( );
+
+        @Override
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, THREAD_NAME_PREFIX + _nThreadCount.incrementAndGet( ) );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
+import fr.paris.lutece.plugins.releaser.util.CommandResult;
+import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
+import fr.paris.lutece.portal.business.user.AdminUser;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SiteReleaseLauncher : starts the workflows of the release contexts of a site as the SiteReleaseScheduler schedules
+ * them, and reports the end of the component workflows to the scheduler.<br>
+ * The workflows are started long after the end of the request of the site release, so they are run without request,
+ * as the automatic actions of the workflow : the releaser user is kept by the release contexts.
+ */
+class SiteReleaseLauncher implements SiteReleaseScheduler.Launcher, IReleaseCompletionListener
+{
+    private final Map<String, WorkflowReleaseContext> _mapComponentContexts;
+    private final WorkflowReleaseContext _siteContext;
+    private final Locale _locale;
+    private final AdminUser _user;
+    private SiteReleaseScheduler _scheduler;
+
+    /**
+     * Constructor
+     * 
+     * @param mapComponentContexts
+     *            the release contexts of the components keyed by artifact id
+     * @param siteContext
+     *            the release context of the site
+     * @param locale
+     *            the locale
+     * @param user
+     *            the user
+     */
+    SiteReleaseLauncher( Map<String, WorkflowReleaseContext> mapComponentContexts, WorkflowReleaseContext siteContext, Locale locale, AdminUser user )
+    {
+        _mapComponentContexts = mapComponentContexts;
+        _siteContext = siteContext;
+        _locale = locale;
+        _user = user;
+    }
+
+    /**
+     * Sets the scheduler notified of the end of the component releases
+     * 
+     * @param scheduler
+     *            the scheduler
+     */
+    void setScheduler( SiteReleaseScheduler scheduler )
+    {
+        _scheduler = scheduler;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean startComponentRelease( String strArtifactId )
+    {
+        WorkflowReleaseContext context = _mapComponentContexts.get( strArtifactId );
+        if ( context == null )
+        {
+            // the components without release context are not in the release order
+            AppLogService.error( "SiteReleaseScheduler : the release of the component " + strArtifactId + " can not be started" );
+            _siteContext.getSite( ).getComponent( strArtifactId ).setErrorLastRelease( true );
+            return false;
+        }
+        int nIdWorkflow = WorkflowReleaseContextService.getService( ).getIdWorkflow( context );
+        WorkflowReleaseContextService.getService( ).startWorkflowReleaseContext( context, nIdWorkflow, _locale, null, _user, this );
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void skipComponentRelease( String strArtifactId, String strFailedArtifactId )
+    {
+        WorkflowReleaseContext context = _mapComponentContexts.get( strArtifactId );
+        if ( context == null )
+        {
+            return;
+        }
+        context.getComponent( ).setErrorLastRelease( true );
+
+        // the context is never started, give it a result so that its status is displayed
+        ReleaserUtils.startCommandResult( context );
+        CommandResult commandResult = context.getCommandResult( );
+        String strError = "The component is not released because the release of " + strFailedArtifactId + " failed";
+        commandResult.getLog( ).append( strError + "\n" );
+        commandResult.setError( strError );
+        commandResult.setStatus( CommandResult.STATUS_ERROR );
+        commandResult.setErrorType( CommandResult.ERROR_TYPE_STOP );
+        ReleaserUtils.stopCommandResult( context );
+        WorkflowReleaseContextService.getService( ).saveWorkflowReleaseContext( context );
+        WorkflowReleaseContextService.getService( ).completeWorkflowReleaseContext( context, false );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void startSiteRelease( )
+    {
+        int nIdWorkflow = WorkflowReleaseContextService.getService( ).getIdWorkflow( _siteContext );
+        WorkflowReleaseContextService.getService( ).startWorkflowReleaseContext( _siteContext, nIdWorkflow, _locale, null, _user );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void releaseCompleted( WorkflowReleaseContext context, boolean bSuccess )
+    {
+        if ( !bSuccess )
+        {
+            context.getComponent( ).setErrorLastRelease( true );
+        }
+        _scheduler.componentReleased( context.getComponent( ).getArtifactId( ), bSuccess );
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SiteReleaseScheduler : releases the components of a site in the order of their dependencies.<br>
+ * The components form a graph where each component depends on the components of the release it declares in its POM.
+ * Independent components are released in parallel up to a maximum width, a component is started once all its
+ * upstream components have been released, and the components depending on a failed release are skipped. The site
+ * release is started when no component remains. The scheduler never waits : it is driven by the completion of the
+ * releases.
+ */
+public class SiteReleaseScheduler
+{
+    /**
+     * Starts the releases of the scheduled nodes
+     */
+    public interface Launcher
+    {
+        /**
+         * Start the release of a component. The scheduler must be notified of its end with
+         * {@link SiteReleaseScheduler#componentReleased(String, boolean)}
+         * 
+         * @param strArtifactId
+         *            the component artifact id
+         * @return false if the release could not be started
+         */
+        boolean startComponentRelease( String strArtifactId );
+
+        /**
+         * Called for a component which is not released because one of its upstream components failed
+         * 
+         * @param strArtifactId
+         *            the component artifact id
+         * @param strFailedArtifactId
+         *            the artifact id of the failed upstream component
+         */
+        void skipComponentRelease( String strArtifactId, String strFailedArtifactId );
+
+        /**
+         * Start the release of the site, once all the components are finished
+         */
+        void startSiteRelease( );
+    }
+
+    private enum NodeState
+    {
+        WAITING, READY, RUNNING, RELEASED, FAILED, SKIPPED
+    }
+
+    private final Map<String, Node> _mapNodes = new LinkedHashMap<>( );
+    private final Deque<Node> _queueReady = new ArrayDeque<>( );
+    private final int _nMaxParallel;
+    private final Launcher _launcher;
+    private int _nRunning;
+    private int _nRemaining;
+    private boolean _bDispatching;
+    private boolean _bSiteStarted;
+
+    /**
+     * Constructor
+     * 
+     * @param mapDependencies
+     *            the artifact ids of the dependencies of each component to release, keyed by component artifact id.
+     *            Dependencies which are not released are ignored.
+     * @param nMaxParallel
+     *            the maximum number of components released at the same time
+     * @param launcher
+     *            the launcher of the releases
+     */
+    public SiteReleaseScheduler( Map<String, ? extends Collection<String>> mapDependencies, int nMaxParallel, Launcher launcher )
+    {
+        _nMaxParallel = Math.max( 1, nMaxParallel );
+        _launcher = launcher;
+
+        for ( String strArtifactId : mapDependencies.keySet( ) )
+        {
+            _mapNodes.put( strArtifactId, new Node( strArtifactId ) );
+        }
+        for ( Map.Entry<String, ? extends Collection<String>> entry : mapDependencies.entrySet( ) )
+        {
+            Node node = _mapNodes.get( entry.getKey( ) );
+            if ( entry.getValue( ) == null )
+            {
+                continue;
+            }
+            for ( String strDependency : entry.getValue( ) )
+            {
+                Node upstream = _mapNodes.get( strDependency );
+                if ( upstream != null && upstream != node )
+                {
+                    node._setUpstream.add( upstream );
+                }
+            }
+        }
+        breakCycles( );
+        for ( Node node : _mapNodes.values( ) )
+        {
+            for ( Node upstream : node._setUpstream )
+            {
+                upstream._listDownstream.add( node );
+            }
+            node._nPendingUpstream = node._setUpstream.size( );
+        }
+        _nRemaining = _mapNodes.size( );
+    }
+
+    /**
+     * Start the releases of the components without dependencies
+     */
+    public synchronized void start( )
+    {
+        for ( Node node : _mapNodes.values( ) )
+        {
+            if ( node._nPendingUpstream == 0 )
+            {
+                node._state = NodeState.READY;
+                _queueReady.add( node );
+            }
+        }
+        dispatch( );
+    }
+
+    /**
+     * Notify the end of the release of a component
+     * 
+     * @param strArtifactId
+     *            the component artifact id
+     * @param bSuccess
+     *            true if the component has been released
+     */
+    public synchronized void componentReleased( String strArtifactId, boolean bSuccess )
+    {
+        Node node = _mapNodes.get( strArtifactId );
+        if ( node == null || node._state != NodeState.RUNNING )
+        {
+            return;
+        }
+        _nRunning--;
+        finish( node, bSuccess );
+        dispatch( );
+    }
+
+    /**
+     * Returns the number of components being released
+     * 
+     * @return the number of running releases
+     */
+    public synchronized int getRunningCount( )
+    {
+        return _nRunning;
+    }
+
+    /**
+     * Check if the site release has been started
+     * 
+     * @return true if all the components are finished and the site release has been started
+     */
+    public synchronized boolean isSiteReleaseStarted( )
+    {
+        return _bSiteStarted;
+    }
+
+    /**
+     * Returns the upstream components of a component
+     * 
+     * @param strArtifactId
+     *            the component artifact id
+     * @return the artifact ids of the components released before this one
+     */
+    public synchronized List<String> getUpstreamComponents( String strArtifactId )
+    {
+        List<String> listUpstream = new ArrayList<>( );
+        Node node = _mapNodes.get( strArtifactId );
+        if ( node != null )
+        {
+            for ( Node upstream : node._setUpstream )
+            {
+                listUpstream.add( upstream._strArtifactId );
+            }
+        }
+        return listUpstream;
+    }
+
+    /**
+     * Start the ready components while the width allows it, then the site once everything is finished
+     */
+    private void dispatch( )
+    {
+        // a launcher may notify the end of a release synchronously
+        if ( _bDispatching )
+        {
+            return;
+        }
+        _bDispatching = true;
+        try
+        {
+            while ( _nRunning < _nMaxParallel && !_queueReady.isEmpty( ) )
+            {
+                Node node = _queueReady.poll( );
+                node._state = NodeState.RUNNING;
+                _nRunning++;
+                if ( !_launcher.startComponentRelease( node._strArtifactId ) && node._state == NodeState.RUNNING )
+                {
+                    _nRunning--;
+                    finish( node, false );
+                }
+            }
+        }
+        finally
+        {
+            _bDispatching = false;
+        }
+        if ( _nRemaining == 0 && !_bSiteStarted )
+        {
+            _bSiteStarted = true;
+            _launcher.startSiteRelease( );
+        }
+    }
+
+    /**
+     * Mark a component as finished and release or skip its downstream components
+     * 
+     * @param node
+     *            the component node
+     * @param bSuccess
+     *            true if the component has been released
+     */
+    private void finish( Node node, boolean bSuccess )
+    {
+        node._state = bSuccess ? NodeState.RELEASED : NodeState.FAILED;
+        _nRemaining--;
+        for ( Node downstream : node._listDownstream )
+        {
+            if ( bSuccess )
+            {
+                downstream._nPendingUpstream--;
+                if ( downstream._nPendingUpstream == 0 && downstream._state == NodeState.WAITING )
+                {
+                    downstream._state = NodeState.READY;
+                    _queueReady.add( downstream );
+                }
+            }
+            else
+            {
+                skip( downstream, node._strArtifactId );
+            }
+        }
+    }
+
+    /**
+     * Skip a component and all the components depending on it
+     * 
+     * @param node
+     *            the component node
+     * @param strFailedArtifactId
+     *            the artifact id of the failed upstream component
+     */
+    private void skip( Node node, String strFailedArtifactId )
+    {
+        if ( node._state != NodeState.WAITING )
+        {
+            return;
+        }
+        node._state = NodeState.SKIPPED;
+        _nRemaining--;
+        _launcher.skipComponentRelease( node._strArtifactId, strFailedArtifactId );
+        for ( Node downstream : node._listDownstream )
+        {
+            skip( downstream, strFailedArtifactId );
+        }
+    }
+
+    /**
+     * Remove the dependencies creating cycles, the components of a cycle are then released without order between them
+     */
+    private void breakCycles( )
+    {
+        Set<Node> setUnordered = getUnorderedNodes( );
+        while ( !setUnordered.isEmpty( ) )
+        {
+            // each unordered node has an unordered upstream node, walk up until a node is met twice : it is in a cycle
+            Set<Node> setVisited = new HashSet<>( );
+            Node node = setUnordered.iterator( ).next( );
+            while ( setVisited.add( node ) )
+            {
+                node = getUnorderedUpstream( node, setUnordered );
+            }
+            Node upstream = getUnorderedUpstream( node, setUnordered );
+            AppLogService.info( "SiteReleaseScheduler : dependency cycle between " + node._strArtifactId + " and " + upstream._strArtifactId
+                    + ", the dependency is ignored" );
+            node._setUpstream.remove( upstream );
+            setUnordered = getUnorderedNodes( );
+        }
+    }
+
+    /**
+     * Returns the first upstream node of a node which belongs to a set
+     * 
+     * @param node
+     *            the node
+     * @param setNodes
+     *            the set
+     * @return the upstream node
+     */
+    private static Node getUnorderedUpstream( Node node, Set<Node> setNodes )
+    {
+        for ( Node upstream : node._setUpstream )
+        {
+            if ( setNodes.contains( upstream ) )
+            {
+                return upstream;
+            }
+        }
+        throw new IllegalStateException( "No unordered upstream component for " + node._strArtifactId );
+    }
+
+    /**
+     * Sort the nodes topologically
+     * 
+     * @return the nodes that can not be sorted because of a cycle
+     */
+    private Set<Node> getUnorderedNodes( )
+    {
+        Map<Node, Integer> mapPending = new LinkedHashMap<>( );
+        Map<Node, List<Node>> mapDownstream = new LinkedHashMap<>( );
+        Deque<Node> queue = new ArrayDeque<>( );
+        for ( Node node : _mapNodes.values( ) )
+        {
+            mapPending.put( node, node._setUpstream.size( ) );
+            mapDownstream.put( node, new ArrayList<Node>( ) );
+        }
+        for ( Node node : _mapNodes.values( ) )
+        {
+            for ( Node upstream : node._setUpstream )
+            {
+                mapDownstream.get( upstream ).add( node );
+            }
+            if ( node._setUpstream.isEmpty( ) )
+            {
+                queue.add( node );
+            }
+        }
+        while ( !queue.isEmpty( ) )
+        {
+            Node node = queue.poll( );
+            mapPending.remove( node );
+            for ( Node downstream : mapDownstream.get( node ) )
+            {
+                Integer nPending = mapPending.get( downstream ) - 1;
+                mapPending.put( downstream, nPending );
+                if ( nPending == 0 )
+                {
+                    queue.add( downstream );
+                }
+            }
+        }
+        return new LinkedHashSet<>( mapPending.keySet( ) );
+    }
+
+    /**
+     * A component of the release graph
+     */
+    private static final class Node
+    {
+        private final String _strArtifactId;
+        private final Set<Node> _setUpstream = new LinkedHashSet<>( );
+        private final List<Node> _listDownstream = new ArrayList<>( );
+        private int _nPendingUpstream;
+        private NodeState _state = NodeState.WAITING;
+
+        /**
+         * Constructor
+         * 
+         * @param strArtifactId
+         *            the component artifact id
+         */
+        Node( String strArtifactId )
+        {
+            _strArtifactId = strArtifactId;
+        }
+    }
+}
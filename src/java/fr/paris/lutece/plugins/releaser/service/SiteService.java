@@ -35,21 +35,18 @@
 package fr.paris.lutece.plugins.releaser.service;
 
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.TreeMap;
 
 import javax.servlet.http.HttpServletRequest;
 
 import fr.paris.lutece.plugins.releaser.business.Component;
 import fr.paris.lutece.plugins.releaser.business.Dependency;
+import fr.paris.lutece.plugins.releaser.business.ReleaserUser;
 import fr.paris.lutece.plugins.releaser.business.Site;
 import fr.paris.lutece.plugins.releaser.business.SiteHome;
 import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
@@ -63,14 +60,13 @@ import fr.paris.lutece.portal.business.user.AdminUser;
 import fr.paris.lutece.portal.service.datastore.DatastoreService;
 import fr.paris.lutece.portal.service.i18n.I18nService;
 import fr.paris.lutece.portal.service.util.AppLogService;
-import fr.paris.lutece.util.httpaccess.HttpAccessException;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 
 /**
  * SiteService
  */
 public class SiteService
 {
-    private static final int NB_POOL_REMOTE_INFORMATION = 60;
     private static final String MESSAGE_AVOID_SNAPSHOT = "releaser.message.avoidSnapshot";
     private static final String MESSAGE_UPGRADE_SELECTED = "releaser.message.upgradeSelected";
     private static final String MESSAGE_TO_BE_RELEASED = "releaser.message.toBeReleased";
@@ -93,6 +89,7 @@ public class SiteService
         {
             PomParser parser = new PomParser( );
             parser.parse( site, strPom );
+            DependencyIndexService.getService( ).updateSite( site );
             initSite( site,request,locale );
         }
         return site;
@@ -160,39 +157,8 @@ public class SiteService
             site.addComponent( component );
         }
         
-        ExecutorService executor = Executors.newFixedThreadPool(NB_POOL_REMOTE_INFORMATION);
-        
-        List<Future> futures = 
-                new ArrayList<Future>( site.getCurrentDependencies( ).size( ));
-              
-           
-        for ( Component component : site.getComponents( ) )
-        {
-            futures.add(executor.submit(new GetRemoteInformationsTask( component )));
-        }
-       
-        
-        //wait all futures stop before continue
-        for (Future future : futures) {
-            
-            try
-            {
-                future.get();
-            }
-            catch( InterruptedException e )
-            {
-              AppLogService.error( e );
-            }
-            catch( ExecutionException e )
-            {
-                // TODO Auto-generated catch block
-              AppLogService.error( e );
-            }
-              
-          }
-              
-        executor.shutdown();     
-            
+        ComponentService.getService( ).setRemoteInformations( site.getComponents( ) );
+
         for ( Component component : site.getComponents( ) )
         {
            
@@ -301,6 +267,51 @@ public class SiteService
    }
     
 
+    /**
+     * Returns, for each component of a site, the other sites depending on it, found in the dependency index
+     * 
+     * @param site
+     *            The site
+     * @return the versions used by the other sites keyed by site name, keyed by component artifact id
+     */
+    public static Map<String, Map<String, String>> getDependentSites( Site site )
+    {
+        Map<String, Map<String, String>> mapDependentSites = new HashMap<>( );
+        Map<Integer, String> mapSiteNames = null;
+        for ( Component component : site.getComponents( ) )
+        {
+            Map<Integer, String> mapVersions = DependencyIndexService.getService( ).getDependentSites( component.getArtifactId( ) );
+            mapVersions.remove( site.getId( ) );
+            if ( mapVersions.isEmpty( ) )
+            {
+                continue;
+            }
+            if ( mapSiteNames == null )
+            {
+                mapSiteNames = new HashMap<>( );
+                for ( Site siteIndexed : SiteHome.getSitesList( ) )
+                {
+                    mapSiteNames.put( siteIndexed.getId( ), siteIndexed.getName( ) );
+                }
+            }
+            Map<String, String> mapSiteVersions = new TreeMap<>( );
+            for ( Map.Entry<Integer, String> entry : mapVersions.entrySet( ) )
+            {
+                String strSiteName = mapSiteNames.get( entry.getKey( ) );
+                if ( strSiteName != null )
+                {
+                    mapSiteVersions.put( strSiteName, entry.getValue( ) );
+                }
+            }
+            if ( !mapSiteVersions.isEmpty( ) )
+            {
+                mapDependentSites.put( component.getArtifactId( ), mapSiteVersions );
+            }
+        }
+
+        return mapDependentSites;
+    }
+
     /**
      * Build release comments for a given site
      * 
@@ -393,34 +404,27 @@ public class SiteService
 
     public static void upgradeComponent( Site site, String strArtifactId )
     {
-        for ( Component component : site.getComponents( ) )
+        for ( Component component : site.getComponents( strArtifactId ) )
         {
-            if ( component.getArtifactId( ).equals( strArtifactId ) )
-            {
-                component.setTargetVersion( component.getLastAvailableVersion( ) );
-                component.setUpgrade( true );
-            }
+            component.setTargetVersion( component.getLastAvailableVersion( ) );
+            component.setUpgrade( true );
         }
     }
     
     
     public static void cancelUpgradeComponent( Site site, String strArtifactId )
     {
-        for ( Component component : site.getComponents( ) )
+        for ( Component component : site.getComponents( strArtifactId ) )
         {
-            if ( component.getArtifactId( ).equals( strArtifactId ) )
-            {
-           
-                component.setTargetVersion(  component.getCurrentVersion( ) );
-                component.setUpgrade( false );
-            }
+            component.setTargetVersion(  component.getCurrentVersion( ) );
+            component.setUpgrade( false );
         }
     }
     public static void downgradeComponent( Site site, String strArtifactId )
     {
-        for ( Component component : site.getComponents( ) )
+        for ( Component component : site.getComponents( strArtifactId ) )
         {
-            if ( component.getArtifactId( ).equals( strArtifactId ) && component.isSnapshotVersion( ))
+            if ( component.isSnapshotVersion( ) )
             {
                 component.setTargetVersion( component.getLastAvailableVersion( ) );
                 component.setNextSnapshotVersion( component.getLastAvailableSnapshotVersion( ) );
@@ -431,9 +435,9 @@ public class SiteService
     
     public static void cancelDowngradeComponent( Site site, String strArtifactId )
     {
-        for ( Component component : site.getComponents( ) )
+        for ( Component component : site.getComponents( strArtifactId ) )
         {
-            if ( component.getArtifactId( ).equals( strArtifactId ) && component.isSnapshotVersion( ))
+            if ( component.isSnapshotVersion( ) )
             {
                 component.setDowngrade( false );
                 defineTargetVersion( component );
@@ -444,55 +448,75 @@ public class SiteService
     
     public static int releaseComponent( Site site, String strArtifactId,Locale locale,AdminUser user,HttpServletRequest request)
     {
-        for ( Component component : site.getComponents( ) )
+        for ( Component component : site.getComponents( strArtifactId ) )
         {
-            if ( component.getArtifactId( ).equals( strArtifactId )  && component.shouldBeReleased( ))
+            if ( component.shouldBeReleased( ) )
             {
                 //Release component
-               return  ComponentService.getService( ).release( component, locale,user,request );
-                
+                return ComponentService.getService( ).release( component, locale, user, request );
             }
         }
         return ConstanteUtils.CONSTANTE_ID_NULL;
     }
     
     
+    /**
+     * Release a site : the project components are released in the order of their dependencies, then the site
+     * 
+     * @param site
+     *            The site
+     * @param locale
+     *            The locale
+     * @param user
+     *            The user
+     * @param request
+     *            The request
+     * @return the release context ids keyed by artifact id
+     */
     public static Map<String, Integer> releaseSite( Site site,Locale locale,AdminUser user,HttpServletRequest request)
     {
         Map<String, Integer> mapResultContext=new HashMap<String, Integer>();
-        
+        Map<String, WorkflowReleaseContext> mapComponentContexts = new HashMap<String, WorkflowReleaseContext>( );
+        List<Component> listReleasedComponents = new ArrayList<Component>( );
+        ReleaserUser releaserUser = ReleaserUtils.getReleaserUser( request, locale );
         
         Integer nIdWfContext;
-        //Release all snapshot compnent
+        //Create the release contexts of all snapshot components
         for ( Component component : site.getComponents( ) )
         {
             if ( component.isProject( ) && component.shouldBeReleased( )&& !component.isTheme( ))
             {
                 component.setErrorLastRelease( false );
-                nIdWfContext=ComponentService.getService( ).release( component, locale,user,request );
+                nIdWfContext = ConstanteUtils.CONSTANTE_ID_NULL;
+                WorkflowReleaseContext componentContext = ComponentService.getService( ).addReleaseContext( component, locale, request, false );
+                //A component already being released by another context is left out of the release order
+                if ( componentContext != null )
+                {
+                    nIdWfContext = componentContext.getId( );
+                    mapComponentContexts.put( component.getArtifactId( ), componentContext );
+                    listReleasedComponents.add( component );
+                }
                 mapResultContext.put( component.getArtifactId( ), nIdWfContext );
-               
             }
         }
+        Map<String, List<String>> mapDependencies = ComponentService.getService( ).getComponentsDependencies( listReleasedComponents, releaserUser );
         
-        
-       
         WorkflowReleaseContext context=new WorkflowReleaseContext( );
         context.setSite( site );
-        context.setReleaserUser( ReleaserUtils.getReleaserUser( request, locale ) );
+        context.setReleaserUser( releaserUser );
        
-        int nIdWorkflow=WorkflowReleaseContextService.getService( ).getIdWorkflow( context );
         WorkflowReleaseContextService.getService( ).addWorkflowReleaseContext( context );
-        //start
-        WorkflowReleaseContextService.getService( ).startWorkflowReleaseContext( context, nIdWorkflow, locale, request, user );
         //Add wf site context
         mapResultContext.put( site.getArtifactId( ), context.getId( ) );
         
-         return mapResultContext;
-        
-       
-        
+        //start the components without dependency, the site is started at the end
+        SiteReleaseLauncher launcher = new SiteReleaseLauncher( mapComponentContexts, context, locale, user );
+        SiteReleaseScheduler scheduler = new SiteReleaseScheduler( mapDependencies,
+                AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_SITE_RELEASE_MAX_PARALLEL_COMPONENTS, 3 ), launcher );
+        launcher.setScheduler( scheduler );
+        scheduler.start( );
         
+        return mapResultContext;
     }
     
     
@@ -508,29 +532,18 @@ public class SiteService
      */
     public static void toggleProjectComponent( Site site, String strArtifactId )
     {
-        for ( Component component : site.getComponents( ) )
+        for ( Component component : site.getComponents( strArtifactId ) )
         {
-            if ( component.getArtifactId( ).equals( strArtifactId ) )
+            component.setIsProject( !component.isProject( ) );
+            updateComponentAsProjectStatus( site, strArtifactId, component.isProject( ) );
+
+            if(component.isProject( ))
             {
-                component.setIsProject( !component.isProject( ) );
-                updateComponentAsProjectStatus( site, strArtifactId, component.isProject( ) );
-                
-                if(component.isProject( ))
-                {
-                    try
-                    {
-                        ComponentService.getService( ).setRemoteInformations( component, false  );
-                    }
-                    catch( HttpAccessException | IOException e )
-                    {
-                      AppLogService.error( e );
-                    }
-                    ComponentService.getService( ).updateRemoteInformations( component );
-                    defineTargetVersion( component );
-                    defineNextSnapshotVersion( component );
-                    component.setName( ReleaserUtils.getComponentName( component.getScmDeveloperConnection( ) ,component.getArtifactId( )) );
-                }
-                
+                ComponentService.getService( ).setRemoteInformations( component, false  );
+                ComponentService.getService( ).updateRemoteInformations( component );
+                defineTargetVersion( component );
+                defineNextSnapshotVersion( component );
+                component.setName( ReleaserUtils.getComponentName( component.getScmDeveloperConnection( ) ,component.getArtifactId( )) );
             }
         }
     }
@@ -545,12 +558,9 @@ public class SiteService
      */
     public static void changeNextReleaseVersion( Site site, String strArtifactId )
     {
-        for ( Component component : site.getComponents( ) )
+        for ( Component component : site.getComponents( strArtifactId ) )
         {
-            if ( component.getArtifactId( ).equals( strArtifactId ) )
-            {
-                ComponentService.getService( ).changeNextReleaseVersion( component );
-            }
+            ComponentService.getService( ).changeNextReleaseVersion( component );
         }
     }
 
@@ -1,5 +1,6 @@
 package fr.paris.lutece.plugins.releaser.service;
 
+import java.util.List;
 import java.util.Locale;
 
 import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
@@ -17,7 +18,7 @@ public class SvnMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
 
   
     @Override
-    public void updateDevelopBranch(String strLocalBasePath,WorkflowReleaseContext context, Locale locale, String strMessage )
+    public void updateDevelopBranch(String strLocalBasePath, List<String> listFiles, WorkflowReleaseContext context, Locale locale, String strMessage )
     {
         
         ISVNAuthenticationManager authManager = SVNWCUtil.createDefaultAuthenticationManager(context.getReleaserUser( ).getSvnComponentAccountLogin( ),
@@ -28,7 +29,7 @@ public class SvnMavenPrepareUpdateRemoteRepository implements IMavenPrepareUpdat
         
         try
         {
-            SvnUtils.doCommit( strLocalBasePath, strMessage, commitClient );
+            SvnUtils.doCommit( listFiles, strMessage, commitClient );
         }
         catch( Exception e )
         {
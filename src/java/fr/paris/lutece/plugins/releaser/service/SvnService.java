@@ -47,6 +47,7 @@ import org.tmatesoft.svn.core.internal.io.dav.DAVRepositoryFactory;
 import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
 import org.tmatesoft.svn.core.internal.io.svn.SVNRepositoryFactoryImpl;
 import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.core.wc.SVNClientManager;
 import org.tmatesoft.svn.core.wc.SVNCommitPacket;
 import org.tmatesoft.svn.core.wc.SVNEvent;
 import org.tmatesoft.svn.core.wc.SVNEventAction;
@@ -56,6 +57,7 @@ import fr.paris.lutece.plugins.releaser.business.Component;
 import fr.paris.lutece.plugins.releaser.business.Site;
 import fr.paris.lutece.plugins.releaser.util.CommandResult;
 import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
 import fr.paris.lutece.plugins.releaser.util.pom.PomUpdater;
 import fr.paris.lutece.plugins.releaser.util.svn.ReleaseSvnCheckoutClient;
@@ -167,8 +169,25 @@ public class SvnService implements ISvnService
 
             try
             {
-                lReturn =SvnUtils.doSvnCheckout( SvnUtils.getRepoUrl( component.getScmDeveloperConnection( )), strLocalBasePath, updateClient,
-                        commandResult );
+                if ( ReleaserUtils.isReuseLocalWorkingCopy( ) && new File( strLocalBasePath ).exists( ) )
+                {
+                    commandResult.getLog( ).append( "Updating the local working copy ...\n" );
+                    SVNClientManager clientManager = SVNClientManager.newInstance( SVNWCUtil.createDefaultOptions( false ), authManager );
+                    try
+                    {
+                        lReturn = SvnUtils.doSvnUpdate( SvnUtils.getRepoUrl( component.getScmDeveloperConnection( ) ), strLocalBasePath, clientManager,
+                                commandResult );
+                    }
+                    finally
+                    {
+                        clientManager.dispose( );
+                    }
+                }
+                if ( lReturn == null )
+                {
+                    lReturn = SvnUtils.doSvnCheckout( SvnUtils.getRepoUrl( component.getScmDeveloperConnection( ) ), strLocalBasePath, updateClient,
+                            commandResult );
+                }
                 
                SvnUtils.getLastRevision( strLocalBasePath, strSvnLogin, strSvnPassword );
             }
@@ -202,7 +221,7 @@ public class SvnService implements ISvnService
 
         try
         {
-            final StringBuffer sbLog = commandResult.getLog(  );
+            final ReleaseLog sbLog = commandResult.getLog(  );
             
 
             copyClient.setEventHandler( new ISVNEventHandler(  )
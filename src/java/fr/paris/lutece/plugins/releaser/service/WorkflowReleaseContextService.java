@@ -3,11 +3,14 @@ package fr.paris.lutece.plugins.releaser.service;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -21,15 +24,19 @@ import org.eclipse.jgit.api.ResetCommand.ResetType;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.InvalidRemoteException;
 import org.eclipse.jgit.api.errors.TransportException;
-import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 
 import fr.paris.lutece.plugins.releaser.business.Component;
+import fr.paris.lutece.plugins.releaser.business.ReleaseContextHistory;
+import fr.paris.lutece.plugins.releaser.business.ReleaseContextHistoryHome;
+import fr.paris.lutece.plugins.releaser.business.Site;
 import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
 import fr.paris.lutece.plugins.releaser.util.CommandResult;
 import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
 import fr.paris.lutece.plugins.releaser.util.MapperJsonUtil;
 import fr.paris.lutece.plugins.releaser.util.PluginUtils;
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
 import fr.paris.lutece.plugins.releaser.util.file.FileUtils;
 import fr.paris.lutece.plugins.releaser.util.github.GitUtils;
@@ -48,7 +55,10 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     private static IWorkflowReleaseContextService _singleton;
     private HashMap<Integer, WorkflowReleaseContext> _mapWorkflowReleaseContext = new HashMap<Integer, WorkflowReleaseContext>( );
+    private ConcurrentMap<Integer, ReleaseCompletion> _mapReleaseCompletions = new ConcurrentHashMap<Integer, ReleaseCompletion>( );
     private ExecutorService _executor;
+    private ReleaseStageExecutor _stageExecutor;
+    private ConcurrentMap<Integer, ReleaseStageExecutor.StageChain> _mapStageChains = new ConcurrentHashMap<Integer, ReleaseStageExecutor.StageChain>( );
     private  IMavenPrepareUpdateRemoteRepository  _svnMavenPrepareUpadteRepo ;
     private  IMavenPrepareUpdateRemoteRepository  _gitMavenPrepareUpadteRepo;
     private HashSet<String> _releaseInProgress = new HashSet<String>( );
@@ -82,74 +92,147 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         return _mapWorkflowReleaseContext.get( nIdContext );
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
     public synchronized void saveWorkflowReleaseContext( WorkflowReleaseContext context )
     {
-        try
+        CommandResult commandResult = context.getCommandResult( );
+        ReleaseContextHistory history = new ReleaseContextHistory( );
+        history.setIdContext( context.getId( ) );
+
+        if ( context.getComponent( ) != null )
         {
-            String strJsonContext = MapperJsonUtil.getJson( context );
-            DatastoreService.setDataValue( ReleaserUtils.getWorklowContextDataKey( context.getComponent( ) != null ? context.getComponent( ).getArtifactId( )
-                    : context.getSite( ).getArtifactId( ), context.getId( ) ), strJsonContext );
+            history.setArtifactId( context.getComponent( ).getArtifactId( ) );
+            history.setVersion( context.getComponent( ).getCurrentVersion( ) );
+            history.setTargetVersion( context.getComponent( ).getTargetVersion( ) );
+        }
+        else
+        {
+            history.setSite( true );
+            history.setArtifactId( context.getSite( ).getArtifactId( ) );
+            history.setVersion( context.getSite( ).getVersion( ) );
+            history.setTargetVersion( context.getSite( ).getNextReleaseVersion( ) );
+        }
 
+        ReleaseLog log = null;
+        if ( commandResult != null )
+        {
+            history.setStatus( commandResult.getStatus( ) );
+            history.setErrorType( commandResult.getErrorType( ) );
+            history.setDateBegin( commandResult.getDateBegin( ) );
+            history.setDateEnd( commandResult.getDateEnd( ) );
+            history.setError( commandResult.getError( ) );
+            log = commandResult.getLog( );
         }
-        catch( IOException e )
+
+        // the whole log is stored, the beginning of a long log is read back from its spill file
+        ReleaseContextHistoryHome.create( history, log );
+        if ( log != null && !commandResult.isRunning( ) )
         {
-            AppLogService.error( "error during save context json", e );
+            log.deleteSpillFile( );
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
     public WorkflowReleaseContext getWorkflowReleaseContextHistory( int nIdContext, String strArtifactId )
     {
-        WorkflowReleaseContext context = null;
-        try
+        ReleaseContextHistory history = ReleaseContextHistoryHome.findByPrimaryKey( nIdContext );
+        if ( history == null || !history.getArtifactId( ).equals( strArtifactId ) )
         {
+            return null;
+        }
 
-            String strJsonContext = DatastoreService.getDataValue( ReleaserUtils.getWorklowContextDataKey( strArtifactId, nIdContext ), null );
-            context = MapperJsonUtil.parse( strJsonContext, WorkflowReleaseContext.class );
-
+        WorkflowReleaseContext context = new WorkflowReleaseContext( );
+        context.setId( history.getIdContext( ) );
+        if ( history.isSite( ) )
+        {
+            Site site = new Site( );
+            site.setArtifactId( history.getArtifactId( ) );
+            site.setVersion( history.getVersion( ) );
+            site.setNextReleaseVersion( history.getTargetVersion( ) );
+            context.setSite( site );
         }
-        catch( IOException e )
+        else
         {
-            AppLogService.error( "error during get context in the datastore", e );
+            Component component = new Component( );
+            component.setArtifactId( history.getArtifactId( ) );
+            component.setCurrentVersion( history.getVersion( ) );
+            component.setTargetVersion( history.getTargetVersion( ) );
+            context.setComponent( component );
         }
+
+        CommandResult commandResult = new CommandResult( );
+        commandResult.setStatus( history.getStatus( ) );
+        commandResult.setErrorType( history.getErrorType( ) );
+        commandResult.setDateBegin( history.getDateBegin( ) );
+        commandResult.setDateEnd( history.getDateEnd( ) );
+        commandResult.setError( history.getError( ) );
+        commandResult.setLog( ReleaseLog.fromHistory( ReleaseContextHistoryHome.findLog( nIdContext ) ) );
+        context.setCommandResult( commandResult );
+
         return context;
+    }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int getReleaseContextHistoryCount( String strArtifactId )
+    {
+        return ReleaseContextHistoryHome.countByArtifactId( strArtifactId );
     }
 
-    public List<WorkflowReleaseContext> getListWorkflowReleaseContextHistory( String strArtifactId )
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<ReleaseContextHistory> getReleaseContextHistoryList( String strArtifactId, int nIndex, int nMaxItems )
     {
-        WorkflowReleaseContext context = null;
-        List<WorkflowReleaseContext> listContext = new ArrayList<WorkflowReleaseContext>( );
+        return ReleaseContextHistoryHome.findByArtifactId( strArtifactId, nIndex, nMaxItems );
+    }
 
-        try
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getReleaseContextHistoryLog( int nIdContext )
+    {
+        return ReleaseContextHistoryHome.findLog( nIdContext );
+    }
+
+    /**
+     * Move the release contexts saved as JSON in the datastore by the previous versions of the plugin to the release history table
+     */
+    private void migrateDatastoreHistory( )
+    {
+        ReferenceList refListContextHistory = DatastoreService.getDataByPrefix( ConstanteUtils.CONSTANTE_RELEASE_CONTEXT_PREFIX );
+        if ( CollectionUtils.isEmpty( refListContextHistory ) )
         {
+            return;
+        }
 
-            ReferenceList refListContextHistory = DatastoreService.getDataByPrefix( ConstanteUtils.CONSTANTE_RELEASE_CONTEXT_PREFIX + strArtifactId );
-            if ( !CollectionUtils.isEmpty( refListContextHistory ) )
+        for ( ReferenceItem referenceItem : refListContextHistory )
+        {
+            try
             {
-                for ( Iterator iterator = refListContextHistory.iterator( ); iterator.hasNext( ); )
+                WorkflowReleaseContext context = MapperJsonUtil.parse( referenceItem.getName( ), WorkflowReleaseContext.class );
+                if ( context != null )
                 {
-                    
-                    
-                    ReferenceItem referenceItem = (ReferenceItem) iterator.next( );
-                    
-                    //return only the reference item associated to the artifact id
-                    if(referenceItem.getCode( ).startsWith( ConstanteUtils.CONSTANTE_RELEASE_CONTEXT_PREFIX + strArtifactId+"_"  ))
-                    {
-                        context = MapperJsonUtil.parse( referenceItem.getName( ), WorkflowReleaseContext.class );
-                        if ( context != null )
-                        {
-                            listContext.add( context );
-                        }
-                    }
+                    saveWorkflowReleaseContext( context );
                 }
+                DatastoreService.removeData( referenceItem.getCode( ) );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "error during the migration of the release context " + referenceItem.getCode( ), e );
             }
         }
-        catch( IOException e )
-        {
-            AppLogService.error( "error during get context in the datastore", e );
-        }
-        return listContext;
-
+        AppLogService.info( "Releaser : " + refListContextHistory.size( ) + " release contexts moved from the datastore to the release history" );
     }
 
     public int getIdWorkflow( WorkflowReleaseContext context )
@@ -189,7 +272,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         return _singleton;
     }
 
-    public void gitCloneRepository( WorkflowReleaseContext context, Locale locale )
+    private void doGitCloneRepository( WorkflowReleaseContext context, Locale locale )
     {
         Git git = null;
         // FileRepository fLocalRepo = null;
@@ -200,8 +283,16 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         String strLocalComponentPath = ReleaserUtils.getLocalComponentPath( strComponentName );
 
         File file = new File( strLocalComponentPath );
+        // the working copy is refreshed or re-created, release the repository opened by a previous step
+        GitUtils.getRepositorySession( ).close( context.getId( ) );
+
+        if ( file.exists( ) && ReleaserUtils.isReuseLocalWorkingCopy( ) )
+        {
+            commandResult.getLog( ).append( "Local repository " + strComponentName + " exist\nRefreshing the local working copy...\n" );
+            git = GitUtils.refreshRepo( strLocalComponentPath, component.getScmDeveloperConnection( ), commandResult, context.getReleaserUser( ).getGithubComponentAccountLogin( ), context.getReleaserUser( ).getGithubComponentAccountPassword( ) );
+        }
 
-        if ( file.exists( ) )
+        if ( git == null && file.exists( ) )
         {
 
             commandResult.getLog( ).append( "Local repository " + strComponentName + " exist\nCleaning Local folder...\n" );
@@ -213,49 +304,42 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
             commandResult.getLog( ).append( "Local repository has been cleaned\n" );
         }
 
-        commandResult.getLog( ).append( "Cloning repository ...\n" );
-        try
+        // PROGRESS 5%
+        commandResult.setProgressValue( commandResult.getProgressValue( ) + 5 );
+        if ( git == null )
         {
-
-            // PROGRESS 5%
-            commandResult.setProgressValue( commandResult.getProgressValue( ) + 5 );
+            commandResult.getLog( ).append( "Cloning repository ...\n" );
             git = GitUtils.cloneRepo( strLocalComponentPath, component.getScmDeveloperConnection( ), commandResult, context.getReleaserUser( ).getGithubComponentAccountLogin( ), context.getReleaserUser( ).getGithubComponentAccountLogin( ), context.getReleaserUser( ).getGithubComponentAccountPassword( ) );
-            // fLocalRepo = new FileRepository( strLocalComponentPath + "/.git" );
-            // git = new Git( fLocalRepo );
-            GitUtils.createLocalBranch( git, GitUtils.DEVELOP_BRANCH, commandResult );
-            GitUtils.createLocalBranch( git, GitUtils.MASTER_BRANCH, commandResult );
-            context.setRefBranchDev( GitUtils.getRefBranch( git, GitUtils.DEVELOP_BRANCH, commandResult ) );
-            context.setRefBranchRelease( GitUtils.getRefBranch( git, GitUtils.MASTER_BRANCH, commandResult ) );
-            
-            
-            //String ref = git.getRepository( ).findRef( GitUtils.MASTER_BRANCH ).getName( ); 
+        }
+        if ( git != null )
+        {
+            // the next steps of the release work on the same open repository
+            GitUtils.getRepositorySession( ).attach( context.getId( ), git );
+        }
+        // fLocalRepo = new FileRepository( strLocalComponentPath + "/.git" );
+        // git = new Git( fLocalRepo );
+        GitUtils.createLocalBranch( git, GitUtils.DEVELOP_BRANCH, commandResult );
+        GitUtils.createLocalBranch( git, GitUtils.MASTER_BRANCH, commandResult );
+        context.setRefBranchDev( GitUtils.getRefBranch( git, GitUtils.DEVELOP_BRANCH, commandResult ) );
+        context.setRefBranchRelease( GitUtils.getRefBranch( git, GitUtils.MASTER_BRANCH, commandResult ) );
+        
+        
+        //String ref = git.getRepository( ).findRef( GitUtils.MASTER_BRANCH ).getName( ); 
 //            git.reset( ).setRef( ref  ).setMode( ResetType.HARD ).call( );
 //            git.push( )
 //            .setCredentialsProvider( new UsernamePasswordCredentialsProvider( context.getReleaserUser( ).getGithubComponentAccountLogin( ), context.getReleaserUser( ).getGithubComponentAccountPassword( ) ) ).setRe
 //            .call( );
-            commandResult.getLog( ).append( "the repository has been successfully cloned.\n" );
-            commandResult.getLog( ).append( "Checkout branch \"" + GitUtils.DEVELOP_BRANCH + "\" ...\n" );
-            GitUtils.checkoutRepoBranch( git, GitUtils.DEVELOP_BRANCH, commandResult );
-            // PROGRESS 10%
-            commandResult.setProgressValue( commandResult.getProgressValue( ) + 5 );
-            
+        commandResult.getLog( ).append( "the repository has been successfully cloned.\n" );
+        commandResult.getLog( ).append( "Checkout branch \"" + GitUtils.DEVELOP_BRANCH + "\" ...\n" );
+        GitUtils.checkoutRepoBranch( git, GitUtils.DEVELOP_BRANCH, commandResult );
+        // PROGRESS 10%
+        commandResult.setProgressValue( commandResult.getProgressValue( ) + 5 );
         
-            if(ComponentService.getService( ).isErrorSnapshotComponentInformations( component,ReleaserUtils.getLocalComponentPomPath( strComponentName ) ))
-            {
-                ReleaserUtils.addTechnicalError( commandResult,"The cloned component does not match the release informations");
-                
-            }
-
-        }
-      
-        finally
+    
+        if(ComponentService.getService( ).isErrorSnapshotComponentInformations( component,ReleaserUtils.getLocalComponentPomPath( strComponentName ) ))
         {
-            if ( git != null )
-            {
-
-                git.close( );
-
-            }
+            ReleaserUtils.addTechnicalError( commandResult,"The cloned component does not match the release informations");
+            
         }
 
         commandResult.getLog( ).append( "Checkout branch develop successfull\n" );
@@ -264,10 +348,9 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     }
 
-    public void gitMerge( WorkflowReleaseContext context, Locale locale )
+    private void doGitMerge( WorkflowReleaseContext context, Locale locale )
     {
 
-        FileRepository fLocalRepo = null;
         CommandResult commandResult = context.getCommandResult( );
         Component component = context.getComponent( );
         ReleaserUtils.logStartAction( context, " Merge DEVELOP/MASTER" );
@@ -277,10 +360,8 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         try
         {
 
-            fLocalRepo = new FileRepository( strLocalComponentPath + "/.git" );
-            git = new Git( fLocalRepo );
             commandResult.getLog( ).append( "Checking if local repository " + strComponentName + " exist\n" );
-            if ( !fLocalRepo.getDirectory( ).exists( ) )
+            if ( !new File( strLocalComponentPath, Constants.DOT_GIT ).exists( ) )
             {
 
                 ReleaserUtils.addTechnicalError( commandResult, "the local repository does not exist" );
@@ -289,6 +370,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
             else
             {
                 commandResult.getLog( ).append( "Checkout branch \"" + GitUtils.MASTER_BRANCH + "\" ...\n" );
+                git = GitUtils.getRepositorySession( ).getGit( context.getId( ), strLocalComponentPath );
                 GitUtils.checkoutRepoBranch( git, GitUtils.MASTER_BRANCH, commandResult );
                 commandResult.getLog( ).append( "Checkout successfull\n" );
                 // PROGRESS 15%
@@ -338,28 +420,11 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         {
             ReleaserUtils.addTechnicalError( commandResult, e.getMessage( ), e );
         }
-        finally
-        {
-
-            if ( fLocalRepo != null )
-            {
-
-                fLocalRepo.close( );
-
-            }
-            if ( git != null )
-            {
-
-                git.close( );
-
-            }
-
-        }
     }
 
 
     
-    public void releasePrepareGit( WorkflowReleaseContext context, Locale locale )
+    private void doReleasePrepareGit( WorkflowReleaseContext context, Locale locale )
     {
         String strComponentName = context.getComponent().getName( );
         
@@ -377,7 +442,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     }
 
-    public void releasePerformGit( WorkflowReleaseContext context, Locale locale )
+    private void doReleasePerformGit( WorkflowReleaseContext context, Locale locale )
     {
 
         CommandResult commandResult = context.getCommandResult( );
@@ -406,7 +471,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         ReleaserUtils.logEndAction( context, " Release Perform" );
     }
 
-    public void checkoutSite( WorkflowReleaseContext context, Locale locale )
+    private void doCheckoutSite( WorkflowReleaseContext context, Locale locale )
     {
         CommandResult commandResult = context.getCommandResult( );
 
@@ -420,7 +485,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     }
 
-    public void checkoutComponent( WorkflowReleaseContext context, Locale locale )
+    private void doCheckoutComponent( WorkflowReleaseContext context, Locale locale )
     {
         CommandResult commandResult = context.getCommandResult( );
 
@@ -430,7 +495,8 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
         File file = new File( strLocalComponentPath );
 
-        if ( file.exists( ) )
+        // a kept working copy is updated by the checkout, which cleans the folder itself when it can't be reused
+        if ( file.exists( ) && !ReleaserUtils.isReuseLocalWorkingCopy( ) )
         {
 
             commandResult.getLog( ).append( "Local SVN Component " + strComponentName + " exist\nCleaning Local folder...\n" );
@@ -465,7 +531,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     }
 
-    public void releaseSite( WorkflowReleaseContext context, Locale locale )
+    private void doReleaseSite( WorkflowReleaseContext context, Locale locale )
     {
         CommandResult commandResult = context.getCommandResult( );
 
@@ -478,7 +544,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     }
 
-    public void releasePrepareSvn( WorkflowReleaseContext context, Locale locale )
+    private void doReleasePrepareSvn( WorkflowReleaseContext context, Locale locale )
     {
         String strComponentName = context.getComponent( ).getName();
         try
@@ -499,7 +565,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
   
 
-    public void releasePerformSvn( WorkflowReleaseContext context, Locale locale )
+    private void doReleasePerformSvn( WorkflowReleaseContext context, Locale locale )
     {
         CommandResult commandResult = context.getCommandResult( );
        
@@ -526,7 +592,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         ReleaserUtils.logEndAction( context, " Release Perform" );
     }
 
-    public void sendTweet( WorkflowReleaseContext context, Locale locale )
+    private void doSendTweet( WorkflowReleaseContext context, Locale locale )
     {
 
         CommandResult commandResult = context.getCommandResult( );
@@ -540,7 +606,7 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     }
     
-    public void updateJiraVersions( WorkflowReleaseContext context, Locale locale )
+    private void doUpdateJiraVersions( WorkflowReleaseContext context, Locale locale )
     {
 
         CommandResult commandResult = context.getCommandResult( );
@@ -553,85 +619,268 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
     }
 
-    public void startWorkflowReleaseContext( WorkflowReleaseContext context, int nIdWorkflow, Locale locale, HttpServletRequest request, AdminUser user )
+    @Override
+    public void gitCloneRepository( final WorkflowReleaseContext context, final Locale locale )
     {
-        _executor.execute( new ReleaseComponentTask( nIdWorkflow, context, request, user, locale ) );
+        addStage( context, ReleaseStage.CHECKOUT, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                doGitCloneRepository( context, locale );
+            }
+        } );
     }
 
-    public void init( )
+    @Override
+    public void gitMerge( final WorkflowReleaseContext context, final Locale locale )
     {
-
-        _executor = Executors.newFixedThreadPool( AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_THREAD_RELEASE_POOL_MAX_SIZE, 5 ) );
-        _svnMavenPrepareUpadteRepo =SpringContextService.getBean( ConstanteUtils.BEAN_SVN_MAVEN_PREPARE_UPDATE_REMOTE_REPOSITORY );
-         _gitMavenPrepareUpadteRepo =SpringContextService.getBean( ConstanteUtils.BEAN_GIT_MAVEN_PREPARE_UPDATE_REMOTE_REPOSITORY );
-        
-
+        addStage( context, ReleaseStage.CHECKOUT, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                doGitMerge( context, locale );
+            }
+        } );
     }
 
-    private void realeasePrepare( String strComponentName,String strUserLogin,String strUserPassword,IMavenPrepareUpdateRemoteRepository mavenPrepareUpdateRepo, WorkflowReleaseContext context, Locale locale )
+    @Override
+    public void checkoutSite( final WorkflowReleaseContext context, final Locale locale )
     {
+        addStage( context, ReleaseStage.CHECKOUT, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                doCheckoutSite( context, locale );
+            }
+        } );
+    }
 
-        CommandResult commandResult = context.getCommandResult( );
-        Component component = context.getComponent( );
-        String strLocalComponentPath = ReleaserUtils.getLocalComponentPath( strComponentName );
-        String strLocalComponentPomPath = ReleaserUtils.getLocalComponentPomPath( strComponentName );
-
-        String strComponentReleaseVersion = component.getTargetVersion( );
-        String strComponentReleaseTagName = component.getArtifactId( ) + "-" + component.getTargetVersion( );
-        String strComponentReleaseNewDeveloppmentVersion = component.getNextSnapshotVersion( );
+    @Override
+    public void checkoutComponent( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.CHECKOUT, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                doCheckoutComponent( context, locale );
+            }
+        } );
+    }
 
-        ReleaserUtils.logStartAction( context, " Release Prepare" );
+    @Override
+    public void releasePrepareGit( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.PREPARE, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                doReleasePrepareGit( context, locale );
+            }
+        } );
+    }
 
-        if ( PluginUtils.isCore( strComponentName ) )
+    @Override
+    public void releasePrepareSvn( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.PREPARE, new Runnable( )
         {
-            // update core xml
-            String strCoreXMLPath = PluginUtils.getCoreXMLFile( strLocalComponentPath );
+            @Override
+            public void run( )
+            {
+                doReleasePrepareSvn( context, locale );
+            }
+        } );
+    }
 
-            if ( StringUtils.isNotBlank( strCoreXMLPath ) )
+    @Override
+    public void releaseSite( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.PREPARE, new Runnable( )
+        {
+            @Override
+            public void run( )
             {
-                commandResult.getLog( ).append( "Updating Core XML " + strComponentName + " to " + strComponentReleaseVersion + "\n" );
-
-                
-                PluginUtils.updatePluginXMLVersion( strCoreXMLPath, strComponentReleaseVersion, commandResult );
-                // Commit Plugin xml modification version
-                mavenPrepareUpdateRepo.updateDevelopBranch( strLocalComponentPath,context, locale, "[site-release] Update core version to " + strComponentReleaseVersion );
-                commandResult.getLog( ).append( "Core XML updated to " + strComponentReleaseVersion + "\n" );
-                // PROGRESS 30%
-                commandResult.setProgressValue( commandResult.getProgressValue( ) + 5 );
+                doReleaseSite( context, locale );
+            }
+        } );
+    }
 
+    @Override
+    public void releasePerformGit( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.PERFORM, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                doReleasePerformGit( context, locale );
             }
+        } );
+    }
 
-            // update appinfo.java
-            String strAppInfoFilePath = PluginUtils.getAppInfoFile( strLocalComponentPath );
-           
-            if ( StringUtils.isNotBlank( strAppInfoFilePath ) )
+    @Override
+    public void releasePerformSvn( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.PERFORM, new Runnable( )
+        {
+            @Override
+            public void run( )
             {
-                PluginUtils.updateAppInfoFile( strAppInfoFilePath, strComponentReleaseVersion, commandResult );
-                mavenPrepareUpdateRepo.updateDevelopBranch( strAppInfoFilePath,context, locale, "[site-release] Update AppInfo.java version" );
+                doReleasePerformSvn( context, locale );
+            }
+        } );
+    }
 
+    @Override
+    public void sendTweet( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.NOTIFY, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                doSendTweet( context, locale );
             }
-            else
+        } );
+    }
+
+    @Override
+    public void updateJiraVersions( final WorkflowReleaseContext context, final Locale locale )
+    {
+        addStage( context, ReleaseStage.NOTIFY, new Runnable( )
+        {
+            @Override
+            public void run( )
             {
-                commandResult.getLog( ).append( "No AppInfo file found..." );
+                doUpdateJiraVersions( context, locale );
             }
+        } );
+    }
 
+    /**
+     * Adds a stage to the chain of the release context whose workflow action is being processed, the stage is run
+     * alone in its pool when no chain is open for the context
+     * 
+     * @param context
+     *            the context
+     * @param stage
+     *            the stage
+     * @param task
+     *            the work of the stage
+     */
+    private void addStage( WorkflowReleaseContext context, final ReleaseStage stage, Runnable task )
+    {
+        ReleaseStageExecutor.StageChain chain = _mapStageChains.get( context.getId( ) );
+        if ( chain != null )
+        {
+            chain.add( stage, task );
+            return;
         }
-        else
+        _stageExecutor.newChain( ).add( stage, task ).start( new ReleaseStageExecutor.StageChainListener( )
         {
-            String [ ] pluginNames = PluginUtils.getPluginXMLFile( strLocalComponentPath );
-            for ( String pluginXMLPath : pluginNames )
+            @Override
+            public void chainEnded( RuntimeException error )
             {
-                commandResult.getLog( ).append( "Updating plugin XML " + strComponentName + " to " + strComponentReleaseVersion + "\n" );
-                PluginUtils.updatePluginXMLVersion( pluginXMLPath, strComponentReleaseVersion, commandResult );
-                mavenPrepareUpdateRepo.updateDevelopBranch(pluginXMLPath, context, locale, "[site-release] Update plugin version to " + strComponentReleaseVersion + " for "
-                        + strComponentName );
+                if ( error != null )
+                {
+                    AppLogService.error( "Error during the release stage " + stage, error );
+                }
+            }
+        } );
+    }
 
-                commandResult.getLog( ).append( "Plugin XML updated to " + strComponentReleaseVersion + "\n" );
-                // PROGRESS 30%
-                commandResult.setProgressValue( commandResult.getProgressValue( ) + 5 );
+    @Override
+    public void runWorkflowReleaseStages( WorkflowReleaseContext context, Runnable actions, ReleaseStageExecutor.StageChainListener listener )
+    {
+        ReleaseStageExecutor.StageChain chain = _stageExecutor.newChain( );
+        _mapStageChains.put( context.getId( ), chain );
+        try
+        {
+            actions.run( );
+        }
+        finally
+        {
+            _mapStageChains.remove( context.getId( ), chain );
+        }
+        chain.start( listener );
+    }
 
-            }
+    public void startWorkflowReleaseContext( WorkflowReleaseContext context, int nIdWorkflow, Locale locale, HttpServletRequest request, AdminUser user )
+    {
+        _executor.execute( new ReleaseComponentTask( nIdWorkflow, context, request, user, locale ) );
+    }
+
+    @Override
+    public void startWorkflowReleaseContext( WorkflowReleaseContext context, int nIdWorkflow, Locale locale, HttpServletRequest request, AdminUser user,
+            IReleaseCompletionListener listener )
+    {
+        // the completion is only created for the releases having a listener, and dropped once they are completed
+        ReleaseCompletion completion = new ReleaseCompletion( );
+        ReleaseCompletion completionStarted = _mapReleaseCompletions.putIfAbsent( context.getId( ), completion );
+        ( ( completionStarted != null ) ? completionStarted : completion ).addListener( listener );
+        _executor.execute( new ReleaseComponentTask( nIdWorkflow, context, request, user, locale ) );
+    }
+
+    @Override
+    public List<ReleaseStageExecutor.StageMetrics> getReleaseStageMetrics( )
+    {
+        return _stageExecutor.getMetrics( );
+    }
+
+    @Override
+    public void completeWorkflowReleaseContext( WorkflowReleaseContext context, boolean bSuccess )
+    {
+        GitUtils.getRepositorySession( ).close( context.getId( ) );
+        if ( context.getCommandResult( ) != null && context.getCommandResult( ).getLog( ) != null )
+        {
+            context.getCommandResult( ).getLog( ).deleteSpillFile( );
+        }
+        ReleaseCompletion completion = _mapReleaseCompletions.get( context.getId( ) );
+        if ( completion != null )
+        {
+            completion.complete( context, bSuccess );
+            _mapReleaseCompletions.remove( context.getId( ), completion );
         }
+    }
+
+    public void init( )
+    {
+
+        _executor = Executors.newFixedThreadPool( AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_THREAD_RELEASE_POOL_MAX_SIZE, 5 ) );
+        Map<ReleaseStage, Integer> mapStagePoolSizes = new EnumMap<>( ReleaseStage.class );
+        for ( ReleaseStage stage : ReleaseStage.values( ) )
+        {
+            mapStagePoolSizes.put( stage, AppPropertiesService.getPropertyInt( stage.getPoolSizeProperty( ), stage.getDefaultPoolSize( ) ) );
+        }
+        _stageExecutor = new ReleaseStageExecutor( mapStagePoolSizes );
+        _svnMavenPrepareUpadteRepo =SpringContextService.getBean( ConstanteUtils.BEAN_SVN_MAVEN_PREPARE_UPDATE_REMOTE_REPOSITORY );
+         _gitMavenPrepareUpadteRepo =SpringContextService.getBean( ConstanteUtils.BEAN_GIT_MAVEN_PREPARE_UPDATE_REMOTE_REPOSITORY );
+        migrateDatastoreHistory( );
+        
+
+    }
+
+    private void realeasePrepare( String strComponentName,String strUserLogin,String strUserPassword,IMavenPrepareUpdateRemoteRepository mavenPrepareUpdateRepo, WorkflowReleaseContext context, Locale locale )
+    {
+
+        CommandResult commandResult = context.getCommandResult( );
+        Component component = context.getComponent( );
+        String strLocalComponentPomPath = ReleaserUtils.getLocalComponentPomPath( strComponentName );
+
+        String strComponentReleaseVersion = component.getTargetVersion( );
+        String strComponentReleaseTagName = component.getArtifactId( ) + "-" + component.getTargetVersion( );
+        String strComponentReleaseNewDeveloppmentVersion = component.getNextSnapshotVersion( );
+
+        ReleaserUtils.logStartAction( context, " Release Prepare" );
+
+        updateVersionFiles( strComponentName, strComponentReleaseVersion, mavenPrepareUpdateRepo, context, locale );
+        // PROGRESS 30%
+        commandResult.setProgressValue( commandResult.getProgressValue( ) + 5 );
 
        
        
@@ -646,6 +895,37 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
         commandResult.setProgressValue( commandResult.getProgressValue( ) + 20 );
 
         // Modify plugin version on develop
+        updateVersionFiles( strComponentName, strComponentReleaseNewDeveloppmentVersion, mavenPrepareUpdateRepo, context, locale );
+        // PROGRESS 65%
+        commandResult.setProgressValue( commandResult.getProgressValue( ) + 15 );
+        
+        ReleaserUtils.logEndAction( context, " Release Prepare" );
+
+    }
+
+    /**
+     * Update the version of the plugin XML files, or of the core XML and AppInfo.java files for the core, then commit all of them on the develop
+     * branch in a single commit
+     * 
+     * @param strComponentName
+     *            the name of the component
+     * @param strVersion
+     *            the new version
+     * @param mavenPrepareUpdateRepo
+     *            the repository update service
+     * @param context
+     *            the release context
+     * @param locale
+     *            the locale
+     */
+    private void updateVersionFiles( String strComponentName, String strVersion, IMavenPrepareUpdateRemoteRepository mavenPrepareUpdateRepo,
+            WorkflowReleaseContext context, Locale locale )
+    {
+        CommandResult commandResult = context.getCommandResult( );
+        String strLocalComponentPath = ReleaserUtils.getLocalComponentPath( strComponentName );
+        List<String> listUpdatedFiles = new ArrayList<>( );
+        String strMessage;
+
         if ( PluginUtils.isCore( strComponentName ) )
         {
             // update core xml
@@ -653,48 +933,43 @@ public class WorkflowReleaseContextService implements IWorkflowReleaseContextSer
 
             if ( StringUtils.isNotBlank( strCoreXMLPath ) )
             {
-                commandResult.getLog( ).append( "Updating Core XML " + strComponentName + " to " + strComponentReleaseNewDeveloppmentVersion + "\n" );
-
-                PluginUtils.updatePluginXMLVersion( strCoreXMLPath, strComponentReleaseNewDeveloppmentVersion, commandResult );
-                
-                // Commit Plugin xml modification version
-                mavenPrepareUpdateRepo.updateDevelopBranch(strLocalComponentPath,  context, locale, "[site-release] Update core version to "
-                        + strComponentReleaseNewDeveloppmentVersion );
+                commandResult.getLog( ).append( "Updating Core XML " + strComponentName + " to " + strVersion + "\n" );
+                PluginUtils.updatePluginXMLVersion( strCoreXMLPath, strVersion, commandResult );
+                listUpdatedFiles.add( strCoreXMLPath );
             }
 
             // update appinfo.java
-            String strAppInfoFilePath = PluginUtils.getAppInfoFile( strLocalComponentPath);
-           
+            String strAppInfoFilePath = PluginUtils.getAppInfoFile( strLocalComponentPath );
+
             if ( StringUtils.isNotBlank( strAppInfoFilePath ) )
             {
-                PluginUtils.updateAppInfoFile( strAppInfoFilePath, strComponentReleaseNewDeveloppmentVersion, commandResult );
-                mavenPrepareUpdateRepo.updateDevelopBranch( strAppInfoFilePath,context, locale, "[site-release] Update AppInfo.java version" );
+                PluginUtils.updateAppInfoFile( strAppInfoFilePath, strVersion, commandResult );
+                listUpdatedFiles.add( strAppInfoFilePath );
             }
             else
             {
                 commandResult.getLog( ).append( "No AppInfo file found..." );
             }
-
+            strMessage = "[site-release] Update core version to " + strVersion;
         }
         else
         {
             String [ ] pluginNames = PluginUtils.getPluginXMLFile( strLocalComponentPath );
             for ( String pluginXMLPath : pluginNames )
             {
-                commandResult.getLog( ).append( "Updating plugin XML " + strComponentName + " to " + strComponentReleaseNewDeveloppmentVersion + "\n" );
-                PluginUtils.updatePluginXMLVersion( pluginXMLPath, strComponentReleaseNewDeveloppmentVersion, commandResult );
-                // Commit Plugin xml modification version
-                mavenPrepareUpdateRepo.updateDevelopBranch( pluginXMLPath,context, locale, "[site-release] Update plugin version to "
-                        + strComponentReleaseNewDeveloppmentVersion + " for " + strComponentName );
-
-                commandResult.getLog( ).append( "Plugin XML updated to " + strComponentReleaseNewDeveloppmentVersion + "\n" );
+                commandResult.getLog( ).append( "Updating plugin XML " + strComponentName + " to " + strVersion + "\n" );
+                PluginUtils.updatePluginXMLVersion( pluginXMLPath, strVersion, commandResult );
+                listUpdatedFiles.add( pluginXMLPath );
             }
+            strMessage = "[site-release] Update plugin version to " + strVersion + " for " + strComponentName;
         }
-        // PROGRESS 65%
-        commandResult.setProgressValue( commandResult.getProgressValue( ) + 15 );
-        
-        ReleaserUtils.logEndAction( context, " Release Prepare" );
 
+        if ( !listUpdatedFiles.isEmpty( ) )
+        {
+            // Commit all the version modifications with a single push
+            mavenPrepareUpdateRepo.updateDevelopBranch( strLocalComponentPath, listUpdatedFiles, context, locale, strMessage );
+            commandResult.getLog( ).append( "Version files updated to " + strVersion + "\n" );
+        }
     }
     
     public void startReleaseInProgress(String strArtifactId)
@@ -52,7 +52,7 @@ public class CommandResult implements Cloneable, Serializable
     public static int ERROR_TYPE_STOP = 1;
     
     
-    private StringBuffer _strLog;
+    private ReleaseLog _strLog;
     private int _nStatus;
     private int _nErrorType;
     private boolean _bRunning;
@@ -68,7 +68,7 @@ public class CommandResult implements Cloneable, Serializable
      * "Getter method" pour la variable {@link #_strLog}
      * @return La variable {@link #_strLog}
      */
-    public StringBuffer getLog(  )
+    public ReleaseLog getLog(  )
     {
         return _strLog;
     }
@@ -77,7 +77,7 @@ public class CommandResult implements Cloneable, Serializable
      * "Setter method" pour la variable {@link #_strLog}
      * @param strLog La nouvelle valeur de la variable {@link #_strLog}
      */
-    public void setLog( StringBuffer strLog )
+    public void setLog( ReleaseLog strLog )
     {
         _strLog = strLog;
     }
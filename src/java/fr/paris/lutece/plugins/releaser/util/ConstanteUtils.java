@@ -26,6 +26,8 @@ public class ConstanteUtils
     public static final String BEAN_SVN_MAVEN_PREPARE_UPDATE_REMOTE_REPOSITORY= "releaser.svnMavenPrepareUpdateRemoteRepository";
    
     public static final String BEAN_COMPONENT_SERVICE= "releaser.componentService";
+    public static final String BEAN_DEPENDENCY_INDEX_SERVICE= "releaser.dependencyIndexService";
+    public static final String BEAN_RELEASE_PROGRESS_SERVICE= "releaser.releaseProgressService";
     
     public static final String BEAN_TWITTER_SERVICE= "releaser.twitterService";
     
@@ -48,6 +50,24 @@ public class ConstanteUtils
     
     public static final String PROPERTY_MAVEN_LOCAL_REPOSITORY = "releaser.mavenLocalRepository";
     public static final String PROPERTY_MAVEN_HOME_PATH = "releaser.mavenHomePath";
+    public static final String PROPERTY_RELEASE_LOG_MAX_SIZE = "releaser.releaseLog.maxSize";
+    public static final String PROPERTY_RELEASE_LOG_SPILL_DIRECTORY = "releaser.releaseLog.spillDirectory";
+    public static final String PROPERTY_RELEASE_PROGRESS_BATCH_INTERVAL = "releaser.releaseProgress.batchInterval";
+    public static final String PROPERTY_RELEASE_PROGRESS_HEARTBEAT_INTERVAL = "releaser.releaseProgress.heartbeatInterval";
+    public static final String PROPERTY_RELEASE_PROGRESS_MAX_STREAM_DURATION = "releaser.releaseProgress.maxStreamDuration";
+    public static final String PROPERTY_MAVEN_MAX_CONCURRENT_EXECUTIONS = "releaser.maven.maxConcurrentExecutions";
+    public static final String PROPERTY_MAVEN_SYNC_CONTEXT_FACTORY = "releaser.maven.syncContextFactory";
+    public static final String PROPERTY_MAVEN_DAEMON_ENABLED = "releaser.maven.daemon.enabled";
+    public static final String PROPERTY_MAVEN_DAEMON_PATH = "releaser.maven.daemon.path";
+    public static final String PROPERTY_MAVEN_OUTPUT_FILTER = "releaser.maven.output.filter";
+    public static final String PROPERTY_MAVEN_OUTPUT_BATCH_SIZE = "releaser.maven.output.batchSize";
+    public static final String PROPERTY_MAVEN_OUTPUT_RAW = "releaser.maven.output.raw";
+    public static final String PROPERTY_MAVEN_OUTPUT_RAW_MAX_COUNT = "releaser.maven.output.raw.maxCount";
+    public static final String PROPERTY_MAVEN_OUTPUT_RAW_MAX_AGE = "releaser.maven.output.raw.maxAge";
+    public static final String PROPERTY_GIT_MIRROR_ENABLED = "releaser.git.mirror.enabled";
+    public static final String PROPERTY_GIT_MIRROR_DIRECTORY = "releaser.git.mirror.directory";
+    public static final String PROPERTY_GIT_CLONE_BRANCHES = "releaser.git.clone.branches";
+    public static final String PROPERTY_REUSE_LOCAL_WORKING_COPY = "releaser.localWorkingCopy.reuse";
     public static final String PROPERTY_PROXY_HOST="httpAccess.proxyHost";
     public static final String PROPERTY_PROXY_PORT="httpAccess.proxyPort";
     public static final String PROPERTY_TWITTER_OAUTH_CONSUMER_KEY="releaser.consumerKey";
@@ -58,6 +78,15 @@ public class ConstanteUtils
     public static final String PROPERTY_TWITTER_OAUTH_AUTHORIZATION_URL="releaser.authorizationURL";
     public static final String PROPERTY_TWITTER_OAUTH_ACCESSTOKEN_URL="releaser.accessTokenURL";
     public static final String PROPERTY_THREAD_RELEASE_POOL_MAX_SIZE="releaser.threadReleasePoolMaxSize";
+    public static final String PROPERTY_SITE_RELEASE_MAX_PARALLEL_COMPONENTS="releaser.siteRelease.maxParallelComponents";
+    public static final String PROPERTY_REMOTE_INFORMATIONS_POOL_SIZE="releaser.remoteInformations.poolSize";
+    public static final String PROPERTY_REMOTE_INFORMATIONS_QUEUE_SIZE="releaser.remoteInformations.queueSize";
+    public static final String PROPERTY_REMOTE_INFORMATIONS_MAX_REQUESTS_PER_HOST="releaser.remoteInformations.maxRequestsPerHost";
+    public static final String PROPERTY_REMOTE_INFORMATIONS_BATCH_SIZE="releaser.remoteInformations.batchSize";
+    public static final String PROPERTY_COMPONENT_WEBSERVICE_BATCH_URL="releaser.component.webservice.batch.url";
+    public static final String PROPERTY_REMOTE_INFORMATIONS_CACHE_MAX_SIZE="releaser.remoteInformations.cache.maxSize";
+    public static final String PROPERTY_REMOTE_INFORMATIONS_CACHE_TTL="releaser.remoteInformations.cache.timeToLive";
+    public static final String PROPERTY_REMOTE_INFORMATIONS_CACHE_REFRESH_AHEAD="releaser.remoteInformations.cache.refreshAhead";
     public static final String PROPERTY_NB_SEARCH_ITEM_PER_PAGE_LOAD="releaser.nbSearchItemPerPageLoad";
     
     public static final String PROPERTY_URL_JIRA_SERVICE="releaser.urlJiraService";
@@ -0,0 +1,495 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+
+import org.apache.commons.lang.StringUtils;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * ReleaseLog : bounded log of a release.<br>
+ * The lines are gathered in chunks kept in a ring : when the retained size goes over the maximum size, the oldest
+ * chunks are moved to a spill file on disk. The memory used by the log of a running release is therefore bounded, and
+ * only the retained tail is serialized in the json of the release context.
+ */
+public class ReleaseLog implements Appendable, Serializable
+{
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_MAX_SIZE = 262144;
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final int MAX_CHUNK_SIZE = 8192;
+    private static final String DEFAULT_SPILL_DIRECTORY = "releaser-logs";
+    private static final String SPILL_FILE_PREFIX = "release-";
+    private static final String SPILL_FILE_SUFFIX = ".log";
+
+    private final Deque<String> _dequeChunks = new ArrayDeque<>( );
+    private final StringBuilder _sbCurrentChunk = new StringBuilder( );
+    private final int _nMaxSize;
+    private final int _nChunkSize;
+    private final File _fileSpillDirectory;
+    private File _fileSpill;
+    private int _nRetainedSize;
+    private long _lSpilledSize;
+
+    /**
+     * Create an empty log with the configured maximum size and spill directory
+     */
+    public ReleaseLog( )
+    {
+        this( AppPropertiesService.getPropertyInt( ConstanteUtils.PROPERTY_RELEASE_LOG_MAX_SIZE, DEFAULT_MAX_SIZE ), getLogDirectory( ) );
+    }
+
+    /**
+     * Create a log holding a text, used when a release context is read from its json
+     * 
+     * @param strLog
+     *            the text
+     */
+    public ReleaseLog( String strLog )
+    {
+        this( );
+        append( strLog );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param nMaxSize
+     *            the maximum number of characters kept in memory
+     * @param fileSpillDirectory
+     *            the directory of the spill files
+     */
+    public ReleaseLog( int nMaxSize, File fileSpillDirectory )
+    {
+        _nMaxSize = Math.max( MIN_CHUNK_SIZE, nMaxSize );
+        _nChunkSize = Math.max( MIN_CHUNK_SIZE, Math.min( MAX_CHUNK_SIZE, _nMaxSize / 8 ) );
+        _fileSpillDirectory = fileSpillDirectory;
+    }
+
+    /**
+     * Create a log holding the whole text of a stored release, used to display the history. The text is kept in memory
+     * and never spilled, so no file is left behind by the read-only copy.
+     * 
+     * @param strLog
+     *            the stored text
+     * @return the log
+     */
+    public static ReleaseLog fromHistory( String strLog )
+    {
+        String strText = StringUtils.defaultString( strLog );
+        ReleaseLog log = new ReleaseLog( strText.length( ), null );
+        log.append( strText );
+
+        return log;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized ReleaseLog append( CharSequence text )
+    {
+        CharSequence textToAppend = ( text != null ) ? text : "null";
+        int nStart = 0;
+        while ( nStart < textToAppend.length( ) )
+        {
+            int nEnd = Math.min( textToAppend.length( ), nStart + _nChunkSize - _sbCurrentChunk.length( ) );
+            _sbCurrentChunk.append( textToAppend, nStart, nEnd );
+            _nRetainedSize += nEnd - nStart;
+            nStart = nEnd;
+            if ( _sbCurrentChunk.length( ) >= _nChunkSize )
+            {
+                _dequeChunks.addLast( _sbCurrentChunk.toString( ) );
+                _sbCurrentChunk.setLength( 0 );
+            }
+        }
+        spillOverflow( );
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public ReleaseLog append( CharSequence text, int nStart, int nEnd )
+    {
+        return append( ( text != null ) ? text.subSequence( nStart, nEnd ) : "null" );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public ReleaseLog append( char c )
+    {
+        return append( String.valueOf( c ) );
+    }
+
+    /**
+     * Append the string value of an object
+     * 
+     * @param object
+     *            the object
+     * @return this log
+     */
+    public ReleaseLog append( Object object )
+    {
+        return append( String.valueOf( object ) );
+    }
+
+    /**
+     * Returns the number of characters appended to the log, retained or spilled
+     * 
+     * @return the length of the log
+     */
+    public synchronized long length( )
+    {
+        return _lSpilledSize + _nRetainedSize;
+    }
+
+    /**
+     * Returns the number of characters moved to the spill file
+     * 
+     * @return the spilled size
+     */
+    public synchronized long getSpilledSize( )
+    {
+        return _lSpilledSize;
+    }
+
+    /**
+     * Returns the spill file holding the beginning of the log
+     * 
+     * @return the spill file or null if nothing has been spilled
+     */
+    public synchronized File getSpillFile( )
+    {
+        return _fileSpill;
+    }
+
+    /**
+     * Returns the text appended since an offset, used by the clients polling the log of a running release. The text
+     * starts at the beginning of the retained tail if the offset has already been spilled, or if it is beyond the end
+     * of the log.
+     * 
+     * @param lOffset
+     *            the offset, the number of characters already read by the client, negative to only get the length
+     * @return the tail of the log
+     */
+    public synchronized Tail getTail( long lOffset )
+    {
+        long lLength = length( );
+        if ( lOffset < 0 )
+        {
+            return new Tail( lLength, "", false, lLength );
+        }
+
+        long lStart = ( lOffset > lLength ) ? _lSpilledSize : Math.max( lOffset, _lSpilledSize );
+        long lSkip = lStart - _lSpilledSize;
+        StringBuilder sbText = new StringBuilder( (int) ( lLength - lStart ) );
+        for ( String strChunk : _dequeChunks )
+        {
+            lSkip = appendFrom( sbText, strChunk, lSkip );
+        }
+        appendFrom( sbText, _sbCurrentChunk, lSkip );
+
+        return new Tail( lStart, sbText.toString( ), lStart != lOffset, lLength );
+    }
+
+    /**
+     * Returns the retained tail of the log, preceded by a notice when its beginning has been spilled
+     * 
+     * @return the log
+     */
+    @org.codehaus.jackson.annotate.JsonValue
+    @com.fasterxml.jackson.annotation.JsonValue
+    @Override
+    public synchronized String toString( )
+    {
+        StringBuilder sbLog = new StringBuilder( _nRetainedSize + 128 );
+        if ( _lSpilledSize > 0 )
+        {
+            sbLog.append( getSpillNotice( ) );
+        }
+        for ( String strChunk : _dequeChunks )
+        {
+            sbLog.append( strChunk );
+        }
+        sbLog.append( _sbCurrentChunk );
+
+        return sbLog.toString( );
+    }
+
+    /**
+     * Write the whole log : the beginning read back from the spill file, followed by the retained tail. A notice
+     * replaces the beginning if the spill file is not available.
+     * 
+     * @param writer
+     *            the writer
+     * @throws IOException
+     *             if the spill file can not be read or the writer fails
+     */
+    public synchronized void writeTo( Writer writer ) throws IOException
+    {
+        if ( _fileSpill != null && _fileSpill.exists( ) )
+        {
+            char [ ] buffer = new char [ MAX_CHUNK_SIZE];
+            try ( Reader reader = new InputStreamReader( Files.newInputStream( _fileSpill.toPath( ) ), StandardCharsets.UTF_8 ) )
+            {
+                int nRead;
+                while ( ( nRead = reader.read( buffer ) ) != -1 )
+                {
+                    writer.write( buffer, 0, nRead );
+                }
+            }
+        }
+        else
+            if ( _lSpilledSize > 0 )
+            {
+                writer.write( getSpillNotice( ) );
+            }
+        for ( String strChunk : _dequeChunks )
+        {
+            writer.write( strChunk );
+        }
+        writer.append( _sbCurrentChunk );
+    }
+
+    /**
+     * Delete the spill file, once the whole log has been stored with the history of the release or when the release
+     * is completed
+     */
+    public synchronized void deleteSpillFile( )
+    {
+        if ( _fileSpill == null )
+        {
+            return;
+        }
+        try
+        {
+            Files.deleteIfExists( _fileSpill.toPath( ) );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to delete the release log spill file " + _fileSpill + " : " + e.getMessage( ), e );
+        }
+        _fileSpill = null;
+    }
+
+    /**
+     * Returns the notice replacing the spilled beginning of the log
+     * 
+     * @return the notice
+     */
+    private String getSpillNotice( )
+    {
+        return "[... " + _lSpilledSize + ( ( _fileSpill != null ) ? " characters written to " + _fileSpill.getAbsolutePath( ) : " characters not retained" )
+                + " ...]\n";
+    }
+
+    /**
+     * Append a chunk after skipping its first characters
+     * 
+     * @param sbText
+     *            the text to fill
+     * @param chunk
+     *            the chunk
+     * @param lSkip
+     *            the number of characters to skip
+     * @return the number of characters still to skip in the next chunks
+     */
+    private static long appendFrom( StringBuilder sbText, CharSequence chunk, long lSkip )
+    {
+        if ( lSkip >= chunk.length( ) )
+        {
+            return lSkip - chunk.length( );
+        }
+        sbText.append( chunk, (int) lSkip, chunk.length( ) );
+        return 0;
+    }
+
+    /**
+     * Move the oldest chunks to the spill file while the retained size is over the maximum size
+     */
+    private void spillOverflow( )
+    {
+        if ( _nRetainedSize <= _nMaxSize || _dequeChunks.isEmpty( ) )
+        {
+            return;
+        }
+
+        StringBuilder sbSpill = new StringBuilder( );
+        while ( _nRetainedSize > _nMaxSize && !_dequeChunks.isEmpty( ) )
+        {
+            String strChunk = _dequeChunks.removeFirst( );
+            _nRetainedSize -= strChunk.length( );
+            _lSpilledSize += strChunk.length( );
+            sbSpill.append( strChunk );
+        }
+        writeSpill( sbSpill );
+    }
+
+    /**
+     * Append evicted chunks to the spill file. If the file can not be written the chunks are dropped.
+     * 
+     * @param text
+     *            the evicted chunks
+     */
+    private void writeSpill( CharSequence text )
+    {
+        if ( _fileSpillDirectory == null )
+        {
+            return;
+        }
+        try
+        {
+            if ( _fileSpill == null )
+            {
+                Files.createDirectories( _fileSpillDirectory.toPath( ) );
+                _fileSpill = new File( _fileSpillDirectory, SPILL_FILE_PREFIX + UUID.randomUUID( ) + SPILL_FILE_SUFFIX );
+            }
+            try ( Writer writer = new OutputStreamWriter( Files.newOutputStream( _fileSpill.toPath( ), StandardOpenOption.CREATE, StandardOpenOption.APPEND ),
+                    StandardCharsets.UTF_8 ) )
+            {
+                writer.append( text );
+            }
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to write the release log spill file " + _fileSpill + " : " + e.getMessage( ), e );
+        }
+    }
+
+    /**
+     * Tail : text appended to a log since a client offset
+     */
+    public static final class Tail
+    {
+        private final long _lOffset;
+        private final String _strText;
+        private final boolean _bTruncated;
+        private final long _lNextOffset;
+
+        /**
+         * Constructor
+         * 
+         * @param lOffset
+         *            the offset of the text in the log
+         * @param strText
+         *            the text
+         * @param bTruncated
+         *            true if the text does not start at the requested offset
+         * @param lNextOffset
+         *            the offset to request on the next poll
+         */
+        Tail( long lOffset, String strText, boolean bTruncated, long lNextOffset )
+        {
+            _lOffset = lOffset;
+            _strText = strText;
+            _bTruncated = bTruncated;
+            _lNextOffset = lNextOffset;
+        }
+
+        /**
+         * Returns the offset of the text in the log
+         * 
+         * @return the offset
+         */
+        public long getOffset( )
+        {
+            return _lOffset;
+        }
+
+        /**
+         * Returns the text
+         * 
+         * @return the text
+         */
+        public String getText( )
+        {
+            return _strText;
+        }
+
+        /**
+         * Returns true if the text does not start at the requested offset
+         * 
+         * @return true if some text has been skipped
+         */
+        public boolean isTruncated( )
+        {
+            return _bTruncated;
+        }
+
+        /**
+         * Returns the offset to request on the next poll
+         * 
+         * @return the next offset
+         */
+        public long getNextOffset( )
+        {
+            return _lNextOffset;
+        }
+    }
+
+    /**
+     * Returns the configured directory of the release log files
+     * 
+     * @return the log directory
+     */
+    public static File getLogDirectory( )
+    {
+        String strDirectory = AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_RELEASE_LOG_SPILL_DIRECTORY );
+        if ( StringUtils.isBlank( strDirectory ) )
+        {
+            return new File( System.getProperty( "java.io.tmpdir" ), DEFAULT_SPILL_DIRECTORY );
+        }
+        return new File( strDirectory.trim( ) );
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util;
+
+/**
+ * ReleaseProgress : state of a running release and the log lines appended since the last poll of the client
+ */
+public class ReleaseProgress
+{
+    private int _nIdContext;
+    private long _lOffset;
+    private long _lNextOffset;
+    private String _strLog;
+    private boolean _bTruncated;
+    private boolean _bRunning;
+    private int _nStatus;
+    private int _nErrorType;
+    private int _nProgressValue;
+
+    /**
+     * Build the progress of a release
+     * 
+     * @param commandResult
+     *            the command result of the release
+     * @param lOffset
+     *            the log offset already read by the client, negative to get the state without the log
+     * @return the progress
+     */
+    public static ReleaseProgress of( CommandResult commandResult, long lOffset )
+    {
+        ReleaseProgress progress = new ReleaseProgress( );
+        progress._bRunning = commandResult.isRunning( );
+        progress._nStatus = commandResult.getStatus( );
+        progress._nErrorType = commandResult.getErrorType( );
+        progress._nProgressValue = commandResult.getProgressValue( );
+
+        if ( commandResult.getLog( ) != null )
+        {
+            ReleaseLog.Tail tail = commandResult.getLog( ).getTail( lOffset );
+            progress._lOffset = tail.getOffset( );
+            progress._lNextOffset = tail.getNextOffset( );
+            progress._strLog = tail.getText( );
+            progress._bTruncated = tail.isTruncated( );
+        }
+        else
+        {
+            progress._strLog = "";
+        }
+
+        return progress;
+    }
+
+    /**
+     * Returns this progress without the log already read by a client
+     * 
+     * @param lOffset
+     *            the log offset already read by the client
+     * @return the progress holding only the log after the offset
+     */
+    public ReleaseProgress since( long lOffset )
+    {
+        if ( lOffset <= _lOffset )
+        {
+            return this;
+        }
+
+        ReleaseProgress progress = new ReleaseProgress( );
+        progress._nIdContext = _nIdContext;
+        progress._bRunning = _bRunning;
+        progress._nStatus = _nStatus;
+        progress._nErrorType = _nErrorType;
+        progress._nProgressValue = _nProgressValue;
+        progress._lNextOffset = _lNextOffset;
+        progress._lOffset = Math.min( lOffset, _lNextOffset );
+        progress._strLog = _strLog.substring( (int) Math.min( _strLog.length( ), progress._lOffset - _lOffset ) );
+
+        return progress;
+    }
+
+    /**
+     * Check if the state of the release differs from another progress
+     * 
+     * @param progress
+     *            the other progress, may be null
+     * @return true if the running flag, the status, the error type or the progress value differ
+     */
+    public boolean isStateChanged( ReleaseProgress progress )
+    {
+        return progress == null || progress._bRunning != _bRunning || progress._nStatus != _nStatus || progress._nErrorType != _nErrorType
+                || progress._nProgressValue != _nProgressValue;
+    }
+
+    /**
+     * Returns the id of the release context
+     * 
+     * @return the release context id
+     */
+    public int getIdContext( )
+    {
+        return _nIdContext;
+    }
+
+    /**
+     * Sets the id of the release context
+     * 
+     * @param nIdContext
+     *            the release context id
+     */
+    public void setIdContext( int nIdContext )
+    {
+        _nIdContext = nIdContext;
+    }
+
+    /**
+     * Returns the offset of the returned log in the whole log
+     * 
+     * @return the offset
+     */
+    public long getOffset( )
+    {
+        return _lOffset;
+    }
+
+    /**
+     * Returns the offset to send on the next poll
+     * 
+     * @return the next offset
+     */
+    public long getNextOffset( )
+    {
+        return _lNextOffset;
+    }
+
+    /**
+     * Returns the log appended since the offset of the client
+     * 
+     * @return the log
+     */
+    public String getLog( )
+    {
+        return _strLog;
+    }
+
+    /**
+     * Returns true if a part of the log after the offset of the client is no longer available
+     * 
+     * @return true if the log has been truncated
+     */
+    public boolean isTruncated( )
+    {
+        return _bTruncated;
+    }
+
+    /**
+     * Returns true if the release is running
+     * 
+     * @return true if running
+     */
+    public boolean isRunning( )
+    {
+        return _bRunning;
+    }
+
+    /**
+     * Returns the status of the release
+     * 
+     * @return the status
+     */
+    public int getStatus( )
+    {
+        return _nStatus;
+    }
+
+    /**
+     * Returns the error type of the release
+     * 
+     * @return the error type
+     */
+    public int getErrorType( )
+    {
+        return _nErrorType;
+    }
+
+    /**
+     * Returns the progress value in percent
+     * 
+     * @return the progress value
+     */
+    public int getProgressValue( )
+    {
+        return _nProgressValue;
+    }
+}
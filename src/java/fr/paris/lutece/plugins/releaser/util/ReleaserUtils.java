@@ -151,7 +151,7 @@ public class ReleaserUtils
     {
         CommandResult commandResult = new CommandResult( );
         commandResult.setDateBegin( new Date( ) );
-        commandResult.setLog( new StringBuffer( ) );
+        commandResult.setLog( new ReleaseLog( ) );
         commandResult.setRunning( true );
         commandResult.setStatus( CommandResult.STATUS_OK );
         commandResult.setProgressValue( 0 );
@@ -260,5 +260,15 @@ public class ReleaserUtils
 
     }
 
+    /**
+     * Returns true if the working copies of the components are kept between two releases and refreshed instead of checked out again
+     * 
+     * @return true if the working copies are reused
+     */
+    public static boolean isReuseLocalWorkingCopy( )
+    {
+        return AppPropertiesService.getPropertyBoolean( ConstanteUtils.PROPERTY_REUSE_LOCAL_WORKING_COPY, true );
+    }
+
    
 }
@@ -41,13 +41,15 @@ import java.util.List;
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.disk.DiskFileItem;
 
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
+
 
 public class FileUtils
 {
     public static final boolean STATUS_OK = true;
     public static final boolean STATUS_ERROR = false;
 
-    public static boolean delete( File file, StringBuffer logBuffer )
+    public static boolean delete( File file, ReleaseLog logBuffer )
     {
         if ( file.isDirectory(  ) )
         {
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.github;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ListBranchCommand.ListMode;
+import org.eclipse.jgit.api.ResetCommand.ResetType;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.util.FS;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * Local cache of bare mirrors of the Git repositories, one per SCM URL. A mirror is updated with an incremental fetch and the working copies of the
+ * releases share its objects (objects/info/alternates), so only the new objects are downloaded. The mirrors can be restricted to the branches used by
+ * the releases, the tags are then only fetched when they point to the history of these branches.
+ */
+public class GitMirrorCache
+{
+    private static final String REMOTE_ORIGIN = "origin";
+    private static final String CONFIG_REMOTE = "remote";
+    private static final String CONFIG_URL = "url";
+    private static final String CONFIG_FETCH = "fetch";
+    private static final String CONFIG_BRANCH = "branch";
+    private static final String CONFIG_MERGE = "merge";
+    private static final List<String> MIRROR_REFSPECS = Arrays.asList( "+refs/heads/*:refs/heads/*", "+refs/tags/*:refs/tags/*" );
+    private static final String WORKING_COPY_REFSPEC = "+refs/heads/*:refs/remotes/origin/*";
+    private static final String PATH_ALTERNATES = "objects/info/alternates";
+
+    private final File _fileMirrorsDirectory;
+    private final List<String> _listBranches;
+    private final ConcurrentMap<String, Object> _mapLocks = new ConcurrentHashMap<>( );
+
+    /**
+     * Constructor of a cache mirroring all the branches
+     * 
+     * @param fileMirrorsDirectory
+     *            the directory of the mirrors
+     */
+    public GitMirrorCache( File fileMirrorsDirectory )
+    {
+        this( fileMirrorsDirectory, Collections.<String> emptyList( ) );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param fileMirrorsDirectory
+     *            the directory of the mirrors
+     * @param listBranches
+     *            the branches to mirror, all the branches if the list is empty
+     */
+    public GitMirrorCache( File fileMirrorsDirectory, List<String> listBranches )
+    {
+        _fileMirrorsDirectory = fileMirrorsDirectory;
+        _listBranches = new ArrayList<>( listBranches );
+    }
+
+    /**
+     * Create the mirror of a repository or fetch the new objects of an existing mirror
+     * 
+     * @param strRepoUrl
+     *            the URL of the repository
+     * @param credentialsProvider
+     *            the credentials of the repository, may be null
+     * @return the directory of the mirror
+     * @throws IOException
+     *             if the mirror can't be written
+     * @throws GitAPIException
+     *             if the fetch fails
+     */
+    public File updateMirror( String strRepoUrl, CredentialsProvider credentialsProvider ) throws IOException, GitAPIException
+    {
+        File fileMirror = getMirrorDirectory( strRepoUrl );
+
+        synchronized( getLock( strRepoUrl ) )
+        {
+            if ( !RepositoryCache.FileKey.isGitRepository( fileMirror, FS.DETECTED ) )
+            {
+                if ( fileMirror.exists( ) )
+                {
+                    FileUtils.delete( fileMirror, FileUtils.RECURSIVE );
+                }
+                Git.init( ).setBare( true ).setDirectory( fileMirror ).call( ).close( );
+            }
+
+            try ( Git git = Git.open( fileMirror ) )
+            {
+                StoredConfig config = git.getRepository( ).getConfig( );
+                config.setString( CONFIG_REMOTE, REMOTE_ORIGIN, CONFIG_URL, strRepoUrl );
+                config.setStringList( CONFIG_REMOTE, REMOTE_ORIGIN, CONFIG_FETCH, getMirrorRefSpecs( ) );
+                config.save( );
+
+                FetchCommand fetch = git.fetch( ).setRemote( REMOTE_ORIGIN ).setRemoveDeletedRefs( true ).setCredentialsProvider( credentialsProvider );
+                if ( !_listBranches.isEmpty( ) )
+                {
+                    fetch.setTagOpt( TagOpt.AUTO_FOLLOW );
+                }
+                fetch.call( );
+            }
+        }
+
+        return fileMirror;
+    }
+
+    /**
+     * Create a working copy whose objects are read from a mirror. The remote origin of the working copy is the repository itself, the remote branches and
+     * the tags are the ones of the mirror.
+     * 
+     * @param fileMirror
+     *            the directory of the mirror
+     * @param strRepoUrl
+     *            the URL of the repository
+     * @param fileWorkingCopy
+     *            the directory of the working copy, must not exist or be empty
+     * @param strBranch
+     *            the branch checked out in the working copy
+     * @return the working copy
+     * @throws IOException
+     *             if the working copy can't be written
+     * @throws GitAPIException
+     *             if the checkout fails
+     */
+    public Git cloneFromMirror( File fileMirror, String strRepoUrl, File fileWorkingCopy, String strBranch ) throws IOException, GitAPIException
+    {
+        Git.init( ).setDirectory( fileWorkingCopy ).call( ).close( );
+
+        Git git = Git.open( fileWorkingCopy );
+        Repository repository = git.getRepository( );
+
+        updateFromMirror( fileMirror, strRepoUrl, git );
+
+        Ref refBranch = repository.exactRef( Constants.R_REMOTES + REMOTE_ORIGIN + "/" + strBranch );
+        if ( refBranch != null )
+        {
+            updateRef( repository, Constants.R_HEADS + strBranch, refBranch );
+
+            StoredConfig config = repository.getConfig( );
+            config.setString( CONFIG_BRANCH, strBranch, CONFIG_REMOTE, REMOTE_ORIGIN );
+            config.setString( CONFIG_BRANCH, strBranch, CONFIG_MERGE, Constants.R_HEADS + strBranch );
+            config.save( );
+
+            RefUpdate refUpdateHead = repository.updateRef( Constants.HEAD );
+            refUpdateHead.link( Constants.R_HEADS + strBranch );
+            // the index and the work tree are still empty
+            git.reset( ).setMode( ResetType.HARD ).call( );
+        }
+
+        return git;
+    }
+
+    /**
+     * Make a working copy read its objects from a mirror and set its remote branches and its tags to the ones of the mirror. The remote branches and the
+     * tags which are no longer in the mirror are removed.
+     * 
+     * @param fileMirror
+     *            the directory of the mirror
+     * @param strRepoUrl
+     *            the URL of the repository
+     * @param git
+     *            the working copy
+     * @throws IOException
+     *             if the working copy can't be written
+     * @throws GitAPIException
+     *             if the refs can't be listed
+     */
+    public void updateFromMirror( File fileMirror, String strRepoUrl, Git git ) throws IOException, GitAPIException
+    {
+        Repository repository = git.getRepository( );
+
+        File fileAlternates = new File( repository.getDirectory( ), PATH_ALTERNATES );
+        fileAlternates.getParentFile( ).mkdirs( );
+        try ( Writer writer = new OutputStreamWriter( Files.newOutputStream( fileAlternates.toPath( ) ), StandardCharsets.UTF_8 ) )
+        {
+            writer.write( new File( fileMirror, Constants.OBJECTS ).getAbsolutePath( ) + "\n" );
+        }
+
+        StoredConfig config = repository.getConfig( );
+        config.setString( CONFIG_REMOTE, REMOTE_ORIGIN, CONFIG_URL, strRepoUrl );
+        config.setString( CONFIG_REMOTE, REMOTE_ORIGIN, CONFIG_FETCH, WORKING_COPY_REFSPEC );
+        config.save( );
+
+        Set<String> setRefNames = new HashSet<>( );
+
+        synchronized( getLock( strRepoUrl ) )
+        {
+            try ( Git gitMirror = Git.open( fileMirror ) )
+            {
+                for ( Ref ref : gitMirror.branchList( ).call( ) )
+                {
+                    String strRefName = Constants.R_REMOTES + REMOTE_ORIGIN + "/" + Repository.shortenRefName( ref.getName( ) );
+                    updateRef( repository, strRefName, ref );
+                    setRefNames.add( strRefName );
+                }
+                for ( Ref ref : gitMirror.tagList( ).call( ) )
+                {
+                    updateRef( repository, ref.getName( ), ref );
+                    setRefNames.add( ref.getName( ) );
+                }
+            }
+        }
+
+        List<Ref> listRefs = new ArrayList<>( git.branchList( ).setListMode( ListMode.REMOTE ).call( ) );
+        listRefs.addAll( git.tagList( ).call( ) );
+        for ( Ref ref : listRefs )
+        {
+            if ( !setRefNames.contains( ref.getName( ) ) )
+            {
+                RefUpdate refUpdate = repository.updateRef( ref.getName( ) );
+                refUpdate.setForceUpdate( true );
+                refUpdate.delete( );
+            }
+        }
+    }
+
+    /**
+     * Returns the directory of the mirror of a repository
+     * 
+     * @param strRepoUrl
+     *            the URL of the repository
+     * @return the directory of the mirror
+     */
+    public File getMirrorDirectory( String strRepoUrl )
+    {
+        String strName = strRepoUrl.replaceFirst( "^[a-zA-Z+]+://", "" ).replaceFirst( "^[^@/]*@", "" ).replaceAll( "[^a-zA-Z0-9._-]", "_" );
+        if ( !strName.endsWith( Constants.DOT_GIT ) )
+        {
+            strName += Constants.DOT_GIT;
+        }
+
+        return new File( _fileMirrorsDirectory, strName );
+    }
+
+    /**
+     * Returns the branches mirrored by the cache
+     * 
+     * @return the branches, empty if all the branches are mirrored
+     */
+    public List<String> getBranches( )
+    {
+        return Collections.unmodifiableList( _listBranches );
+    }
+
+    /**
+     * Returns the fetch refspecs of the mirrors
+     * 
+     * @return the refspecs
+     */
+    private List<String> getMirrorRefSpecs( )
+    {
+        if ( _listBranches.isEmpty( ) )
+        {
+            return MIRROR_REFSPECS;
+        }
+
+        List<String> listRefSpecs = new ArrayList<>( );
+        for ( String strBranch : _listBranches )
+        {
+            listRefSpecs.add( "+" + Constants.R_HEADS + strBranch + ":" + Constants.R_HEADS + strBranch );
+        }
+
+        return listRefSpecs;
+    }
+
+    /**
+     * Point a ref of a working copy to the object of a ref of the mirror
+     * 
+     * @param repository
+     *            the working copy
+     * @param strRefName
+     *            the name of the ref to update
+     * @param ref
+     *            the ref of the mirror
+     * @throws IOException
+     *             if the ref can't be written
+     */
+    private static void updateRef( Repository repository, String strRefName, Ref ref ) throws IOException
+    {
+        RefUpdate refUpdate = repository.updateRef( strRefName );
+        refUpdate.setNewObjectId( ref.getObjectId( ) );
+        refUpdate.forceUpdate( );
+    }
+
+    /**
+     * Returns the lock of the mirror of a repository
+     * 
+     * @param strRepoUrl
+     *            the URL of the repository
+     * @return the lock
+     */
+    private Object getLock( String strRepoUrl )
+    {
+        Object lock = new Object( );
+        Object lockPrevious = _mapLocks.putIfAbsent( strRepoUrl, lock );
+
+        return ( lockPrevious != null ) ? lockPrevious : lock;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.github;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+
+/**
+ * Open Git repositories of the release contexts. The steps of a release work on the same working copy, they share one repository handle so that the
+ * refs, the pack list and the pack indexes are only loaded once. The handle is closed when the release is completed or when the working copy is
+ * re-created.
+ */
+public class GitRepositorySession
+{
+    private final Map<Integer, Git> _mapRepositories = new HashMap<>( );
+
+    /**
+     * Get the open repository of a release context, the repository is opened on the first call
+     * 
+     * @param nIdContext
+     *            the id of the release context
+     * @param strLocalComponentPath
+     *            the path of the working copy
+     * @return the repository, it must not be closed by the caller
+     * @throws IOException
+     *             if the working copy is not a Git repository
+     */
+    public synchronized Git getGit( int nIdContext, String strLocalComponentPath ) throws IOException
+    {
+        File fileGitDir = new File( strLocalComponentPath, Constants.DOT_GIT );
+        Git git = _mapRepositories.get( nIdContext );
+
+        if ( git != null && git.getRepository( ).getDirectory( ).getAbsoluteFile( ).equals( fileGitDir.getAbsoluteFile( ) ) && fileGitDir.exists( ) )
+        {
+            return git;
+        }
+
+        close( nIdContext );
+
+        if ( !fileGitDir.exists( ) )
+        {
+            throw new RepositoryNotFoundException( fileGitDir );
+        }
+
+        git = Git.open( fileGitDir );
+        _mapRepositories.put( nIdContext, git );
+
+        return git;
+    }
+
+    /**
+     * Use an already open repository for a release context, for instance the repository of a new clone
+     * 
+     * @param nIdContext
+     *            the id of the release context
+     * @param git
+     *            the repository, it is closed with the session
+     */
+    public synchronized void attach( int nIdContext, Git git )
+    {
+        Git gitPrevious = _mapRepositories.put( nIdContext, git );
+
+        if ( gitPrevious != null && gitPrevious != git )
+        {
+            gitPrevious.close( );
+        }
+    }
+
+    /**
+     * Check if a release context has an open repository
+     * 
+     * @param nIdContext
+     *            the id of the release context
+     * @return true if the repository of the context is open
+     */
+    public synchronized boolean isOpen( int nIdContext )
+    {
+        return _mapRepositories.containsKey( nIdContext );
+    }
+
+    /**
+     * Close the repository of a release context
+     * 
+     * @param nIdContext
+     *            the id of the release context
+     */
+    public synchronized void close( int nIdContext )
+    {
+        Git git = _mapRepositories.remove( nIdContext );
+
+        if ( git != null )
+        {
+            git.close( );
+        }
+    }
+}
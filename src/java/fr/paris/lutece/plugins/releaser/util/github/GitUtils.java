@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -17,6 +18,7 @@ import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.MergeResult;
 import org.eclipse.jgit.api.PullResult;
+import org.eclipse.jgit.api.ResetCommand.ResetType;
 import org.eclipse.jgit.api.errors.CanceledException;
 import org.eclipse.jgit.api.errors.CheckoutConflictException;
 import org.eclipse.jgit.api.errors.DetachedHeadException;
@@ -24,17 +26,28 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.InvalidConfigurationException;
 import org.eclipse.jgit.api.errors.InvalidRefNameException;
 import org.eclipse.jgit.api.errors.InvalidRemoteException;
+import org.eclipse.jgit.api.errors.JGitInternalException;
 import org.eclipse.jgit.api.errors.NoHeadException;
 import org.eclipse.jgit.api.errors.RefAlreadyExistsException;
 import org.eclipse.jgit.api.errors.RefNotFoundException;
 import org.eclipse.jgit.api.errors.TransportException;
 import org.eclipse.jgit.api.errors.WrongRepositoryStateException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.eclipse.jgit.lib.RepositoryState;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.util.FS;
+import org.eclipse.jgit.util.FileUtils;
 import org.tmatesoft.svn.core.auth.BasicAuthenticationManager;
 
 import fr.paris.lutece.plugins.releaser.util.CommandResult;
@@ -56,6 +69,11 @@ public class GitUtils  {
     public static final String MASTER_BRANCH = "master";
     public static final String DEVELOP_BRANCH = "develop";
     
+    private static final String DEFAULT_MIRROR_DIRECTORY = ".mirrors";
+    
+    private static GitMirrorCache _mirrorCache;
+    private static final GitRepositorySession _repositorySession = new GitRepositorySession( );
+    
 
 	public static  Git cloneRepo(String sClonePath, String sRepoURL, CommandResult commandResult,String strGitHubUserLogin, String strUserName, String strPassword) 
 	{
@@ -66,9 +84,34 @@ public class GitUtils  {
 	    FileRepositoryBuilder builder = new FileRepositoryBuilder();
 		File fGitDir = new File(sClonePath);
 		
-		CloneCommand clone = Git.cloneRepository().setCredentialsProvider(new UsernamePasswordCredentialsProvider(strUserName, strPassword)).setBare(false).setCloneAllBranches(true).setDirectory(fGitDir).setURI(getRepoUrl( sRepoURL ));
+		CredentialsProvider credentialsProvider = new UsernamePasswordCredentialsProvider(strUserName, strPassword);
+		GitMirrorCache mirrorCache = getMirrorCache( );
+		if ( mirrorCache != null )
+		{
+		    git = cloneRepoFromMirror( mirrorCache, fGitDir, getRepoUrl( sRepoURL ), credentialsProvider, commandResult );
+		}
 		
-		git=clone.call( );
+		if ( git == null )
+		{
+		    long lStart = System.currentTimeMillis( );
+		    CloneCommand clone = Git.cloneRepository().setCredentialsProvider(credentialsProvider).setBare(false).setDirectory(fGitDir).setURI(getRepoUrl( sRepoURL ));
+		    List<String> listBranches = getCloneBranches( );
+		    if ( listBranches.isEmpty( ) )
+		    {
+		        clone.setCloneAllBranches(true);
+		    }
+		    else
+		    {
+		        List<String> listBranchRefs = new ArrayList<>( );
+		        for ( String strBranch : listBranches )
+		        {
+		            listBranchRefs.add( Constants.R_HEADS + strBranch );
+		        }
+		        clone.setBranchesToClone( listBranchRefs ).setBranch( Constants.R_HEADS + listBranches.get( 0 ) );
+		    }
+		    git=clone.call( );
+		    commandResult.getLog( ).append( "Repository cloned in " + ( System.currentTimeMillis( ) - lStart ) + " ms\n" );
+		}
 		
 		repository = builder.setGitDir(fGitDir).readEnvironment().findGitDir().build();
         repository.getConfig( ).setString( "user", null, "name", strGitHubUserLogin );
@@ -107,6 +150,213 @@ public class GitUtils  {
 	}
 	
 	
+	/**
+	 * Refresh the working copy kept from a previous release instead of cloning the repository again : the local changes and the untracked files are
+	 * removed, the remote branches and the tags are fetched and HEAD is detached on the first release branch.
+	 * 
+	 * @param sClonePath
+	 *            the directory of the working copy
+	 * @param sRepoURL
+	 *            the URL of the repository
+	 * @param commandResult
+	 *            the command result
+	 * @param strUserName
+	 *            the user name
+	 * @param strPassword
+	 *            the password
+	 * @return the refreshed working copy or null if the working copy can't be reused and must be cloned again
+	 */
+	public static Git refreshRepo( String sClonePath, String sRepoURL, CommandResult commandResult, String strUserName, String strPassword )
+	{
+	    long lStart = System.currentTimeMillis( );
+	    String strRepoUrl = getRepoUrl( sRepoURL );
+	    File fGitDir = new File( sClonePath );
+	    Git git = null;
+
+	    try
+	    {
+	        if ( !RepositoryCache.FileKey.isGitRepository( new File( fGitDir, Constants.DOT_GIT ), FS.DETECTED ) )
+	        {
+	            commandResult.getLog( ).append( "The local folder is not a Git working copy\n" );
+	            return null;
+	        }
+
+	        git = Git.open( fGitDir );
+	        Repository repository = git.getRepository( );
+	        if ( !strRepoUrl.equals( repository.getConfig( ).getString( "remote", "origin", "url" ) ) )
+	        {
+	            commandResult.getLog( ).append( "The local working copy is not a copy of " + strRepoUrl + "\n" );
+	            git.close( );
+	            return null;
+	        }
+
+	        // integrity check : the commit of HEAD and its tree must be readable
+	        try ( RevWalk revWalk = new RevWalk( repository ) )
+	        {
+	            ObjectId headId = repository.resolve( Constants.HEAD );
+	            if ( headId == null )
+	            {
+	                commandResult.getLog( ).append( "The local working copy has no HEAD\n" );
+	                git.close( );
+	                return null;
+	            }
+	            revWalk.parseCommit( headId ).getTree( );
+	        }
+
+	        git.reset( ).setMode( ResetType.HARD ).call( );
+	        git.clean( ).setCleanDirectories( true ).setIgnore( false ).call( );
+	        if ( repository.getRepositoryState( ) != RepositoryState.SAFE )
+	        {
+	            commandResult.getLog( ).append( "The local working copy is in state " + repository.getRepositoryState( ) + "\n" );
+	            git.close( );
+	            return null;
+	        }
+
+	        CredentialsProvider credentialsProvider = new UsernamePasswordCredentialsProvider( strUserName, strPassword );
+	        List<String> listBranches = getCloneBranches( );
+	        GitMirrorCache mirrorCache = getMirrorCache( );
+	        if ( mirrorCache != null )
+	        {
+	            commandResult.getLog( ).append( "Fetching the local mirror of " + strRepoUrl + " ...\n" );
+	            mirrorCache.updateFromMirror( mirrorCache.updateMirror( strRepoUrl, credentialsProvider ), strRepoUrl, git );
+	        }
+	        else
+	        {
+	            // the local tags are fetched again so that the tags of a failed release are removed
+	            for ( Ref tag : git.tagList( ).call( ) )
+	            {
+	                RefUpdate refUpdate = repository.updateRef( tag.getName( ) );
+	                refUpdate.setForceUpdate( true );
+	                refUpdate.delete( );
+	            }
+	            List<RefSpec> listRefSpecs = new ArrayList<>( );
+	            if ( listBranches.isEmpty( ) )
+	            {
+	                listRefSpecs.add( new RefSpec( "+" + Constants.R_HEADS + "*:" + Constants.R_REMOTES + "origin/*" ) );
+	                listRefSpecs.add( new RefSpec( "+" + Constants.R_TAGS + "*:" + Constants.R_TAGS + "*" ) );
+	            }
+	            for ( String strBranch : listBranches )
+	            {
+	                listRefSpecs.add( new RefSpec( "+" + Constants.R_HEADS + strBranch + ":" + Constants.R_REMOTES + "origin/" + strBranch ) );
+	            }
+	            git.fetch( ).setRemote( "origin" ).setRefSpecs( listRefSpecs ).setRemoveDeletedRefs( true ).setTagOpt( TagOpt.AUTO_FOLLOW )
+	                    .setCredentialsProvider( credentialsProvider ).call( );
+	        }
+
+	        // detach HEAD so that the local release branches can be reset on the remote ones
+	        String strBranch = listBranches.isEmpty( ) ? MASTER_BRANCH : listBranches.get( 0 );
+	        git.checkout( ).setName( Constants.R_REMOTES + "origin/" + strBranch ).call( );
+
+	        commandResult.getLog( ).append( "Local working copy refreshed in " + ( System.currentTimeMillis( ) - lStart ) + " ms\n" );
+
+	        return git;
+	    }
+	    catch( IOException | GitAPIException | JGitInternalException e )
+	    {
+	        AppLogService.error( "Unable to refresh the working copy " + sClonePath + " : " + e.getMessage( ), e );
+	        commandResult.getLog( ).append( "Unable to refresh the local working copy (" + e.getMessage( ) + ")\n" );
+	        if ( git != null )
+	        {
+	            git.close( );
+	        }
+
+	        return null;
+	    }
+	}
+
+	/**
+	 * Create the working copy of a release from the mirror of the repository, the mirror is created or fetched first
+	 * 
+	 * @param mirrorCache
+	 *            the mirror cache
+	 * @param fGitDir
+	 *            the directory of the working copy
+	 * @param strRepoUrl
+	 *            the URL of the repository
+	 * @param credentialsProvider
+	 *            the credentials of the repository
+	 * @param commandResult
+	 *            the command result
+	 * @return the working copy or null if the mirror can't be used
+	 */
+	private static Git cloneRepoFromMirror( GitMirrorCache mirrorCache, File fGitDir, String strRepoUrl, CredentialsProvider credentialsProvider, CommandResult commandResult )
+	{
+	    long lStart = System.currentTimeMillis( );
+	    try
+	    {
+	        commandResult.getLog( ).append( "Fetching the local mirror of " + strRepoUrl + " ...\n" );
+	        File fileMirror = mirrorCache.updateMirror( strRepoUrl, credentialsProvider );
+	        Git git = mirrorCache.cloneFromMirror( fileMirror, strRepoUrl, fGitDir, MASTER_BRANCH );
+	        commandResult.getLog( ).append( "Working copy created from the mirror " + fileMirror.getAbsolutePath( ) + " in " + ( System.currentTimeMillis( ) - lStart ) + " ms\n" );
+
+	        return git;
+	    }
+	    catch( IOException | GitAPIException e )
+	    {
+	        AppLogService.error( "Unable to use the mirror of " + strRepoUrl + " : " + e.getMessage( ), e );
+	        commandResult.getLog( ).append( "Unable to use the mirror of the repository (" + e.getMessage( ) + "), cloning it directly\n" );
+	        try
+	        {
+	            FileUtils.delete( fGitDir, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING );
+	        }
+	        catch( IOException ex )
+	        {
+	            ReleaserUtils.addTechnicalError( commandResult, ex.getMessage( ), ex );
+	        }
+
+	        return null;
+	    }
+	}
+
+	/**
+	 * Returns the open Git repositories of the release contexts
+	 * 
+	 * @return the repository session
+	 */
+	public static GitRepositorySession getRepositorySession( )
+	{
+	    return _repositorySession;
+	}
+
+	/**
+	 * Returns the mirror cache of the Git repositories
+	 * 
+	 * @return the mirror cache or null if the mirrors are disabled
+	 */
+	private static synchronized GitMirrorCache getMirrorCache( )
+	{
+	    if ( _mirrorCache == null && AppPropertiesService.getPropertyBoolean( ConstanteUtils.PROPERTY_GIT_MIRROR_ENABLED, true ) )
+	    {
+	        String strDirectory = AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_GIT_MIRROR_DIRECTORY );
+	        if ( StringUtils.isBlank( strDirectory ) )
+	        {
+	            strDirectory = AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_LOCAL_COMPONENT_BASE_PAH ) + File.separator + DEFAULT_MIRROR_DIRECTORY;
+	        }
+	        _mirrorCache = new GitMirrorCache( new File( strDirectory ), getCloneBranches( ) );
+	    }
+
+	    return _mirrorCache;
+	}
+
+	/**
+	 * Returns the branches fetched by the releases
+	 * 
+	 * @return the branches, empty to fetch all the branches
+	 */
+	private static List<String> getCloneBranches( )
+	{
+	    List<String> listBranches = new ArrayList<>( );
+	    for ( String strBranch : StringUtils.split( AppPropertiesService.getProperty( ConstanteUtils.PROPERTY_GIT_CLONE_BRANCHES, MASTER_BRANCH + "," + DEVELOP_BRANCH ), ',' ) )
+	    {
+	        if ( StringUtils.isNotBlank( strBranch ) )
+	        {
+	            listBranches.add( strBranch.trim( ) );
+	        }
+	    }
+
+	    return listBranches;
+	}
+
 	public static void checkoutRepoBranch(Git git, String sBranchName,CommandResult commandResult)
 	{
 	    try
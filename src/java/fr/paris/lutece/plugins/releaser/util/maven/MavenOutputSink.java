@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.maven;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * MavenOutputSink : output handler of a Maven invocation.<br>
+ * The lines are gathered in a reused buffer and appended to the release log by batches, when the buffer is full or
+ * when the previous batch is older than the flush interval. The lines matching the filter (artifact downloads) are
+ * left out of the release log, the raw output being kept whole in a gzip side file. The old raw output files are
+ * purged by age and by count.
+ */
+public class MavenOutputSink implements InvocationOutputHandler
+{
+    private static final long FLUSH_INTERVAL = 1000L;
+    private static final int BUFFER_SIZE = 8192;
+    private static final String RAW_FILE_PREFIX = "maven-";
+    private static final String RAW_FILE_SUFFIX = ".log.gz";
+
+    private final ReleaseLog _log;
+    private final Pattern _patternFilter;
+    private final int _nBatchSize;
+    private final StringBuilder _sbBatch;
+    private final File _fileRaw;
+    private Writer _writerRaw;
+    private long _lLastFlush = System.currentTimeMillis( );
+    private int _nFilteredLines;
+    private boolean _bClosed;
+
+    /**
+     * Constructor
+     * 
+     * @param log
+     *            the release log
+     * @param patternFilter
+     *            the lines left out of the release log, null to keep all the lines
+     * @param fileRaw
+     *            the gzip file receiving the raw output, null for no raw output
+     * @param nBatchSize
+     *            the number of characters appended to the release log at once
+     */
+    public MavenOutputSink( ReleaseLog log, Pattern patternFilter, File fileRaw, int nBatchSize )
+    {
+        _log = log;
+        _patternFilter = patternFilter;
+        _nBatchSize = Math.max( 1, nBatchSize );
+        _sbBatch = new StringBuilder( _nBatchSize + 256 );
+        _fileRaw = fileRaw;
+
+        if ( fileRaw != null )
+        {
+            try
+            {
+                Files.createDirectories( fileRaw.getAbsoluteFile( ).getParentFile( ).toPath( ) );
+                _writerRaw = new BufferedWriter( new OutputStreamWriter( new GZIPOutputStream( Files.newOutputStream( fileRaw.toPath( ) ), BUFFER_SIZE ),
+                        StandardCharsets.UTF_8 ), BUFFER_SIZE );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to create the raw Maven output file " + fileRaw + " : " + e.getMessage( ), e );
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized void consumeLine( String strLine )
+    {
+        writeRaw( strLine );
+
+        if ( _patternFilter != null && _patternFilter.matcher( strLine ).lookingAt( ) )
+        {
+            _nFilteredLines++;
+        }
+        else
+        {
+            _sbBatch.append( strLine ).append( '\n' );
+        }
+
+        if ( _sbBatch.length( ) >= _nBatchSize || System.currentTimeMillis( ) - _lLastFlush >= FLUSH_INTERVAL )
+        {
+            flush( );
+        }
+    }
+
+    /**
+     * Append the pending lines to the release log
+     */
+    public synchronized void flush( )
+    {
+        if ( _sbBatch.length( ) > 0 )
+        {
+            _log.append( _sbBatch );
+            _sbBatch.setLength( 0 );
+        }
+        _lLastFlush = System.currentTimeMillis( );
+    }
+
+    /**
+     * Flush the pending lines, close the raw output file and log the number of filtered lines
+     */
+    public synchronized void close( )
+    {
+        if ( _bClosed )
+        {
+            return;
+        }
+        _bClosed = true;
+        flush( );
+        if ( _writerRaw != null )
+        {
+            try
+            {
+                _writerRaw.close( );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to close the raw Maven output file " + _fileRaw + " : " + e.getMessage( ), e );
+            }
+            _writerRaw = null;
+        }
+        if ( _nFilteredLines > 0 )
+        {
+            _log.append( _nFilteredLines + " Maven download lines filtered"
+                    + ( ( _fileRaw != null ) ? ", full output in " + _fileRaw.getAbsolutePath( ) : "" ) + "\n" );
+        }
+    }
+
+    /**
+     * Returns the number of lines left out of the release log
+     * 
+     * @return the filtered lines count
+     */
+    public synchronized int getFilteredLines( )
+    {
+        return _nFilteredLines;
+    }
+
+    /**
+     * Returns a new raw output file of a build
+     * 
+     * @param fileDirectory
+     *            the directory of the raw output files
+     * @param strName
+     *            the name of the built component
+     * @return the file
+     */
+    public static File getRawOutputFile( File fileDirectory, String strName )
+    {
+        return new File( fileDirectory, RAW_FILE_PREFIX + strName + "-" + System.currentTimeMillis( ) + RAW_FILE_SUFFIX );
+    }
+
+    /**
+     * Delete the raw output files older than the maximum age and the oldest files beyond the maximum count
+     * 
+     * @param fileDirectory
+     *            the directory of the raw output files
+     * @param nMaxCount
+     *            the maximum number of kept files, 0 or less for no limit
+     * @param lMaxAge
+     *            the maximum age of the kept files in milliseconds, 0 or less for no limit
+     * @return the number of deleted files
+     */
+    public static int purgeRawOutputFiles( File fileDirectory, int nMaxCount, long lMaxAge )
+    {
+        File [ ] files = fileDirectory.listFiles( );
+        if ( files == null )
+        {
+            return 0;
+        }
+        File [ ] rawFiles = new File [ files.length];
+        int nRawCount = 0;
+        for ( File file : files )
+        {
+            if ( file.isFile( ) && file.getName( ).startsWith( RAW_FILE_PREFIX ) && file.getName( ).endsWith( RAW_FILE_SUFFIX ) )
+            {
+                rawFiles [nRawCount++] = file;
+            }
+        }
+        rawFiles = Arrays.copyOf( rawFiles, nRawCount );
+        // newest first
+        Arrays.sort( rawFiles, new Comparator<File>( )
+        {
+            @Override
+            public int compare( File file1, File file2 )
+            {
+                return Long.compare( file2.lastModified( ), file1.lastModified( ) );
+            }
+        } );
+
+        long lOldest = System.currentTimeMillis( ) - lMaxAge;
+        int nDeleted = 0;
+        for ( int i = 0; i < rawFiles.length; i++ )
+        {
+            if ( ( nMaxCount > 0 && i >= nMaxCount ) || ( lMaxAge > 0 && rawFiles [i].lastModified( ) < lOldest ) )
+            {
+                if ( rawFiles [i].delete( ) )
+                {
+                    nDeleted++;
+                }
+                else
+                {
+                    AppLogService.error( "Unable to delete the raw Maven output file " + rawFiles [i] );
+                }
+            }
+        }
+        return nDeleted;
+    }
+
+    /**
+     * Write a line to the raw output file, which is given up after a write error
+     * 
+     * @param strLine
+     *            the line
+     */
+    private void writeRaw( String strLine )
+    {
+        if ( _writerRaw == null )
+        {
+            return;
+        }
+        try
+        {
+            _writerRaw.write( strLine );
+            _writerRaw.write( '\n' );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Unable to write the raw Maven output file " + _fileRaw + " : " + e.getMessage( ), e );
+            try
+            {
+                _writerRaw.close( );
+            }
+            catch( IOException ex )
+            {
+                AppLogService.error( ex.getMessage( ), ex );
+            }
+            _writerRaw = null;
+        }
+    }
+}
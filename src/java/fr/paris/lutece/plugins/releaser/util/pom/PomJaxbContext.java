@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.pom;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * PomJaxbContext : process-wide cache of the JAXB contexts used to read and write the POM files.<br>
+ * Creating a JAXBContext is very expensive, so one context is created per package and kept for the life of the
+ * application. Unmarshallers and marshallers are not thread-safe : they are borrowed from a bounded pool and must be
+ * given back once used.
+ */
+public final class PomJaxbContext
+{
+    private static final int POOL_SIZE = 16;
+    private static final ConcurrentMap<String, PomJaxbContext> _mapContexts = new ConcurrentHashMap<>( );
+
+    private final JAXBContext _context;
+    private final Queue<Unmarshaller> _poolUnmarshallers = new ArrayBlockingQueue<>( POOL_SIZE );
+    private final Queue<Marshaller> _poolMarshallers = new ArrayBlockingQueue<>( POOL_SIZE );
+
+    /**
+     * Constructor
+     * 
+     * @param context
+     *            the JAXB context
+     */
+    private PomJaxbContext( JAXBContext context )
+    {
+        _context = context;
+    }
+
+    /**
+     * Returns the cached context of the package of a class
+     * 
+     * @param docClass
+     *            a class of the JAXB package
+     * @return the context
+     * @throws JAXBException
+     *             if the context can not be created
+     */
+    public static PomJaxbContext getInstance( Class<?> docClass ) throws JAXBException
+    {
+        String strPackageName = docClass.getPackage( ).getName( );
+        PomJaxbContext context = _mapContexts.get( strPackageName );
+        if ( context == null )
+        {
+            PomJaxbContext newContext = new PomJaxbContext( JAXBContext.newInstance( strPackageName ) );
+            context = _mapContexts.putIfAbsent( strPackageName, newContext );
+            if ( context == null )
+            {
+                context = newContext;
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Borrow an unmarshaller from the pool
+     * 
+     * @return the unmarshaller
+     * @throws JAXBException
+     *             if a new unmarshaller can not be created
+     */
+    public Unmarshaller borrowUnmarshaller( ) throws JAXBException
+    {
+        Unmarshaller unmarshaller = _poolUnmarshallers.poll( );
+        return ( unmarshaller != null ) ? unmarshaller : _context.createUnmarshaller( );
+    }
+
+    /**
+     * Give back an unmarshaller to the pool
+     * 
+     * @param unmarshaller
+     *            the unmarshaller
+     */
+    public void releaseUnmarshaller( Unmarshaller unmarshaller )
+    {
+        _poolUnmarshallers.offer( unmarshaller );
+    }
+
+    /**
+     * Borrow a marshaller from the pool. The properties set by a previous user are kept, so callers must set all the
+     * properties they rely on.
+     * 
+     * @return the marshaller
+     * @throws JAXBException
+     *             if a new marshaller can not be created
+     */
+    public Marshaller borrowMarshaller( ) throws JAXBException
+    {
+        Marshaller marshaller = _poolMarshallers.poll( );
+        return ( marshaller != null ) ? marshaller : _context.createMarshaller( );
+    }
+
+    /**
+     * Give back a marshaller to the pool
+     * 
+     * @param marshaller
+     *            the marshaller
+     */
+    public void releaseMarshaller( Marshaller marshaller )
+    {
+        _poolMarshallers.offer( marshaller );
+    }
+}
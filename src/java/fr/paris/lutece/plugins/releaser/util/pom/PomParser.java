@@ -41,10 +41,10 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 
 import org.xml.sax.InputSource;
 
@@ -71,6 +71,34 @@ public class PomParser
     }
 
     public void parse( Site site, String strPOM )
+    {
+        try
+        {
+            PomDescriptor pom = PomStreamReader.read( new StringReader( strPOM ) );
+            site.setArtifactId( pom.getArtifactId( ) );
+            site.setGroupId( pom.getGroupId( ) );
+            site.setVersion( pom.getVersion( ) );
+            for ( Dependency dependency : pom.getDependencies( ) )
+            {
+                site.addCurrentDependency( dependency );
+            }
+        }
+        catch( XMLStreamException e )
+        {
+            AppLogService.info( "Unable to stream the site POM, using the JAXB model : " + e.getMessage( ) );
+            parseModel( site, strPOM );
+        }
+    }
+
+    /**
+     * Parse a site POM with the full JAXB model
+     * 
+     * @param site
+     *            the site
+     * @param strPOM
+     *            the POM content
+     */
+    public void parseModel( Site site, String strPOM )
     {
         try
         {
@@ -97,6 +125,27 @@ public class PomParser
     }
     
     public void parse( Component component , String strPOM )
+    {
+        try
+        {
+            filledComponent( component, PomStreamReader.read( new StringReader( strPOM ) ) );
+        }
+        catch( XMLStreamException e )
+        {
+            AppLogService.info( "Unable to stream the component POM, using the JAXB model : " + e.getMessage( ) );
+            parseModel( component, strPOM );
+        }
+    }
+
+    /**
+     * Parse a component POM with the full JAXB model
+     * 
+     * @param component
+     *            the component
+     * @param strPOM
+     *            the POM content
+     */
+    public void parseModel( Component component , String strPOM )
     {
         
         try
@@ -125,18 +174,9 @@ public class PomParser
         
         try
         {
-             Model model = PomUpdater.unmarshal( Model.class, inputStream );
-            component.setArtifactId( model.getArtifactId( ) );
-            component.setGroupId( model.getGroupId( ) );
-            component.setCurrentVersion( model.getVersion( ) );
-            if(model.getScm() !=null)
-            {
-                component.setScmDeveloperConnection( model.getScm( ).getDeveloperConnection( ) );
-                
-            }
-        
+            filledComponent( component, PomStreamReader.read( inputStream ) );
         }
-        catch ( JAXBException e )
+        catch ( XMLStreamException e )
         {
            AppLogService.error( e );
         }
@@ -156,6 +196,17 @@ public class PomParser
 
     }
 
+    private void filledComponent( Component component, PomDescriptor pom )
+    {
+        component.setArtifactId( pom.getArtifactId( ) );
+        component.setGroupId( pom.getGroupId( ) );
+        component.setCurrentVersion( pom.getVersion( ) );
+        if ( pom.getScmDeveloperConnection( ) != null )
+        {
+            component.setScmDeveloperConnection( pom.getScmDeveloperConnection( ) );
+        }
+    }
+
     private void filledSite( Site site, Model model )
     {
         site.setArtifactId(model.getArtifactId( ) );
@@ -179,12 +230,18 @@ public class PomParser
     public static <T> T unmarshal( Class<T> docClass, InputSource inputSource )
         throws JAXBException
     {
-        String packageName = docClass.getPackage(  ).getName(  );
-        JAXBContext jc = JAXBContext.newInstance( packageName );
-        Unmarshaller u = jc.createUnmarshaller(  );
-        JAXBElement<T> doc = (JAXBElement<T>) u.unmarshal( inputSource );
+        PomJaxbContext context = PomJaxbContext.getInstance( docClass );
+        Unmarshaller u = context.borrowUnmarshaller( );
+        try
+        {
+            JAXBElement<T> doc = (JAXBElement<T>) u.unmarshal( inputSource );
 
-        return doc.getValue(  );
+            return doc.getValue(  );
+        }
+        finally
+        {
+            context.releaseUnmarshaller( u );
+        }
     }
 
    
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.pom;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import fr.paris.lutece.plugins.releaser.business.Dependency;
+
+/**
+ * PomStreamReader : StAX reader pulling only the coordinates, the scm developer connection and the dependencies of a
+ * POM. All the other elements are skipped without building any object, use the JAXB model of PomParser and PomUpdater
+ * for full-model operations.
+ */
+public final class PomStreamReader
+{
+    private static final String TAG_ARTIFACT_ID = "artifactId";
+    private static final String TAG_GROUP_ID = "groupId";
+    private static final String TAG_VERSION = "version";
+    private static final String TAG_PACKAGING = "packaging";
+    private static final String TAG_TYPE = "type";
+    private static final String TAG_SCM = "scm";
+    private static final String TAG_DEVELOPER_CONNECTION = "developerConnection";
+    private static final String TAG_DEPENDENCIES = "dependencies";
+    private static final String TAG_DEPENDENCY = "dependency";
+
+    private static final XMLInputFactory _factory = createFactory( );
+
+    /**
+     * Private constructor
+     */
+    private PomStreamReader( )
+    {
+    }
+
+    /**
+     * Read a POM
+     * 
+     * @param reader
+     *            the POM content
+     * @return the POM descriptor
+     * @throws XMLStreamException
+     *             if the POM is not well formed
+     */
+    public static PomDescriptor read( Reader reader ) throws XMLStreamException
+    {
+        return read( _factory.createXMLStreamReader( reader ) );
+    }
+
+    /**
+     * Read a POM
+     * 
+     * @param inputStream
+     *            the POM content, the stream is not closed
+     * @return the POM descriptor
+     * @throws XMLStreamException
+     *             if the POM is not well formed
+     */
+    public static PomDescriptor read( InputStream inputStream ) throws XMLStreamException
+    {
+        return read( _factory.createXMLStreamReader( inputStream ) );
+    }
+
+    /**
+     * Read the project element
+     * 
+     * @param xmlReader
+     *            the stream reader
+     * @return the POM descriptor
+     * @throws XMLStreamException
+     *             if the POM is not well formed
+     */
+    private static PomDescriptor read( XMLStreamReader xmlReader ) throws XMLStreamException
+    {
+        PomDescriptor pom = new PomDescriptor( );
+        try
+        {
+            xmlReader.nextTag( );
+            while ( xmlReader.nextTag( ) == XMLStreamConstants.START_ELEMENT )
+            {
+                String strName = xmlReader.getLocalName( );
+                if ( TAG_ARTIFACT_ID.equals( strName ) )
+                {
+                    pom.setArtifactId( xmlReader.getElementText( ).trim( ) );
+                }
+                else
+                    if ( TAG_GROUP_ID.equals( strName ) )
+                    {
+                        pom.setGroupId( xmlReader.getElementText( ).trim( ) );
+                    }
+                    else
+                        if ( TAG_VERSION.equals( strName ) )
+                        {
+                            pom.setVersion( xmlReader.getElementText( ).trim( ) );
+                        }
+                        else
+                            if ( TAG_PACKAGING.equals( strName ) )
+                            {
+                                pom.setPackaging( xmlReader.getElementText( ).trim( ) );
+                            }
+                            else
+                                if ( TAG_SCM.equals( strName ) )
+                                {
+                                    readScm( xmlReader, pom );
+                                }
+                                else
+                                    if ( TAG_DEPENDENCIES.equals( strName ) )
+                                    {
+                                        readDependencies( xmlReader, pom );
+                                    }
+                                    else
+                                    {
+                                        skipElement( xmlReader );
+                                    }
+            }
+        }
+        finally
+        {
+            xmlReader.close( );
+        }
+        return pom;
+    }
+
+    /**
+     * Read the scm element
+     * 
+     * @param xmlReader
+     *            the stream reader positioned on the scm start tag
+     * @param pom
+     *            the POM descriptor
+     * @throws XMLStreamException
+     *             if the POM is not well formed
+     */
+    private static void readScm( XMLStreamReader xmlReader, PomDescriptor pom ) throws XMLStreamException
+    {
+        while ( xmlReader.nextTag( ) == XMLStreamConstants.START_ELEMENT )
+        {
+            if ( TAG_DEVELOPER_CONNECTION.equals( xmlReader.getLocalName( ) ) )
+            {
+                pom.setScmDeveloperConnection( xmlReader.getElementText( ).trim( ) );
+            }
+            else
+            {
+                skipElement( xmlReader );
+            }
+        }
+    }
+
+    /**
+     * Read the dependencies element
+     * 
+     * @param xmlReader
+     *            the stream reader positioned on the dependencies start tag
+     * @param pom
+     *            the POM descriptor
+     * @throws XMLStreamException
+     *             if the POM is not well formed
+     */
+    private static void readDependencies( XMLStreamReader xmlReader, PomDescriptor pom ) throws XMLStreamException
+    {
+        while ( xmlReader.nextTag( ) == XMLStreamConstants.START_ELEMENT )
+        {
+            if ( !TAG_DEPENDENCY.equals( xmlReader.getLocalName( ) ) )
+            {
+                skipElement( xmlReader );
+                continue;
+            }
+
+            Dependency dependency = new Dependency( );
+            while ( xmlReader.nextTag( ) == XMLStreamConstants.START_ELEMENT )
+            {
+                String strName = xmlReader.getLocalName( );
+                if ( TAG_ARTIFACT_ID.equals( strName ) )
+                {
+                    dependency.setArtifactId( xmlReader.getElementText( ).trim( ) );
+                }
+                else
+                    if ( TAG_GROUP_ID.equals( strName ) )
+                    {
+                        dependency.setGroupId( xmlReader.getElementText( ).trim( ) );
+                    }
+                    else
+                        if ( TAG_VERSION.equals( strName ) )
+                        {
+                            dependency.setVersion( xmlReader.getElementText( ).trim( ) );
+                        }
+                        else
+                            if ( TAG_TYPE.equals( strName ) )
+                            {
+                                dependency.setType( xmlReader.getElementText( ).trim( ) );
+                            }
+                            else
+                            {
+                                skipElement( xmlReader );
+                            }
+            }
+            pom.getDependencies( ).add( dependency );
+        }
+    }
+
+    /**
+     * Skip the current element and all its content
+     * 
+     * @param xmlReader
+     *            the stream reader positioned on a start tag, positioned on the matching end tag on return
+     * @throws XMLStreamException
+     *             if the POM is not well formed
+     */
+    private static void skipElement( XMLStreamReader xmlReader ) throws XMLStreamException
+    {
+        int nDepth = 1;
+        while ( nDepth > 0 )
+        {
+            int nEvent = xmlReader.next( );
+            if ( nEvent == XMLStreamConstants.START_ELEMENT )
+            {
+                nDepth++;
+            }
+            else
+                if ( nEvent == XMLStreamConstants.END_ELEMENT )
+                {
+                    nDepth--;
+                }
+        }
+    }
+
+    /**
+     * Create the shared input factory. DTDs and external entities are disabled.
+     * 
+     * @return the factory
+     */
+    private static XMLInputFactory createFactory( )
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance( );
+        factory.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+        factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE );
+        factory.setProperty( XMLInputFactory.IS_COALESCING, Boolean.TRUE );
+        return factory;
+    }
+}
@@ -1,14 +1,12 @@
 package fr.paris.lutece.plugins.releaser.util.pom;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Iterator;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -19,164 +17,116 @@ import fr.paris.lutece.plugins.releaser.business.Site;
 import fr.paris.lutece.plugins.releaser.business.jaxb.maven.Model;
 import fr.paris.lutece.plugins.releaser.business.jaxb.maven.ObjectFactory;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
-import fr.paris.lutece.portal.service.util.AppLogService;
 
 public class PomUpdater
 {
 
-    public static String updateSiteBeforeTag( Site site ) throws JAXBException
+    /**
+     * Update the site pom.xml before the tag : the release version of the site and the target versions of the
+     * components. The file is patched in place, the formatting and the comments are kept.
+     * 
+     * @param site
+     *            the site
+     * @return an empty string
+     * @throws IOException
+     *             if the pom.xml can not be read or written
+     */
+    public static String updateSiteBeforeTag( Site site ) throws IOException
     {
-
-        InputStream inputStream = null;
-        OutputStream outputStream = null;
-        String strSiteLocalPomPath = ReleaserUtils.getLocalSitePomPath( site.getArtifactId( ) );
-
-        try
+        Map<String, String> mapDependencyVersions = new HashMap<>( );
+        for ( Component component : site.getComponents( ) )
         {
-
-            inputStream = new FileInputStream( strSiteLocalPomPath );
-            Model model = unmarshal( Model.class, inputStream );
-            if(!site.isTheme( ))
+            if ( component.getTargetVersion( ) != null )
             {
-                model.setVersion( site.getNextReleaseVersion( ) );
-            }
-            
-            model.setDescription( site.getTagInformation( ) );
-
-            fr.paris.lutece.plugins.releaser.business.jaxb.maven.Model.Dependencies dependencies = model.getDependencies( );
-            //update dependencies
-            if ( dependencies != null )
-            {
-                for ( fr.paris.lutece.plugins.releaser.business.jaxb.maven.Dependency jaxDependency : dependencies.getDependency( ) )
-                {
-                    for ( Component component : site.getComponents( ) )
-                    {
-                        
-                        if ( jaxDependency.getArtifactId( ).equals( component.getArtifactId( ) ) )
-                        {
-                            
-                            jaxDependency.setVersion( component.getTargetVersion( ) );
-
-                        }
-                    }
-
-                }
+                mapDependencyVersions.put( component.getArtifactId( ), component.getTargetVersion( ) );
             }
+        }
 
-            outputStream = new FileOutputStream( strSiteLocalPomPath );
+        rewriteSitePom( site, site.isTheme( ) ? null : site.getNextReleaseVersion( ), site.getTagInformation( ), mapDependencyVersions );
 
-            save( model, outputStream );
+        return "";
+    }
 
-        }
-        catch( FileNotFoundException e )
-        {
-            AppLogService.error( e );
-        }
-        finally
+    /**
+     * Update the site pom.xml after the tag : the next snapshot version of the site and of the project components.
+     * The file is patched in place, the formatting and the comments are kept.
+     * 
+     * @param site
+     *            the site
+     * @return an empty string
+     * @throws IOException
+     *             if the pom.xml can not be read or written
+     */
+    public static String updateSiteAfterTag( Site site ) throws IOException
+    {
+        Map<String, String> mapDependencyVersions = new HashMap<>( );
+        for ( Component component : site.getComponents( ) )
         {
-            if ( outputStream != null )
+            if ( component.isProject( ) && component.isSnapshotVersion( ) )
             {
-                try
-                {
-                    outputStream.close( );
-                }
-                catch( IOException ex )
-                {
-                    // nothing...
-                    AppLogService.error( ex );
-                }
+                mapDependencyVersions.put( component.getArtifactId( ), component.getNextSnapshotVersion( ) );
             }
         }
 
+        rewriteSitePom( site, site.getNextSnapshotVersion( ), "", mapDependencyVersions );
+
         return "";
     }
 
-    public static String updateSiteAfterTag( Site site ) throws JAXBException
+    /**
+     * Patch the local site pom.xml
+     * 
+     * @param site
+     *            the site
+     * @param strVersion
+     *            the new site version, null to keep the current one
+     * @param strDescription
+     *            the new site description
+     * @param mapDependencyVersions
+     *            the new versions of the dependencies by artifact id
+     * @throws IOException
+     *             if the pom.xml can not be read or written
+     */
+    private static void rewriteSitePom( Site site, String strVersion, String strDescription, Map<String, String> mapDependencyVersions )
+            throws IOException
     {
-
-        InputStream inputStream = null;
-        OutputStream outputStream = null;
         String strSiteLocalPomPath = ReleaserUtils.getLocalSitePomPath( site.getArtifactId( ) );
 
-        try
-        {
-
-            inputStream = new FileInputStream( strSiteLocalPomPath );
-            Model model = unmarshal( Model.class, inputStream );
-            
-            model.setVersion( site.getNextSnapshotVersion( ) );
-            model.setDescription( "");
-
-            fr.paris.lutece.plugins.releaser.business.jaxb.maven.Model.Dependencies dependencies = model.getDependencies( );
-            //update dependencies
-            if ( dependencies != null )
-            {
-                for ( fr.paris.lutece.plugins.releaser.business.jaxb.maven.Dependency jaxDependency : dependencies.getDependency( ) )
-                {
-                    for ( Component component : site.getComponents( ) )
-                    {
-
-                        if ( jaxDependency.getArtifactId( ).equals( component.getArtifactId( ) ) )
-                        {
-
-                            if(component.isProject( ) && component.isSnapshotVersion( ))
-                            {
-                               jaxDependency.setVersion( component.getNextSnapshotVersion( ) );
-                             }
-
-                        }
-                    }
-
-                }
-            }
-
-            outputStream = new FileOutputStream( strSiteLocalPomPath );
+        PomVersionRewriter.rewrite( Paths.get( strSiteLocalPomPath ), strVersion, strDescription, mapDependencyVersions );
+    }
 
-            save( model, outputStream );
+    public static void save( Model model, OutputStream outputStream ) throws JAXBException
+    {
+        ObjectFactory factory = new ObjectFactory( );
+        JAXBElement<Model> element = factory.createProject( model );
 
-        }
-        catch( FileNotFoundException e )
+        PomJaxbContext context = PomJaxbContext.getInstance( model.getClass( ) );
+        Marshaller m = context.borrowMarshaller( );
+        try
         {
-            AppLogService.error( e );
+            m.setProperty( Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE );
+            m.setProperty( Marshaller.JAXB_SCHEMA_LOCATION, "http://maven.apache.org/maven-v4_0_0.xsd" );
+            m.marshal( element, outputStream );
         }
         finally
         {
-            if ( outputStream != null )
-            {
-                try
-                {
-                    outputStream.close( );
-                }
-                catch( IOException ex )
-                {
-                    // nothing...
-                    AppLogService.error( ex );
-                }
-            }
+            context.releaseMarshaller( m );
         }
-
-        return "";
-    }
-    public static void save( Model model, OutputStream outputStream ) throws JAXBException
-    {
-        String packageName = model.getClass( ).getPackage( ).getName( );
-        ObjectFactory factory = new ObjectFactory( );
-        JAXBElement<Model> element = factory.createProject( model );
-
-        JAXBContext jc = JAXBContext.newInstance( packageName );
-        Marshaller m = jc.createMarshaller( );
-        m.setProperty( Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE );
-        m.setProperty( Marshaller.JAXB_SCHEMA_LOCATION, "http://maven.apache.org/maven-v4_0_0.xsd" );
-        m.marshal( element, outputStream );
     }
 
     public static <T> T unmarshal( Class<T> docClass, InputStream inputStream ) throws JAXBException
     {
-        String packageName = docClass.getPackage( ).getName( );
-        JAXBContext jc = JAXBContext.newInstance( packageName );
-        Unmarshaller u = jc.createUnmarshaller( );
-        JAXBElement<T> doc = (JAXBElement<T>) u.unmarshal( inputStream );
-        return doc.getValue( );
+        PomJaxbContext context = PomJaxbContext.getInstance( docClass );
+        Unmarshaller u = context.borrowUnmarshaller( );
+        try
+        {
+            JAXBElement<T> doc = (JAXBElement<T>) u.unmarshal( inputStream );
+            return doc.getValue( );
+        }
+        finally
+        {
+            context.releaseUnmarshaller( u );
+        }
     }
 
 }
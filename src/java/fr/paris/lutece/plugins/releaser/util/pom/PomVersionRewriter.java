@@ -0,0 +1,668 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.pom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * PomVersionRewriter : updates the version of a project and of some of its dependencies directly in the bytes of the
+ * pom.xml.<br>
+ * Only the content of the targeted elements is replaced, everything else (comments, formatting, attribute order,
+ * namespaces) is kept byte-identical. The file is scanned as a stream of tags, so the encoding must be ASCII
+ * compatible (UTF-8 or ISO-8859-x), which is the case of all the Maven POMs.
+ */
+public final class PomVersionRewriter
+{
+    private static final String TAG_PROJECT = "project";
+    private static final String TAG_VERSION = "version";
+    private static final String TAG_DESCRIPTION = "description";
+    private static final String TAG_DEPENDENCIES = "dependencies";
+    private static final String TAG_DEPENDENCY = "dependency";
+    private static final String TAG_ARTIFACT_ID = "artifactId";
+    private static final Pattern PATTERN_ENCODING = Pattern.compile( "^<\\?xml[^>]*encoding\\s*=\\s*[\"']([A-Za-z0-9._-]+)[\"']" );
+    private static final int XML_DECLARATION_MAX_LENGTH = 200;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Private constructor
+     */
+    private PomVersionRewriter( )
+    {
+    }
+
+    /**
+     * Rewrite a pom.xml file. The new content is written to a temporary file of the same directory, then moved over the
+     * pom.xml, so a failed write leaves the original file untouched.
+     * 
+     * @param pathPom
+     *            the path of the pom.xml
+     * @param strProjectVersion
+     *            the new project version, null to keep the current one
+     * @param strDescription
+     *            the new project description, null to keep the current one
+     * @param mapDependencyVersions
+     *            the new versions of the dependencies by artifact id
+     * @throws IOException
+     *             if the file can not be read or written
+     */
+    public static void rewrite( Path pathPom, String strProjectVersion, String strDescription, Map<String, String> mapDependencyVersions )
+            throws IOException
+    {
+        byte [ ] pom = Files.readAllBytes( pathPom );
+        List<Patch> listPatches = findPatches( pom, strProjectVersion, strDescription, mapDependencyVersions );
+        if ( listPatches.isEmpty( ) )
+        {
+            return;
+        }
+
+        // unchanged slices and replacements are written with a single gathering write
+        ByteBuffer [ ] buffers = toBuffers( pom, listPatches );
+        Path pathAbsolute = pathPom.toAbsolutePath( );
+        Path pathTemp = pathAbsolute.resolveSibling( pathAbsolute.getFileName( ).toString( ) + TEMP_FILE_SUFFIX );
+        try
+        {
+            try ( FileChannel channel = FileChannel.open( pathTemp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) )
+            {
+                long lRemaining = getLength( buffers );
+                while ( lRemaining > 0 )
+                {
+                    lRemaining -= channel.write( buffers );
+                }
+                channel.force( true );
+            }
+            try
+            {
+                Files.move( pathTemp, pathAbsolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            }
+            catch( AtomicMoveNotSupportedException e )
+            {
+                Files.move( pathTemp, pathAbsolute, StandardCopyOption.REPLACE_EXISTING );
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists( pathTemp );
+        }
+    }
+
+    /**
+     * Rewrite the content of a pom.xml
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param strProjectVersion
+     *            the new project version, null to keep the current one
+     * @param strDescription
+     *            the new project description, null to keep the current one
+     * @param mapDependencyVersions
+     *            the new versions of the dependencies by artifact id
+     * @return the rewritten content
+     */
+    public static byte [ ] rewrite( byte [ ] pom, String strProjectVersion, String strDescription, Map<String, String> mapDependencyVersions )
+    {
+        List<Patch> listPatches = findPatches( pom, strProjectVersion, strDescription, mapDependencyVersions );
+        ByteBuffer [ ] buffers = toBuffers( pom, listPatches );
+        ByteBuffer result = ByteBuffer.allocate( (int) getLength( buffers ) );
+        for ( ByteBuffer buffer : buffers )
+        {
+            result.put( buffer );
+        }
+        return result.array( );
+    }
+
+    /**
+     * Scan the tags of the pom.xml and compute the replacements
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param strProjectVersion
+     *            the new project version, null to keep the current one
+     * @param strDescription
+     *            the new project description, null to keep the current one
+     * @param mapDependencyVersions
+     *            the new versions of the dependencies by artifact id
+     * @return the replacements sorted by position
+     */
+    private static List<Patch> findPatches( byte [ ] pom, String strProjectVersion, String strDescription, Map<String, String> mapDependencyVersions )
+    {
+        Charset charset = getCharset( pom );
+        List<Patch> listPatches = new ArrayList<>( );
+        Deque<String> stackElements = new ArrayDeque<>( );
+        int nStartTagStart = -1;
+        int nContentStart = -1;
+
+        int nProjectVersionEnd = -1;
+        String strProjectVersionIndentation = "";
+        boolean bDescriptionFound = false;
+
+        // current dependency
+        String strArtifactId = null;
+        int nArtifactIdEnd = -1;
+        String strArtifactIdIndentation = "";
+        Content versionContent = null;
+
+        int i = 0;
+        while ( i < pom.length )
+        {
+            if ( pom [i] != '<' )
+            {
+                i++;
+                continue;
+            }
+            if ( startsWith( pom, i, "<!--" ) )
+            {
+                i = indexOf( pom, i + 4, "-->" ) + 3;
+                continue;
+            }
+            if ( startsWith( pom, i, "<![CDATA[" ) )
+            {
+                i = indexOf( pom, i + 9, "]]>" ) + 3;
+                continue;
+            }
+            if ( startsWith( pom, i, "<?" ) )
+            {
+                i = indexOf( pom, i + 2, "?>" ) + 2;
+                continue;
+            }
+            if ( startsWith( pom, i, "<!" ) )
+            {
+                i = indexOf( pom, i + 2, ">" ) + 1;
+                continue;
+            }
+
+            int nTagEnd = indexOfTagEnd( pom, i );
+            boolean bEndTag = pom [i + 1] == '/';
+            boolean bEmptyElement = !bEndTag && pom [nTagEnd - 1] == '/';
+            if ( !bEndTag )
+            {
+                stackElements.push( getLocalName( pom, i + 1, charset ) );
+                nStartTagStart = i;
+                nContentStart = nTagEnd + 1;
+            }
+            if ( bEndTag || bEmptyElement )
+            {
+                // an empty element tag is both the start and the end of an element without content
+                Content content = bEmptyElement ? new Content( pom, i, nTagEnd, charset ) : new Content( nContentStart, i );
+                int nElementEnd = nTagEnd + 1;
+                String strName = stackElements.isEmpty( ) ? null : stackElements.pop( );
+                if ( isPath( stackElements, TAG_PROJECT ) )
+                {
+                    if ( TAG_VERSION.equals( strName ) )
+                    {
+                        nProjectVersionEnd = nElementEnd;
+                        strProjectVersionIndentation = getIndentation( pom, nStartTagStart, charset );
+                        if ( strProjectVersion != null )
+                        {
+                            listPatches.add( content.replace( strProjectVersion, charset ) );
+                        }
+                    }
+                    else
+                        if ( TAG_DESCRIPTION.equals( strName ) )
+                        {
+                            bDescriptionFound = true;
+                            if ( strDescription != null )
+                            {
+                                listPatches.add( content.replace( strDescription, charset ) );
+                            }
+                        }
+                }
+                else
+                    if ( isPath( stackElements, TAG_PROJECT, TAG_DEPENDENCIES, TAG_DEPENDENCY ) )
+                    {
+                        if ( TAG_ARTIFACT_ID.equals( strName ) )
+                        {
+                            strArtifactId = content.getText( pom, charset );
+                            nArtifactIdEnd = nElementEnd;
+                            strArtifactIdIndentation = getIndentation( pom, nStartTagStart, charset );
+                        }
+                        else
+                            if ( TAG_VERSION.equals( strName ) )
+                            {
+                                versionContent = content;
+                            }
+                    }
+                    else
+                        if ( TAG_DEPENDENCY.equals( strName ) && isPath( stackElements, TAG_PROJECT, TAG_DEPENDENCIES ) )
+                        {
+                            String strVersion = ( strArtifactId != null ) ? mapDependencyVersions.get( strArtifactId ) : null;
+                            if ( strVersion != null && versionContent != null )
+                            {
+                                listPatches.add( versionContent.replace( strVersion, charset ) );
+                            }
+                            else
+                                if ( strVersion != null && nArtifactIdEnd >= 0 )
+                                {
+                                    listPatches.add( new Patch( nArtifactIdEnd, nArtifactIdEnd, ( strArtifactIdIndentation + "<" + TAG_VERSION + ">"
+                                            + escape( strVersion ) + "</" + TAG_VERSION + ">" ).getBytes( charset ) ) );
+                                }
+                            strArtifactId = null;
+                            nArtifactIdEnd = -1;
+                            strArtifactIdIndentation = "";
+                            versionContent = null;
+                        }
+            }
+            i = nTagEnd + 1;
+        }
+
+        if ( !bDescriptionFound && !StringUtils.isEmpty( strDescription ) && nProjectVersionEnd >= 0 )
+        {
+            listPatches.add( new Patch( nProjectVersionEnd, nProjectVersionEnd, ( strProjectVersionIndentation + "<" + TAG_DESCRIPTION + ">"
+                    + escape( strDescription ) + "</" + TAG_DESCRIPTION + ">" ).getBytes( charset ) ) );
+        }
+        Collections.sort( listPatches );
+
+        return listPatches;
+    }
+
+    /**
+     * Check the path of the open elements
+     * 
+     * @param stackElements
+     *            the stack of the open elements
+     * @param path
+     *            the expected path from the root element
+     * @return true if the open elements match the path
+     */
+    private static boolean isPath( Deque<String> stackElements, String... path )
+    {
+        if ( stackElements.size( ) != path.length )
+        {
+            return false;
+        }
+        Iterator<String> iterator = stackElements.descendingIterator( );
+        for ( String strName : path )
+        {
+            if ( !strName.equals( iterator.next( ) ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the line break and the indentation preceding a tag, so that an element inserted after a sibling is laid out
+     * like it
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param nTagStart
+     *            the position of the tag
+     * @param charset
+     *            the charset
+     * @return the line break and the indentation, empty if the tag does not start a line
+     */
+    private static String getIndentation( byte [ ] pom, int nTagStart, Charset charset )
+    {
+        int nStart = nTagStart;
+        while ( nStart > 0 && ( pom [nStart - 1] == ' ' || pom [nStart - 1] == '\t' ) )
+        {
+            nStart--;
+        }
+        if ( nStart == 0 || pom [nStart - 1] != '\n' )
+        {
+            return "";
+        }
+        nStart--;
+        if ( nStart > 0 && pom [nStart - 1] == '\r' )
+        {
+            nStart--;
+        }
+        return new String( pom, nStart, nTagStart - nStart, charset );
+    }
+
+    /**
+     * Build the buffers to write
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param listPatches
+     *            the replacements sorted by position
+     * @return the buffers
+     */
+    private static ByteBuffer [ ] toBuffers( byte [ ] pom, List<Patch> listPatches )
+    {
+        ByteBuffer [ ] buffers = new ByteBuffer [ listPatches.size( ) * 2 + 1];
+        int nPosition = 0;
+        int nBuffer = 0;
+        for ( Patch patch : listPatches )
+        {
+            buffers [nBuffer++] = ByteBuffer.wrap( pom, nPosition, patch._nStart - nPosition );
+            buffers [nBuffer++] = ByteBuffer.wrap( patch._value );
+            nPosition = patch._nEnd;
+        }
+        buffers [nBuffer] = ByteBuffer.wrap( pom, nPosition, pom.length - nPosition );
+        return buffers;
+    }
+
+    /**
+     * Returns the number of bytes to write
+     * 
+     * @param buffers
+     *            the buffers
+     * @return the number of bytes
+     */
+    private static long getLength( ByteBuffer [ ] buffers )
+    {
+        long lLength = 0;
+        for ( ByteBuffer buffer : buffers )
+        {
+            lLength += buffer.remaining( );
+        }
+        return lLength;
+    }
+
+    /**
+     * Get the encoding declared by the XML declaration
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @return the charset, UTF-8 by default
+     */
+    private static Charset getCharset( byte [ ] pom )
+    {
+        String strHeader = new String( pom, 0, Math.min( pom.length, XML_DECLARATION_MAX_LENGTH ), StandardCharsets.ISO_8859_1 );
+        Matcher matcher = PATTERN_ENCODING.matcher( strHeader );
+        if ( matcher.find( ) && Charset.isSupported( matcher.group( 1 ) ) )
+        {
+            return Charset.forName( matcher.group( 1 ) );
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Get the local name of a tag
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param nStart
+     *            the position of the tag name
+     * @param charset
+     *            the charset
+     * @return the name without namespace prefix
+     */
+    private static String getLocalName( byte [ ] pom, int nStart, Charset charset )
+    {
+        int nEnd = nStart;
+        int nLocalStart = nStart;
+        while ( nEnd < pom.length && pom [nEnd] != '>' && pom [nEnd] != '/' && !Character.isWhitespace( pom [nEnd] ) )
+        {
+            if ( pom [nEnd] == ':' )
+            {
+                nLocalStart = nEnd + 1;
+            }
+            nEnd++;
+        }
+        return new String( pom, nLocalStart, nEnd - nLocalStart, charset );
+    }
+
+    /**
+     * Find the closing bracket of a tag, ignoring the brackets inside the attribute values
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param nStart
+     *            the position of the opening bracket
+     * @return the position of the closing bracket
+     */
+    private static int indexOfTagEnd( byte [ ] pom, int nStart )
+    {
+        byte quote = 0;
+        for ( int i = nStart + 1; i < pom.length; i++ )
+        {
+            byte b = pom [i];
+            if ( quote != 0 )
+            {
+                if ( b == quote )
+                {
+                    quote = 0;
+                }
+            }
+            else
+                if ( b == '"' || b == '\'' )
+                {
+                    quote = b;
+                }
+                else
+                    if ( b == '>' )
+                    {
+                        return i;
+                    }
+        }
+        return pom.length - 1;
+    }
+
+    /**
+     * Find a marker
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param nFrom
+     *            the start position
+     * @param strMarker
+     *            the ASCII marker
+     * @return the position of the marker, or the end of the content if not found
+     */
+    private static int indexOf( byte [ ] pom, int nFrom, String strMarker )
+    {
+        for ( int i = nFrom; i < pom.length; i++ )
+        {
+            if ( startsWith( pom, i, strMarker ) )
+            {
+                return i;
+            }
+        }
+        return pom.length;
+    }
+
+    /**
+     * Check if a marker is found at a position
+     * 
+     * @param pom
+     *            the content of the pom.xml
+     * @param nPosition
+     *            the position
+     * @param strMarker
+     *            the ASCII marker
+     * @return true if the marker is found
+     */
+    private static boolean startsWith( byte [ ] pom, int nPosition, String strMarker )
+    {
+        if ( nPosition + strMarker.length( ) > pom.length )
+        {
+            return false;
+        }
+        for ( int i = 0; i < strMarker.length( ); i++ )
+        {
+            if ( pom [nPosition + i] != strMarker.charAt( i ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escape a text value
+     * 
+     * @param strValue
+     *            the value
+     * @return the escaped value
+     */
+    private static String escape( String strValue )
+    {
+        return strValue.replace( "&", "&amp;" ).replace( "<", "&lt;" ).replace( ">", "&gt;" );
+    }
+
+    /**
+     * Content of an element : the bytes between its start and end tags, or its whole empty element tag
+     */
+    private static final class Content
+    {
+        private final int _nStart;
+        private final int _nEnd;
+        private final String _strStartTag;
+        private final String _strEndTag;
+
+        /**
+         * Constructor of the content of an element with a start and an end tag
+         * 
+         * @param nStart
+         *            the first byte of the content
+         * @param nEnd
+         *            the byte following the content
+         */
+        Content( int nStart, int nEnd )
+        {
+            _nStart = nStart;
+            _nEnd = nEnd;
+            _strStartTag = null;
+            _strEndTag = null;
+        }
+
+        /**
+         * Constructor of the content of an empty element tag, replaced by a start and an end tag around the new value
+         * 
+         * @param pom
+         *            the content of the pom.xml
+         * @param nTagStart
+         *            the position of the opening bracket
+         * @param nTagEnd
+         *            the position of the closing bracket
+         * @param charset
+         *            the charset
+         */
+        Content( byte [ ] pom, int nTagStart, int nTagEnd, Charset charset )
+        {
+            _nStart = nTagStart;
+            _nEnd = nTagEnd + 1;
+            // the start tag keeps the name and the attributes of the empty element tag
+            String strStartTag = StringUtils.stripEnd( new String( pom, nTagStart, nTagEnd - 1 - nTagStart, charset ), null );
+            _strStartTag = strStartTag + ">";
+            String strName = strStartTag.substring( 1 );
+            int nNameEnd = 0;
+            while ( nNameEnd < strName.length( ) && !Character.isWhitespace( strName.charAt( nNameEnd ) ) )
+            {
+                nNameEnd++;
+            }
+            _strEndTag = "</" + strName.substring( 0, nNameEnd ) + ">";
+        }
+
+        /**
+         * Get the text of the content
+         * 
+         * @param pom
+         *            the content of the pom.xml
+         * @param charset
+         *            the charset
+         * @return the trimmed text, empty for an empty element tag
+         */
+        String getText( byte [ ] pom, Charset charset )
+        {
+            return ( _strStartTag != null ) ? "" : new String( pom, _nStart, _nEnd - _nStart, charset ).trim( );
+        }
+
+        /**
+         * Build the replacement of the content by a new value
+         * 
+         * @param strValue
+         *            the new value
+         * @param charset
+         *            the charset
+         * @return the replacement
+         */
+        Patch replace( String strValue, Charset charset )
+        {
+            String strContent = escape( strValue );
+            if ( _strStartTag != null )
+            {
+                strContent = _strStartTag + strContent + _strEndTag;
+            }
+            return new Patch( _nStart, _nEnd, strContent.getBytes( charset ) );
+        }
+    }
+
+    /**
+     * Replacement of a range of bytes
+     */
+    private static final class Patch implements Comparable<Patch>
+    {
+        private final int _nStart;
+        private final int _nEnd;
+        private final byte [ ] _value;
+
+        /**
+         * Constructor
+         * 
+         * @param nStart
+         *            the first byte replaced
+         * @param nEnd
+         *            the byte following the last byte replaced
+         * @param value
+         *            the new bytes
+         */
+        Patch( int nStart, int nEnd, byte [ ] value )
+        {
+            _nStart = nStart;
+            _nEnd = nEnd;
+            _value = value;
+        }
+
+        @Override
+        public int compareTo( Patch patch )
+        {
+            return Integer.compare( _nStart, patch._nStart );
+        }
+    }
+}
@@ -37,6 +37,8 @@ package fr.paris.lutece.plugins.releaser.util.svn;
 
 import fr.paris.lutece.plugins.releaser.business.ReleaserUser;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
+import fr.paris.lutece.plugins.releaser.util.version.Version;
+import fr.paris.lutece.plugins.releaser.util.version.VersionParsingException;
 import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.httpaccess.HttpAccess;
@@ -103,22 +105,54 @@ public class SvnSiteService
             AppLogService.error( "SvnSiteService : Error retrieving release version : " + e.getMessage( ), e );
         }
 
-          String strLastRelease= ( !list.isEmpty() ) ? list.get( list.size() - 1 ) : null;
-          
-          if(strLastRelease!=null && strLastRelease.contains( "-" ))
-          {
-             
-              String[] tabRelease=strLastRelease.split( "-" );
-               strLastRelease=tabRelease[tabRelease.length-1];
-          }
-          else
-          {
-              strLastRelease="";
-          }
-          return strLastRelease;
-        
+        return getLastReleaseVersion( list, strSiteArtifactId );
     }
-    
+
+    /**
+     * Gets the version of the last release among the tags of a site. Tags are listed in lexicographic order (1.0.10
+     * before 1.0.9) and may carry qualifiers (RC-01), so the latest one is picked using version ordering, and its
+     * version is returned as written in the tag.
+     * 
+     * @param listTags
+     *            The tags starting with the site artifact id
+     * @param strSiteArtifactId
+     *            The site artifact id
+     * @return The version of the last release, or an empty string if no tag has a version
+     */
+    static String getLastReleaseVersion( List<String> listTags, String strSiteArtifactId )
+    {
+        String strTagPrefix = strSiteArtifactId + "-";
+        String strLastRelease = null;
+        Version lastRelease = null;
+        String strLastTagVersion = "";
+
+        for ( String strTag : listTags )
+        {
+            if ( !strTag.contains( "-" ) )
+            {
+                continue;
+            }
+            String strVersion = strTag.startsWith( strTagPrefix ) ? strTag.substring( strTagPrefix.length( ) ) : strTag.substring( strTag.lastIndexOf( '-' ) + 1 );
+            strLastTagVersion = strVersion;
+            try
+            {
+                Version version = Version.parse( strVersion );
+                if ( lastRelease == null || version.compareTo( lastRelease ) > 0 )
+                {
+                    lastRelease = version;
+                    strLastRelease = strVersion;
+                }
+            }
+            catch( VersionParsingException e )
+            {
+                AppLogService.debug( e.getMessage( ) );
+            }
+        }
+
+        // no tag with a valid version : keep the version of the last tag listed
+        return ( strLastRelease != null ) ? strLastRelease : strLastTagVersion;
+    }
+
     /**
      * Gets anchor list using more optimized method
      *
@@ -37,7 +37,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 import org.tmatesoft.svn.core.ISVNDirEntryHandler;
@@ -56,6 +58,7 @@ import org.tmatesoft.svn.core.internal.wc.DefaultSVNOptions;
 import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
 import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.core.wc.ISVNStatusHandler;
 import org.tmatesoft.svn.core.wc.SVNClientManager;
 import org.tmatesoft.svn.core.wc.SVNCommitPacket;
 import org.tmatesoft.svn.core.wc.SVNCopyClient;
@@ -63,11 +66,16 @@ import org.tmatesoft.svn.core.wc.SVNCopySource;
 import org.tmatesoft.svn.core.wc.SVNDiffClient;
 import org.tmatesoft.svn.core.wc.SVNEvent;
 import org.tmatesoft.svn.core.wc.SVNEventAction;
+import org.tmatesoft.svn.core.wc.SVNInfo;
 import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.core.wc.SVNRevisionRange;
+import org.tmatesoft.svn.core.wc.SVNStatus;
+import org.tmatesoft.svn.core.wc.SVNStatusType;
+import org.tmatesoft.svn.core.wc.SVNWCUtil;
 
 import fr.paris.lutece.plugins.releaser.util.CommandResult;
 import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
 import fr.paris.lutece.plugins.releaser.util.file.FileUtils;
 import fr.paris.lutece.portal.service.util.AppLogService;
@@ -120,13 +128,33 @@ public final class SvnUtils
      */
     public static void doCommit( String strPathFile, String strCommitMessage, ReleaseSvnCommitClient commitClient ) throws SVNException
     {
-        SVNCommitPacket commitPacket = commitClient.doCollectCommitItems( new File [ ] {
-            new File( strPathFile )
-        }, false, false, true );
+        doCommit( Collections.singletonList( strPathFile ), strCommitMessage, commitClient );
+    }
+
+    /**
+     * Commit several files of a working copy in a single commit
+     * 
+     * @param listPathFiles
+     *            the paths of the files
+     * @param strCommitMessage
+     *            the commit message
+     * @param commitClient
+     *            the svn commit client
+     * @throws SVNException
+     */
+    public static void doCommit( List<String> listPathFiles, String strCommitMessage, ReleaseSvnCommitClient commitClient ) throws SVNException
+    {
+        File [ ] files = new File [ listPathFiles.size( )];
+        for ( int nIndex = 0; nIndex < files.length; nIndex++ )
+        {
+            files [nIndex] = new File( listPathFiles.get( nIndex ) );
+        }
+
+        SVNCommitPacket commitPacket = commitClient.doCollectCommitItems( files, false, false, true );
 
         if ( !SVNCommitPacket.EMPTY.equals( commitPacket ) )
         {
-             commitClient.doCommit( commitPacket, false, strCommitMessage );
+            commitClient.doCommit( commitPacket, false, strCommitMessage );
         }
     }
 
@@ -179,7 +207,7 @@ public final class SvnUtils
         }
 
         SVNRepository repository = SVNRepositoryFactory.create( url, null );
-        final StringBuffer logBuffer = result.getLog( );
+        final ReleaseLog logBuffer = result.getLog( );
 
         try
         {
@@ -264,6 +292,93 @@ public final class SvnUtils
         return nLastCommitId;
     }
 
+    /**
+     * Refresh the working copy kept from a previous release instead of checking it out again : the local changes are reverted, the unversioned and
+     * ignored files are removed and the working copy is updated to HEAD.
+     * 
+     * @param strUrl
+     *            the URL of the component
+     * @param strCheckoutPath
+     *            the directory of the working copy
+     * @param clientManager
+     *            the SVN client manager
+     * @param result
+     *            the command result
+     * @return the revision of the working copy or null if the working copy can't be reused and must be checked out again
+     */
+    public static Long doSvnUpdate( String strUrl, String strCheckoutPath, SVNClientManager clientManager, CommandResult result )
+    {
+        long lStart = System.currentTimeMillis( );
+        File file = new File( strCheckoutPath );
+        final ReleaseLog logBuffer = result.getLog( );
+
+        try
+        {
+            if ( !SVNWCUtil.isVersionedDirectory( file ) )
+            {
+                logBuffer.append( "The local folder is not a SVN working copy\n" );
+                return null;
+            }
+
+            SVNURL url = SVNURL.parseURIEncoded( strUrl );
+            SVNInfo info = clientManager.getWCClient( ).doInfo( file, SVNRevision.WORKING );
+            if ( !url.equals( info.getURL( ) ) )
+            {
+                logBuffer.append( "The local working copy is a copy of " + info.getURL( ) + " instead of " + url + "\n" );
+                return null;
+            }
+
+            clientManager.getWCClient( ).doCleanup( file );
+            clientManager.getWCClient( ).doRevert( new File [ ] {
+                file
+            }, SVNDepth.INFINITY, null );
+
+            final List<File> listUnversionedFiles = new ArrayList<>( );
+            clientManager.getStatusClient( ).doStatus( file, SVNRevision.WORKING, SVNDepth.INFINITY, false, false, true, false, new ISVNStatusHandler( )
+            {
+                public void handleStatus( SVNStatus status ) throws SVNException
+                {
+                    if ( status.getContentsStatus( ) == SVNStatusType.STATUS_UNVERSIONED || status.getContentsStatus( ) == SVNStatusType.STATUS_IGNORED )
+                    {
+                        listUnversionedFiles.add( status.getFile( ) );
+                    }
+                }
+            }, null );
+            for ( File fileUnversioned : listUnversionedFiles )
+            {
+                if ( !FileUtils.delete( fileUnversioned, logBuffer ) )
+                {
+                    logBuffer.append( "Unable to remove the unversioned file " + fileUnversioned + "\n" );
+                    return null;
+                }
+            }
+
+            clientManager.getUpdateClient( ).setEventHandler( new ISVNEventHandler( )
+            {
+                public void checkCancelled( ) throws SVNCancelException
+                {
+                    // Do nothing
+                }
+
+                public void handleEvent( SVNEvent event, double progress ) throws SVNException
+                {
+                    logBuffer.append( event.getAction( ) + " " + event.getFile( ) + "\n" );
+                }
+            } );
+            long lRevision = clientManager.getUpdateClient( ).doUpdate( file, SVNRevision.HEAD, SVNDepth.INFINITY, false, false );
+            logBuffer.append( "Local working copy updated to revision " + lRevision + " in " + ( System.currentTimeMillis( ) - lStart ) + " ms\n" );
+
+            return lRevision;
+        }
+        catch( SVNException e )
+        {
+            AppLogService.error( "Unable to update the working copy " + strCheckoutPath + " : " + e.getMessage( ), e );
+            logBuffer.append( "Unable to update the local working copy (" + e.getMessage( ) + ")\n" );
+
+            return null;
+        }
+    }
+
     public static ReferenceList getSvnSites( String strUrlSite, SVNClientManager clientManager ) throws SVNException
     {
         final ReferenceList listSites = new ReferenceList( );
@@ -34,33 +34,60 @@
 package fr.paris.lutece.plugins.releaser.util.version;
 
 import fr.paris.lutece.portal.service.util.AppLogService;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Version
+ * Version : immutable Maven version (major.minor.patch-qualifier).<br>
+ * Parsed versions are interned in a bounded cache keyed by the source string, so parsing the same version many times
+ * returns the same instance.<br>
+ * Versions are ordered as Maven ComparableVersion does for the qualifiers used by Lutece : alpha &lt; beta &lt;
+ * milestone &lt; RC &lt; SNAPSHOT &lt; release &lt; sp &lt; other qualifiers, and qualifier numbers are compared as
+ * numbers (RC-02 &lt; RC-10). The ordering is packed in a long key at construction time, so most comparisons are a
+ * single primitive compare.
  */
-public class Version implements Comparable
+public class Version implements Comparable<Version>
 {
     public static final String NOT_AVAILABLE = "Not available";
     private static final String QUALIFIER_SNAPSHOT = "SNAPSHOT";
     private static final String QUALIFIER_CANDIDATE = "RC";
-    private static final String PATTERN_NUMBER = "\\d+";
-    private static final String QUALIFIER_VERSION_FORMAT = "%02d";
-
-    private int _nMajor;
-    private int _nMinor;
-    private int _nPatch;
-    private String _strQualifier;
-    private String _strQualifierRadix;
-    private int _nQualifierNumber;
-
-    /** Constructor */
-    public Version( )
-    {
-    }
+    private static final String QUALIFIER_CANDIDATE_RADIX = "RC-";
+    private static final int INTERN_CACHE_MAX_SIZE = 4096;
+    private static final ConcurrentMap<String, Version> _mapInternedVersions = new ConcurrentHashMap<>( );
+
+    // qualifier ranks
+    private static final int RANK_ALPHA = 1;
+    private static final int RANK_BETA = 2;
+    private static final int RANK_MILESTONE = 3;
+    private static final int RANK_CANDIDATE = 4;
+    private static final int RANK_SNAPSHOT = 5;
+    private static final int RANK_RELEASE = 6;
+    private static final int RANK_SERVICE_PACK = 7;
+    private static final int RANK_UNKNOWN = 8;
+
+    // comparison key layout : major (16 bits) | minor (16 bits) | patch (16 bits) | rank (4 bits) | number (11 bits)
+    private static final int KEY_DIGIT_BITS = 16;
+    private static final int KEY_RANK_BITS = 4;
+    private static final int KEY_NUMBER_BITS = 11;
+    private static final int KEY_DIGIT_MAX = ( 1 << KEY_DIGIT_BITS ) - 1;
+    private static final int KEY_NUMBER_MAX = ( 1 << KEY_NUMBER_BITS ) - 1;
+    private static final long KEY_NONE = -1L;
+
+    private final int _nMajor;
+    private final int _nMinor;
+    private final int _nPatch;
+    private final String _strQualifier;
+    private final String _strQualifierRadix;
+    private final int _nQualifierNumber;
+    private final int _nQualifierRank;
+    private final String _strQualifierTail;
+    private final long _lComparisonKey;
+    private String _strVersion;
 
     /**
      * Constructor
@@ -80,40 +107,127 @@ public class Version implements Comparable
         _nMinor = nMinor;
         _nPatch = nPatch;
         _strQualifier = strQualifier;
+
+        // the qualifier number is the first digits sequence of the qualifier
+        int nNumberStart = -1;
+        int nNumber = 0;
+        if ( strQualifier != null )
+        {
+            for ( int i = 0; i < strQualifier.length( ); i++ )
+            {
+                char c = strQualifier.charAt( i );
+                if ( c >= '0' && c <= '9' )
+                {
+                    if ( nNumberStart < 0 )
+                    {
+                        nNumberStart = i;
+                    }
+                    nNumber = nNumber * 10 + ( c - '0' );
+                }
+                else
+                    if ( nNumberStart >= 0 )
+                    {
+                        break;
+                    }
+            }
+        }
+        _strQualifierRadix = ( nNumberStart >= 0 ) ? strQualifier.substring( 0, nNumberStart ) : null;
+        _nQualifierNumber = nNumber;
+
+        // anything following the qualifier number, ex : RC-01-SNAPSHOT
+        int nNumberEnd = nNumberStart;
+        while ( nNumberEnd >= 0 && nNumberEnd < strQualifier.length( ) && Character.isDigit( strQualifier.charAt( nNumberEnd ) ) )
+        {
+            nNumberEnd++;
+        }
+        _strQualifierTail = ( nNumberEnd >= 0 && nNumberEnd < strQualifier.length( ) ) ? strQualifier.substring( nNumberEnd ).toLowerCase( Locale.ENGLISH )
+                : null;
+        _nQualifierRank = getQualifierRank( ( nNumberStart >= 0 ) ? _strQualifierRadix : strQualifier );
+        _lComparisonKey = getComparisonKey( );
     }
 
     /**
-     * @return the nMajor
+     * Get the rank of a qualifier radix in the Maven ordering
+     * 
+     * @param strRadix
+     *            the qualifier without its number, may be null
+     * @return the rank
      */
-    public int getMajor( )
+    private static int getQualifierRank( String strRadix )
     {
-        return _nMajor;
+        if ( strRadix == null )
+        {
+            return RANK_RELEASE;
+        }
+        // separators between the radix and the number are ignored
+        int nEnd = strRadix.length( );
+        while ( nEnd > 0 && ( strRadix.charAt( nEnd - 1 ) == '-' || strRadix.charAt( nEnd - 1 ) == '.' || strRadix.charAt( nEnd - 1 ) == '_' ) )
+        {
+            nEnd--;
+        }
+        String strName = strRadix.substring( 0, nEnd ).toLowerCase( Locale.ENGLISH );
+        switch( strName )
+        {
+            case "alpha":
+            case "a":
+                return RANK_ALPHA;
+            case "beta":
+            case "b":
+                return RANK_BETA;
+            case "milestone":
+            case "m":
+                return RANK_MILESTONE;
+            case "rc":
+            case "cr":
+                return RANK_CANDIDATE;
+            case "snapshot":
+                return RANK_SNAPSHOT;
+            case "":
+            case "ga":
+            case "final":
+            case "release":
+                return RANK_RELEASE;
+            case "sp":
+                return RANK_SERVICE_PACK;
+            default:
+                return RANK_UNKNOWN;
+        }
     }
 
     /**
-     * @param nMajor
-     *            the nMajor to set
+     * Pack the ordering of the version in a long
+     * 
+     * @return the key or KEY_NONE if the version can not be packed
      */
-    public void setMajor( int nMajor )
+    private long getComparisonKey( )
     {
-        _nMajor = nMajor;
+        if ( _nMajor > KEY_DIGIT_MAX || _nMinor > KEY_DIGIT_MAX || _nPatch > KEY_DIGIT_MAX || _nQualifierNumber > KEY_NUMBER_MAX
+                || _nQualifierRank == RANK_UNKNOWN || _strQualifierTail != null || _nMajor < 0 || _nMinor < 0 || _nPatch < 0 )
+        {
+            return KEY_NONE;
+        }
+        long lKey = _nMajor;
+        lKey = ( lKey << KEY_DIGIT_BITS ) | _nMinor;
+        lKey = ( lKey << KEY_DIGIT_BITS ) | _nPatch;
+        lKey = ( lKey << KEY_RANK_BITS ) | _nQualifierRank;
+        lKey = ( lKey << KEY_NUMBER_BITS ) | _nQualifierNumber;
+        return lKey;
     }
 
     /**
-     * @return the nMinor
+     * @return the nMajor
      */
-    public int getMinor( )
+    public int getMajor( )
     {
-        return _nMinor;
+        return _nMajor;
     }
 
     /**
-     * @param nMinor
-     *            the nMinor to set
+     * @return the nMinor
      */
-    public void setMinor( int nMinor )
+    public int getMinor( )
     {
-        _nMinor = nMinor;
+        return _nMinor;
     }
 
     /**
@@ -124,15 +238,6 @@ public class Version implements Comparable
         return _nPatch;
     }
 
-    /**
-     * @param nPatch
-     *            the nPatch to set
-     */
-    public void setPatch( int nPatch )
-    {
-        _nPatch = nPatch;
-    }
-
     /**
      * @return the Qualifier
      */
@@ -141,57 +246,146 @@ public class Version implements Comparable
         return _strQualifier;
     }
 
-    /**
-     * @param strQualifier
-     *            the Qualifier to set
-     */
-    public void setQualifier( String strQualifier )
+    @Override
+    public int compareTo( Version version )
     {
-        Pattern pattern = Pattern.compile( PATTERN_NUMBER );
-        Matcher matcher = pattern.matcher( strQualifier );
-        if( matcher.find() )
+        if ( _lComparisonKey != KEY_NONE && version._lComparisonKey != KEY_NONE )
         {
-            String strNumber = matcher.group();
-            _nQualifierNumber = Integer.parseInt( strNumber );
-            _strQualifierRadix = strQualifier.substring( 0 , strQualifier.indexOf( strNumber ));
+            return Long.compare( _lComparisonKey, version._lComparisonKey );
         }
-        _strQualifier = strQualifier;
-    }
-
-    @Override
-    public int compareTo( Object object )
-    {
-        Version version = (Version) object;
-        int nDiff = _nMajor - version.getMajor( );
+        int nDiff = Integer.compare( _nMajor, version._nMajor );
+        if ( nDiff != 0 )
+        {
+            return nDiff;
+        }
+        nDiff = Integer.compare( _nMinor, version._nMinor );
         if ( nDiff != 0 )
         {
             return nDiff;
         }
-        nDiff = _nMinor - version.getMinor( );
+        nDiff = Integer.compare( _nPatch, version._nPatch );
         if ( nDiff != 0 )
         {
             return nDiff;
         }
-        nDiff = _nPatch - version.getPatch( );
-        return nDiff;
+        nDiff = Integer.compare( _nQualifierRank, version._nQualifierRank );
+        if ( nDiff != 0 )
+        {
+            return nDiff;
+        }
+        if ( _nQualifierRank == RANK_UNKNOWN )
+        {
+            // unknown qualifiers are ordered lexically
+            nDiff = getQualifierName( ).compareTo( version.getQualifierName( ) );
+            if ( nDiff != 0 )
+            {
+                return nDiff;
+            }
+        }
+        nDiff = Integer.compare( _nQualifierNumber, version._nQualifierNumber );
+        if ( nDiff != 0 )
+        {
+            return nDiff;
+        }
+        return compareTails( _strQualifierTail, version._strQualifierTail );
     }
 
-    public String getVersion( )
+    /**
+     * Compare the parts following the qualifier numbers. A qualified tail (ex : RC-01-SNAPSHOT) is older than no tail
+     * unless it is a service pack.
+     * 
+     * @param strTail1
+     *            the first tail, may be null
+     * @param strTail2
+     *            the second tail, may be null
+     * @return the comparison result
+     */
+    private static int compareTails( String strTail1, String strTail2 )
     {
-        StringBuilder sbVersion = new StringBuilder( );
-        sbVersion.append( _nMajor ).append( '.' ).append( _nMinor ).append( '.' ).append( _nPatch );
-        if ( _strQualifier != null )
+        if ( strTail1 == null || strTail2 == null )
         {
-            if( _strQualifierRadix != null )
+            if ( strTail1 == strTail2 )
             {
-                sbVersion.append( '-' ).append( _strQualifierRadix ).append( String.format( QUALIFIER_VERSION_FORMAT , _nQualifierNumber ));
+                return 0;
             }
-            else
+            int nRank = getQualifierRank( ( strTail1 != null ) ? strTail1.replaceFirst( "^[-._]+", "" ) : strTail2.replaceFirst( "^[-._]+", "" ) );
+            int nDiff = Integer.compare( nRank, RANK_RELEASE );
+            return ( strTail1 != null ) ? nDiff : -nDiff;
+        }
+        return strTail1.compareTo( strTail2 );
+    }
+
+    /**
+     * Returns the lower case qualifier without its number
+     * 
+     * @return the qualifier name
+     */
+    private String getQualifierName( )
+    {
+        String strName = ( _strQualifierRadix != null ) ? _strQualifierRadix : _strQualifier;
+        return ( strName != null ) ? strName.toLowerCase( Locale.ENGLISH ) : "";
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean equals( Object object )
+    {
+        return ( object instanceof Version ) && compareTo( (Version) object ) == 0;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int hashCode( )
+    {
+        // the tail is left out since tails may compare equal to no tail (ex : -final)
+        int nHash = 31 * ( 31 * ( 31 * _nMajor + _nMinor ) + _nPatch ) + _nQualifierRank;
+        return 31 * nHash + _nQualifierNumber;
+    }
+
+    public String getVersion( )
+    {
+        String strVersion = _strVersion;
+        if ( strVersion == null )
+        {
+            StringBuilder sbVersion = new StringBuilder( 24 );
+            sbVersion.append( _nMajor ).append( '.' ).append( _nMinor ).append( '.' ).append( _nPatch );
+            if ( _strQualifier != null )
             {
-                sbVersion.append( '-' ).append( _strQualifier );
+                if( _strQualifierRadix != null )
+                {
+                    sbVersion.append( '-' ).append( _strQualifierRadix );
+                    appendTwoDigits( sbVersion, _nQualifierNumber );
+                }
+                else
+                {
+                    sbVersion.append( '-' ).append( _strQualifier );
+                }
             }
+            strVersion = sbVersion.toString( );
+            _strVersion = strVersion;
+        }
+        return strVersion;
+    }
+
+    /**
+     * Append a number with at least two digits
+     * 
+     * @param sb
+     *            the builder
+     * @param nNumber
+     *            the number
+     */
+    private static void appendTwoDigits( StringBuilder sb, int nNumber )
+    {
+        if ( nNumber < 10 )
+        {
+            sb.append( '0' );
         }
-        return sbVersion.toString( );
+        sb.append( nNumber );
     }
 
     /**
@@ -204,7 +398,8 @@ public class Version implements Comparable
     }
 
     /**
-     * Parse a string to extract version
+     * Parse a string to extract version. The versions are interned : parsing the same string returns the same
+     * instance.
      * 
      * @param strSource
      *            The source
@@ -214,52 +409,154 @@ public class Version implements Comparable
      */
     public static Version parse( String strSource ) throws VersionParsingException
     {
-        Version version = new Version( );
+        if ( strSource == null )
+        {
+            throw new VersionParsingException( "Error parsing version : 'null'" );
+        }
+        Version version = _mapInternedVersions.get( strSource );
+        if ( version == null )
+        {
+            version = parseUncached( strSource );
+            if ( _mapInternedVersions.size( ) >= INTERN_CACHE_MAX_SIZE )
+            {
+                _mapInternedVersions.clear( );
+            }
+            _mapInternedVersions.put( strSource, version );
+        }
+        return version;
+    }
 
-        try
+    /**
+     * Parse a string to extract version in a single scan, without using the intern cache
+     * 
+     * @param strSource
+     *            The source
+     * @return The version object
+     * @throws VersionParsingException
+     *             if parsing failed
+     */
+    static Version parseUncached( String strSource ) throws VersionParsingException
+    {
+        int nStart = 0;
+        int nEnd = strSource.length( );
+        while ( nStart < nEnd && strSource.charAt( nStart ) <= ' ' )
+        {
+            nStart++;
+        }
+        while ( nEnd > nStart && strSource.charAt( nEnd - 1 ) <= ' ' )
         {
-          
-            
-            
-            
-            String strCurrent = strSource!=null?strSource.trim( ):"";
+            nEnd--;
+        }
 
-            // Search for qualifier
-            int nPos = strCurrent.indexOf( '-' );
-            if ( nPos != -1 )
+        // major.minor[.patch][-qualifier]
+        int nMajor = 0;
+        int nMinor = 0;
+        int nDigit = 0;
+        int nValue = 0;
+        int nLength = 0;
+        int i = nStart;
+        for ( ; i < nEnd; i++ )
+        {
+            char c = strSource.charAt( i );
+            if ( c >= '0' && c <= '9' )
             {
-                version.setQualifier( strCurrent.substring( nPos + 1 ) );
-                strCurrent = strCurrent.substring( 0, nPos );
+                if ( nValue > ( Integer.MAX_VALUE - ( c - '0' ) ) / 10 )
+                {
+                    throw new VersionParsingException( "Error parsing version : '" + strSource + "' : number too large" );
+                }
+                nValue = nValue * 10 + ( c - '0' );
+                nLength++;
             }
+            else
+                if ( c == '.' && nDigit < 2 && nLength > 0 )
+                {
+                    if ( nDigit == 0 )
+                    {
+                        nMajor = nValue;
+                    }
+                    else
+                    {
+                        nMinor = nValue;
+                    }
+                    nDigit++;
+                    nValue = 0;
+                    nLength = 0;
+                }
+                else
+                    if ( c == '-' )
+                    {
+                        break;
+                    }
+                    else
+                    {
+                        throw new VersionParsingException( "Error parsing version : '" + strSource + "' : unexpected character '" + c + "'" );
+                    }
+        }
+        if ( nDigit == 0 || nLength == 0 )
+        {
+            throw new VersionParsingException( "Error parsing version : '" + strSource + "' : major and minor digits expected" );
+        }
 
-            // Search for major digits
-            nPos = strCurrent.indexOf( '.' );
-
-            String strMajor = strCurrent.substring( 0, nPos );
-            version.setMajor( Integer.parseInt( strMajor ) );
+        String strQualifier = ( i < nEnd ) ? strSource.substring( i + 1, nEnd ) : null;
 
-            // Search for minor digits
-            strCurrent = strCurrent.substring( nPos + 1 );
-            nPos = strCurrent.indexOf( '.' );
+        if ( nDigit == 1 )
+        {
+            return new Version( nMajor, nValue, 0, strQualifier );
+        }
+        return new Version( nMajor, nMinor, nValue, strQualifier );
+    }
 
-            if ( nPos != -1 )
+    /**
+     * Parse and sort versions from the oldest to the newest. The sources that are not versions are ignored.
+     * 
+     * @param listSources
+     *            the version strings
+     * @return the sorted versions
+     */
+    public static List<Version> sortVersions( Collection<String> listSources )
+    {
+        List<Version> listVersions = new ArrayList<>( listSources.size( ) );
+        for ( String strSource : listSources )
+        {
+            try
             {
-                String strMinor = strCurrent.substring( 0, nPos );
-                version.setMinor( Integer.parseInt( strMinor ) );
-
-                strCurrent = strCurrent.substring( nPos + 1 );
-                version.setPatch( Integer.parseInt( strCurrent ) );
+                listVersions.add( parse( strSource ) );
             }
-            else
+            catch( VersionParsingException ex )
             {
-                version.setMinor( Integer.parseInt( strCurrent ) );
+                AppLogService.debug( ex.getMessage( ) );
             }
         }
-        catch( Exception e )
+        Collections.sort( listVersions );
+        return listVersions;
+    }
+
+    /**
+     * Returns the newest of a collection of versions
+     * 
+     * @param listSources
+     *            the version strings
+     * @return the newest version or null if no source is a version
+     */
+    public static Version getLatestVersion( Collection<String> listSources )
+    {
+        Version latest = null;
+        for ( String strSource : listSources )
         {
-            throw new VersionParsingException( "Error parsing version : '" + strSource + "' : " + e.getMessage( ), e );
+            try
+            {
+                Version version = parse( strSource );
+                if ( latest == null || version.compareTo( latest ) > 0 )
+                {
+                    latest = version;
+                }
+            }
+            catch( VersionParsingException ex )
+            {
+                AppLogService.debug( ex.getMessage( ) );
+            }
         }
-        return version;
+        return latest;
     }
 
     /**
@@ -328,9 +625,11 @@ public class Version implements Comparable
     {
         String strQualifier;
         int nPatch = _nPatch;
-        if( (_strQualifierRadix != null) && (_strQualifierRadix.equals( "RC-")) )
+        if( (_strQualifierRadix != null) && (_strQualifierRadix.equals( QUALIFIER_CANDIDATE_RADIX )) )
         {
-            strQualifier = String.format( "RC-%02d", _nQualifierNumber + 1 );
+            StringBuilder sbQualifier = new StringBuilder( QUALIFIER_CANDIDATE_RADIX );
+            appendTwoDigits( sbQualifier, _nQualifierNumber + 1 );
+            strQualifier = sbQualifier.toString( );
         }
         else
         {
@@ -39,6 +39,11 @@ package fr.paris.lutece.plugins.releaser.util.version;
  */
 public class VersionParsingException extends Exception
 {
+    public VersionParsingException( String strMessage )
+    {
+        super( strMessage );
+    }
+
     public VersionParsingException( String strMessage, Throwable exception )
     {
         super( strMessage, exception );
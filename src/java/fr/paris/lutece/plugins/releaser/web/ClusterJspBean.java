@@ -38,6 +38,7 @@ import fr.paris.lutece.plugins.releaser.business.ClusterHome;
 import fr.paris.lutece.plugins.releaser.business.ReleaserUser;
 import fr.paris.lutece.plugins.releaser.business.Site;
 import fr.paris.lutece.plugins.releaser.business.SiteHome;
+import fr.paris.lutece.plugins.releaser.service.DependencyIndexService;
 import fr.paris.lutece.plugins.releaser.service.SiteService;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
 import fr.paris.lutece.portal.service.message.AdminMessage;
@@ -422,6 +423,7 @@ public class ClusterJspBean extends ManageSitesJspBean
         int nId = Integer.parseInt( request.getParameter( PARAMETER_ID_SITE ) );
         SiteHome.remove( nId );
         SiteService.removeComponentAsProjectBySite( nId );
+        DependencyIndexService.getService( ).removeSite( nId );
         addInfo( INFO_SITE_REMOVED, getLocale( ) );
 
         return redirectView( request, VIEW_MANAGE_SITES );
@@ -34,30 +34,39 @@
 package fr.paris.lutece.plugins.releaser.web;
 
 import fr.paris.lutece.plugins.releaser.business.Component;
+import fr.paris.lutece.plugins.releaser.business.ReleaseContextHistory;
 import fr.paris.lutece.plugins.releaser.business.Site;
 import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
 import fr.paris.lutece.plugins.releaser.service.SiteService;
 import fr.paris.lutece.plugins.releaser.service.WorkflowReleaseContextService;
 import fr.paris.lutece.plugins.releaser.util.ConstanteUtils;
+import fr.paris.lutece.plugins.releaser.util.ReleaseProgress;
 import fr.paris.lutece.plugins.releaser.util.ReleaserUtils;
 import fr.paris.lutece.portal.service.i18n.I18nService;
 import fr.paris.lutece.portal.service.template.AppTemplateService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.portal.util.mvc.admin.MVCAdminJspBean;
 import fr.paris.lutece.portal.util.mvc.admin.annotations.Controller;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
+import fr.paris.lutece.portal.util.mvc.utils.MVCUtils;
+import fr.paris.lutece.portal.web.util.LocalizedDelegatePaginator;
 import fr.paris.lutece.util.html.HtmlTemplate;
+import fr.paris.lutece.util.html.Paginator;
 import fr.paris.lutece.util.json.AbstractJsonResponse;
 import fr.paris.lutece.util.json.ErrorJsonResponse;
 import fr.paris.lutece.util.json.JsonResponse;
 import fr.paris.lutece.util.json.JsonUtil;
+import fr.paris.lutece.util.url.UrlItem;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 
 /**
  * ManageSiteRelease JSP Bean abstract class for JSP Bean
@@ -69,6 +78,7 @@ public class ManageSiteReleaseJspBean extends MVCAdminJspBean
     private static final String PARAMETER_SITE_ID = "id_site";
     private static final String PARAMETER_ARTIFACT_ID = "artifact_id";
     private static final String PARAMETER_ID_CONTEXT = "id_context";
+    private static final String PARAMETER_LOG_OFFSET = "offset";
     private static final String PARAMETER_TAG_INFORMATION = "tag_information";
     private static final String PARAMETER_OPEN_SITE_VERSION = "open_site_version";
     private static final String PARAMETER_TWEET_MESSAGE = "tweet_message_";
@@ -81,7 +91,10 @@ public class ManageSiteReleaseJspBean extends MVCAdminJspBean
     private static final String VIEW_RELEASE_SITE_RESULT = "releaseSiteResult";
 
     private static final String VIEW_RELEASE_INFO_JSON = "releaseInfoJson";
+    private static final String VIEW_RELEASE_STAGES_JSON = "releaseStagesJson";
+    private static final String VIEW_RELEASE_PROGRESS_JSON = "releaseProgressJson";
     private static final String VIEW_RELEASE_COMPONENT_HISTORY = "releaseComponentHistory";
+    private static final String VIEW_RELEASE_HISTORY_LOG_JSON = "releaseHistoryLogJson";
 
     // Actions
     private static final String ACTION_RELEASE_SITE = "releaseSite";
@@ -110,8 +123,14 @@ public class ManageSiteReleaseJspBean extends MVCAdminJspBean
     
     private static final String MARK_RELEASE_CTX_RESULT = "release_ctx_result";
     private static final String MARK_OPEN_SITE_VERSION = "open_site_version";
+    private static final String MARK_DEPENDENT_SITES = "dependent_sites";
 
     private static final String MARK_RELEASE_COMPONENT_HISTORY_LIST = "release_component_history_list";
+    private static final String MARK_ARTIFACT_ID = "artifact_id";
+    private static final String MARK_PAGINATOR = "paginator";
+    private static final String MARK_NB_ITEMS_PER_PAGE = "nb_items_per_page";
+
+    private static final String PROPERTY_DEFAULT_LIST_ITEM_PER_PAGE = "releaser.listItems.itemsPerPage";
 
     private static final String JSP_MANAGE_CLUSTERS = "ManageClusters.jsp";
     private static final String JSP_MANAGE_RELEASE_SITE = "ManageSiteRelease.jsp";
@@ -123,6 +142,8 @@ public class ManageSiteReleaseJspBean extends MVCAdminJspBean
     private Site _site;
     private Map<String, Integer> _mapReleaseSiteContext;
     private Map<String, Boolean> _modifValidated;
+    private String _strCurrentPageIndex;
+    private int _nItemsPerPage;
     
 
     @View( value = VIEW_MANAGE_SITE_RELEASE, defaultView = true )
@@ -152,6 +173,7 @@ public class ManageSiteReleaseJspBean extends MVCAdminJspBean
         Map<String, Object> model = getModel( );
         model.put( MARK_SITE, _site );
         model.put( MARK_OPEN_SITE_VERSION, request.getParameter( PARAMETER_OPEN_SITE_VERSION ) );
+        model.put( MARK_DEPENDENT_SITES, SiteService.getDependentSites( _site ) );
         HtmlTemplate template = AppTemplateService.getTemplate( TEMPLATE_PREPARE_SITE_RELEASE, getLocale( ), model );
         return template.getHtml( );
     }
@@ -193,21 +215,66 @@ public class ManageSiteReleaseJspBean extends MVCAdminJspBean
     {
 
         String strArtifactId = request.getParameter( PARAMETER_ARTIFACT_ID );
-        List<WorkflowReleaseContext> listReleaseComponentHistory = null;
+        _strCurrentPageIndex = Paginator.getPageIndex( request, Paginator.PARAMETER_PAGE_INDEX, _strCurrentPageIndex );
+        _nItemsPerPage = Paginator.getItemsPerPage( request, Paginator.PARAMETER_ITEMS_PER_PAGE, _nItemsPerPage,
+                AppPropertiesService.getPropertyInt( PROPERTY_DEFAULT_LIST_ITEM_PER_PAGE, 50 ) );
+
+        List<ReleaseContextHistory> listReleaseComponentHistory = new ArrayList<ReleaseContextHistory>( );
+        int nHistoryCount = 0;
         if ( !StringUtils.isEmpty( strArtifactId ) )
         {
-
-            listReleaseComponentHistory = WorkflowReleaseContextService.getService( ).getListWorkflowReleaseContextHistory( strArtifactId );
-
+            nHistoryCount = WorkflowReleaseContextService.getService( ).getReleaseContextHistoryCount( strArtifactId );
+            int nPageIndex = Math.max( 1, NumberUtils.toInt( _strCurrentPageIndex, 1 ) );
+            if ( ( nPageIndex - 1 ) * _nItemsPerPage >= nHistoryCount )
+            {
+                // the history is shorter than when the page index was stored
+                nPageIndex = 1;
+            }
+            _strCurrentPageIndex = Integer.toString( nPageIndex );
+            listReleaseComponentHistory = WorkflowReleaseContextService.getService( ).getReleaseContextHistoryList( strArtifactId,
+                    ( nPageIndex - 1 ) * _nItemsPerPage, _nItemsPerPage );
         }
 
+        UrlItem url = new UrlItem( JSP_MANAGE_RELEASE_SITE );
+        url.addParameter( MVCUtils.PARAMETER_VIEW, VIEW_RELEASE_COMPONENT_HISTORY );
+        url.addParameter( PARAMETER_ARTIFACT_ID, StringUtils.defaultString( strArtifactId ) );
+        LocalizedDelegatePaginator<ReleaseContextHistory> paginator = new LocalizedDelegatePaginator<ReleaseContextHistory>( listReleaseComponentHistory,
+                _nItemsPerPage, url.getUrl( ), Paginator.PARAMETER_PAGE_INDEX, _strCurrentPageIndex, nHistoryCount, getLocale( ) );
+
         Map<String, Object> model = getModel( );
-        model.put( MARK_RELEASE_COMPONENT_HISTORY_LIST, listReleaseComponentHistory );
+        model.put( MARK_ARTIFACT_ID, strArtifactId );
+        model.put( MARK_PAGINATOR, paginator );
+        model.put( MARK_NB_ITEMS_PER_PAGE, String.valueOf( _nItemsPerPage ) );
+        model.put( MARK_RELEASE_COMPONENT_HISTORY_LIST, paginator.getPageItems( ) );
         HtmlTemplate template = AppTemplateService.getTemplate( TEMPLATE_RELEASE_COMPONENT_HISTORY, getLocale( ), model );
         return template.getHtml( );
 
     }
 
+    /**
+     * Returns the log of a stored release, loaded when the release is unfolded in the history page
+     * 
+     * @param request
+     *            The HTTP request
+     * @return the log as JSON
+     */
+    @View( value = VIEW_RELEASE_HISTORY_LOG_JSON )
+    public String getReleaseHistoryLogJson( HttpServletRequest request )
+    {
+        String strLog = null;
+        String strIdReleaseContext = request.getParameter( PARAMETER_ID_CONTEXT );
+        if ( !StringUtils.isEmpty( strIdReleaseContext ) )
+        {
+            strLog = WorkflowReleaseContextService.getService( ).getReleaseContextHistoryLog( ReleaserUtils.convertStringToInt( strIdReleaseContext ) );
+        }
+        if ( strLog == null )
+        {
+            return JsonUtil.buildJsonResponse( new ErrorJsonResponse( JSON_ERROR_RELEASE_CONTEXT_NOT_EXIST ) );
+        }
+
+        return JsonUtil.buildJsonResponse( new JsonResponse( strLog ) );
+    }
+
     @View( value = VIEW_RELEASE_INFO_JSON )
     public String getReleaseInfoJson( HttpServletRequest request )
     {
@@ -240,6 +307,49 @@ public class ManageSiteReleaseJspBean extends MVCAdminJspBean
 
     }
 
+    /**
+     * Returns the state of a release and only the log appended since the offset read by the client
+     * 
+     * @param request
+     *            the request
+     * @return the json progress of the release, with a null result if the release is not started yet
+     */
+    @View( value = VIEW_RELEASE_PROGRESS_JSON )
+    public String getReleaseProgressJson( HttpServletRequest request )
+    {
+        WorkflowReleaseContext context = null;
+        String strIdReleaseContext = request.getParameter( PARAMETER_ID_CONTEXT );
+        if ( !StringUtils.isEmpty( strIdReleaseContext ) )
+        {
+            context = WorkflowReleaseContextService.getService( ).getWorkflowReleaseContext( ReleaserUtils.convertStringToInt( strIdReleaseContext ) );
+        }
+        if ( context == null )
+        {
+            return JsonUtil.buildJsonResponse( new ErrorJsonResponse( JSON_ERROR_RELEASE_CONTEXT_NOT_EXIST ) );
+        }
+
+        ReleaseProgress progress = null;
+        if ( context.getCommandResult( ) != null )
+        {
+            progress = ReleaseProgress.of( context.getCommandResult( ), NumberUtils.toLong( request.getParameter( PARAMETER_LOG_OFFSET ), 0 ) );
+            progress.setIdContext( context.getId( ) );
+        }
+        return JsonUtil.buildJsonResponse( new JsonResponse( progress ) );
+    }
+
+    /**
+     * Returns the queue length, the active workers and the latency of each release stage
+     * 
+     * @param request
+     *            the request
+     * @return the json metrics of the release stages
+     */
+    @View( value = VIEW_RELEASE_STAGES_JSON )
+    public String getReleaseStagesJson( HttpServletRequest request )
+    {
+        return JsonUtil.buildJsonResponse( new JsonResponse( WorkflowReleaseContextService.getService( ).getReleaseStageMetrics( ) ) );
+    }
+
     @Action( ACTION_DOWNGRADE_COMPONENT )
     public String doDowngradeComponent( HttpServletRequest request )
     {
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.web;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+
+import fr.paris.lutece.plugins.releaser.service.IReleaseProgressService;
+import fr.paris.lutece.plugins.releaser.service.ReleaseProgressPublisher;
+import fr.paris.lutece.plugins.releaser.service.ReleaseProgressService;
+import fr.paris.lutece.plugins.releaser.util.MapperJsonUtil;
+import fr.paris.lutece.plugins.releaser.util.ReleaseProgress;
+import fr.paris.lutece.portal.business.user.AdminUser;
+import fr.paris.lutece.portal.service.admin.AdminUserService;
+
+/**
+ * ReleaseProgressServlet : server-sent events stream of the progress of one or several release contexts.<br>
+ * The ids of the contexts are given as a comma separated list, so a page displaying all the components of a site
+ * uses a single connection. Each event holds the id of its context. The id of each event is the list of the log
+ * offsets reached for every context ( id_context:offset,... ), so a client reconnecting with the Last-Event-ID header
+ * resumes the logs where it stopped. The stream is closed when all the releases are finished or after a maximum
+ * duration.
+ */
+public class ReleaseProgressServlet extends HttpServlet
+{
+    private static final long serialVersionUID = 1L;
+    private static final String RIGHT_MANAGE_RELEASER = "RELEASER_MANAGEMENT";
+    private static final String PARAMETER_ID_CONTEXT = "id_context";
+    private static final String PARAMETER_LOG_OFFSET = "offset";
+    private static final String HEADER_LAST_EVENT_ID = "Last-Event-ID";
+    private static final String CONTENT_TYPE_EVENT_STREAM = "text/event-stream";
+    private static final String ENCODING_UTF8 = "UTF-8";
+    private static final String EVENT_PROGRESS = "progress";
+    private static final String SEPARATOR_LIST = ",";
+    private static final String SEPARATOR_OFFSET = ":";
+    private static final long RECONNECTION_DELAY = 3000L;
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    protected void doGet( HttpServletRequest request, HttpServletResponse response ) throws IOException
+    {
+        AdminUser user = AdminUserService.getAdminUser( request );
+        if ( user == null || !user.checkRight( RIGHT_MANAGE_RELEASER ) )
+        {
+            response.sendError( HttpServletResponse.SC_FORBIDDEN );
+            return;
+        }
+
+        Map<Integer, Long> mapOffsets = getOffsets( request );
+        IReleaseProgressService progressService = ReleaseProgressService.getService( );
+        Semaphore signal = new Semaphore( 0 );
+        Map<Integer, ReleaseProgressPublisher.Subscription> mapSubscriptions = new LinkedHashMap<>( );
+        for ( Map.Entry<Integer, Long> entry : mapOffsets.entrySet( ) )
+        {
+            ReleaseProgressPublisher.Subscription subscription = progressService.subscribe( entry.getKey( ), entry.getValue( ), signal );
+            if ( subscription != null )
+            {
+                mapSubscriptions.put( entry.getKey( ), subscription );
+            }
+        }
+        if ( mapSubscriptions.isEmpty( ) )
+        {
+            // no content stops the reconnections of the client
+            response.setStatus( HttpServletResponse.SC_NO_CONTENT );
+            return;
+        }
+
+        response.setContentType( CONTENT_TYPE_EVENT_STREAM );
+        response.setCharacterEncoding( ENCODING_UTF8 );
+        response.setHeader( "Cache-Control", "no-cache" );
+        PrintWriter writer = response.getWriter( );
+        writer.write( "retry: " + RECONNECTION_DELAY + "\n\n" );
+        writer.flush( );
+
+        long lEnd = System.currentTimeMillis( ) + progressService.getMaxStreamDuration( );
+        try
+        {
+            while ( !mapSubscriptions.isEmpty( ) && System.currentTimeMillis( ) < lEnd && !writer.checkError( ) )
+            {
+                // the permits released before the subscriptions are read belong to events read by this pass
+                signal.drainPermits( );
+                boolean bSent = false;
+                Iterator<Map.Entry<Integer, ReleaseProgressPublisher.Subscription>> iterator = mapSubscriptions.entrySet( ).iterator( );
+                while ( iterator.hasNext( ) )
+                {
+                    Map.Entry<Integer, ReleaseProgressPublisher.Subscription> entry = iterator.next( );
+                    ReleaseProgress progress = entry.getValue( ).poll( 0 );
+                    if ( progress != null )
+                    {
+                        mapOffsets.put( entry.getKey( ), progress.getNextOffset( ) );
+                        writer.write( "id: " + formatOffsets( mapOffsets ) + "\nevent: " + EVENT_PROGRESS + "\ndata: " + MapperJsonUtil.getJson( progress ) + "\n\n" );
+                        bSent = true;
+                        if ( !progress.isRunning( ) )
+                        {
+                            entry.getValue( ).close( );
+                            iterator.remove( );
+                        }
+                    }
+                }
+
+                if ( !bSent && !signal.tryAcquire( progressService.getHeartbeatInterval( ), TimeUnit.MILLISECONDS ) )
+                {
+                    writer.write( ": heartbeat\n\n" );
+                }
+                writer.flush( );
+            }
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+        }
+        finally
+        {
+            for ( ReleaseProgressPublisher.Subscription subscription : mapSubscriptions.values( ) )
+            {
+                subscription.close( );
+            }
+        }
+    }
+
+    /**
+     * Returns the log offset already read by the client for each requested release context. The offsets of the
+     * Last-Event-ID header of a reconnection take precedence over the offsets of the request.
+     * 
+     * @param request
+     *            the request
+     * @return the offsets by release context id, in the order of the request
+     */
+    private static Map<Integer, Long> getOffsets( HttpServletRequest request )
+    {
+        Map<Integer, Long> mapOffsets = new LinkedHashMap<>( );
+        String [ ] tabIdContexts = StringUtils.split( StringUtils.defaultString( request.getParameter( PARAMETER_ID_CONTEXT ) ), SEPARATOR_LIST );
+        String [ ] tabOffsets = StringUtils.split( StringUtils.defaultString( request.getParameter( PARAMETER_LOG_OFFSET ) ), SEPARATOR_LIST );
+        for ( int nIndex = 0; nIndex < tabIdContexts.length; nIndex++ )
+        {
+            // a single offset applies to all the contexts
+            String strOffset = ( tabOffsets.length == 1 ) ? tabOffsets [0] : ( ( nIndex < tabOffsets.length ) ? tabOffsets [nIndex] : null );
+            int nIdContext = NumberUtils.toInt( StringUtils.trim( tabIdContexts [nIndex] ), -1 );
+            if ( nIdContext != -1 )
+            {
+                mapOffsets.put( nIdContext, NumberUtils.toLong( StringUtils.trim( strOffset ), 0 ) );
+            }
+        }
+
+        String strLastEventId = request.getHeader( HEADER_LAST_EVENT_ID );
+        if ( StringUtils.isNotEmpty( strLastEventId ) )
+        {
+            for ( String strEntry : StringUtils.split( strLastEventId, SEPARATOR_LIST ) )
+            {
+                int nIdContext = NumberUtils.toInt( StringUtils.substringBefore( strEntry, SEPARATOR_OFFSET ), -1 );
+                if ( StringUtils.contains( strEntry, SEPARATOR_OFFSET ) && mapOffsets.containsKey( nIdContext ) )
+                {
+                    mapOffsets.put( nIdContext, NumberUtils.toLong( StringUtils.substringAfter( strEntry, SEPARATOR_OFFSET ), 0 ) );
+                }
+            }
+        }
+
+        return mapOffsets;
+    }
+
+    /**
+     * Format the log offsets of the release contexts as an event id
+     * 
+     * @param mapOffsets
+     *            the offsets by release context id
+     * @return the event id
+     */
+    private static String formatOffsets( Map<Integer, Long> mapOffsets )
+    {
+        StringBuilder sbOffsets = new StringBuilder( );
+        for ( Map.Entry<Integer, Long> entry : mapOffsets.entrySet( ) )
+        {
+            if ( sbOffsets.length( ) > 0 )
+            {
+                sbOffsets.append( SEPARATOR_LIST );
+            }
+            sbOffsets.append( entry.getKey( ) ).append( SEPARATOR_OFFSET ).append( entry.getValue( ) );
+        }
+
+        return sbOffsets.toString( );
+    }
+}
@@ -27,3 +27,39 @@ name varchar(50) default '' NOT NULL,
 description varchar(255) default '' NOT NULL,
 PRIMARY KEY (id_cluster)
 );
+
+--
+-- Structure for table releaser_site_dependency
+--
+
+DROP TABLE IF EXISTS releaser_site_dependency;
+CREATE TABLE releaser_site_dependency (
+id_site int(6) NOT NULL,
+artifact_id varchar(100) default '' NOT NULL,
+group_id varchar(100) default '',
+version varchar(50) default '',
+type varchar(50) default '',
+PRIMARY KEY (id_site, artifact_id)
+);
+CREATE INDEX index_releaser_site_dependency_artifact ON releaser_site_dependency ( artifact_id );
+
+--
+-- Structure for table releaser_release_history
+--
+
+DROP TABLE IF EXISTS releaser_release_history;
+CREATE TABLE releaser_release_history (
+id_context int(6) NOT NULL,
+artifact_id varchar(100) default '' NOT NULL,
+is_site SMALLINT DEFAULT 0,
+version varchar(50) default '',
+target_version varchar(50) default '',
+status int(6) default 0 NOT NULL,
+error_type int(6) default 0 NOT NULL,
+date_begin timestamp NULL,
+date_end timestamp NULL,
+error long varchar,
+log_content long varbinary,
+PRIMARY KEY (id_context)
+);
+CREATE INDEX index_releaser_release_history_artifact ON releaser_release_history ( artifact_id, date_begin );
@@ -0,0 +1,17 @@
+--
+-- Upgrade of the releaser plugin from 1.0.0 : dependency index of the sites
+--
+
+--
+-- Structure for table releaser_site_dependency
+--
+
+CREATE TABLE releaser_site_dependency (
+id_site int(6) NOT NULL,
+artifact_id varchar(100) default '' NOT NULL,
+group_id varchar(100) default '',
+version varchar(50) default '',
+type varchar(50) default '',
+PRIMARY KEY (id_site, artifact_id)
+);
+CREATE INDEX index_releaser_site_dependency_artifact ON releaser_site_dependency ( artifact_id );
@@ -0,0 +1,23 @@
+--
+-- Upgrade of the releaser plugin from 1.0.0 : release history
+--
+
+--
+-- Structure for table releaser_release_history
+--
+
+CREATE TABLE releaser_release_history (
+id_context int(6) NOT NULL,
+artifact_id varchar(100) default '' NOT NULL,
+is_site SMALLINT DEFAULT 0,
+version varchar(50) default '',
+target_version varchar(50) default '',
+status int(6) default 0 NOT NULL,
+error_type int(6) default 0 NOT NULL,
+date_begin timestamp NULL,
+date_end timestamp NULL,
+error long varchar,
+log_content long varbinary,
+PRIMARY KEY (id_context)
+);
+CREATE INDEX index_releaser_release_history_artifact ON releaser_release_history ( artifact_id, date_begin );
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.business;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+import java.util.Date;
+import java.util.List;
+
+public class ReleaseContextHistoryBusinessTest extends LuteceTestCase
+{
+    private final static int ID_CONTEXT1 = 999001;
+    private final static int ID_CONTEXT2 = 999002;
+    private final static String ARTIFACT_ID = "plugin-releaser-history-test";
+    private final static String VERSION = "1.0.0-SNAPSHOT";
+    private final static String TARGET_VERSION = "1.0.0";
+    private final static String ERROR = "Error";
+
+    public void testBusiness( )
+    {
+        StringBuilder sbLog = new StringBuilder( );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            sbLog.append( "[INFO] Line " ).append( i ).append( " é\n" );
+        }
+
+        // Initialize an object
+        ReleaseContextHistory history = new ReleaseContextHistory( );
+        history.setIdContext( ID_CONTEXT1 );
+        history.setArtifactId( ARTIFACT_ID );
+        history.setVersion( VERSION );
+        history.setTargetVersion( TARGET_VERSION );
+        history.setStatus( 0 );
+        history.setErrorType( 1 );
+        history.setDateBegin( new Date( 1000000L ) );
+        history.setDateEnd( new Date( 2000000L ) );
+        history.setError( ERROR );
+
+        // Create test
+        ReleaseContextHistoryHome.create( history, sbLog.toString( ) );
+        ReleaseContextHistory historyStored = ReleaseContextHistoryHome.findByPrimaryKey( ID_CONTEXT1 );
+        assertEquals( historyStored.getArtifactId( ), history.getArtifactId( ) );
+        assertEquals( historyStored.isSite( ), history.isSite( ) );
+        assertEquals( historyStored.getVersion( ), history.getVersion( ) );
+        assertEquals( historyStored.getTargetVersion( ), history.getTargetVersion( ) );
+        assertEquals( historyStored.getStatus( ), history.getStatus( ) );
+        assertEquals( historyStored.getErrorType( ), history.getErrorType( ) );
+        assertEquals( historyStored.getDateBegin( ).getTime( ), history.getDateBegin( ).getTime( ) );
+        assertEquals( historyStored.getError( ), history.getError( ) );
+        assertEquals( sbLog.toString( ), ReleaseContextHistoryHome.findLog( ID_CONTEXT1 ) );
+
+        // Replace test
+        history.setStatus( 1 );
+        ReleaseContextHistoryHome.create( history, "log" );
+        assertEquals( 1, ReleaseContextHistoryHome.findByPrimaryKey( ID_CONTEXT1 ).getStatus( ) );
+        assertEquals( "log", ReleaseContextHistoryHome.findLog( ID_CONTEXT1 ) );
+
+        // List test
+        history.setIdContext( ID_CONTEXT2 );
+        history.setDateBegin( new Date( 3000000L ) );
+        ReleaseContextHistoryHome.create( history, null );
+        assertEquals( 2, ReleaseContextHistoryHome.countByArtifactId( ARTIFACT_ID ) );
+        List<ReleaseContextHistory> listHistory = ReleaseContextHistoryHome.findByArtifactId( ARTIFACT_ID, 0, 1 );
+        assertEquals( 1, listHistory.size( ) );
+        assertEquals( ID_CONTEXT2, listHistory.get( 0 ).getIdContext( ) );
+        listHistory = ReleaseContextHistoryHome.findByArtifactId( ARTIFACT_ID, 1, 1 );
+        assertEquals( ID_CONTEXT1, listHistory.get( 0 ).getIdContext( ) );
+        assertEquals( "", ReleaseContextHistoryHome.findLog( ID_CONTEXT2 ) );
+
+        // Delete test
+        ReleaseContextHistoryHome.remove( ID_CONTEXT1 );
+        ReleaseContextHistoryHome.remove( ID_CONTEXT2 );
+        assertNull( ReleaseContextHistoryHome.findByPrimaryKey( ID_CONTEXT1 ) );
+        assertNull( ReleaseContextHistoryHome.findLog( ID_CONTEXT2 ) );
+    }
+
+}
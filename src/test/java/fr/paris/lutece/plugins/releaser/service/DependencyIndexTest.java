@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import static org.junit.Assert.*;
+
+import fr.paris.lutece.plugins.releaser.business.Dependency;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * DependencyIndexTest
+ */
+public class DependencyIndexTest
+{
+    @Test
+    public void testDependentSites( )
+    {
+        System.out.println( "testDependentSites" );
+        DependencyIndex index = new DependencyIndex( );
+
+        assertTrue( index.putSite( 1, dependencies( "plugin-a", "1.0.0", "plugin-b", "2.0.0-SNAPSHOT" ) ) );
+        assertTrue( index.putSite( 2, dependencies( "plugin-a", "1.1.0-SNAPSHOT", "plugin-c", "1.0.0" ) ) );
+
+        assertEquals( 2, index.getSiteCount( ) );
+        assertEquals( 2, index.getDependentSites( "plugin-a" ).size( ) );
+        assertEquals( "1.0.0", index.getDependentSites( "plugin-a" ).get( 1 ) );
+        assertEquals( "1.1.0-SNAPSHOT", index.getDependentSites( "plugin-a" ).get( 2 ) );
+        assertEquals( 1, index.getSnapshotDependentSites( "plugin-a" ).size( ) );
+        assertTrue( index.getSnapshotDependentSites( "plugin-a" ).contains( 2 ) );
+        assertTrue( index.getDependentSites( "plugin-unknown" ).isEmpty( ) );
+
+        assertEquals( 2, index.getDependencies( 1 ).size( ) );
+        assertEquals( 1, index.getSnapshotDependencies( 1 ).size( ) );
+        assertEquals( "plugin-b", index.getSnapshotDependencies( 1 ).get( 0 ).getArtifactId( ) );
+        assertEquals( 1, index.getSnapshotDependencies( 1 ).get( 0 ).getIdSite( ) );
+    }
+
+    @Test
+    public void testIncrementalUpdate( )
+    {
+        System.out.println( "testIncrementalUpdate" );
+        DependencyIndex index = new DependencyIndex( );
+        List<Dependency> listDependencies = dependencies( "plugin-a", "1.0.0-SNAPSHOT", "plugin-b", "2.0.0" );
+
+        assertTrue( index.putSite( 1, listDependencies ) );
+        // unchanged dependencies must not be indexed again
+        assertFalse( index.putSite( 1, dependencies( "plugin-a", "1.0.0-SNAPSHOT", "plugin-b", "2.0.0" ) ) );
+
+        // the index keeps its own copies
+        listDependencies.get( 0 ).setVersion( "1.0.0" );
+        assertTrue( index.getSnapshotDependentSites( "plugin-a" ).contains( 1 ) );
+
+        // plugin-a released and plugin-b removed
+        assertTrue( index.putSite( 1, dependencies( "plugin-a", "1.0.0" ) ) );
+        assertTrue( index.getSnapshotDependentSites( "plugin-a" ).isEmpty( ) );
+        assertTrue( index.getDependentSites( "plugin-b" ).isEmpty( ) );
+        assertEquals( "1.0.0", index.getDependentSites( "plugin-a" ).get( 1 ) );
+
+        assertTrue( index.removeSite( 1 ) );
+        assertFalse( index.removeSite( 1 ) );
+        assertTrue( index.getDependentSites( "plugin-a" ).isEmpty( ) );
+        assertTrue( index.getDependencies( 1 ).isEmpty( ) );
+    }
+
+    /**
+     * Build a list of dependencies
+     * 
+     * @param strArtifactsAndVersions
+     *            pairs of artifact id and version
+     * @return the dependencies
+     */
+    private static List<Dependency> dependencies( String... strArtifactsAndVersions )
+    {
+        List<Dependency> listDependencies = new ArrayList<>( );
+        for ( int i = 0; i < strArtifactsAndVersions.length; i += 2 )
+        {
+            Dependency dependency = new Dependency( );
+            dependency.setGroupId( "fr.paris.lutece.plugins" );
+            dependency.setArtifactId( strArtifactsAndVersions [i] );
+            dependency.setVersion( strArtifactsAndVersions [i + 1] );
+            dependency.setType( "lutece-plugin" );
+            listDependencies.add( dependency );
+        }
+        return listDependencies;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.shared.invoker.DefaultInvocationRequest;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationRequest;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.junit.Test;
+
+/**
+ * MavenExecutorTest : runs fake Maven homes and daemons whose scripts echo their arguments
+ */
+public class MavenExecutorTest
+{
+    private static final int INVOCATIONS = 4;
+    private static final long SLEEP_MILLIS = 500;
+
+    @Test
+    public void testConcurrentExecutions( ) throws Exception
+    {
+        System.out.println( "testConcurrentExecutions" );
+        File fileWorkDir = Files.createTempDirectory( "releaser-maven" ).toFile( );
+
+        long lSequential = runInvocations( new MavenExecutor( createFakeMavenHome( fileWorkDir, "home-1" ), null, 1, null ), fileWorkDir );
+        long lConcurrent = runInvocations( new MavenExecutor( createFakeMavenHome( fileWorkDir, "home-4" ), null, INVOCATIONS, null ), fileWorkDir );
+
+        System.out.println( "sequential: " + lSequential + " ms, concurrent: " + lConcurrent + " ms" );
+        assertTrue( lSequential >= INVOCATIONS * SLEEP_MILLIS );
+        assertTrue( lConcurrent < lSequential / 2 );
+    }
+
+    @Test
+    public void testMaxConcurrentExecutions( ) throws Exception
+    {
+        System.out.println( "testMaxConcurrentExecutions" );
+        File fileWorkDir = Files.createTempDirectory( "releaser-maven" ).toFile( );
+        final MavenExecutor executor = new MavenExecutor( createFakeMavenHome( fileWorkDir, "home" ), null, 2, "file-lock" );
+
+        long lElapsed = runInvocations( executor, fileWorkDir );
+
+        // 4 invocations, 2 at a time : two rounds
+        assertTrue( lElapsed >= 2 * SLEEP_MILLIS );
+        assertEquals( 0, executor.getRunningCount( ) );
+    }
+
+    @Test
+    public void testDaemonExecution( ) throws Exception
+    {
+        System.out.println( "testDaemonExecution" );
+        File fileWorkDir = Files.createTempDirectory( "releaser-maven" ).toFile( );
+        MavenExecutor executor = new MavenExecutor( createFakeMavenHome( fileWorkDir, "home" ), null, 2, null );
+        File fileDaemon = createScript( new File( fileWorkDir, "mvnd" ), "#!/bin/sh\necho \"daemon $@\"\n" );
+        executor.setDaemonLauncher( new MavenDaemonLauncher( fileDaemon ) );
+
+        List<String> listLines = runSingleInvocation( executor, fileWorkDir );
+        assertTrue( containsLine( listLines, "daemon" ) );
+        assertTrue( containsLine( listLines, "release:perform" ) );
+        assertTrue( containsLine( listLines, "run by daemon" ) );
+    }
+
+    @Test
+    public void testDaemonMavenOpts( ) throws Exception
+    {
+        System.out.println( "testDaemonMavenOpts" );
+        File fileWorkDir = Files.createTempDirectory( "releaser-maven" ).toFile( );
+        File fileDaemon = createScript( new File( fileWorkDir, "mvnd" ), "#!/bin/sh\nfor arg in \"$@\"; do echo \"arg $arg\"; done\n" );
+        File filePom = new File( fileWorkDir, "pom.xml" );
+        Files.write( filePom.toPath( ), "<project/>".getBytes( StandardCharsets.UTF_8 ) );
+        final List<String> listLines = new ArrayList<String>( );
+        InvocationRequest request = new DefaultInvocationRequest( );
+        request.setPomFile( filePom );
+        request.setGoals( Collections.singletonList( "release:perform" ) );
+        request.setMavenOpts( "-Dhttp.proxyHost=proxy  -Dfile.encoding=UTF-8" );
+
+        int nExitCode = new MavenDaemonLauncher( fileDaemon ).execute( request, null, new InvocationOutputHandler( )
+        {
+            @Override
+            public void consumeLine( String strLine )
+            {
+                listLines.add( strLine );
+            }
+        } );
+        assertEquals( 0, nExitCode );
+        assertTrue( listLines.contains( "arg -Dmvnd.jvmArgs=-Dhttp.proxyHost=proxy -Dfile.encoding=UTF-8" ) );
+    }
+
+    @Test
+    public void testDaemonFallback( ) throws Exception
+    {
+        System.out.println( "testDaemonFallback" );
+        File fileWorkDir = Files.createTempDirectory( "releaser-maven" ).toFile( );
+        MavenExecutor executor = new MavenExecutor( createFakeMavenHome( fileWorkDir, "home" ), null, 2, null );
+        executor.setDaemonLauncher( new MavenDaemonLauncher( new File( fileWorkDir, "missing-mvnd" ) ) );
+
+        List<String> listLines = runSingleInvocation( executor, fileWorkDir );
+        assertFalse( containsLine( listLines, "daemon release:perform" ) );
+        assertTrue( containsLine( listLines, "release:perform" ) );
+        assertTrue( containsLine( listLines, "run by fork" ) );
+    }
+
+    @Test
+    public void testAddForkedArguments( )
+    {
+        System.out.println( "testAddForkedArguments" );
+        List<String> listGoals = MavenExecutor.addForkedArguments( Arrays.asList( "release:perform",
+                "-Dgoals=deploy -Darguments=\"-Dmaven.test.skip=true\" --batch-mode", "-P dev" ), "-Daether.syncContext.named.factory=file-lock" );
+
+        assertEquals( 3, listGoals.size( ) );
+        assertEquals( "release:perform", listGoals.get( 0 ) );
+        assertEquals( "-Dgoals=deploy -Darguments=\"-Dmaven.test.skip=true -Daether.syncContext.named.factory=file-lock\" --batch-mode", listGoals.get( 1 ) );
+        assertEquals( "-P dev", listGoals.get( 2 ) );
+    }
+
+    /**
+     * Run a release perform invocation
+     * 
+     * @param executor
+     *            the executor
+     * @param fileWorkDir
+     *            the work directory
+     * @return the output lines
+     * @throws Exception
+     *             if the invocation fails
+     */
+    private List<String> runSingleInvocation( MavenExecutor executor, File fileWorkDir ) throws Exception
+    {
+        File filePom = new File( fileWorkDir, "pom.xml" );
+        Files.write( filePom.toPath( ), "<project/>".getBytes( StandardCharsets.UTF_8 ) );
+        final List<String> listLines = new ArrayList<String>( );
+        InvocationRequest request = new DefaultInvocationRequest( );
+        request.setPomFile( filePom );
+        request.setGoals( Collections.singletonList( "release:perform -Dgoals=deploy" ) );
+        InvocationResult result = executor.execute( request, new InvocationOutputHandler( )
+        {
+            @Override
+            public void consumeLine( String strLine )
+            {
+                listLines.add( strLine );
+            }
+        } );
+        assertEquals( 0, result.getExitCode( ) );
+
+        return listLines;
+    }
+
+    /**
+     * Check if one of the lines contains a text
+     * 
+     * @param listLines
+     *            the lines
+     * @param strText
+     *            the text
+     * @return true if a line contains the text
+     */
+    private boolean containsLine( List<String> listLines, String strText )
+    {
+        for ( String strLine : listLines )
+        {
+            if ( strLine.contains( strText ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Run the invocations in parallel and check that each output handler only received the output of its invocation
+     * 
+     * @param executor
+     *            the executor
+     * @param fileWorkDir
+     *            the work directory
+     * @return the elapsed time in milliseconds
+     * @throws Exception
+     *             if an invocation fails
+     */
+    private long runInvocations( final MavenExecutor executor, File fileWorkDir ) throws Exception
+    {
+        final File filePom = new File( fileWorkDir, "pom.xml" );
+        Files.write( filePom.toPath( ), "<project/>".getBytes( StandardCharsets.UTF_8 ) );
+
+        ExecutorService threads = Executors.newFixedThreadPool( INVOCATIONS );
+        List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>( );
+        long lStart = System.currentTimeMillis( );
+        for ( int i = 0; i < INVOCATIONS; i++ )
+        {
+            final String strGoal = "goal-" + i;
+            futures.add( threads.submit( new Callable<List<String>>( )
+            {
+                @Override
+                public List<String> call( ) throws Exception
+                {
+                    final List<String> listLines = Collections.synchronizedList( new ArrayList<String>( ) );
+                    InvocationRequest request = new DefaultInvocationRequest( );
+                    request.setPomFile( filePom );
+                    request.setGoals( Collections.singletonList( strGoal ) );
+                    InvocationResult result = executor.execute( request, new InvocationOutputHandler( )
+                    {
+                        @Override
+                        public void consumeLine( String strLine )
+                        {
+                            listLines.add( strLine );
+                        }
+                    } );
+                    assertEquals( 0, result.getExitCode( ) );
+                    return listLines;
+                }
+            } ) );
+        }
+
+        for ( int i = 0; i < INVOCATIONS; i++ )
+        {
+            List<String> listLines = futures.get( i ).get( );
+            assertTrue( containsLine( listLines, "goal-" + i ) );
+            for ( int j = 0; j < INVOCATIONS; j++ )
+            {
+                assertTrue( i == j || !containsLine( listLines, "goal-" + j ) );
+            }
+        }
+        long lElapsed = System.currentTimeMillis( ) - lStart;
+        threads.shutdown( );
+
+        return lElapsed;
+    }
+
+    /**
+     * Create a Maven home whose mvn script echoes its arguments then sleeps
+     * 
+     * @param fileWorkDir
+     *            the work directory
+     * @param strName
+     *            the name of the home
+     * @return the Maven home
+     * @throws IOException
+     *             if the script can not be written
+     */
+    private File createFakeMavenHome( File fileWorkDir, String strName ) throws IOException
+    {
+        File fileHome = new File( fileWorkDir, strName );
+        File fileBin = new File( fileHome, "bin" );
+        fileBin.mkdirs( );
+        createScript( new File( fileBin, "mvn" ), "#!/bin/sh\necho \"$@\"\nsleep " + ( SLEEP_MILLIS / 1000.0 ) + "\n" );
+
+        return fileHome;
+    }
+
+    /**
+     * Write an executable script
+     * 
+     * @param fileScript
+     *            the script file
+     * @param strScript
+     *            the script content
+     * @return the script file
+     * @throws IOException
+     *             if the script can not be written
+     */
+    private File createScript( File fileScript, String strScript ) throws IOException
+    {
+        Files.write( fileScript.toPath( ), strScript.getBytes( StandardCharsets.UTF_8 ) );
+        fileScript.setExecutable( true );
+
+        return fileScript;
+    }
+}
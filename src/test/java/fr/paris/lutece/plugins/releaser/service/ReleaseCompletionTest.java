@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import static org.junit.Assert.*;
+
+import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * ReleaseCompletionTest
+ */
+public class ReleaseCompletionTest
+{
+    @Test
+    public void testListeners( )
+    {
+        System.out.println( "testListeners" );
+        ReleaseCompletion completion = new ReleaseCompletion( );
+        final List<Boolean> listResults = new ArrayList<>( );
+        IReleaseCompletionListener listener = new IReleaseCompletionListener( )
+        {
+            @Override
+            public void releaseCompleted( WorkflowReleaseContext context, boolean bSuccess )
+            {
+                listResults.add( bSuccess );
+            }
+        };
+
+        completion.addListener( listener );
+        assertFalse( completion.isDone( ) );
+        assertTrue( listResults.isEmpty( ) );
+
+        completion.complete( new WorkflowReleaseContext( ), true );
+        assertTrue( completion.isDone( ) );
+        assertTrue( completion.isSuccess( ) );
+        assertEquals( 1, listResults.size( ) );
+
+        // a second completion is ignored, a late listener is notified at once
+        completion.complete( new WorkflowReleaseContext( ), false );
+        completion.addListener( listener );
+        assertEquals( 2, listResults.size( ) );
+        assertTrue( listResults.get( 1 ) );
+    }
+
+    @Test
+    public void testCompleteFromAnotherThread( ) throws InterruptedException
+    {
+        System.out.println( "testCompleteFromAnotherThread" );
+        final ReleaseCompletion completion = new ReleaseCompletion( );
+        final List<Boolean> listResults = Collections.synchronizedList( new ArrayList<Boolean>( ) );
+        completion.addListener( new IReleaseCompletionListener( )
+        {
+            @Override
+            public void releaseCompleted( WorkflowReleaseContext context, boolean bSuccess )
+            {
+                listResults.add( bSuccess );
+            }
+        } );
+        Thread thread = new Thread( new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                completion.complete( new WorkflowReleaseContext( ), false );
+            }
+        } );
+        thread.start( );
+        thread.join( 5000 );
+
+        assertTrue( completion.isDone( ) );
+        assertFalse( completion.isSuccess( ) );
+        assertEquals( Collections.singletonList( Boolean.FALSE ), listResults );
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import fr.paris.lutece.plugins.releaser.business.WorkflowReleaseContext;
+import fr.paris.lutece.plugins.releaser.util.CommandResult;
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
+import fr.paris.lutece.plugins.releaser.util.ReleaseProgress;
+
+/**
+ * ReleaseProgressPublisherTest
+ */
+public class ReleaseProgressPublisherTest
+{
+    @Test
+    public void testPublish( ) throws Exception
+    {
+        System.out.println( "testPublish" );
+        WorkflowReleaseContext context = createContext( "Cloning repository ...\n" );
+        ReleaseProgressPublisher publisher = new ReleaseProgressPublisher( context );
+
+        ReleaseProgressPublisher.Subscription subscription1 = publisher.subscribe( 0 );
+        ReleaseProgressPublisher.Subscription subscription2 = publisher.subscribe( -1 );
+        assertEquals( "Cloning repository ...\n", subscription1.poll( 10 ).getLog( ) );
+        assertEquals( "", subscription2.poll( 10 ).getLog( ) );
+
+        // nothing changed
+        assertTrue( publisher.publish( ) );
+        assertNull( subscription1.poll( 10 ) );
+
+        context.getCommandResult( ).getLog( ).append( "[INFO] BUILD SUCCESS\n" );
+        context.getCommandResult( ).setProgressValue( 50 );
+        assertTrue( publisher.publish( ) );
+        ReleaseProgress progress1 = subscription1.poll( 10 );
+        ReleaseProgress progress2 = subscription2.poll( 10 );
+        assertEquals( "[INFO] BUILD SUCCESS\n", progress1.getLog( ) );
+        assertEquals( 50, progress1.getProgressValue( ) );
+        // the log is read once for all the subscribers
+        assertSame( progress1, progress2 );
+
+        context.getCommandResult( ).setRunning( false );
+        assertTrue( publisher.publish( ) );
+        progress1 = subscription1.poll( 10 );
+        assertFalse( progress1.isRunning( ) );
+        assertEquals( "", progress1.getLog( ) );
+
+        subscription1.close( );
+        subscription2.close( );
+        assertFalse( publisher.publish( ) );
+        assertNull( publisher.subscribe( 0 ) );
+    }
+
+    @Test
+    public void testLateSubscriber( ) throws Exception
+    {
+        System.out.println( "testLateSubscriber" );
+        WorkflowReleaseContext context = createContext( "line 1\n" );
+        ReleaseProgressPublisher publisher = new ReleaseProgressPublisher( context );
+        ReleaseProgressPublisher.Subscription subscription1 = publisher.subscribe( -1 );
+        subscription1.poll( 10 );
+
+        // appended between two publications, read by the backlog of the late subscriber
+        context.getCommandResult( ).getLog( ).append( "line 2\n" );
+        ReleaseProgressPublisher.Subscription subscription2 = publisher.subscribe( 0 );
+        assertEquals( "line 1\nline 2\n", subscription2.poll( 10 ).getLog( ) );
+
+        context.getCommandResult( ).getLog( ).append( "line 3\n" );
+        assertTrue( publisher.publish( ) );
+        assertEquals( "line 2\nline 3\n", subscription1.poll( 10 ).getLog( ) );
+        // no duplicated line for the late subscriber
+        assertEquals( "line 3\n", subscription2.poll( 10 ).getLog( ) );
+    }
+
+    @Test
+    public void testSharedSignal( ) throws Exception
+    {
+        System.out.println( "testSharedSignal" );
+        WorkflowReleaseContext context1 = createContext( "line 1\n" );
+        context1.setId( 1 );
+        WorkflowReleaseContext context2 = createContext( "line 1\n" );
+        context2.setId( 2 );
+        ReleaseProgressPublisher publisher1 = new ReleaseProgressPublisher( context1 );
+        ReleaseProgressPublisher publisher2 = new ReleaseProgressPublisher( context2 );
+
+        // one signal for the subscriptions of a stream of several releases
+        Semaphore signal = new Semaphore( 0 );
+        ReleaseProgressPublisher.Subscription subscription1 = publisher1.subscribe( -1, signal );
+        ReleaseProgressPublisher.Subscription subscription2 = publisher2.subscribe( -1, signal );
+        assertEquals( 2, signal.drainPermits( ) );
+        assertEquals( 1, subscription1.poll( 0 ).getIdContext( ) );
+        assertEquals( 2, subscription2.poll( 0 ).getIdContext( ) );
+
+        assertTrue( publisher1.publish( ) );
+        assertTrue( publisher2.publish( ) );
+        assertFalse( signal.tryAcquire( ) );
+
+        context2.getCommandResult( ).getLog( ).append( "line 2\n" );
+        assertTrue( publisher1.publish( ) );
+        assertTrue( publisher2.publish( ) );
+        assertTrue( signal.tryAcquire( 10, TimeUnit.MILLISECONDS ) );
+        assertNull( subscription1.poll( 0 ) );
+        ReleaseProgress progress = subscription2.poll( 0 );
+        assertEquals( 2, progress.getIdContext( ) );
+        assertEquals( "line 2\n", progress.getLog( ) );
+    }
+
+    /**
+     * Create a running release context
+     * 
+     * @param strLog
+     *            the initial log
+     * @return the context
+     */
+    private WorkflowReleaseContext createContext( String strLog )
+    {
+        CommandResult commandResult = new CommandResult( );
+        commandResult.setLog( new ReleaseLog( 4096, null ) );
+        commandResult.getLog( ).append( strLog );
+        commandResult.setRunning( true );
+        commandResult.setStatus( CommandResult.STATUS_OK );
+        WorkflowReleaseContext context = new WorkflowReleaseContext( );
+        context.setCommandResult( commandResult );
+        return context;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import fr.paris.lutece.portal.service.util.AppException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * ReleaseStageExecutorTest
+ */
+public class ReleaseStageExecutorTest
+{
+    /**
+     * Test of a chain of stages, of class ReleaseStageExecutor.
+     * 
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public void testChain( ) throws InterruptedException
+    {
+        System.out.println( "chain" );
+        ReleaseStageExecutor executor = new ReleaseStageExecutor( new EnumMap<ReleaseStage, Integer>( ReleaseStage.class ) );
+        final List<String> listThreads = Collections.synchronizedList( new ArrayList<String>( ) );
+        Runnable task = new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                listThreads.add( Thread.currentThread( ).getName( ) );
+            }
+        };
+        EndListener listener = new EndListener( );
+        executor.newChain( ).add( ReleaseStage.CHECKOUT, task ).add( ReleaseStage.PREPARE, task ).add( ReleaseStage.PERFORM, task ).start( listener );
+
+        assertTrue( listener._ended.await( 5, TimeUnit.SECONDS ) );
+        assertNull( listener._error );
+        assertEquals( 3, listThreads.size( ) );
+        assertTrue( listThreads.get( 0 ).startsWith( "releaser-stage-checkout-" ) );
+        assertTrue( listThreads.get( 1 ).startsWith( "releaser-stage-prepare-" ) );
+        assertTrue( listThreads.get( 2 ).startsWith( "releaser-stage-perform-" ) );
+
+        ReleaseStageExecutor.StageMetrics metrics = executor.getMetrics( ReleaseStage.CHECKOUT );
+        assertEquals( 1, metrics.getExecutedCount( ) );
+        assertEquals( 0, metrics.getFailedCount( ) );
+        assertEquals( ReleaseStage.CHECKOUT.getDefaultPoolSize( ), metrics.getPoolSize( ) );
+        assertEquals( 0, executor.getMetrics( ReleaseStage.NOTIFY ).getExecutedCount( ) );
+        assertEquals( ReleaseStage.values( ).length, executor.getMetrics( ).size( ) );
+
+        EndListener emptyListener = new EndListener( );
+        executor.newChain( ).start( emptyListener );
+        assertEquals( 0, emptyListener._ended.getCount( ) );
+        executor.shutdown( );
+    }
+
+    /**
+     * Test that a stage error stops the chain
+     * 
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public void testChainError( ) throws InterruptedException
+    {
+        System.out.println( "chainError" );
+        ReleaseStageExecutor executor = new ReleaseStageExecutor( new EnumMap<ReleaseStage, Integer>( ReleaseStage.class ) );
+        final boolean [ ] bPerformRun = new boolean [ 1];
+        EndListener listener = new EndListener( );
+        executor.newChain( ).add( ReleaseStage.PREPARE, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                throw new AppException( "release prepare error" );
+            }
+        } ).add( ReleaseStage.PERFORM, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                bPerformRun [0] = true;
+            }
+        } ).start( listener );
+
+        assertTrue( listener._ended.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( "release prepare error", listener._error.getMessage( ) );
+        assertFalse( bPerformRun [0] );
+        assertEquals( 1, executor.getMetrics( ReleaseStage.PREPARE ).getFailedCount( ) );
+        assertEquals( 0, executor.getMetrics( ReleaseStage.PERFORM ).getExecutedCount( ) );
+        executor.shutdown( );
+    }
+
+    /**
+     * Test that the releases waiting for a busy stage hold no thread and do not block the other stages
+     * 
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public void testStagesIsolation( ) throws InterruptedException
+    {
+        System.out.println( "stagesIsolation" );
+        Map<ReleaseStage, Integer> mapPoolSizes = new EnumMap<>( ReleaseStage.class );
+        mapPoolSizes.put( ReleaseStage.PERFORM, 1 );
+        ReleaseStageExecutor executor = new ReleaseStageExecutor( mapPoolSizes );
+        final CountDownLatch performStarted = new CountDownLatch( 1 );
+        final CountDownLatch performRelease = new CountDownLatch( 1 );
+        Runnable perform = new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                performStarted.countDown( );
+                try
+                {
+                    performRelease.await( );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread( ).interrupt( );
+                }
+            }
+        };
+
+        // the calling thread only submits the chains, it never waits for a stage
+        List<EndListener> listListeners = new ArrayList<>( );
+        for ( int i = 0; i < 10; i++ )
+        {
+            EndListener listener = new EndListener( );
+            executor.newChain( ).add( ReleaseStage.PERFORM, perform ).start( listener );
+            listListeners.add( listener );
+        }
+        assertTrue( performStarted.await( 5, TimeUnit.SECONDS ) );
+
+        EndListener checkoutListener = new EndListener( );
+        executor.newChain( ).add( ReleaseStage.CHECKOUT, new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+            }
+        } ).start( checkoutListener );
+        assertTrue( checkoutListener._ended.await( 5, TimeUnit.SECONDS ) );
+
+        ReleaseStageExecutor.StageMetrics metrics = executor.getMetrics( ReleaseStage.PERFORM );
+        assertEquals( 1, metrics.getActiveCount( ) );
+        assertEquals( 9, metrics.getQueueLength( ) );
+
+        performRelease.countDown( );
+        for ( EndListener listener : listListeners )
+        {
+            assertTrue( listener._ended.await( 5, TimeUnit.SECONDS ) );
+            assertNull( listener._error );
+        }
+        assertEquals( 10, executor.getMetrics( ReleaseStage.PERFORM ).getExecutedCount( ) );
+        executor.shutdown( );
+    }
+
+    /**
+     * Records the end of a chain
+     */
+    private static final class EndListener implements ReleaseStageExecutor.StageChainListener
+    {
+        private final CountDownLatch _ended = new CountDownLatch( 1 );
+        private volatile RuntimeException _error;
+
+        @Override
+        public void chainEnded( RuntimeException error )
+        {
+            _error = error;
+            _ended.countDown( );
+        }
+    }
+}
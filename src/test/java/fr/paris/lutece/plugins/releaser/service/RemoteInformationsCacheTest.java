@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * RemoteInformationsCacheTest
+ */
+public class RemoteInformationsCacheTest
+{
+    private static final String TYPE_PLUGIN = "plugin";
+
+    @Test
+    public void testHitMissAndEviction( )
+    {
+        System.out.println( "testHitMissAndEviction" );
+        RemoteInformationsCache cache = new RemoteInformationsCache( 2, 60000L, 0L );
+        RemoteInformations infos = new RemoteInformations( );
+
+        assertNull( cache.get( "plugin-a", TYPE_PLUGIN ) );
+        cache.put( "plugin-a", TYPE_PLUGIN, infos );
+        cache.put( "plugin-b", TYPE_PLUGIN, infos );
+        assertSame( infos, cache.get( "plugin-a", TYPE_PLUGIN ) );
+
+        // plugin-b is the least recently used entry
+        cache.put( "plugin-c", TYPE_PLUGIN, infos );
+        assertEquals( 2, cache.getSize( ) );
+        assertNull( cache.get( "plugin-b", TYPE_PLUGIN ) );
+        assertNotNull( cache.get( "plugin-c", TYPE_PLUGIN ) );
+        assertEquals( 1, cache.getEvictionCount( ) );
+        assertEquals( 2, cache.getHitCount( ) );
+        assertEquals( 2, cache.getMissCount( ) );
+
+        cache.invalidate( "plugin-a" );
+        assertNull( cache.get( "plugin-a", TYPE_PLUGIN ) );
+    }
+
+    @Test
+    public void testBypass( )
+    {
+        System.out.println( "testBypass" );
+        RemoteInformationsCache cache = new RemoteInformationsCache( 10, 60000L, 0L );
+        RemoteInformations infos = new RemoteInformations( );
+        cache.put( "plugin-a", TYPE_PLUGIN, infos );
+
+        // the project components always get fresh informations
+        assertNull( cache.get( "plugin-a", TYPE_PLUGIN, false ) );
+        assertSame( infos, cache.get( "plugin-a", TYPE_PLUGIN, true ) );
+        assertEquals( 1, cache.getMissCount( ) );
+        assertEquals( 1, cache.getHitCount( ) );
+
+        // the fresh informations loaded for a project component replace the entry
+        RemoteInformations freshInfos = new RemoteInformations( );
+        cache.put( "plugin-a", TYPE_PLUGIN, freshInfos );
+        assertSame( freshInfos, cache.get( "plugin-a", TYPE_PLUGIN, true ) );
+    }
+
+    @Test
+    public void testTimeToLive( ) throws InterruptedException
+    {
+        System.out.println( "testTimeToLive" );
+        RemoteInformationsCache cache = new RemoteInformationsCache( 10, 50L, 40L );
+        cache.put( "plugin-a", TYPE_PLUGIN, new RemoteInformations( ) );
+
+        assertFalse( cache.startRefresh( "plugin-a", TYPE_PLUGIN ) );
+        Thread.sleep( 20 );
+        assertTrue( cache.startRefresh( "plugin-a", TYPE_PLUGIN ) );
+        assertFalse( cache.startRefresh( "plugin-a", TYPE_PLUGIN ) );
+        assertEquals( 1, cache.getRefreshCount( ) );
+
+        Thread.sleep( 40 );
+        assertNull( cache.get( "plugin-a", TYPE_PLUGIN ) );
+    }
+
+    @Test
+    public void testDisabled( )
+    {
+        System.out.println( "testDisabled" );
+        RemoteInformationsCache cache = new RemoteInformationsCache( 0, 60000L, 0L );
+        cache.put( "plugin-a", TYPE_PLUGIN, new RemoteInformations( ) );
+        assertNull( cache.get( "plugin-a", TYPE_PLUGIN ) );
+        assertEquals( 0, cache.getSize( ) );
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import fr.paris.lutece.test.LuteceTestCase;
+
+/**
+ * RemoteInformationsClientTest : uses a local stub of the component web service
+ */
+public class RemoteInformationsClientTest extends LuteceTestCase
+{
+    private static final int NB_COMPONENTS = 120;
+    private static final int BATCH_SIZE = 50;
+    private static final long SERVER_LATENCY = 5L;
+    private static final String PATH_COMPONENT = "/component/";
+    private static final String PATH_COMPONENTS = "/components";
+    private static final String PARAMETER_ARTIFACT_IDS = "artifactIds=";
+    private static final String PARAMETER_TYPE = "type=";
+
+    private HttpServer _server;
+    private String _strBaseUrl;
+    private final AtomicInteger _nSingleRequests = new AtomicInteger( );
+    private final AtomicInteger _nBatchRequests = new AtomicInteger( );
+
+    @Override
+    protected void setUp( ) throws Exception
+    {
+        super.setUp( );
+        _server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        _server.createContext( PATH_COMPONENT, new HttpHandler( )
+        {
+            @Override
+            public void handle( HttpExchange exchange ) throws IOException
+            {
+                _nSingleRequests.incrementAndGet( );
+                String strArtifactId = exchange.getRequestURI( ).getPath( ).substring( PATH_COMPONENT.length( ) );
+                respond( exchange, 200, "{\"component\":" + getComponentJson( strArtifactId, "TEST" ) + "}" );
+            }
+        } );
+        _server.createContext( PATH_COMPONENTS, new HttpHandler( )
+        {
+            @Override
+            public void handle( HttpExchange exchange ) throws IOException
+            {
+                _nBatchRequests.incrementAndGet( );
+                String strQuery = exchange.getRequestURI( ).getRawQuery( );
+                String strArtifactIds = strQuery.substring( strQuery.indexOf( PARAMETER_ARTIFACT_IDS ) + PARAMETER_ARTIFACT_IDS.length( ) );
+                strArtifactIds = URLDecoder.decode( strArtifactIds.split( "&" ) [0], "UTF-8" );
+                // the type is sent back as the jira code to check that the batch is keyed by type
+                String strType = strQuery.contains( PARAMETER_TYPE ) ? strQuery.substring( strQuery.indexOf( PARAMETER_TYPE ) + PARAMETER_TYPE.length( ) )
+                        .split( "&" ) [0] : "TEST";
+                StringBuilder sbJson = new StringBuilder( "{\"components\":[" );
+                String [ ] artifactIds = strArtifactIds.split( "," );
+                for ( int i = 0; i < artifactIds.length; i++ )
+                {
+                    sbJson.append( ( i > 0 ) ? "," : "" ).append( getComponentJson( artifactIds [i], strType ) );
+                }
+                respond( exchange, 200, sbJson.append( "]}" ).toString( ) );
+            }
+        } );
+        _server.start( );
+        _strBaseUrl = "http://127.0.0.1:" + _server.getAddress( ).getPort( );
+    }
+
+    @Override
+    protected void tearDown( ) throws Exception
+    {
+        _server.stop( 0 );
+        super.tearDown( );
+    }
+
+    @Test
+    public void testSingleRequest( ) throws IOException
+    {
+        System.out.println( "testSingleRequest" );
+        RemoteInformationsClient client = new RemoteInformationsClient( getSingleUrl( ), null );
+        RemoteInformations infos = client.getRemoteInformations( "plugin-test", "lutece-plugin", true );
+        assertEquals( "1.0.0", infos.getLastAvailableVersion( ) );
+        assertEquals( "scm:git:https://github.com/lutece-platform/plugin-test.git", infos.getScmDeveloperConnection( ) );
+        assertFalse( client.isBatchSupported( ) );
+        assertNull( client.getRemoteInformations( getArtifactIds( 2 ), "lutece-plugin", true ) );
+    }
+
+    @Test
+    public void testBatchNotSupported( ) throws IOException
+    {
+        System.out.println( "testBatchNotSupported" );
+        RemoteInformationsClient client = new RemoteInformationsClient( getSingleUrl( ), _strBaseUrl + "/unknown?artifactIds={0}&cache={1}" );
+        assertTrue( client.isBatchSupported( ) );
+        assertNull( client.getRemoteInformations( getArtifactIds( 2 ), "lutece-plugin", true ) );
+        assertFalse( client.isBatchSupported( ) );
+    }
+
+    @Test
+    public void testBatchRequests( ) throws IOException
+    {
+        System.out.println( "testBatchRequests" );
+        List<String> listArtifactIds = getArtifactIds( NB_COMPONENTS );
+
+        RemoteInformationsClient singleClient = new RemoteInformationsClient( getSingleUrl( ), null );
+        for ( String strArtifactId : listArtifactIds )
+        {
+            assertNotNull( singleClient.getRemoteInformations( strArtifactId, "lutece-plugin", true ) );
+        }
+        assertEquals( NB_COMPONENTS, _nSingleRequests.get( ) );
+        assertEquals( NB_COMPONENTS, singleClient.getRequestCount( ) );
+
+        RemoteInformationsClient batchClient = new RemoteInformationsClient( getSingleUrl( ), _strBaseUrl + PATH_COMPONENTS
+                + "?artifactIds={0}&cache={1}&format=json&type={2}" );
+        int nResolved = 0;
+        for ( int i = 0; i < listArtifactIds.size( ); i += BATCH_SIZE )
+        {
+            Map<String, RemoteInformations> mapInfos = batchClient.getRemoteInformations(
+                    listArtifactIds.subList( i, Math.min( i + BATCH_SIZE, listArtifactIds.size( ) ) ), "lutece-plugin", true );
+            assertEquals( "lutece-plugin", mapInfos.get( listArtifactIds.get( i ) ).getJiraCode( ) );
+            nResolved += mapInfos.size( );
+        }
+
+        // 120 components in batches of 50 : 3 requests received by the server, no single request
+        assertEquals( NB_COMPONENTS, nResolved );
+        assertEquals( 3, _nBatchRequests.get( ) );
+        assertEquals( NB_COMPONENTS, _nSingleRequests.get( ) );
+        assertEquals( 3, batchClient.getRequestCount( ) );
+
+        // without type, the type parameter is removed from the url
+        Map<String, RemoteInformations> mapInfos = batchClient.getRemoteInformations( getArtifactIds( 2 ), null, true );
+        assertEquals( "TEST", mapInfos.get( "plugin-test" ).getJiraCode( ) );
+    }
+
+    private String getSingleUrl( )
+    {
+        return _strBaseUrl + PATH_COMPONENT + "{0}?format=json&cache={1}&type={2}";
+    }
+
+    private static List<String> getArtifactIds( int nCount )
+    {
+        List<String> listArtifactIds = new ArrayList<>( nCount );
+        for ( int i = 0; i < nCount; i++ )
+        {
+            listArtifactIds.add( "plugin-test" + ( ( i > 0 ) ? String.valueOf( i ) : "" ) );
+        }
+        return listArtifactIds;
+    }
+
+    private static String getComponentJson( String strArtifactId, String strJiraCode )
+    {
+        return "{\"artifact_id\":\"" + strArtifactId + "\",\"version\":\"1.0.0\",\"snapshot_version\":\"1.0.1-SNAPSHOT\","
+                + "\"jira_code\":\"" + strJiraCode + "\",\"jira_roadmap_url\":\"\",\"jira_current_version_closed_issues\":1,"
+                + "\"jira_current_version_opened_issues\":2,\"scm_developer_connection\":\"scm:git:https://github.com/lutece-platform/"
+                + strArtifactId + ".git\"}";
+    }
+
+    private void respond( HttpExchange exchange, int nStatus, String strBody ) throws IOException
+    {
+        try
+        {
+            Thread.sleep( SERVER_LATENCY );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+        }
+        byte [ ] body = strBody.getBytes( StandardCharsets.UTF_8 );
+        exchange.sendResponseHeaders( nStatus, body.length );
+        try ( OutputStream out = exchange.getResponseBody( ) )
+        {
+            out.write( body );
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+
+package fr.paris.lutece.plugins.releaser.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * RemoteInformationsExecutorTest
+ */
+public class RemoteInformationsExecutorTest
+{
+    private static final String URL_HOST = "http://dev.lutece.paris.fr/incubator/rest/lutecetools/component/plugin-test";
+
+    @Test
+    public void testMaxRequestsPerHost( ) throws Exception
+    {
+        System.out.println( "testMaxRequestsPerHost" );
+        int nMaxRequestsPerHost = 2;
+        RemoteInformationsExecutor executor = new RemoteInformationsExecutor( 8, 100, nMaxRequestsPerHost );
+        final AtomicInteger nRunning = new AtomicInteger( );
+        final AtomicInteger nMaxRunning = new AtomicInteger( );
+        List<Future<?>> futures = new ArrayList<Future<?>>( );
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            futures.add( executor.submit( URL_HOST, new Runnable( )
+            {
+                @Override
+                public void run( )
+                {
+                    int nCurrent = nRunning.incrementAndGet( );
+                    int nMax = nMaxRunning.get( );
+                    while ( nCurrent > nMax && !nMaxRunning.compareAndSet( nMax, nCurrent ) )
+                    {
+                        nMax = nMaxRunning.get( );
+                    }
+                    try
+                    {
+                        Thread.sleep( 10 );
+                    }
+                    catch( InterruptedException e )
+                    {
+                        Thread.currentThread( ).interrupt( );
+                    }
+                    nRunning.decrementAndGet( );
+                }
+            } ) );
+        }
+        for ( Future<?> future : futures )
+        {
+            future.get( 10, TimeUnit.SECONDS );
+        }
+        executor.shutdown( );
+
+        assertTrue( nMaxRunning.get( ) <= nMaxRequestsPerHost );
+    }
+
+    @Test
+    public void testSaturation( ) throws Exception
+    {
+        System.out.println( "testSaturation" );
+        RemoteInformationsExecutor executor = new RemoteInformationsExecutor( 1, 1, 1 );
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        Runnable blockingTask = new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                try
+                {
+                    latch.await( 10, TimeUnit.SECONDS );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread( ).interrupt( );
+                }
+            }
+        };
+        final String strCallerThread = Thread.currentThread( ).getName( );
+        final StringBuilder sbRunningThread = new StringBuilder( );
+
+        // one task running, one task queued
+        Future<?> running = executor.submit( URL_HOST, blockingTask );
+        Future<?> queued = executor.submit( "http://other.host/", blockingTask );
+        while ( executor.getQueueDepth( ) + executor.getActiveCount( ) < 2 )
+        {
+            Thread.sleep( 5 );
+        }
+
+        // the executor is saturated : the task is run by the caller
+        Future<?> saturated = executor.submit( "http://third.host/", new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                sbRunningThread.append( Thread.currentThread( ).getName( ) );
+            }
+        } );
+        assertTrue( saturated.isDone( ) );
+        assertEquals( strCallerThread, sbRunningThread.toString( ) );
+        assertEquals( 1, executor.getSaturatedCount( ) );
+
+        latch.countDown( );
+        running.get( 10, TimeUnit.SECONDS );
+        queued.get( 10, TimeUnit.SECONDS );
+        executor.shutdown( );
+    }
+
+    @Test
+    public void testSlowHost( ) throws Exception
+    {
+        System.out.println( "testSlowHost" );
+        RemoteInformationsExecutor executor = new RemoteInformationsExecutor( 2, 100, 1 );
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        Runnable slowTask = new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                try
+                {
+                    latch.await( 10, TimeUnit.SECONDS );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread( ).interrupt( );
+                }
+            }
+        };
+        List<Future<?>> futures = new ArrayList<Future<?>>( );
+        for ( int i = 0; i < 5; i++ )
+        {
+            futures.add( executor.submit( URL_HOST, slowTask ) );
+        }
+
+        // the waiting tasks of the slow host do not take the second worker
+        Future<?> other = executor.submit( "http://other.host/", new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+            }
+        } );
+        other.get( 5, TimeUnit.SECONDS );
+        assertEquals( 1, executor.getActiveCount( ) );
+        assertEquals( 0, executor.getQueueDepth( ) );
+
+        latch.countDown( );
+        for ( Future<?> future : futures )
+        {
+            future.get( 10, TimeUnit.SECONDS );
+        }
+        executor.shutdown( );
+    }
+
+    @Test
+    public void testBackgroundDiscarded( ) throws Exception
+    {
+        System.out.println( "testBackgroundDiscarded" );
+        RemoteInformationsExecutor executor = new RemoteInformationsExecutor( 1, 1, 1 );
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        Runnable blockingTask = new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                try
+                {
+                    latch.await( 10, TimeUnit.SECONDS );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread( ).interrupt( );
+                }
+            }
+        };
+        final StringBuilder sbRunningThread = new StringBuilder( );
+        Runnable backgroundTask = new Runnable( )
+        {
+            @Override
+            public void run( )
+            {
+                sbRunningThread.append( Thread.currentThread( ).getName( ) );
+            }
+        };
+
+        Future<?> running = executor.submit( URL_HOST, blockingTask );
+        Future<?> queued = executor.submit( "http://other.host/", blockingTask );
+        while ( executor.getQueueDepth( ) + executor.getActiveCount( ) < 2 )
+        {
+            Thread.sleep( 5 );
+        }
+
+        // host limit reached, then pool saturated : the background tasks are discarded, never run by the caller
+        assertTrue( executor.submitBackground( URL_HOST, backgroundTask ).isCancelled( ) );
+        assertTrue( executor.submitBackground( "http://third.host/", backgroundTask ).isCancelled( ) );
+        assertEquals( 2, executor.getDiscardedCount( ) );
+        assertEquals( 0, executor.getSaturatedCount( ) );
+        assertEquals( 0, sbRunningThread.length( ) );
+
+        latch.countDown( );
+        running.get( 10, TimeUnit.SECONDS );
+        queued.get( 10, TimeUnit.SECONDS );
+
+        // the slot of the third host was given back
+        executor.submitBackground( "http://third.host/", backgroundTask ).get( 10, TimeUnit.SECONDS );
+        assertTrue( sbRunningThread.toString( ).startsWith( "releaser-remote-informations-" ) );
+        executor.shutdown( );
+    }
+}
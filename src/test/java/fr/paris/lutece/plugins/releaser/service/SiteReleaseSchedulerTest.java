@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * SiteReleaseSchedulerTest
+ */
+public class SiteReleaseSchedulerTest
+{
+    @Test
+    public void testDependencyOrder( )
+    {
+        System.out.println( "testDependencyOrder" );
+        // plugin-b and plugin-c depend on library-a, plugin-d depends on plugin-b and plugin-c
+        Map<String, List<String>> mapDependencies = new LinkedHashMap<>( );
+        mapDependencies.put( "plugin-d", Arrays.asList( "plugin-b", "plugin-c", "lutece-core" ) );
+        mapDependencies.put( "plugin-b", Arrays.asList( "library-a" ) );
+        mapDependencies.put( "plugin-c", Arrays.asList( "library-a" ) );
+        mapDependencies.put( "library-a", Collections.<String> emptyList( ) );
+
+        RecordingLauncher launcher = new RecordingLauncher( );
+        SiteReleaseScheduler scheduler = new SiteReleaseScheduler( mapDependencies, 2, launcher );
+        scheduler.start( );
+        assertEquals( Arrays.asList( "library-a" ), launcher._listStarted );
+
+        scheduler.componentReleased( "library-a", true );
+        assertEquals( Arrays.asList( "library-a", "plugin-b", "plugin-c" ), launcher._listStarted );
+        assertEquals( 2, scheduler.getRunningCount( ) );
+
+        scheduler.componentReleased( "plugin-b", true );
+        assertEquals( 3, launcher._listStarted.size( ) );
+        scheduler.componentReleased( "plugin-c", true );
+        assertEquals( "plugin-d", launcher._listStarted.get( 3 ) );
+        assertFalse( launcher._bSiteStarted );
+
+        scheduler.componentReleased( "plugin-d", true );
+        assertTrue( launcher._bSiteStarted );
+        assertTrue( scheduler.isSiteReleaseStarted( ) );
+    }
+
+    @Test
+    public void testMaxParallel( )
+    {
+        System.out.println( "testMaxParallel" );
+        Map<String, List<String>> mapDependencies = new LinkedHashMap<>( );
+        for ( int i = 0; i < 5; i++ )
+        {
+            mapDependencies.put( "plugin-" + i, Collections.<String> emptyList( ) );
+        }
+
+        RecordingLauncher launcher = new RecordingLauncher( );
+        SiteReleaseScheduler scheduler = new SiteReleaseScheduler( mapDependencies, 2, launcher );
+        scheduler.start( );
+        assertEquals( 2, launcher._listStarted.size( ) );
+
+        scheduler.componentReleased( "plugin-0", true );
+        assertEquals( 3, launcher._listStarted.size( ) );
+        assertEquals( 2, scheduler.getRunningCount( ) );
+    }
+
+    @Test
+    public void testFailureSkipsDependents( )
+    {
+        System.out.println( "testFailureSkipsDependents" );
+        Map<String, List<String>> mapDependencies = new LinkedHashMap<>( );
+        mapDependencies.put( "library-a", Collections.<String> emptyList( ) );
+        mapDependencies.put( "plugin-b", Arrays.asList( "library-a" ) );
+        mapDependencies.put( "plugin-c", Arrays.asList( "plugin-b" ) );
+        mapDependencies.put( "plugin-d", Collections.<String> emptyList( ) );
+
+        RecordingLauncher launcher = new RecordingLauncher( );
+        launcher._strRefused = "plugin-d";
+        SiteReleaseScheduler scheduler = new SiteReleaseScheduler( mapDependencies, 4, launcher );
+        scheduler.start( );
+        scheduler.componentReleased( "library-a", false );
+
+        assertEquals( Arrays.asList( "plugin-b", "plugin-c" ), launcher._listSkipped );
+        assertEquals( Arrays.asList( "library-a", "plugin-d" ), launcher._listStarted );
+        assertTrue( launcher._bSiteStarted );
+    }
+
+    @Test
+    public void testCycle( )
+    {
+        System.out.println( "testCycle" );
+        Map<String, List<String>> mapDependencies = new LinkedHashMap<>( );
+        mapDependencies.put( "plugin-c", Arrays.asList( "plugin-a" ) );
+        mapDependencies.put( "plugin-a", Arrays.asList( "plugin-b" ) );
+        mapDependencies.put( "plugin-b", Arrays.asList( "plugin-a" ) );
+
+        RecordingLauncher launcher = new RecordingLauncher( );
+        SiteReleaseScheduler scheduler = new SiteReleaseScheduler( mapDependencies, 4, launcher );
+
+        // only the cycle is broken, plugin-c still waits for plugin-a
+        assertEquals( Arrays.asList( "plugin-a" ), scheduler.getUpstreamComponents( "plugin-c" ) );
+        scheduler.start( );
+        assertEquals( 1, launcher._listStarted.size( ) );
+        // the dependency of plugin-a on plugin-b closes the cycle and is ignored
+        assertEquals( "plugin-a", launcher._listStarted.get( 0 ) );
+        scheduler.componentReleased( "plugin-a", true );
+        assertEquals( 3, launcher._listStarted.size( ) );
+        assertTrue( launcher._listStarted.contains( "plugin-c" ) );
+    }
+
+    @Test
+    public void testNoComponent( )
+    {
+        System.out.println( "testNoComponent" );
+        RecordingLauncher launcher = new RecordingLauncher( );
+        new SiteReleaseScheduler( Collections.<String, List<String>> emptyMap( ), 2, launcher ).start( );
+        assertTrue( launcher._bSiteStarted );
+    }
+
+    /**
+     * Launcher recording the calls of the scheduler
+     */
+    private static class RecordingLauncher implements SiteReleaseScheduler.Launcher
+    {
+        private final List<String> _listStarted = new ArrayList<>( );
+        private final List<String> _listSkipped = new ArrayList<>( );
+        private String _strRefused;
+        private boolean _bSiteStarted;
+
+        @Override
+        public boolean startComponentRelease( String strArtifactId )
+        {
+            _listStarted.add( strArtifactId );
+            return !strArtifactId.equals( _strRefused );
+        }
+
+        @Override
+        public void skipComponentRelease( String strArtifactId, String strFailedArtifactId )
+        {
+            _listSkipped.add( strArtifactId );
+        }
+
+        @Override
+        public void startSiteRelease( )
+        {
+            assertFalse( _bSiteStarted );
+            _bSiteStarted = true;
+        }
+    }
+}
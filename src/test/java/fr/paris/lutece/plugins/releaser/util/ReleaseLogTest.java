@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+/**
+ * ReleaseLogTest
+ */
+public class ReleaseLogTest
+{
+    @Test
+    public void testAppend( )
+    {
+        System.out.println( "testAppend" );
+        ReleaseLog log = new ReleaseLog( 4096, null );
+        log.append( "Cloning repository ...\n" ).append( 'x' ).append( (Object) Integer.valueOf( 42 ) );
+
+        assertEquals( "Cloning repository ...\nx42", log.toString( ) );
+        assertEquals( 26, log.length( ) );
+        assertEquals( 0, log.getSpilledSize( ) );
+        assertNull( log.getSpillFile( ) );
+    }
+
+    @Test
+    public void testBoundedMemory( ) throws Exception
+    {
+        System.out.println( "testBoundedMemory" );
+        File fileSpillDirectory = Files.createTempDirectory( "releaser-log" ).toFile( );
+        int nMaxSize = 8192;
+        ReleaseLog log = new ReleaseLog( nMaxSize, fileSpillDirectory );
+        StringBuilder sbExpected = new StringBuilder( );
+
+        for ( int i = 0; i < 10000; i++ )
+        {
+            String strLine = "[INFO] Downloading artifact " + i + "\n";
+            log.append( strLine );
+            sbExpected.append( strLine );
+        }
+
+        assertEquals( sbExpected.length( ), log.length( ) );
+        assertTrue( log.getSpilledSize( ) > 0 );
+        assertTrue( log.length( ) - log.getSpilledSize( ) <= nMaxSize );
+
+        // the spill file and the retained tail hold the whole log
+        String strSpilled = new String( Files.readAllBytes( log.getSpillFile( ).toPath( ) ), StandardCharsets.UTF_8 );
+        assertEquals( log.getSpilledSize( ), strSpilled.length( ) );
+        String strLog = log.toString( );
+        String strTail = strLog.substring( strLog.indexOf( "...]\n" ) + 5 );
+        assertEquals( sbExpected.toString( ), strSpilled + strTail );
+        assertTrue( strLog.endsWith( "Downloading artifact 9999\n" ) );
+    }
+
+    @Test
+    public void testWriteTo( ) throws Exception
+    {
+        System.out.println( "testWriteTo" );
+        File fileSpillDirectory = Files.createTempDirectory( "releaser-log" ).toFile( );
+        ReleaseLog log = new ReleaseLog( 2048, fileSpillDirectory );
+        StringBuilder sbExpected = new StringBuilder( );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            String strLine = "line " + i + "\n";
+            log.append( strLine );
+            sbExpected.append( strLine );
+        }
+        File fileSpill = log.getSpillFile( );
+        assertTrue( fileSpill.exists( ) );
+
+        // the whole log, spilled beginning included
+        StringWriter writer = new StringWriter( );
+        log.writeTo( writer );
+        assertEquals( sbExpected.toString( ), writer.toString( ) );
+
+        log.deleteSpillFile( );
+        assertFalse( fileSpill.exists( ) );
+        assertNull( log.getSpillFile( ) );
+        writer = new StringWriter( );
+        log.writeTo( writer );
+        assertTrue( writer.toString( ).startsWith( "[... " + log.getSpilledSize( ) + " characters not retained ...]\n" ) );
+        assertTrue( writer.toString( ).endsWith( "line 999\n" ) );
+    }
+
+    @Test
+    public void testGetTail( )
+    {
+        System.out.println( "testGetTail" );
+        ReleaseLog log = new ReleaseLog( 4096, null );
+        log.append( "line 1\n" );
+        ReleaseLog.Tail tail = log.getTail( 0 );
+        assertEquals( "line 1\n", tail.getText( ) );
+        assertEquals( 0, tail.getOffset( ) );
+        assertFalse( tail.isTruncated( ) );
+
+        log.append( "line 2\n" );
+        tail = log.getTail( tail.getNextOffset( ) );
+        assertEquals( "line 2\n", tail.getText( ) );
+        assertEquals( 7, tail.getOffset( ) );
+        assertEquals( 14, tail.getNextOffset( ) );
+
+        tail = log.getTail( tail.getNextOffset( ) );
+        assertEquals( "", tail.getText( ) );
+
+        // state only
+        tail = log.getTail( -1 );
+        assertEquals( "", tail.getText( ) );
+        assertEquals( 14, tail.getNextOffset( ) );
+
+        // stale cursor beyond the end of the log
+        tail = log.getTail( 100 );
+        assertEquals( "line 1\nline 2\n", tail.getText( ) );
+        assertTrue( tail.isTruncated( ) );
+    }
+
+    @Test
+    public void testGetTailSpilled( )
+    {
+        System.out.println( "testGetTailSpilled" );
+        ReleaseLog log = new ReleaseLog( 2048, null );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            log.append( "line " + i + "\n" );
+        }
+
+        ReleaseLog.Tail tail = log.getTail( 0 );
+        assertTrue( tail.isTruncated( ) );
+        assertEquals( log.getSpilledSize( ), tail.getOffset( ) );
+        assertEquals( log.length( ), tail.getOffset( ) + tail.getText( ).length( ) );
+        assertTrue( tail.getText( ).endsWith( "line 999\n" ) );
+
+        long lOffset = log.length( ) - 9;
+        tail = log.getTail( lOffset );
+        assertFalse( tail.isTruncated( ) );
+        assertEquals( "line 999\n", tail.getText( ) );
+    }
+
+    @Test
+    public void testFromHistory( )
+    {
+        System.out.println( "testFromHistory" );
+        StringBuilder sbText = new StringBuilder( );
+        for ( int i = 0; i < 100000; i++ )
+        {
+            sbText.append( "line " ).append( i ).append( '\n' );
+        }
+        ReleaseLog log = ReleaseLog.fromHistory( sbText.toString( ) );
+
+        assertEquals( sbText.toString( ), log.toString( ) );
+        assertEquals( 0, log.getSpilledSize( ) );
+        assertNull( log.getSpillFile( ) );
+        assertEquals( "", ReleaseLog.fromHistory( null ).toString( ) );
+    }
+
+    @Test
+    public void testLargeAppend( )
+    {
+        System.out.println( "testLargeAppend" );
+        ReleaseLog log = new ReleaseLog( 2048, null );
+        StringBuilder sbText = new StringBuilder( );
+        for ( int i = 0; i < 10000; i++ )
+        {
+            sbText.append( (char) ( 'a' + ( i % 26 ) ) );
+        }
+        log.append( sbText );
+
+        assertEquals( 10000, log.length( ) );
+        assertTrue( log.length( ) - log.getSpilledSize( ) <= 2048 );
+        assertTrue( log.toString( ).endsWith( sbText.substring( 10000 - 1024 ) ) );
+    }
+}
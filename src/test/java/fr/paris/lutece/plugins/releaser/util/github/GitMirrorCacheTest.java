@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.github;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+/**
+ * GitMirrorCacheTest
+ */
+public class GitMirrorCacheTest
+{
+    @Test
+    public void testCloneFromMirror( ) throws Exception
+    {
+        System.out.println( "testCloneFromMirror" );
+        File fileRoot = Files.createTempDirectory( "releaser-git-mirror" ).toFile( );
+        File fileOrigin = new File( fileRoot, "origin" );
+        String strOriginUrl = fileOrigin.toURI( ).toString( );
+
+        Git gitOrigin = Git.init( ).setDirectory( fileOrigin ).call( );
+        commit( gitOrigin, "pom.xml", "1.0.0-SNAPSHOT" );
+        gitOrigin.tag( ).setName( "plugin-test-0.9.0" ).call( );
+        gitOrigin.checkout( ).setCreateBranch( true ).setName( GitUtils.DEVELOP_BRANCH ).call( );
+        RevCommit commitDevelop = commit( gitOrigin, "pom.xml", "1.1.0-SNAPSHOT" );
+        gitOrigin.checkout( ).setName( GitUtils.MASTER_BRANCH ).call( );
+
+        GitMirrorCache mirrorCache = new GitMirrorCache( new File( fileRoot, "mirrors" ) );
+        File fileMirror = mirrorCache.updateMirror( strOriginUrl, null );
+        assertEquals( mirrorCache.getMirrorDirectory( strOriginUrl ), fileMirror );
+
+        File fileWorkingCopy = new File( fileRoot, "plugin-test" );
+        Git git = mirrorCache.cloneFromMirror( fileMirror, strOriginUrl, fileWorkingCopy, GitUtils.MASTER_BRANCH );
+        assertEquals( GitUtils.MASTER_BRANCH, git.getRepository( ).getBranch( ) );
+        assertEquals( "1.0.0-SNAPSHOT", read( fileWorkingCopy, "pom.xml" ) );
+        assertEquals( commitDevelop.getId( ), git.getRepository( ).resolve( "refs/remotes/origin/" + GitUtils.DEVELOP_BRANCH ) );
+        assertNotNull( git.getRepository( ).resolve( Constants.R_TAGS + "plugin-test-0.9.0" ) );
+        assertEquals( strOriginUrl, git.getRepository( ).getConfig( ).getString( "remote", "origin", "url" ) );
+        // the objects are read from the mirror
+        assertEquals( 0, countObjectFiles( new File( fileWorkingCopy, ".git/objects" ) ) );
+
+        git.checkout( ).setCreateBranch( true ).setName( GitUtils.DEVELOP_BRANCH ).setStartPoint( "origin/" + GitUtils.DEVELOP_BRANCH ).call( );
+        assertEquals( "1.1.0-SNAPSHOT", read( fileWorkingCopy, "pom.xml" ) );
+        git.close( );
+
+        // the next release only gets the new commits
+        gitOrigin.checkout( ).setName( GitUtils.DEVELOP_BRANCH ).call( );
+        RevCommit commitNew = commit( gitOrigin, "pom.xml", "1.2.0-SNAPSHOT" );
+        mirrorCache.updateMirror( strOriginUrl, null );
+        File fileWorkingCopy2 = new File( fileRoot, "plugin-test-2" );
+        git = mirrorCache.cloneFromMirror( fileMirror, strOriginUrl, fileWorkingCopy2, GitUtils.DEVELOP_BRANCH );
+        assertEquals( commitNew.getId( ), git.getRepository( ).resolve( Constants.HEAD ) );
+        assertEquals( "1.2.0-SNAPSHOT", read( fileWorkingCopy2, "pom.xml" ) );
+        git.close( );
+        gitOrigin.close( );
+    }
+
+    @Test
+    public void testMirrorBranches( ) throws Exception
+    {
+        System.out.println( "testMirrorBranches" );
+        File fileRoot = Files.createTempDirectory( "releaser-git-mirror" ).toFile( );
+        File fileOrigin = new File( fileRoot, "origin" );
+        String strOriginUrl = fileOrigin.toURI( ).toString( );
+
+        Git gitOrigin = Git.init( ).setDirectory( fileOrigin ).call( );
+        commit( gitOrigin, "pom.xml", "1.0.0" );
+        gitOrigin.tag( ).setName( "plugin-test-1.0.0" ).call( );
+        gitOrigin.checkout( ).setCreateBranch( true ).setName( GitUtils.DEVELOP_BRANCH ).call( );
+        commit( gitOrigin, "pom.xml", "1.1.0-SNAPSHOT" );
+        gitOrigin.checkout( ).setCreateBranch( true ).setName( "feature" ).call( );
+        commit( gitOrigin, "pom.xml", "feature" );
+        gitOrigin.tag( ).setName( "feature-tag" ).call( );
+        gitOrigin.checkout( ).setName( GitUtils.MASTER_BRANCH ).call( );
+        gitOrigin.close( );
+
+        GitMirrorCache mirrorCache = new GitMirrorCache( new File( fileRoot, "mirrors" ), Arrays.asList( GitUtils.MASTER_BRANCH, GitUtils.DEVELOP_BRANCH ) );
+        File fileMirror = mirrorCache.updateMirror( strOriginUrl, null );
+
+        try ( Git gitMirror = Git.open( fileMirror ) )
+        {
+            assertNotNull( gitMirror.getRepository( ).resolve( Constants.R_HEADS + GitUtils.MASTER_BRANCH ) );
+            assertNotNull( gitMirror.getRepository( ).resolve( Constants.R_HEADS + GitUtils.DEVELOP_BRANCH ) );
+            assertNull( gitMirror.getRepository( ).resolve( Constants.R_HEADS + "feature" ) );
+            // only the tags of the mirrored history are fetched
+            assertNotNull( gitMirror.getRepository( ).resolve( Constants.R_TAGS + "plugin-test-1.0.0" ) );
+            assertNull( gitMirror.getRepository( ).resolve( Constants.R_TAGS + "feature-tag" ) );
+        }
+    }
+
+    @Test
+    public void testUpdateFromMirror( ) throws Exception
+    {
+        System.out.println( "testUpdateFromMirror" );
+        File fileRoot = Files.createTempDirectory( "releaser-git-mirror" ).toFile( );
+        File fileOrigin = new File( fileRoot, "origin" );
+        String strOriginUrl = fileOrigin.toURI( ).toString( );
+
+        Git gitOrigin = Git.init( ).setDirectory( fileOrigin ).call( );
+        commit( gitOrigin, "pom.xml", "1.0.0-SNAPSHOT" );
+        gitOrigin.branchCreate( ).setName( GitUtils.DEVELOP_BRANCH ).call( );
+
+        GitMirrorCache mirrorCache = new GitMirrorCache( new File( fileRoot, "mirrors" ) );
+        File fileMirror = mirrorCache.updateMirror( strOriginUrl, null );
+        File fileWorkingCopy = new File( fileRoot, "plugin-test" );
+        Git git = mirrorCache.cloneFromMirror( fileMirror, strOriginUrl, fileWorkingCopy, GitUtils.MASTER_BRANCH );
+
+        // a release failed after having tagged the working copy
+        git.tag( ).setName( "plugin-test-1.0.0" ).call( );
+
+        RevCommit commitNew = commit( gitOrigin, "pom.xml", "1.0.1-SNAPSHOT" );
+        gitOrigin.tag( ).setName( "plugin-test-1.0.0-rc" ).call( );
+        gitOrigin.branchDelete( ).setBranchNames( GitUtils.DEVELOP_BRANCH ).call( );
+        gitOrigin.close( );
+
+        mirrorCache.updateFromMirror( mirrorCache.updateMirror( strOriginUrl, null ), strOriginUrl, git );
+
+        assertEquals( commitNew.getId( ), git.getRepository( ).resolve( "refs/remotes/origin/" + GitUtils.MASTER_BRANCH ) );
+        assertNull( git.getRepository( ).resolve( "refs/remotes/origin/" + GitUtils.DEVELOP_BRANCH ) );
+        assertNull( git.getRepository( ).resolve( Constants.R_TAGS + "plugin-test-1.0.0" ) );
+        assertNotNull( git.getRepository( ).resolve( Constants.R_TAGS + "plugin-test-1.0.0-rc" ) );
+
+        git.checkout( ).setName( "refs/remotes/origin/" + GitUtils.MASTER_BRANCH ).call( );
+        assertEquals( "1.0.1-SNAPSHOT", read( fileWorkingCopy, "pom.xml" ) );
+        git.close( );
+    }
+
+    @Test
+    public void testGetMirrorDirectory( )
+    {
+        System.out.println( "testGetMirrorDirectory" );
+        GitMirrorCache mirrorCache = new GitMirrorCache( new File( "mirrors" ) );
+
+        assertEquals( "github.com_lutece-platform_lutece-core.git",
+                mirrorCache.getMirrorDirectory( "https://github.com/lutece-platform/lutece-core.git" ).getName( ) );
+        assertEquals( "github.com_lutece-platform_lutece-core.git",
+                mirrorCache.getMirrorDirectory( "https://user@github.com/lutece-platform/lutece-core" ).getName( ) );
+    }
+
+    private static RevCommit commit( Git git, String strFile, String strContent ) throws Exception
+    {
+        Files.write( new File( git.getRepository( ).getWorkTree( ), strFile ).toPath( ), strContent.getBytes( StandardCharsets.UTF_8 ) );
+        git.add( ).addFilepattern( strFile ).call( );
+
+        return git.commit( ).setMessage( strContent ).setAuthor( "releaser", "releaser@test" ).setCommitter( "releaser", "releaser@test" ).call( );
+    }
+
+    private static String read( File fileDirectory, String strFile ) throws Exception
+    {
+        return new String( Files.readAllBytes( new File( fileDirectory, strFile ).toPath( ) ), StandardCharsets.UTF_8 );
+    }
+
+    private static int countObjectFiles( File fileObjects )
+    {
+        int nCount = 0;
+        File [ ] files = fileObjects.listFiles( );
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                if ( file.isDirectory( ) )
+                {
+                    if ( !file.getName( ).equals( "info" ) )
+                    {
+                        nCount += countObjectFiles( file );
+                    }
+                }
+                else
+                {
+                    nCount++;
+                }
+            }
+        }
+
+        return nCount;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.github;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.junit.Test;
+
+/**
+ * GitRepositorySessionTest
+ */
+public class GitRepositorySessionTest
+{
+    @Test
+    public void testGetGit( ) throws Exception
+    {
+        System.out.println( "testGetGit" );
+        File fileRoot = Files.createTempDirectory( "releaser-git-session" ).toFile( );
+        File fileWorkingCopy = new File( fileRoot, "plugin-test" );
+        Git.init( ).setDirectory( fileWorkingCopy ).call( ).close( );
+
+        GitRepositorySession session = new GitRepositorySession( );
+        assertFalse( session.isOpen( 1 ) );
+
+        Git git = session.getGit( 1, fileWorkingCopy.getPath( ) );
+        assertTrue( session.isOpen( 1 ) );
+        // the steps of the same release share the repository
+        assertSame( git, session.getGit( 1, fileWorkingCopy.getPath( ) ) );
+        assertNotSame( git, session.getGit( 2, fileWorkingCopy.getPath( ) ) );
+
+        session.close( 1 );
+        assertFalse( session.isOpen( 1 ) );
+        assertNotSame( git, session.getGit( 1, fileWorkingCopy.getPath( ) ) );
+        session.close( 1 );
+        session.close( 2 );
+    }
+
+    @Test
+    public void testAttach( ) throws Exception
+    {
+        System.out.println( "testAttach" );
+        File fileRoot = Files.createTempDirectory( "releaser-git-session" ).toFile( );
+        File fileWorkingCopy = new File( fileRoot, "plugin-test" );
+        Git git = Git.init( ).setDirectory( fileWorkingCopy ).call( );
+
+        GitRepositorySession session = new GitRepositorySession( );
+        session.attach( 1, git );
+        assertSame( git, session.getGit( 1, fileWorkingCopy.getPath( ) ) );
+
+        // another working copy replaces the repository of the context
+        File fileWorkingCopy2 = new File( fileRoot, "plugin-test-2" );
+        Git git2 = Git.init( ).setDirectory( fileWorkingCopy2 ).call( );
+        session.attach( 1, git2 );
+        assertSame( git2, session.getGit( 1, fileWorkingCopy2.getPath( ) ) );
+        session.close( 1 );
+    }
+
+    @Test( expected = RepositoryNotFoundException.class )
+    public void testGetGitNotFound( ) throws Exception
+    {
+        System.out.println( "testGetGitNotFound" );
+        File fileRoot = Files.createTempDirectory( "releaser-git-session" ).toFile( );
+
+        new GitRepositorySession( ).getGit( 1, new File( fileRoot, "plugin-test" ).getPath( ) );
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.maven;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import fr.paris.lutece.plugins.releaser.util.ReleaseLog;
+
+/**
+ * MavenOutputSinkTest
+ */
+public class MavenOutputSinkTest
+{
+    private static final Pattern FILTER = Pattern.compile( "(\\[INFO\\] )?(Downloading|Downloaded|Progress \\()" );
+
+    @Test
+    public void testFilterAndRawOutput( ) throws Exception
+    {
+        System.out.println( "testFilterAndRawOutput" );
+        File fileRaw = new File( Files.createTempDirectory( "releaser-maven" ).toFile( ), "maven-plugin-test.log.gz" );
+        ReleaseLog log = new ReleaseLog( 65536, null );
+        MavenOutputSink sink = new MavenOutputSink( log, FILTER, fileRaw, 4096 );
+
+        String [ ] lines = {
+                "[INFO] Scanning for projects...", "[INFO] Downloading from central: https://repo.maven.apache.org/maven2/a.pom",
+                "[INFO] Downloaded from central: https://repo.maven.apache.org/maven2/a.pom (2 kB at 10 kB/s)", "Downloading: http://dev.lutece.paris.fr/b.jar",
+                "[INFO] BUILD SUCCESS"
+        };
+        for ( String strLine : lines )
+        {
+            sink.consumeLine( strLine );
+        }
+        sink.close( );
+
+        assertEquals( 3, sink.getFilteredLines( ) );
+        assertTrue( log.toString( ).startsWith( "[INFO] Scanning for projects...\n[INFO] BUILD SUCCESS\n" ) );
+        assertTrue( log.toString( ).contains( "3 Maven download lines filtered" ) );
+
+        List<String> listRawLines = new ArrayList<String>( );
+        try ( BufferedReader reader = new BufferedReader( new InputStreamReader( new GZIPInputStream( Files.newInputStream( fileRaw.toPath( ) ) ),
+                StandardCharsets.UTF_8 ) ) )
+        {
+            String strLine;
+            while ( ( strLine = reader.readLine( ) ) != null )
+            {
+                listRawLines.add( strLine );
+            }
+        }
+        assertEquals( lines.length, listRawLines.size( ) );
+        assertEquals( lines [3], listRawLines.get( 3 ) );
+    }
+
+    @Test
+    public void testPurgeRawOutputFiles( ) throws Exception
+    {
+        System.out.println( "testPurgeRawOutputFiles" );
+        File fileDirectory = Files.createTempDirectory( "releaser-maven" ).toFile( );
+        long lNow = System.currentTimeMillis( );
+        File [ ] files = new File [ 4];
+        for ( int i = 0; i < files.length; i++ )
+        {
+            files [i] = new File( fileDirectory, "maven-plugin-" + i + ".log.gz" );
+            Files.write( files [i].toPath( ), new byte [ 1] );
+            files [i].setLastModified( lNow - i * 3600000L );
+        }
+        File fileOther = new File( fileDirectory, "release-spill.log" );
+        Files.write( fileOther.toPath( ), new byte [ 1] );
+        fileOther.setLastModified( lNow - 10 * 3600000L );
+
+        // older than 2h30
+        assertEquals( 1, MavenOutputSink.purgeRawOutputFiles( fileDirectory, 0, 9000000L ) );
+        assertFalse( files [3].exists( ) );
+        // two newest kept
+        assertEquals( 1, MavenOutputSink.purgeRawOutputFiles( fileDirectory, 2, 0 ) );
+        assertTrue( files [0].exists( ) );
+        assertTrue( files [1].exists( ) );
+        assertFalse( files [2].exists( ) );
+        assertTrue( fileOther.exists( ) );
+        assertEquals( 0, MavenOutputSink.purgeRawOutputFiles( new File( fileDirectory, "missing" ), 1, 1 ) );
+    }
+
+    @Test
+    public void testBatches( )
+    {
+        System.out.println( "testBatches" );
+        ReleaseLog log = new ReleaseLog( 65536, null );
+        MavenOutputSink sink = new MavenOutputSink( log, null, null, 100 );
+
+        sink.consumeLine( "[INFO] Building plugin-test 1.0.0" );
+        // the first lines stay in the batch
+        assertEquals( 0, log.length( ) );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            sink.consumeLine( "[INFO] line " + i );
+        }
+        assertTrue( log.length( ) >= 100 );
+
+        sink.close( );
+        sink.close( );
+        assertTrue( log.toString( ).endsWith( "[INFO] line 9\n" ) );
+        assertEquals( 0, sink.getFilteredLines( ) );
+    }
+}
@@ -35,9 +35,16 @@
 package fr.paris.lutece.plugins.releaser.util.pom;
 
 import fr.paris.lutece.plugins.releaser.util.pom.PomParser;
+import fr.paris.lutece.plugins.releaser.business.Dependency;
 import fr.paris.lutece.plugins.releaser.business.Site;
+import fr.paris.lutece.plugins.releaser.business.jaxb.maven.Model;
 import java.io.IOException;
+import java.io.StringReader;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
 import org.apache.commons.io.IOUtils;
+import org.xml.sax.InputSource;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -47,6 +54,7 @@ import org.junit.Test;
 public class PomParserTest
 {
     private static final String POM_TEST_FILE = "/pom.xml";
+    private static final int NB_DEPENDENCIES = 200;
 
     @Test
     public void testParse( ) throws IOException
@@ -63,6 +71,93 @@ public class PomParserTest
         assertTrue( nDependenciesCount > 0 );
     }
 
+    /**
+     * Check that the cached context, reused by successive parses, gives the same model as a context created for the
+     * parse
+     */
+    @Test
+    public void testParseCachedContext( ) throws JAXBException
+    {
+        System.out.println( "testParseCachedContext" );
+        String strPOM = getLargeSitePom( );
+        Model model = parseWithNewContext( strPOM );
+        PomParser parser = new PomParser( );
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            Site site = new Site( );
+            parser.parseModel( site, strPOM );
+
+            assertEquals( model.getArtifactId( ), site.getArtifactId( ) );
+            assertEquals( model.getVersion( ), site.getVersion( ) );
+            assertEquals( NB_DEPENDENCIES, site.getCurrentDependencies( ).size( ) );
+            for ( int j = 0; j < NB_DEPENDENCIES; j++ )
+            {
+                fr.paris.lutece.plugins.releaser.business.jaxb.maven.Dependency jaxbDependency = model.getDependencies( ).getDependency( ).get( j );
+                assertEquals( jaxbDependency.getArtifactId( ), site.getCurrentDependencies( ).get( j ).getArtifactId( ) );
+                assertEquals( jaxbDependency.getVersion( ), site.getCurrentDependencies( ).get( j ).getVersion( ) );
+            }
+        }
+    }
+
+    /**
+     * Check that the streaming reader and the JAXB model give the same site
+     */
+    @Test
+    public void testParseStreamMatchesModel( ) throws IOException
+    {
+        System.out.println( "testParseStreamMatchesModel" );
+        PomParser parser = new PomParser( );
+
+        for ( String strPOM : new String [ ] {
+                getLargeSitePom( ), loadFile( POM_TEST_FILE )
+        } )
+        {
+            Site siteModel = new Site( );
+            parser.parseModel( siteModel, strPOM );
+            Site siteStream = new Site( );
+            parser.parse( siteStream, strPOM );
+
+            assertEquals( siteModel.getArtifactId( ), siteStream.getArtifactId( ) );
+            assertEquals( siteModel.getGroupId( ), siteStream.getGroupId( ) );
+            assertEquals( siteModel.getVersion( ), siteStream.getVersion( ) );
+            assertEquals( siteModel.getCurrentDependencies( ).size( ), siteStream.getCurrentDependencies( ).size( ) );
+            for ( int i = 0; i < siteModel.getCurrentDependencies( ).size( ); i++ )
+            {
+                Dependency dependencyModel = siteModel.getCurrentDependencies( ).get( i );
+                Dependency dependencyStream = siteStream.getCurrentDependencies( ).get( i );
+                assertEquals( dependencyModel.getGroupId( ), dependencyStream.getGroupId( ) );
+                assertEquals( dependencyModel.getArtifactId( ), dependencyStream.getArtifactId( ) );
+                assertEquals( dependencyModel.getVersion( ), dependencyStream.getVersion( ) );
+                assertEquals( dependencyModel.getType( ), dependencyStream.getType( ) );
+            }
+        }
+    }
+
+    private static Model parseWithNewContext( String strPOM ) throws JAXBException
+    {
+        JAXBContext jc = JAXBContext.newInstance( Model.class.getPackage( ).getName( ) );
+        JAXBElement<Model> doc = (JAXBElement<Model>) jc.createUnmarshaller( ).unmarshal( new InputSource( new StringReader( strPOM ) ) );
+        return doc.getValue( );
+    }
+
+    private static String getLargeSitePom( )
+    {
+        StringBuilder sbPOM = new StringBuilder( );
+        sbPOM.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        sbPOM.append( "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" );
+        sbPOM.append( "<modelVersion>4.0.0</modelVersion><groupId>fr.paris.lutece</groupId>" );
+        sbPOM.append( "<artifactId>site-test</artifactId><packaging>lutece-site</packaging><version>1.0.0-SNAPSHOT</version>\n" );
+        sbPOM.append( "<dependencies>\n" );
+        for ( int i = 0; i < NB_DEPENDENCIES; i++ )
+        {
+            sbPOM.append( "<dependency><groupId>fr.paris.lutece.plugins</groupId><artifactId>plugin-test" ).append( i );
+            sbPOM.append( "</artifactId><version>1.0." ).append( i ).append( "</version><type>lutece-plugin</type></dependency>\n" );
+        }
+        sbPOM.append( "</dependencies>\n</project>\n" );
+        return sbPOM.toString( );
+    }
+
     private String loadFile( String strFilePath ) throws IOException
     {
         return IOUtils.toString( this.getClass( ).getResourceAsStream( strFilePath ), "UTF-8" );
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.pom;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.io.StringReader;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+import fr.paris.lutece.plugins.releaser.business.Dependency;
+
+/**
+ * PomStreamReaderTest
+ */
+public class PomStreamReaderTest
+{
+    private static final String POM_TEST_FILE = "/pom.xml";
+
+    @Test
+    public void testReadSitePom( ) throws Exception
+    {
+        System.out.println( "testReadSitePom" );
+        PomDescriptor pom;
+        try ( InputStream inputStream = getClass( ).getResourceAsStream( POM_TEST_FILE ) )
+        {
+            pom = PomStreamReader.read( inputStream );
+        }
+
+        assertEquals( "site-ticketing", pom.getArtifactId( ) );
+        assertEquals( "fr.paris.lutece", pom.getGroupId( ) );
+        assertEquals( "1.0.19-SNAPSHOT", pom.getVersion( ) );
+        assertEquals( "lutece-site", pom.getPackaging( ) );
+        assertEquals( "scm:svn:https://dev.lutece.paris.fr/svn/sites/gru/multi-sites/ticketing/trunk/", pom.getScmDeveloperConnection( ) );
+        assertEquals( 28, pom.getDependencies( ).size( ) );
+
+        Dependency dependency = pom.getDependencies( ).get( 0 );
+        assertEquals( "lutece-core", dependency.getArtifactId( ) );
+        assertEquals( "fr.paris.lutece", dependency.getGroupId( ) );
+        assertEquals( "6.0.0-RC-01", dependency.getVersion( ) );
+        assertEquals( "lutece-core", dependency.getType( ) );
+    }
+
+    @Test
+    public void testSkipNestedDependencies( ) throws XMLStreamException
+    {
+        System.out.println( "testSkipNestedDependencies" );
+        String strPOM = "<?xml version=\"1.0\"?><project xmlns=\"http://maven.apache.org/POM/4.0.0\">"
+                + "<parent><artifactId>parent</artifactId><version>9.9.9</version></parent>"
+                + "<!-- comment --><artifactId>plugin-test</artifactId><version>1.0.0</version>"
+                + "<dependencyManagement><dependencies><dependency><artifactId>managed</artifactId></dependency></dependencies></dependencyManagement>"
+                + "<build><plugins><plugin><dependencies><dependency><artifactId>plugin-dep</artifactId></dependency></dependencies></plugin></plugins></build>"
+                + "<dependencies><dependency><artifactId>library-test</artifactId><version>2.0.0</version>"
+                + "<exclusions><exclusion><artifactId>excluded</artifactId></exclusion></exclusions></dependency></dependencies>"
+                + "</project>";
+
+        PomDescriptor pom = PomStreamReader.read( new StringReader( strPOM ) );
+
+        assertEquals( "plugin-test", pom.getArtifactId( ) );
+        assertEquals( "1.0.0", pom.getVersion( ) );
+        assertNull( pom.getGroupId( ) );
+        assertNull( pom.getScmDeveloperConnection( ) );
+        assertEquals( 1, pom.getDependencies( ).size( ) );
+        assertEquals( "library-test", pom.getDependencies( ).get( 0 ).getArtifactId( ) );
+        assertNull( pom.getDependencies( ).get( 0 ).getType( ) );
+    }
+
+    @Test( expected = XMLStreamException.class )
+    public void testMalformedPom( ) throws XMLStreamException
+    {
+        System.out.println( "testMalformedPom" );
+        PomStreamReader.read( new StringReader( "<project><artifactId>plugin-test</project>" ) );
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2002-2017, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.releaser.util.pom;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * PomVersionRewriterTest
+ */
+public class PomVersionRewriterTest
+{
+    private static final String POM_TEST_FILE = "/pom.xml";
+
+    @Test
+    public void testRewriteSitePom( ) throws IOException
+    {
+        System.out.println( "testRewriteSitePom" );
+        byte [ ] pom = loadFile( POM_TEST_FILE );
+        Map<String, String> mapDependencyVersions = new HashMap<>( );
+        mapDependencyVersions.put( "plugin-profiles", "2.0.3" );
+        mapDependencyVersions.put( "plugin-unknown", "9.9.9" );
+
+        String strResult = new String( PomVersionRewriter.rewrite( pom, "1.0.19", "Tag 1.0.19", mapDependencyVersions ), StandardCharsets.UTF_8 );
+
+        // only the targeted elements are changed, the parent version and the other dependencies are kept
+        String strExpected = new String( pom, StandardCharsets.UTF_8 )
+                .replace( "<version>1.0.19-SNAPSHOT</version>", "<version>1.0.19</version>\n    <description>Tag 1.0.19</description>" )
+                .replace( "<artifactId>plugin-profiles</artifactId>\n            <version>2.0.3-SNAPSHOT</version>",
+                        "<artifactId>plugin-profiles</artifactId>\n            <version>2.0.3</version>" );
+        assertEquals( strExpected, strResult );
+    }
+
+    @Test
+    public void testRewriteFormatting( )
+    {
+        System.out.println( "testRewriteFormatting" );
+        String strPOM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- <version>0</version> -->\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n  <version>1.0.0-SNAPSHOT</version>\n"
+                + "  <description>old</description>\n  <dependencyManagement><dependencies><dependency>"
+                + "<artifactId>plugin-a</artifactId><version>1.0</version></dependency></dependencies></dependencyManagement>\n"
+                + "  <dependencies>\n    <dependency><artifactId>plugin-a</artifactId><version>1.0</version></dependency>\n"
+                + "    <dependency ><artifactId>plugin-b</artifactId><!-- no version --></dependency>\n"
+                + "    <dependency><artifactId>plugin-c</artifactId><version/></dependency>\n  </dependencies>\n</project>\n";
+        Map<String, String> mapDependencyVersions = new HashMap<>( );
+        mapDependencyVersions.put( "plugin-a", "2.0" );
+        mapDependencyVersions.put( "plugin-b", "3.0" );
+        mapDependencyVersions.put( "plugin-c", "4.0" );
+
+        String strResult = new String( PomVersionRewriter.rewrite( strPOM.getBytes( StandardCharsets.UTF_8 ), null, "", mapDependencyVersions ),
+                StandardCharsets.UTF_8 );
+
+        String strExpected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- <version>0</version> -->\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n  <version>1.0.0-SNAPSHOT</version>\n"
+                + "  <description></description>\n  <dependencyManagement><dependencies><dependency>"
+                + "<artifactId>plugin-a</artifactId><version>1.0</version></dependency></dependencies></dependencyManagement>\n"
+                + "  <dependencies>\n    <dependency><artifactId>plugin-a</artifactId><version>2.0</version></dependency>\n"
+                + "    <dependency ><artifactId>plugin-b</artifactId><version>3.0</version><!-- no version --></dependency>\n"
+                + "    <dependency><artifactId>plugin-c</artifactId><version>4.0</version></dependency>\n  </dependencies>\n</project>\n";
+        assertEquals( strExpected, strResult );
+    }
+
+    @Test
+    public void testRewriteEmptyElements( )
+    {
+        System.out.println( "testRewriteEmptyElements" );
+        String strPOM = "<project>\n  <version>1.0.0-SNAPSHOT</version>\n  <description/>\n  <dependencies>\n    <dependency>\n"
+                + "      <artifactId>plugin-a</artifactId>\n      <version />\n    </dependency>\n  </dependencies>\n</project>\n";
+        Map<String, String> mapDependencyVersions = new HashMap<>( );
+        mapDependencyVersions.put( "plugin-a", "2.0" );
+
+        String strResult = new String( PomVersionRewriter.rewrite( strPOM.getBytes( StandardCharsets.UTF_8 ), "1.0.0", "Tag 1.0.0",
+                mapDependencyVersions ), StandardCharsets.UTF_8 );
+
+        // the empty elements are found and replaced, no second element is inserted
+        String strExpected = "<project>\n  <version>1.0.0</version>\n  <description>Tag 1.0.0</description>\n  <dependencies>\n    <dependency>\n"
+                + "      <artifactId>plugin-a</artifactId>\n      <version>2.0</version>\n    </dependency>\n  </dependencies>\n</project>\n";
+        assertEquals( strExpected, strResult );
+    }
+
+    @Test
+    public void testRewriteInsertedElements( )
+    {
+        System.out.println( "testRewriteInsertedElements" );
+        String strPOM = "<project>\r\n\t<version>1.0.0-SNAPSHOT</version>\r\n\t<dependencies>\r\n\t\t<dependency>\r\n"
+                + "\t\t\t<artifactId>plugin-a</artifactId>\r\n\t\t</dependency>\r\n\t</dependencies>\r\n</project>";
+        Map<String, String> mapDependencyVersions = new HashMap<>( );
+        mapDependencyVersions.put( "plugin-a", "2.0" );
+
+        String strResult = new String( PomVersionRewriter.rewrite( strPOM.getBytes( StandardCharsets.UTF_8 ), null, "Tag 1.0.0", mapDependencyVersions ),
+                StandardCharsets.UTF_8 );
+
+        // the inserted elements are laid out like their preceding sibling
+        String strExpected = "<project>\r\n\t<version>1.0.0-SNAPSHOT</version>\r\n\t<description>Tag 1.0.0</description>\r\n\t<dependencies>\r\n"
+                + "\t\t<dependency>\r\n\t\t\t<artifactId>plugin-a</artifactId>\r\n\t\t\t<version>2.0</version>\r\n\t\t</dependency>\r\n"
+                + "\t</dependencies>\r\n</project>";
+        assertEquals( strExpected, strResult );
+    }
+
+    @Test
+    public void testRewriteFile( ) throws IOException
+    {
+        System.out.println( "testRewriteFile" );
+        Path pathPom = Files.createTempFile( "pom", ".xml" );
+        try
+        {
+            Files.write( pathPom, "<project>\r\n\t<version>1.0.0-SNAPSHOT</version>\r\n</project>".getBytes( StandardCharsets.UTF_8 ) );
+            PomVersionRewriter.rewrite( pathPom, "1.0.0", null, new HashMap<String, String>( ) );
+            assertEquals( "<project>\r\n\t<version>1.0.0</version>\r\n</project>", new String( Files.readAllBytes( pathPom ), StandardCharsets.UTF_8 ) );
+            // the new content is moved over the pom.xml, no temporary file is left
+            assertFalse( Files.exists( pathPom.resolveSibling( pathPom.getFileName( ) + ".tmp" ) ) );
+        }
+        finally
+        {
+            Files.delete( pathPom );
+        }
+    }
+
+    private byte [ ] loadFile( String strFilePath ) throws IOException
+    {
+        try ( InputStream in = this.getClass( ).getResourceAsStream( strFilePath ) )
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream( );
+            byte [ ] buffer = new byte [ 4096];
+            int nRead;
+            while ( ( nRead = in.read( buffer ) ) != -1 )
+            {
+                out.write( buffer, 0, nRead );
+            }
+            return out.toByteArray( );
+        }
+    }
+}
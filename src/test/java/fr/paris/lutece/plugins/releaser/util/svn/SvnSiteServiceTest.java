@@ -34,6 +34,7 @@
 package fr.paris.lutece.plugins.releaser.util.svn;
 
 import fr.paris.lutece.test.LuteceTestCase;
+import java.util.Arrays;
 import org.junit.Test;
 
 /**
@@ -56,5 +57,21 @@ public class SvnSiteServiceTest extends LuteceTestCase
         String result = SvnSiteService.getLastRelease( strSiteArtifactId, strTrunkUrl,null,null );
         System.out.println( result ); 
     }
+
+    /**
+     * Test of getLastReleaseVersion method, of class SvnSiteService.
+     */
+    @Test
+    public void testGetLastReleaseVersion( )
+    {
+        System.out.println( "getLastReleaseVersion" );
+        assertEquals( "1.0.10", SvnSiteService.getLastReleaseVersion( Arrays.asList( "moncompte-1.0.10", "moncompte-1.0.9" ), "moncompte" ) );
+        // the version is returned as written in the tag
+        assertEquals( "1.1", SvnSiteService.getLastReleaseVersion( Arrays.asList( "moncompte-1.0.2", "moncompte-1.1" ), "moncompte" ) );
+        assertEquals( "2.0.0-RC-01", SvnSiteService.getLastReleaseVersion( Arrays.asList( "moncompte-1.0.0", "moncompte-2.0.0-RC-01" ), "moncompte" ) );
+        // tags of the site not separated from the version by its artifact id
+        assertEquals( "3.0.1", SvnSiteService.getLastReleaseVersion( Arrays.asList( "moncompte-1.0.0", "moncompte_v3-3.0.1" ), "moncompte" ) );
+        assertEquals( "", SvnSiteService.getLastReleaseVersion( Arrays.asList( "moncompte" ), "moncompte" ) );
+    }
     
 }
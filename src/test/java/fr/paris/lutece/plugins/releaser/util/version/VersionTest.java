@@ -35,6 +35,7 @@
 
 package fr.paris.lutece.plugins.releaser.util.version;
 
+import java.util.Arrays;
 import java.util.List;
 import static junit.framework.TestCase.*;
 import org.junit.Test;
@@ -43,6 +44,11 @@ import org.junit.Test;
  * VersionTest
  */
 public class VersionTest {
+    private static final String [ ] VERSIONS_CORPUS = {
+            "6.0.0-RC-01", "6.0.0", "5.1.3", "7.0.0-SNAPSHOT", "4.4.2", "2.0.3-SNAPSHOT", "1.0.19-SNAPSHOT", "3.1.0", "2.1.4",
+            "1.2.5-RC-02", "1.0.0-SNAPSHOT", "2.4.3", "4.0.3", "1.0.0", "3.2.1-RC-12", "1.1.2-SNAPSHOT", "2.3.1", "5.0.0-RC-3"
+    };
+
     /**
      * Test of parse method, of class Version.
      * 
@@ -122,5 +128,101 @@ public class VersionTest {
 
     }
 
-    
+    @Test
+    public void testParseErrors( )
+    {
+        System.out.println( "parseErrors" );
+        String [ ] sources = {
+                null, "", "12", "12.", "12..1", "1.2.3.4", "1.2.x", "99999999999.0"
+        };
+        for ( String strSource : sources )
+        {
+            try
+            {
+                Version.parse( strSource );
+                fail( "Parsing should fail for " + strSource );
+            }
+            catch( VersionParsingException e )
+            {
+                System.out.println( e.getMessage( ) );
+            }
+        }
+    }
+
+    @Test
+    public void testInternedVersions( ) throws VersionParsingException
+    {
+        System.out.println( "internedVersions" );
+        assertSame( Version.parse( "3.2.1-RC-12" ), Version.parse( "3.2.1-RC-12" ) );
+        assertEquals( "3.2.1", Version.parse( " 3.2.1 " ).getVersion( ) );
+        assertEquals( "3.2.1-RC-12", Version.parse( "3.2.1-RC-12" ).getVersion( ) );
+        assertEquals( "RC-12", Version.parse( "3.2.1-RC-12" ).getQualifier( ) );
+    }
+
+    /**
+     * Check that the interned parse of real Lutece versions gives the same versions as the single scan parse, and
+     * always the same instance
+     */
+    @Test
+    public void testParseCorpus( ) throws VersionParsingException
+    {
+        System.out.println( "parseCorpus" );
+        for ( String strVersion : VERSIONS_CORPUS )
+        {
+            Version version = Version.parse( strVersion );
+            Version uncached = Version.parseUncached( strVersion );
+            assertNotSame( version, uncached );
+            assertEquals( uncached, version );
+            assertEquals( 0, uncached.compareTo( version ) );
+            assertEquals( uncached.getVersion( ), version.getVersion( ) );
+            assertEquals( uncached.getQualifier( ), version.getQualifier( ) );
+            assertSame( version, Version.parse( strVersion ) );
+        }
+    }
+
+    /**
+     * Test of compareTo method, of class Version.
+     * 
+     * @throws fr.paris.lutece.plugins.releaser.util.version.VersionParsingException
+     */
+    @Test
+    public void testCompareTo( ) throws VersionParsingException
+    {
+        System.out.println( "compareTo" );
+        String [ ] ordered = {
+                "1.0.0-alpha-1", "1.0.0-beta-2", "1.0.0-RC-02", "1.0.0-RC-10", "1.0.0-SNAPSHOT", "1.0.0", "1.0.0-sp-1", "1.0.1", "1.0.9",
+                "1.0.10", "1.1.0", "2.0.0-RC-01-SNAPSHOT", "2.0.0-RC-01", "100000.0.0"
+        };
+        for ( int i = 0; i < ordered.length - 1; i++ )
+        {
+            Version older = Version.parse( ordered [i] );
+            Version newer = Version.parse( ordered [i + 1] );
+            assertTrue( ordered [i] + " < " + ordered [i + 1], older.compareTo( newer ) < 0 );
+            assertTrue( ordered [i + 1] + " > " + ordered [i], newer.compareTo( older ) > 0 );
+        }
+        assertEquals( 0, Version.parse( "1.0" ).compareTo( Version.parse( "1.0.0" ) ) );
+        assertEquals( Version.parse( "1.0" ), Version.parse( "1.0.0" ) );
+        assertEquals( Version.parse( "1.0" ).hashCode( ), Version.parse( "1.0.0" ).hashCode( ) );
+        assertEquals( 0, Version.parse( "1.0.0-rc-1" ).compareTo( Version.parse( "1.0.0-RC-01" ) ) );
+    }
+
+    /**
+     * Test of sortVersions and getLatestVersion methods, of class Version.
+     */
+    @Test
+    public void testSortVersions( )
+    {
+        System.out.println( "sortVersions" );
+        List<String> listSources = Arrays.asList( "1.0.10", "1.0.9", "not-a-version", "1.0.10-RC-02", "1.0.2", "1.0.10-RC-10" );
+        List<Version> listVersions = Version.sortVersions( listSources );
+        assertEquals( 5, listVersions.size( ) );
+        assertEquals( "1.0.2", listVersions.get( 0 ).getVersion( ) );
+        assertEquals( "1.0.9", listVersions.get( 1 ).getVersion( ) );
+        assertEquals( "1.0.10-RC-02", listVersions.get( 2 ).getVersion( ) );
+        assertEquals( "1.0.10-RC-10", listVersions.get( 3 ).getVersion( ) );
+        assertEquals( "1.0.10", listVersions.get( 4 ).getVersion( ) );
+
+        assertEquals( "1.0.10", Version.getLatestVersion( listSources ).getVersion( ) );
+        assertNull( Version.getLatestVersion( Arrays.asList( "trunk", "branches" ) ) );
+    }
 }
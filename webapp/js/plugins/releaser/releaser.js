@@ -1 +1 @@
-/*$.notify.addStyle('releaser', {  html: "<h1><span data-notify-text/></h1>",  classes: {    base: {      "white-space": "nowrap",      "color": "white",      "background-color": "green",      "padding": "10px 15px",      "margin-left": "15vw"    },    problem: {      "background-color": "red"    }  }});*/ toastr.options = {"closeButton": true,"positionClass": "toast-top-right", "newestOnTop": true, "preventDuplicates": false,				"showDuration": "300", "hideDuration": "1000", "timeOut": "5000", "extendedTimeOut": "1000", 				"showEasing": "swing", "hideEasing": "linear", "showMethod": "fadeIn", "hideMethod": "fadeOut"				};				function callReleaseInfo( nIdReleaseContext,progressId,artifactId){    $.ajax({        url: "jsp/admin/plugins/releaser/ReleaseComponentSiteJson.jsp?view=releaseInfoJson&id_context="+nIdReleaseContext,        type: "GET",        dataType : "json",        success: function( data ) {         if (data.status == 'OK') {           if(data.result.commandResult)              {                 if(artifactId==artifactIdInProgress)                {					$("#console_wf_log").html(data.result.commandResult.log);					$("#console_wf_log").animate({ scrollTop: $("#console_wf_log")[0].scrollHeight}, "slow");                }               if ( data.result.commandResult.running )               {					/* still running */					setTimeout(  function(){ callReleaseInfo(nIdReleaseContext,progressId,artifactId);}, 5000 );               }               else              {               if(data.result.commandResult.status==1)                {                 $('#info-'+artifactId).html('<div class="label label-success"><i class="fa fa-check"></i> Version releasée ! </div>');                 /* $( '#histo-'+artifactId ).notify("Release ok", { position:"right", style:"releaser" } ); */				txt = " Release du composant <strong>" + $('#name-'+artifactId).text() +"</strong> effectuée !"; 				toastr["success"]( txt, "Information");                 $( '#deploy_site_release-'+artifactId).show();               }               else if (data.result.commandResult.errorType==0)               {                 $('#info-'+artifactId).html('<div class="label label-success"><i class="fa fa-info"></i> Version releasée !(Erreur non bloquante voir les logs) </div>');                 /* $( '#histo-'+artifactId ).notify("Une erreur est intervenue..", { position:"right", style:"releaser", className:"problem" } ); */				 txt = " Une erreur non bloquante de release est survenue pour le composant <strong>" + $('#name-'+artifactId).text() + "</strong>"; 				 toastr["success"]( txt, "Information");               }               else               {            	   $('#info-'+artifactId).html('<div class="label label-danger"><i class="fa fa-warning"></i> Erreur de release </div>');                   /* $( '#histo-'+artifactId ).notify("Une erreur est intervenue..", { position:"right", style:"releaser", className:"problem" } ); */  				   txt = " Une erreur de release est survenue pour le composant <strong>" + $('#name-'+artifactId).text() + "</strong>";   				   toastr["error"]( txt, "Information");                   }               $(progressId).hide();            }             $( progressId +" .progress-bar").attr("style","width:"+data.result.commandResult.progressValue+"%");            }             else            {			/*reload*/			setTimeout(  function(){callReleaseInfo(nIdReleaseContext,progressId,artifactId);}, 5000 );		   }      }      else if ( data.status == 'ERROR'  )     {     }    }  });}
\ No newline at end of file
+/*$.notify.addStyle('releaser', {  html: "<h1><span data-notify-text/></h1>",  classes: {    base: {      "white-space": "nowrap",      "color": "white",      "background-color": "green",      "padding": "10px 15px",      "margin-left": "15vw"    },    problem: {      "background-color": "red"    }  }});*/ toastr.options = {"closeButton": true,"positionClass": "toast-top-right", "newestOnTop": true, "preventDuplicates": false,				"showDuration": "300", "hideDuration": "1000", "timeOut": "5000", "extendedTimeOut": "1000", 				"showEasing": "swing", "hideEasing": "linear", "showMethod": "fadeIn", "hideMethod": "fadeOut"				};				/* releases displayed in the page by release context id, and the single progress stream of all of them */var releaseContexts = {};var releaseStream = null;var releaseStreamTimer = null;function callReleaseInfo( nIdReleaseContext,progressId,artifactId){    if ( !window.EventSource )    {        pollReleaseInfo( nIdReleaseContext,progressId,artifactId );        return;    }    releaseContexts[nIdReleaseContext] = { progressId: progressId, artifactId: artifactId };    /* the releases registered together are streamed over one connection, the browser limits the connections per host */    clearTimeout( releaseStreamTimer );    releaseStreamTimer = setTimeout( openReleaseStream, 0 );}function openReleaseStream(){    if ( releaseStream )    {        releaseStream.close();        releaseStream = null;    }    var contextIds = [];    var offsets = [];    for ( var nIdReleaseContext in releaseContexts )    {        contextIds.push( nIdReleaseContext );        /* the log is only streamed from its beginning for the release displayed in the console */        offsets.push( ( releaseContexts[nIdReleaseContext].artifactId==artifactIdInProgress ) ? 0 : -1 );    }    if ( contextIds.length == 0 )    {        return;    }    var stream = new EventSource( "servlet/plugins/releaser/progress?id_context="+contextIds.join(",")+"&offset="+offsets.join(",") );    releaseStream = stream;    stream.addEventListener( "progress", function( event ) {        var result = JSON.parse( event.data );        var release = releaseContexts[result.idContext];        if ( !release )        {            /* already finished */            return;        }        if ( !result.running )        {            delete releaseContexts[result.idContext];            if ( $.isEmptyObject( releaseContexts ) )            {                stream.close();                releaseStream = null;            }        }        showReleaseProgress( result,release.progressId,release.artifactId );    });}function pollReleaseInfo( nIdReleaseContext,progressId,artifactId){    /* only the log appended since the offset already displayed is requested, -1 requests the state without log */    var offset = -1;    if ( artifactId==artifactIdInProgress )    {        offset = getConsoleLogOffset( artifactId );    }    $.ajax({        url: "jsp/admin/plugins/releaser/ReleaseComponentSiteJson.jsp?view=releaseProgressJson&id_context="+nIdReleaseContext+"&offset="+offset,        type: "GET",        dataType : "json",        success: function( data ) {         if (data.status == 'OK') {           if(data.result)              {               showReleaseProgress( data.result,progressId,artifactId );               if ( data.result.running )               {					/* still running */					setTimeout(  function(){ pollReleaseInfo(nIdReleaseContext,progressId,artifactId);}, 5000 );               }            }             else            {			/*reload*/			setTimeout(  function(){pollReleaseInfo(nIdReleaseContext,progressId,artifactId);}, 5000 );		   }      }      else if ( data.status == 'ERROR'  )     {     }    }  });}function getConsoleLogOffset( artifactId ){    var consoleLog = $("#console_wf_log");    /* the console is emptied when a log is opened : read the log from its beginning */    if ( consoleLog.data("artifactId") != artifactId || $.trim( consoleLog.text() ) == "" )    {        consoleLog.data("artifactId",artifactId);        consoleLog.data("offset",0);    }    return consoleLog.data("offset");}function appendReleaseLog( result,artifactId ){    if ( artifactId!=artifactIdInProgress )    {        return;    }    var consoleLog = $("#console_wf_log");    var offset = getConsoleLogOffset( artifactId );    /* a log starting after the console offset is only displayed if the missing part is no longer available */    if ( result.nextOffset <= offset || ( result.offset > offset && !result.truncated ) )    {        return;    }    if ( result.truncated )    {        consoleLog.append( document.createTextNode( "[...]\n" ) );    }    consoleLog.append( document.createTextNode( result.log.substring( Math.max( 0, offset - result.offset ) ) ) );    consoleLog.data("offset",result.nextOffset);    consoleLog.animate({ scrollTop: consoleLog[0].scrollHeight}, "slow");}function showReleaseProgress( result,progressId,artifactId ){               appendReleaseLog( result,artifactId );               if ( !result.running )              {               if(result.status==1)                {                 $('#info-'+artifactId).html('<div class="label label-success"><i class="fa fa-check"></i> Version releasée ! </div>');                 /* $( '#histo-'+artifactId ).notify("Release ok", { position:"right", style:"releaser" } ); */				txt = " Release du composant <strong>" + $('#name-'+artifactId).text() +"</strong> effectuée !"; 				toastr["success"]( txt, "Information");                 $( '#deploy_site_release-'+artifactId).show();               }               else if (result.errorType==0)               {                 $('#info-'+artifactId).html('<div class="label label-success"><i class="fa fa-info"></i> Version releasée !(Erreur non bloquante voir les logs) </div>');                 /* $( '#histo-'+artifactId ).notify("Une erreur est intervenue..", { position:"right", style:"releaser", className:"problem" } ); */				 txt = " Une erreur non bloquante de release est survenue pour le composant <strong>" + $('#name-'+artifactId).text() + "</strong>"; 				 toastr["success"]( txt, "Information");               }               else               {            	   $('#info-'+artifactId).html('<div class="label label-danger"><i class="fa fa-warning"></i> Erreur de release </div>');                   /* $( '#histo-'+artifactId ).notify("Une erreur est intervenue..", { position:"right", style:"releaser", className:"problem" } ); */  				   txt = " Une erreur de release est survenue pour le composant <strong>" + $('#name-'+artifactId).text() + "</strong>";   				   toastr["error"]( txt, "Information");                   }               $(progressId).hide();            }             $( progressId +" .progress-bar").attr("style","width:"+result.progressValue+"%");}
\ No newline at end of file